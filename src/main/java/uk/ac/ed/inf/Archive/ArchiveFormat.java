@@ -0,0 +1,223 @@
+package uk.ac.ed.inf.Archive;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.FlightPaths.LngLatHandler;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The layout of a flight path archive, shared by {@link FlightPathArchiveWriter} and {@link FlightPathArchive}.
+ * <p>
+ * An archive holds the flight path of one day. It starts with a header of {@link #HEADER_SIZE} bytes: a magic number,
+ * the version, the width of the keys in the index, the date as an epoch day, the number of index entries and the
+ * number of moves. The index follows, with an entry for each run of consecutive moves of the same order, sorted by
+ * order number: the order number padded with zeros to the key width, the offset of the run's first move, and the
+ * number of moves in the run. The moves of the day follow in flight order.
+ * <p>
+ * Each move starts with a code byte. Its low five bits hold the direction, which is a compass direction, a hover, or
+ * an angle stored after the code. The rest of the code says how the coordinates are stored. The start of a move is
+ * either the end of the previous move, or an anchor coordinate stored after the code, which the first move of every
+ * run has. The end of a move is either one step from its start in its direction, one step in the opposite direction,
+ * the same as its start, or stored explicitly. A typical move is therefore stored in a single byte, and every move is
+ * read back exactly as it was written.
+ */
+final class ArchiveFormat {
+    /**
+     * The number at the start of every archive, which is "PDFA" in ASCII.
+     */
+    static final int    MAGIC            = 0x50444641;
+    /**
+     * The version of the format.
+     */
+    static final short  VERSION          = 1;
+    /**
+     * The size of the header, in bytes.
+     */
+    static final int    HEADER_SIZE      = 24;
+    /**
+     * The longest order number which can be stored, in bytes.
+     */
+    static final int    MAX_KEY_WIDTH    = 255;
+    /**
+     * The size of an index entry after its key, in bytes.
+     */
+    static final int    ENTRY_FIXED_SIZE = 8;
+    /**
+     * The size of a coordinate, in bytes.
+     */
+    static final int    COORDINATE_SIZE  = 16;
+    /**
+     * The direction of a hover.
+     */
+    static final int    HOVER            = 16;
+    /**
+     * The direction of a move whose angle is stored after the code.
+     */
+    static final int    OTHER_ANGLE      = 31;
+    /**
+     * The bits of the code which hold the direction.
+     */
+    static final int    DIRECTION_MASK   = 0x1F;
+    /**
+     * The bit of the code which is set when the start of the move is stored as an anchor.
+     */
+    static final int    ANCHOR           = 0x20;
+    /**
+     * The bits of the code which say how the end of the move is stored.
+     */
+    static final int    END_MASK         = 0xC0;
+    /**
+     * The end of the move is one step from its start in its direction.
+     */
+    static final int    END_FORWARD      = 0x00;
+    /**
+     * The end of the move is one step from its start in the opposite direction.
+     */
+    static final int    END_BACKWARD     = 0x40;
+    /**
+     * The end of the move is the same as its start.
+     */
+    static final int    END_SAME         = 0x80;
+    /**
+     * The end of the move is stored after its start.
+     */
+    static final int    END_EXPLICIT     = 0xC0;
+    /**
+     * The angle between two compass directions.
+     */
+    static final double COMPASS_STEP     = 22.5;
+
+    /**
+     * Stores the handler which works out the end of a move, as the flight path generator does.
+     */
+    private static final LngLatHandler HANDLER = new LngLatHandler();
+
+    /**
+     * This class only has static members, so cannot be instantiated.
+     */
+    private ArchiveFormat() {}
+
+    /**
+     * Gets the size of an index entry.
+     *
+     * @param keyWidth The width of the keys in the index.
+     *
+     * @return The size of the entry, in bytes.
+     */
+    static int entrySize(int keyWidth) {
+        return keyWidth + ENTRY_FIXED_SIZE;
+    }
+
+    /**
+     * Gets the key an order number is stored under in the index. A null order number is stored as an empty key.
+     *
+     * @param orderNo The order number.
+     *
+     * @return The key.
+     */
+    static byte[] key(String orderNo) {
+        return orderNo == null ? new byte[0] : orderNo.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Works out the code a move is stored with.
+     *
+     * @param node       The move.
+     * @param previousTo The end of the previous move of the same run, or null if the move starts a run.
+     *
+     * @return The code of the move.
+     */
+    static int encode(FlightPathNode node, LngLat previousTo) {
+        int    direction = direction(node.angle());
+        LngLat from      = node.fromCoordinate();
+        LngLat to        = node.toCoordinate();
+        int    code      = direction;
+        if (previousTo == null || !sameCoordinate(from, previousTo)) code |= ANCHOR;
+
+        if (direction != HOVER && sameCoordinate(to, step(from, node.angle()))) code |= END_FORWARD;
+        else if (direction != HOVER && sameCoordinate(to, step(from, node.angle() + 180))) code |= END_BACKWARD;
+        else if (sameCoordinate(to, from)) code |= END_SAME;
+        else code |= END_EXPLICIT;
+        return code;
+    }
+
+    /**
+     * Gets the size of a move stored with the given code.
+     *
+     * @param code The code of the move.
+     *
+     * @return The size of the move, in bytes.
+     */
+    static int recordSize(int code) {
+        int size = 1;
+        if ((code & DIRECTION_MASK) == OTHER_ANGLE) size += Double.BYTES;
+        if ((code & ANCHOR) != 0) size += COORDINATE_SIZE;
+        if ((code & END_MASK) == END_EXPLICIT) size += COORDINATE_SIZE;
+        return size;
+    }
+
+    /**
+     * Gets the direction an angle is stored as. Only angles which are read back with exactly the same bits are stored
+     * as a compass direction or a hover.
+     *
+     * @param angle The angle of a move.
+     *
+     * @return The direction of the move.
+     */
+    static int direction(double angle) {
+        if (sameBits(angle, FlightPathGenerator.HOVER_ANGLE)) return HOVER;
+        int index = (int) (angle / COMPASS_STEP);
+        if (index >= 0 && index < HOVER && sameBits(angle, index * COMPASS_STEP)) return index;
+        return OTHER_ANGLE;
+    }
+
+    /**
+     * Gets the angle of a compass direction or a hover.
+     *
+     * @param direction The direction, which must not be {@link #OTHER_ANGLE}.
+     *
+     * @return The angle.
+     */
+    static double angle(int direction) {
+        return direction == HOVER ? FlightPathGenerator.HOVER_ANGLE : direction * COMPASS_STEP;
+    }
+
+    /**
+     * Works out the coordinate one step from a coordinate at the given angle, in exactly the same way as the flight
+     * path generator, so that the end of every move it makes is recognised and need not be stored.
+     *
+     * @param from  The coordinate to step from.
+     * @param angle The angle to step at.
+     *
+     * @return The coordinate one step away.
+     */
+    static LngLat step(LngLat from, double angle) {
+        return HANDLER.nextPosition(from, angle);
+    }
+
+    /**
+     * Checks whether two coordinates have exactly the same bits.
+     *
+     * @param first  The first coordinate.
+     * @param second The second coordinate.
+     *
+     * @return Whether the coordinates are the same.
+     */
+    static boolean sameCoordinate(LngLat first, LngLat second) {
+        return sameBits(first.lng(), second.lng()) && sameBits(first.lat(), second.lat());
+    }
+
+    /**
+     * Checks whether two doubles have exactly the same bits.
+     *
+     * @param first  The first double.
+     * @param second The second double.
+     *
+     * @return Whether the doubles are the same.
+     */
+    private static boolean sameBits(double first, double second) {
+        return Double.doubleToRawLongBits(first) == Double.doubleToRawLongBits(second);
+    }
+}
@@ -0,0 +1,16 @@
+package uk.ac.ed.inf.Archive;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+
+import java.time.LocalDate;
+
+/**
+ * The moves of an order found in a flight path archive.
+ *
+ * @param date  The date of the archive the order was found in.
+ * @param moves The moves of the order, in flight order.
+ */
+public record ArchivedFlightPath(
+        LocalDate date,
+        FlightPathNode[] moves
+) {}
@@ -0,0 +1,323 @@
+package uk.ac.ed.inf.Archive;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A flight path archive of a single day, mapped into memory. Looking up an order binary searches the index and decodes
+ * only the moves of that order, so only the pages of the file holding them are read from disk.
+ * <p>
+ * An archive only reads from its buffer with absolute positions, so it can be used by several threads at once.
+ */
+public final class FlightPathArchive {
+    /**
+     * The start of the name of every archive.
+     */
+    public static final String PREFIX    = "flightpath-";
+    /**
+     * The extension of every archive.
+     */
+    public static final String EXTENSION = ".bin";
+
+    /**
+     * Stores the mapped contents of the archive.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Stores the date of the flight path.
+     */
+    private final LocalDate  date;
+    /**
+     * Stores the width of the keys in the index.
+     */
+    private final int        keyWidth;
+    /**
+     * Stores the number of entries in the index.
+     */
+    private final int        entryCount;
+    /**
+     * Stores the number of moves in the flight path.
+     */
+    private final int        moveCount;
+
+    /**
+     * Creates an instance of the {@link FlightPathArchive} class.
+     *
+     * @param buffer The mapped contents of the archive, whose header has been checked.
+     */
+    private FlightPathArchive(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.keyWidth = buffer.getShort(6);
+        this.date = LocalDate.ofEpochDay(buffer.getLong(8));
+        this.entryCount = buffer.getInt(16);
+        this.moveCount = buffer.getInt(20);
+    }
+
+    /**
+     * Gets the name of the archive for the given date.
+     *
+     * @param date The date of the archive.
+     *
+     * @return The name of the file.
+     */
+    public static String fileName(LocalDate date) {
+        return PREFIX + date + EXTENSION;
+    }
+
+    /**
+     * Maps an archive into memory. The file is not read until it is looked up, other than its header.
+     *
+     * @param file The path of the archive.
+     *
+     * @return The archive.
+     *
+     * @throws IOException If the file could not be mapped, or is not a flight path archive.
+     */
+    public static FlightPathArchive open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException(file + " is too large to be an archive.");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < ArchiveFormat.HEADER_SIZE || buffer.getInt(0) != ArchiveFormat.MAGIC) {
+            throw new IOException(file + " is not a flight path archive.");
+        }
+        if (buffer.getShort(4) != ArchiveFormat.VERSION) {
+            throw new IOException(file + " has unsupported archive version " + buffer.getShort(4) + ".");
+        }
+        return new FlightPathArchive(buffer);
+    }
+
+    /**
+     * Gets the date of the flight path.
+     *
+     * @return The date.
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the number of moves in the flight path.
+     *
+     * @return The number of moves.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Checks whether the flight path has any moves for the given order.
+     *
+     * @param orderNo The order number.
+     *
+     * @return Whether the order is in the archive.
+     */
+    public boolean contains(String orderNo) {
+        byte[] key = ArchiveFormat.key(orderNo);
+        if (key.length > keyWidth) return false;
+        int entry = lowerBound(key);
+        return entry < entryCount && compareKey(entry, key) == 0;
+    }
+
+    /**
+     * Gets the moves of the given order, in flight order.
+     *
+     * @param orderNo The order number.
+     *
+     * @return The moves of the order, which is empty if the order is not in the archive.
+     */
+    public FlightPathNode[] find(String orderNo) {
+        byte[] key = ArchiveFormat.key(orderNo);
+        if (key.length > keyWidth) return new FlightPathNode[0];
+
+        // Entries with the same order number are sorted by position, so the runs are found in flight order.
+        var runs = new ArrayList<int[]>();
+        int size = 0;
+        for (int entry = lowerBound(key); entry < entryCount && compareKey(entry, key) == 0; entry++) {
+            runs.add(new int[] { entryOffset(entry), entryMoveCount(entry) });
+            size += entryMoveCount(entry);
+        }
+
+        var moves    = new FlightPathNode[size];
+        int position = 0;
+        for (int[] run : runs) {
+            decode(run[0], run[1], orderNo, moves, position);
+            position += run[1];
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the whole flight path of the day.
+     *
+     * @return The flight path.
+     */
+    public FlightPathNode[] readAll() {
+        Integer[] entries = new Integer[entryCount];
+        for (int i = 0; i < entryCount; i++)
+            entries[i] = i;
+        Arrays.sort(entries, Comparator.comparingInt(this::entryOffset));
+
+        var moves    = new FlightPathNode[moveCount];
+        int position = 0;
+        for (int entry : entries) {
+            decode(entryOffset(entry), entryMoveCount(entry), entryOrderNo(entry), moves, position);
+            position += entryMoveCount(entry);
+        }
+        return moves;
+    }
+
+    /**
+     * Finds the first index entry whose key is not less than the given key.
+     *
+     * @param key The key to search for.
+     *
+     * @return The index of the entry, which is the number of entries if every key is less.
+     */
+    private int lowerBound(byte[] key) {
+        int low  = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(middle, key) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key of an index entry with the given key, padded with zeros to the key width.
+     *
+     * @param entry The index of the entry.
+     * @param key   The key, which is no wider than the key width.
+     *
+     * @return A negative number, zero or a positive number as the entry's key is less than, equal to or greater than
+     *         the given key.
+     */
+    private int compareKey(int entry, byte[] key) {
+        int position = entryPosition(entry);
+        for (int i = 0; i < keyWidth; i++) {
+            int stored = buffer.get(position + i) & 0xFF;
+            int wanted = i < key.length ? key[i] & 0xFF : 0;
+            if (stored != wanted) return stored - wanted;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the position of an index entry in the archive.
+     *
+     * @param entry The index of the entry.
+     *
+     * @return The position of the entry.
+     */
+    private int entryPosition(int entry) {
+        return ArchiveFormat.HEADER_SIZE + entry * ArchiveFormat.entrySize(keyWidth);
+    }
+
+    /**
+     * Gets the offset of the first move of the run of an index entry.
+     *
+     * @param entry The index of the entry.
+     *
+     * @return The offset of the first move in the archive.
+     */
+    private int entryOffset(int entry) {
+        return buffer.getInt(entryPosition(entry) + keyWidth);
+    }
+
+    /**
+     * Gets the number of moves in the run of an index entry.
+     *
+     * @param entry The index of the entry.
+     *
+     * @return The number of moves.
+     */
+    private int entryMoveCount(int entry) {
+        return buffer.getInt(entryPosition(entry) + keyWidth + Integer.BYTES);
+    }
+
+    /**
+     * Gets the order number of an index entry.
+     *
+     * @param entry The index of the entry.
+     *
+     * @return The order number, or null if it was stored as an empty key.
+     */
+    private String entryOrderNo(int entry) {
+        var key = new byte[keyWidth];
+        buffer.get(entryPosition(entry), key);
+        int length = 0;
+        while (length < keyWidth && key[length] != 0)
+            length++;
+        return length == 0 ? null : new String(key, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a run of moves.
+     *
+     * @param offset  The offset of the first move in the archive.
+     * @param count   The number of moves in the run.
+     * @param orderNo The order number of the moves.
+     * @param moves   The array to decode the moves into.
+     * @param start   The index in the array of the first move.
+     */
+    private void decode(int offset, int count, String orderNo, FlightPathNode[] moves, int start) {
+        int    position = offset;
+        LngLat previous = null;
+        for (int i = start; i < start + count; i++) {
+            int code      = buffer.get(position++);
+            int direction = code & ArchiveFormat.DIRECTION_MASK;
+
+            double angle;
+            if (direction == ArchiveFormat.OTHER_ANGLE) {
+                angle = buffer.getDouble(position);
+                position += Double.BYTES;
+            } else {
+                angle = ArchiveFormat.angle(direction);
+            }
+
+            LngLat from = previous;
+            if ((code & ArchiveFormat.ANCHOR) != 0) {
+                from = getCoordinate(position);
+                position += ArchiveFormat.COORDINATE_SIZE;
+            }
+
+            LngLat to = switch (code & ArchiveFormat.END_MASK) {
+                case ArchiveFormat.END_FORWARD -> ArchiveFormat.step(from, angle);
+                case ArchiveFormat.END_BACKWARD -> ArchiveFormat.step(from, angle + 180);
+                case ArchiveFormat.END_SAME -> from;
+                default -> {
+                    position += ArchiveFormat.COORDINATE_SIZE;
+                    yield getCoordinate(position - ArchiveFormat.COORDINATE_SIZE);
+                }
+            };
+
+            moves[i] = new FlightPathNode(orderNo, from, angle, to);
+            previous = to;
+        }
+    }
+
+    /**
+     * Reads a coordinate.
+     *
+     * @param position The position of the coordinate in the archive.
+     *
+     * @return The coordinate.
+     */
+    private LngLat getCoordinate(int position) {
+        return new LngLat(buffer.getDouble(position), buffer.getDouble(position + Double.BYTES));
+    }
+}
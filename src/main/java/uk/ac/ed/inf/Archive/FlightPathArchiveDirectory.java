@@ -0,0 +1,140 @@
+package uk.ac.ed.inf.Archive;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Looks up flight paths in the archives of a directory, written next to the other output files of each day. Only the
+ * archives of the dates asked for are mapped, and only the index and the moves of the orders asked for are read.
+ */
+public class FlightPathArchiveDirectory {
+    /**
+     * Stores the directory the archives are in.
+     */
+    private final Path directory;
+
+    /**
+     * Creates an instance of the {@link FlightPathArchiveDirectory} class.
+     *
+     * @param directory The directory the archives are in.
+     */
+    public FlightPathArchiveDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the dates which have an archive in the directory.
+     *
+     * @return The dates, in ascending order.
+     *
+     * @throws IOException If the directory could not be listed.
+     */
+    public List<LocalDate> getDates() throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        var dates = new ArrayList<LocalDate>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(FlightPathArchive.PREFIX) || !name.endsWith(FlightPathArchive.EXTENSION)) {
+                    continue;
+                }
+                try {
+                    dates.add(LocalDate.parse(name.substring(FlightPathArchive.PREFIX.length(),
+                                                             name.length() - FlightPathArchive.EXTENSION.length())));
+                } catch (DateTimeParseException ignored) {
+                    // Not an archive written by the application.
+                }
+            }
+        }
+        dates.sort(null);
+        return dates;
+    }
+
+    /**
+     * Maps the archive of the given date.
+     *
+     * @param date The date of the archive.
+     *
+     * @return The archive, or null if there is no archive for the date.
+     *
+     * @throws IOException If the archive could not be mapped.
+     */
+    public FlightPathArchive open(LocalDate date) throws IOException {
+        Path file = directory.resolve(FlightPathArchive.fileName(date));
+        return Files.exists(file) ? FlightPathArchive.open(file) : null;
+    }
+
+    /**
+     * Reads the whole flight paths of every archived day in a range.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range, inclusive.
+     *
+     * @return The flight path of each archived day in the range, by date.
+     *
+     * @throws IOException If an archive could not be read.
+     */
+    public SortedMap<LocalDate, FlightPathNode[]> readRange(LocalDate from, LocalDate to) throws IOException {
+        var flightPaths = new TreeMap<LocalDate, FlightPathNode[]>();
+        for (LocalDate date : getDates(from, to))
+            flightPaths.put(date, open(date).readAll());
+        return flightPaths;
+    }
+
+    /**
+     * Finds the moves of an order in the archives of a range of dates, searching the earliest date first.
+     *
+     * @param orderNo The order number.
+     * @param from    The first date of the range.
+     * @param to      The last date of the range, inclusive.
+     *
+     * @return The moves of the order and the date they were found on, or null if no archive in the range has the
+     *         order.
+     *
+     * @throws IOException If an archive could not be read.
+     */
+    public ArchivedFlightPath find(String orderNo, LocalDate from, LocalDate to) throws IOException {
+        for (LocalDate date : getDates(from, to)) {
+            FlightPathNode[] moves = open(date).find(orderNo);
+            if (moves.length > 0) return new ArchivedFlightPath(date, moves);
+        }
+        return null;
+    }
+
+    /**
+     * Finds the moves of an order in every archive of the directory, searching the earliest date first.
+     *
+     * @param orderNo The order number.
+     *
+     * @return The moves of the order and the date they were found on, or null if no archive has the order.
+     *
+     * @throws IOException If an archive could not be read.
+     */
+    public ArchivedFlightPath find(String orderNo) throws IOException {
+        return find(orderNo, LocalDate.MIN, LocalDate.MAX);
+    }
+
+    /**
+     * Gets the dates in a range which have an archive in the directory.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range, inclusive.
+     *
+     * @return The dates, in ascending order.
+     *
+     * @throws IOException If the directory could not be listed.
+     */
+    private List<LocalDate> getDates(LocalDate from, LocalDate to) throws IOException {
+        return getDates().stream().filter(date -> !date.isBefore(from) && !date.isAfter(to)).toList();
+    }
+}
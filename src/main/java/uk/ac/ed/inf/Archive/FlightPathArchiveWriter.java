@@ -0,0 +1,162 @@
+package uk.ac.ed.inf.Archive;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes the flight path of a day to a binary archive, in the format described by {@link ArchiveFormat}.
+ */
+public final class FlightPathArchiveWriter {
+    /**
+     * This class only has static methods, so cannot be instantiated.
+     */
+    private FlightPathArchiveWriter() {}
+
+    /**
+     * Writes an archive of the flight path of a day. The archive is written next to the file and then moved over it,
+     * so that a reader which has the old archive mapped keeps seeing it intact.
+     *
+     * @param file       The path of the archive.
+     * @param date       The date of the flight path.
+     * @param flightPath The flight path.
+     *
+     * @return The path of the archive.
+     *
+     * @throws IOException              If the archive could not be written.
+     * @throws IllegalArgumentException If an order number is too long, or the archive would be too large to map.
+     */
+    public static Path write(Path file, LocalDate date, FlightPathNode[] flightPath) throws IOException {
+        // Work out how every move is stored, and where each run of moves of an order starts, before sizing the file.
+        var  codes     = new byte[flightPath.length];
+        var  runs      = new ArrayList<Run>();
+        int  keyWidth  = 0;
+        long movesSize = 0;
+        for (int i = 0; i < flightPath.length; i++) {
+            FlightPathNode node     = flightPath[i];
+            boolean        runStart = i == 0 || !Objects.equals(node.orderNo(), flightPath[i - 1].orderNo());
+            if (runStart) {
+                byte[] key = ArchiveFormat.key(node.orderNo());
+                if (key.length > ArchiveFormat.MAX_KEY_WIDTH) {
+                    throw new IllegalArgumentException("The order number " + node.orderNo()
+                                                       + " is too long to archive.");
+                }
+                keyWidth = Math.max(keyWidth, key.length);
+                runs.add(new Run(key, movesSize, countRun(flightPath, i)));
+            }
+            LngLat previousTo = runStart ? null : flightPath[i - 1].toCoordinate();
+            codes[i] = (byte) ArchiveFormat.encode(node, previousTo);
+            movesSize += ArchiveFormat.recordSize(codes[i]);
+        }
+
+        int  entrySize   = ArchiveFormat.entrySize(keyWidth);
+        long movesOffset = ArchiveFormat.HEADER_SIZE + (long) runs.size() * entrySize;
+        if (movesOffset + movesSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The flight path is too long to archive.");
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary,
+                                            StandardOpenOption.CREATE,
+                                            StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE,
+                                            StandardOpenOption.TRUNCATE_EXISTING
+                                           )) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, movesOffset + movesSize);
+            buffer.putInt(ArchiveFormat.MAGIC)
+                  .putShort(ArchiveFormat.VERSION)
+                  .putShort((short) keyWidth)
+                  .putLong(date.toEpochDay())
+                  .putInt(runs.size())
+                  .putInt(flightPath.length);
+            writeIndex(buffer, runs, keyWidth, (int) movesOffset);
+            for (int i = 0; i < flightPath.length; i++)
+                writeMove(buffer, flightPath[i], codes[i]);
+        }
+        return Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Counts the moves of the run starting at the given move.
+     *
+     * @param flightPath The flight path.
+     * @param start      The index of the first move of the run.
+     *
+     * @return The number of moves in the run.
+     */
+    private static int countRun(FlightPathNode[] flightPath, int start) {
+        int end = start + 1;
+        while (end < flightPath.length && Objects.equals(flightPath[end].orderNo(), flightPath[start].orderNo()))
+            end++;
+        return end - start;
+    }
+
+    /**
+     * Writes the index, sorted by order number and then by position in the flight path.
+     *
+     * @param buffer      The buffer to write to.
+     * @param runs        The runs of moves, in flight order.
+     * @param keyWidth    The width of the keys.
+     * @param movesOffset The offset of the first move in the archive.
+     */
+    private static void writeIndex(MappedByteBuffer buffer, List<Run> runs, int keyWidth, int movesOffset) {
+        var padding = new byte[keyWidth];
+        var sorted  = runs.stream()
+                          .sorted(Comparator.comparing(Run::key, Arrays::compareUnsigned)
+                                            .thenComparingLong(Run::offset))
+                          .toList();
+        for (Run run : sorted) {
+            buffer.put(run.key())
+                  .put(padding, 0, keyWidth - run.key().length)
+                  .putInt(movesOffset + (int) run.offset())
+                  .putInt(run.count());
+        }
+    }
+
+    /**
+     * Writes a move.
+     *
+     * @param buffer The buffer to write to.
+     * @param node   The move.
+     * @param code   The code the move is stored with.
+     */
+    private static void writeMove(MappedByteBuffer buffer, FlightPathNode node, byte code) {
+        buffer.put(code);
+        if ((code & ArchiveFormat.DIRECTION_MASK) == ArchiveFormat.OTHER_ANGLE) buffer.putDouble(node.angle());
+        if ((code & ArchiveFormat.ANCHOR) != 0) putCoordinate(buffer, node.fromCoordinate());
+        if ((code & ArchiveFormat.END_MASK) == ArchiveFormat.END_EXPLICIT) putCoordinate(buffer, node.toCoordinate());
+    }
+
+    /**
+     * Writes a coordinate.
+     *
+     * @param buffer     The buffer to write to.
+     * @param coordinate The coordinate.
+     */
+    private static void putCoordinate(MappedByteBuffer buffer, LngLat coordinate) {
+        buffer.putDouble(coordinate.lng()).putDouble(coordinate.lat());
+    }
+
+    /**
+     * A run of consecutive moves of the same order.
+     *
+     * @param key    The key of the order number.
+     * @param offset The offset of the first move of the run from the start of the moves.
+     * @param count  The number of moves in the run.
+     */
+    private record Run(byte[] key, long offset, int count) {}
+}
@@ -0,0 +1,231 @@
+package uk.ac.ed.inf.Checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The progress of a run over many dates, kept so that a run which stops part way can be resumed without redoing the
+ * dates, or the phases of a date, which it had already finished.
+ * <p>
+ * The journal is a text file with one line per phase finished, of the form {@code <date> <phase>}. Each line is
+ * appended and forced to disk as the phase finishes, and the lines are replayed in order when the journal is opened
+ * again. A line which was only partly written when the run stopped is dropped.
+ */
+public class BackfillJournal implements AutoCloseable {
+    /**
+     * The name of the journal file.
+     */
+    public static final String FILE_NAME = "backfill.journal";
+
+    /**
+     * Stores the last phase finished by each date.
+     */
+    private final Map<LocalDate, Phase> phases = new HashMap<>();
+    /**
+     * Stores the path of the journal.
+     */
+    private final Path                  path;
+    /**
+     * Stores the channel the lines are appended to.
+     */
+    private final FileChannel           channel;
+
+    /**
+     * Creates an instance of the {@link BackfillJournal} class.
+     *
+     * @param path    The path of the journal.
+     * @param channel The channel to append the lines to.
+     */
+    private BackfillJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the journal in a directory, replaying the phases recorded by earlier runs, or creates an empty one if there
+     * is none.
+     *
+     * @param directory The directory the journal is kept in.
+     *
+     * @return The journal.
+     *
+     * @throws IOException If the journal could not be read or opened, or one of its lines is not a phase of a date.
+     */
+    public static BackfillJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path        path    = directory.resolve(FILE_NAME);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            var    journal = new BackfillJournal(path, channel);
+            String text    = Files.readString(path, StandardCharsets.US_ASCII);
+            // Anything after the last line break was cut off part way through being written.
+            int      end   = text.lastIndexOf('\n') + 1;
+            String[] lines = text.substring(0, end).split("\n");
+            for (int i = 0; i < lines.length; i++) {
+                if (lines[i].isEmpty()) continue;
+                journal.replay(lines[i], i + 1);
+            }
+            channel.truncate(end);
+            channel.position(end);
+            return journal;
+        } catch (IOException | RuntimeException err) {
+            channel.close();
+            throw err;
+        }
+    }
+
+    /**
+     * Replays a line of the journal.
+     *
+     * @param line   The line.
+     * @param number The number of the line, counting from 1.
+     *
+     * @throws IOException If the line is not a phase of a date.
+     */
+    private void replay(String line, int number) throws IOException {
+        int separator = line.indexOf(' ');
+        try {
+            if (separator < 0) throw new IllegalArgumentException();
+            advance(LocalDate.parse(line.substring(0, separator)), Phase.valueOf(line.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException err) {
+            throw new IOException(path + " is not a journal, as line " + number + " is not a phase of a date.");
+        }
+    }
+
+    /**
+     * Gets the path of the journal.
+     *
+     * @return The path.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the last phase a date finished.
+     *
+     * @param date The date.
+     *
+     * @return The phase, or null if the date has not finished any.
+     */
+    public synchronized Phase getPhase(LocalDate date) {
+        return phases.get(date);
+    }
+
+    /**
+     * Gets whether a date has finished a phase, either the phase itself or a later one.
+     *
+     * @param date  The date.
+     * @param phase The phase.
+     *
+     * @return Whether the phase is done.
+     */
+    public synchronized boolean isDone(LocalDate date, Phase phase) {
+        Phase done = phases.get(date);
+        return done != null && done.compareTo(phase) >= 0;
+    }
+
+    /**
+     * Records that a date has finished a phase, returning only once the record is on disk.
+     *
+     * @param date  The date.
+     * @param phase The phase.
+     *
+     * @throws IOException If the record could not be written.
+     */
+    public synchronized void record(LocalDate date, Phase phase) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((date + " " + phase + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (line.hasRemaining())
+            channel.write(line);
+        channel.force(false);
+        advance(date, phase);
+    }
+
+    /**
+     * Moves a date on to a phase, unless it has already finished a later one.
+     *
+     * @param date  The date.
+     * @param phase The phase.
+     */
+    private void advance(LocalDate date, Phase phase) {
+        phases.merge(date, phase, (done, next) -> done.compareTo(next) >= 0 ? done : next);
+    }
+
+    /**
+     * Closes the journal and deletes its file, once every date it was kept for has been finished.
+     *
+     * @throws IOException If the journal could not be deleted.
+     */
+    public synchronized void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Deletes the journal once every date of the run has been written, along with the checkpoints which were only
+     * saved for it, so that the next run starts afresh. The journal is kept if any date failed, for the next run to
+     * resume from.
+     *
+     * @param dates           The dates of the run.
+     * @param keepCheckpoints Whether the checkpoints were saved for later runs too, so are kept.
+     *
+     * @return Whether the journal was deleted.
+     *
+     * @throws IOException If the journal or a checkpoint could not be deleted.
+     */
+    public synchronized boolean finish(List<LocalDate> dates, boolean keepCheckpoints) throws IOException {
+        for (LocalDate date : dates) {
+            if (!isDone(date, Phase.WRITTEN)) return false;
+        }
+        if (!keepCheckpoints) {
+            for (LocalDate date : dates)
+                Files.deleteIfExists(path.resolveSibling(DayCheckpoint.fileName(date)));
+        }
+        delete();
+        return true;
+    }
+
+    /**
+     * Closes the journal, leaving its file to be replayed by a later run.
+     *
+     * @throws IOException If the journal could not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The phases each date goes through, in order.
+     */
+    public enum Phase {
+        /**
+         * Every order of the date has been read from the REST server.
+         */
+        FETCHED,
+        /**
+         * Every order of the date has been validated.
+         */
+        VALIDATED,
+        /**
+         * Every valid order of the date has been planned, and the orders and their moves have been saved to the date's
+         * {@link DayCheckpoint}.
+         */
+        PLANNED,
+        /**
+         * The output files of the date have been written.
+         */
+        WRITTEN
+    }
+}
@@ -0,0 +1,296 @@
+package uk.ac.ed.inf.Checkpoint;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The orders of a day which have already been processed, along with their outcomes and the moves of their round trips,
+ * so that a later run of the same day only has to validate and plan the orders which have arrived since.
+ * <p>
+ * A checkpoint is saved as a gzipped binary file. It starts with a magic number, the version, the date as an epoch day
+ * and the number of orders. Each order follows in the order it was processed: whether it has a number and the number
+ * if so, then its status, validation code, cost and number of moves, followed by the coordinates and angle of each
+ * move. The order numbers of the moves are not stored, as they are the number of the order they follow.
+ */
+public class DayCheckpoint {
+    /**
+     * The prefix of the name of every checkpoint file.
+     */
+    public static final  String PREFIX    = "checkpoint-";
+    /**
+     * The extension of every checkpoint file.
+     */
+    public static final  String EXTENSION = ".bin.gz";
+    /**
+     * The number at the start of every checkpoint, which is "PDCP" in ASCII.
+     */
+    private static final int    MAGIC     = 0x50444350;
+    /**
+     * The version of the format.
+     */
+    private static final short  VERSION   = 2;
+
+    /**
+     * Stores the orders processed, and the moves of each, by order number in the order they were processed.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    /**
+     * Stores the path the checkpoint is saved to.
+     */
+    private final Path               path;
+    /**
+     * Stores the date of the checkpoint.
+     */
+    private final LocalDate          date;
+    /**
+     * Stores whether the checkpoint has a saved file, either from an earlier run or from being saved.
+     */
+    private       boolean            saved;
+
+    /**
+     * Creates an empty instance of the {@link DayCheckpoint} class.
+     *
+     * @param directory The directory the checkpoint is saved to.
+     * @param date      The date of the checkpoint.
+     */
+    public DayCheckpoint(Path directory, LocalDate date) {
+        this.path = directory.resolve(fileName(date));
+        this.date = date;
+    }
+
+    /**
+     * Gets the name of the checkpoint file for the given date.
+     *
+     * @param date The date of the checkpoint.
+     *
+     * @return The name of the file.
+     */
+    public static String fileName(LocalDate date) {
+        return PREFIX + date + EXTENSION;
+    }
+
+    /**
+     * Loads the checkpoint of a date saved by an earlier run, or creates an empty one if there is none.
+     *
+     * @param directory The directory the checkpoint is saved to.
+     * @param date      The date of the checkpoint.
+     *
+     * @return The checkpoint.
+     *
+     * @throws IOException If the checkpoint exists but could not be read, or is not a checkpoint of the date.
+     */
+    public static DayCheckpoint load(Path directory, LocalDate date) throws IOException {
+        var checkpoint = new DayCheckpoint(directory, date);
+        if (!Files.exists(checkpoint.path)) return checkpoint;
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(
+                checkpoint.path))))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException(checkpoint.path + " is not a checkpoint.");
+            }
+            if (in.readLong() != date.toEpochDay()) {
+                throw new IOException(checkpoint.path + " is not the checkpoint of " + date + ".");
+            }
+            int orderCount = in.readInt();
+            for (int i = 0; i < orderCount; i++) {
+                Entry entry = readEntry(in);
+                checkpoint.entries.put(entry.order().getOrderNo(), entry);
+            }
+        }
+        checkpoint.saved = true;
+        return checkpoint;
+    }
+
+    /**
+     * Gets the path the checkpoint is saved to.
+     *
+     * @return The path.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the date of the checkpoint.
+     *
+     * @return The date.
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Gets whether the checkpoint has a saved file, either because it was loaded from one saved by an earlier run or
+     * because it has been saved since.
+     *
+     * @return Whether the checkpoint has been saved.
+     */
+    public boolean isSaved() {
+        return saved;
+    }
+
+    /**
+     * Gets whether an order has already been processed.
+     *
+     * @param orderNo The number of the order.
+     *
+     * @return Whether the order is in the checkpoint.
+     */
+    public boolean contains(String orderNo) {
+        return entries.containsKey(orderNo);
+    }
+
+    /**
+     * Gets the numbers of the orders processed.
+     *
+     * @return A copy of the order numbers, which does not change as orders are added.
+     */
+    public Set<String> getOrderNumbers() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * Gets the number of orders processed.
+     *
+     * @return The number of orders.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Records an order once it has been processed, replacing it if it was recorded before.
+     *
+     * @param order The order, with its outcome set.
+     * @param moves The moves of its round trip, which are empty unless it was delivered.
+     */
+    public void add(Order order, List<FlightPathNode> moves) {
+        entries.put(order.getOrderNo(), new Entry(order, List.copyOf(moves)));
+    }
+
+    /**
+     * Gets every order processed, in the order they were processed.
+     *
+     * @return The orders.
+     */
+    public Order[] getOrders() {
+        return entries.values().stream().map(Entry::order).toArray(Order[]::new);
+    }
+
+    /**
+     * Gets the full flight path of the orders processed, with the moves of each order in the order they were processed.
+     *
+     * @return The flight path.
+     */
+    public FlightPathNode[] getFlightPath() {
+        var flightPath = new ArrayList<FlightPathNode>();
+        for (Entry entry : entries.values())
+            flightPath.addAll(entry.moves());
+        return flightPath.toArray(FlightPathNode[]::new);
+    }
+
+    /**
+     * Saves the checkpoint, replacing the one saved before only once the new one has been written in full.
+     *
+     * @return The path of the checkpoint.
+     *
+     * @throws IOException If the checkpoint could not be written.
+     */
+    public Path save() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(
+                temporary))))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(date.toEpochDay());
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values())
+                writeEntry(out, entry);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        saved = true;
+        return path;
+    }
+
+    /**
+     * Writes an order and its moves.
+     *
+     * @param out   The stream to write to.
+     * @param entry The order and its moves.
+     *
+     * @throws IOException If the order could not be written.
+     */
+    static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        Order order = entry.order();
+        out.writeBoolean(order.getOrderNo() != null);
+        if (order.getOrderNo() != null) out.writeUTF(order.getOrderNo());
+        out.writeByte(order.getOrderStatus().ordinal());
+        out.writeByte(order.getOrderValidationCode().ordinal());
+        out.writeInt(order.getPriceTotalInPence());
+        out.writeInt(entry.moves().size());
+        for (FlightPathNode move : entry.moves()) {
+            out.writeDouble(move.fromCoordinate().lng());
+            out.writeDouble(move.fromCoordinate().lat());
+            out.writeDouble(move.angle());
+            out.writeDouble(move.toCoordinate().lng());
+            out.writeDouble(move.toCoordinate().lat());
+        }
+    }
+
+    /**
+     * Reads an order and its moves.
+     *
+     * @param in The stream to read from.
+     *
+     * @return The order and its moves.
+     *
+     * @throws IOException If the order could not be read.
+     */
+    static Entry readEntry(DataInputStream in) throws IOException {
+        var order = new Order();
+        order.setOrderNo(in.readBoolean() ? in.readUTF() : null);
+        order.setOrderStatus(OrderStatus.values()[in.readUnsignedByte()]);
+        order.setOrderValidationCode(OrderValidationCode.values()[in.readUnsignedByte()]);
+        order.setPriceTotalInPence(in.readInt());
+        int moveCount = in.readInt();
+        var moves     = new ArrayList<FlightPathNode>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            var    from  = new LngLat(in.readDouble(), in.readDouble());
+            double angle = in.readDouble();
+            var    to    = new LngLat(in.readDouble(), in.readDouble());
+            moves.add(new FlightPathNode(order.getOrderNo(), from, angle, to));
+        }
+        return new Entry(order, List.copyOf(moves));
+    }
+
+    /**
+     * An order in the checkpoint, along with its moves.
+     *
+     * @param order The order.
+     * @param moves The moves of its round trip.
+     */
+    record Entry(
+            Order order,
+            List<FlightPathNode> moves
+    ) {}
+}
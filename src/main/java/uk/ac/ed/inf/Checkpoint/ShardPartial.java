@@ -0,0 +1,210 @@
+package uk.ac.ed.inf.Checkpoint;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The orders of a day which one of several workers validated and planned, each along with its position among every
+ * order of the day, so that the parts written by every worker can be merged into the same orders and flight path as a
+ * single run.
+ * <p>
+ * A partial is saved as a gzipped binary file. It starts with a magic number, the version, the date as an epoch day,
+ * the index of the shard, the number of shards, the number of orders of the whole day and the number of orders in the
+ * partial. Each order follows as its position in the day and then as it is stored in a {@link DayCheckpoint}.
+ */
+public class ShardPartial {
+    /**
+     * The prefix of the name of every partial file.
+     */
+    public static final  String PREFIX  = "partial-";
+    /**
+     * The number at the start of every partial, which is "PDSH" in ASCII.
+     */
+    private static final int    MAGIC   = 0x50445348;
+    /**
+     * The version of the format.
+     */
+    private static final short  VERSION = 2;
+
+    /**
+     * Stores the orders of the shard and their moves, in the order they were processed.
+     */
+    private final List<DayCheckpoint.Entry> entries   = new ArrayList<>();
+    /**
+     * Stores the position of each order of the shard among every order of the day, in the same order.
+     */
+    private final List<Integer>             positions = new ArrayList<>();
+    /**
+     * Stores the date of the partial.
+     */
+    private final LocalDate                 date;
+    /**
+     * Stores the index of the shard.
+     */
+    private final int                       shard;
+    /**
+     * Stores the number of shards.
+     */
+    private final int                       shardCount;
+    /**
+     * Stores the number of orders of the whole day.
+     */
+    private       int                       orderCount;
+
+    /**
+     * Creates an empty instance of the {@link ShardPartial} class.
+     *
+     * @param date       The date of the partial.
+     * @param shard      The index of the shard.
+     * @param shardCount The number of shards.
+     */
+    public ShardPartial(LocalDate date, int shard, int shardCount) {
+        this.date = date;
+        this.shard = shard;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Gets the name of the partial file of a shard of a date.
+     *
+     * @param date       The date of the partial.
+     * @param shard      The index of the shard.
+     * @param shardCount The number of shards.
+     *
+     * @return The name of the file.
+     */
+    public static String fileName(LocalDate date, int shard, int shardCount) {
+        return PREFIX + date + "-" + shard + "-of-" + shardCount + DayCheckpoint.EXTENSION;
+    }
+
+    /**
+     * Gets the number of orders in the partial.
+     *
+     * @return The number of orders.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sets the number of orders of the whole day, once every worker has read them.
+     *
+     * @param orderCount The number of orders.
+     */
+    public synchronized void setOrderCount(int orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    /**
+     * Records an order of the shard once it has been processed.
+     *
+     * @param position The position of the order among every order of the day.
+     * @param order    The order, with its outcome set.
+     * @param moves    The moves of its round trip, which are empty unless it was delivered.
+     */
+    public synchronized void add(int position, Order order, List<FlightPathNode> moves) {
+        positions.add(position);
+        entries.add(new DayCheckpoint.Entry(order, List.copyOf(moves)));
+    }
+
+    /**
+     * Saves the partial, replacing one saved before only once the new one has been written in full, so that a merge
+     * never reads a partial which is still being written.
+     *
+     * @param directory The directory to save the partial to, which every worker and the merge share.
+     *
+     * @return The path of the partial.
+     *
+     * @throws IOException If the partial could not be written.
+     */
+    public synchronized Path save(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path path      = directory.resolve(fileName(date, shard, shardCount));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(
+                temporary))))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(date.toEpochDay());
+            out.writeInt(shard);
+            out.writeInt(shardCount);
+            out.writeInt(orderCount);
+            out.writeInt(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                out.writeInt(positions.get(i));
+                DayCheckpoint.writeEntry(out, entries.get(i));
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return path;
+    }
+
+    /**
+     * Merges the partials every shard of a date saved into a checkpoint of the date, holding every order of the day in
+     * the order it was served, and the moves of each, exactly as a single run would have processed them.
+     *
+     * @param directory  The directory the partials were saved to.
+     * @param date       The date.
+     * @param shardCount The number of shards.
+     * @param checkpoint The checkpoint to add the orders to, which should be empty.
+     *
+     * @throws IOException If a partial is missing or could not be read, or the partials do not hold every order of the
+     *                     day exactly once.
+     */
+    public static void merge(Path directory, LocalDate date, int shardCount, DayCheckpoint checkpoint)
+            throws IOException {
+        DayCheckpoint.Entry[] merged = null;
+        for (int shard = 0; shard < shardCount; shard++) {
+            Path path = directory.resolve(fileName(date, shard, shardCount));
+            if (!Files.exists(path)) {
+                throw new IOException("Shard " + shard + "/" + shardCount + " of " + date + " has not been saved to "
+                                      + path + ".");
+            }
+            try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(
+                    path))))) {
+                if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                    throw new IOException(path + " is not a partial.");
+                }
+                if (in.readLong() != date.toEpochDay() || in.readInt() != shard || in.readInt() != shardCount) {
+                    throw new IOException(path + " is not shard " + shard + "/" + shardCount + " of " + date + ".");
+                }
+                int orderCount = in.readInt();
+                if (merged == null) merged = new DayCheckpoint.Entry[orderCount];
+                if (merged.length != orderCount) {
+                    throw new IOException(path + " was saved from " + orderCount + " orders, rather than the "
+                                          + merged.length + " the other shards read.");
+                }
+                int entryCount = in.readInt();
+                for (int i = 0; i < entryCount; i++) {
+                    int position = in.readInt();
+                    if (position < 0 || position >= orderCount || merged[position] != null) {
+                        throw new IOException(path + " has an order at position " + position
+                                              + ", which is out of range or in another shard.");
+                    }
+                    merged[position] = DayCheckpoint.readEntry(in);
+                }
+            }
+        }
+        if (merged == null) return;
+        for (int position = 0; position < merged.length; position++) {
+            if (merged[position] == null) {
+                throw new IOException("No shard of " + date + " has the order at position " + position + ".");
+            }
+            checkpoint.add(merged[position].order(), merged[position].moves());
+        }
+    }
+}
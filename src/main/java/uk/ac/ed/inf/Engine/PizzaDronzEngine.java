@@ -0,0 +1,469 @@
+package uk.ac.ed.inf.Engine;
+
+import uk.ac.ed.inf.Execution.ExecutionConfig;
+import uk.ac.ed.inf.Execution.ExecutionPools;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.Output.OutputWriter;
+import uk.ac.ed.inf.Output.WrittenFile;
+import uk.ac.ed.inf.Pipeline.OrderPipeline;
+import uk.ac.ed.inf.Pipeline.PipelineResult;
+import uk.ac.ed.inf.RestService.BatchValidationResult;
+import uk.ac.ed.inf.RestService.DataSource;
+import uk.ac.ed.inf.RestService.Endpoints;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.RestService.ValidationPipeline;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The planning of the application as a library, for embedding it in another service rather than running it as a
+ * process. The restaurants, central area and no-fly zones are fetched once when the engine is started, from the REST
+ * server or a directory of local files, and every call shares them along with a warm flight path generator, so many
+ * days can be planned in one JVM at the same time.
+ * <p>
+ * Each stage of a day is a call of its own which returns at once with a future: {@link #validate} validates the
+ * orders, {@link #plan} also plans their flight path, and {@link #write} serializes a planned day to its output files.
+ * {@link #run} does all three. Cancelling the future of a call stops its work: the thread running it is interrupted,
+ * and no more orders are handed to the pipeline. Nothing is printed; the outcome of every call is its future.
+ * <p>
+ * The calls run on the thread pools of the engine, and at most {@link ExecutionConfig#serverThreads()} of them run at
+ * the same time, with the rest queued until one finishes.
+ */
+public class PizzaDronzEngine implements AutoCloseable {
+    /**
+     * Stores the thread pools the calls run on.
+     */
+    private final ExecutionPools            pools;
+    /**
+     * Stores whether the pools were created for the engine, and are shut down with it.
+     */
+    private final boolean                   ownsPools;
+    /**
+     * Stores the source the orders are read from.
+     */
+    private final DataSource                dataSource;
+    /**
+     * Stores the validator the orders are validated with.
+     */
+    private final OrderValidator            orderValidator;
+    /**
+     * Stores the index of the restaurants the orders are validated against.
+     */
+    private final MenuIndex                 menuIndex;
+    /**
+     * Stores the central area, which the drone cannot leave once it has entered.
+     */
+    private final NamedRegion               centralArea;
+    /**
+     * Stores the flight path generator, shared by every call so that they share its cache of paths.
+     */
+    private final FlightPathGenerator       flightPathGenerator;
+    /**
+     * Stores the futures of the calls which have not finished, so they can be cancelled when the engine is closed.
+     */
+    private final Set<CompletableFuture<?>> calls = ConcurrentHashMap.newKeySet();
+    /**
+     * Stores the pool the calls run on, which is created by the first call.
+     */
+    private       ExecutorService           callPool;
+    /**
+     * Stores whether the engine has been closed.
+     */
+    private       boolean                   closed;
+
+    /**
+     * Creates an instance of the {@link PizzaDronzEngine} class from the data fetched when it was started.
+     *
+     * @param pools       The thread pools to run the calls on.
+     * @param ownsPools   Whether to shut the pools down when the engine is closed.
+     * @param dataSource  The source to read the orders from.
+     * @param restaurants The restaurants.
+     * @param centralArea The central area.
+     * @param noFlyZones  The no-fly zones.
+     */
+    private PizzaDronzEngine(ExecutionPools pools, boolean ownsPools, DataSource dataSource,
+                             Restaurant[] restaurants, NamedRegion centralArea, NamedRegion[] noFlyZones) {
+        this.pools = pools;
+        this.ownsPools = ownsPools;
+        this.dataSource = dataSource;
+        this.centralArea = centralArea;
+        orderValidator = new OrderValidator(new ValidationPipeline(), pools.cpu());
+        menuIndex = new MenuIndex(restaurants);
+        flightPathGenerator = new FlightPathGenerator(centralArea, noFlyZones, menuIndex);
+    }
+
+    /**
+     * Starts an engine with thread pools of its own, which are shut down when it is closed.
+     *
+     * @param location The URL of the REST server, or a {@code file:} URI of a directory of local files.
+     * @param config   The sizes of the thread pools.
+     *
+     * @return A future which completes with the engine once the restaurants, central area and no-fly zones have been
+     *         fetched, or with an {@link UncheckedIOException} if no server or data was found at the location.
+     */
+    public static CompletableFuture<PizzaDronzEngine> start(String location, ExecutionConfig config) {
+        var pools = new ExecutionPools(config);
+        return start(location, pools, true).whenComplete((engine, err) -> {
+            if (err != null) pools.close();
+        });
+    }
+
+    /**
+     * Starts an engine on thread pools it shares with the rest of the application, which are left running when it is
+     * closed.
+     *
+     * @param location The URL of the REST server, or a {@code file:} URI of a directory of local files.
+     * @param pools    The thread pools to run the calls on.
+     *
+     * @return A future which completes with the engine once the restaurants, central area and no-fly zones have been
+     *         fetched, or with an {@link UncheckedIOException} if no server or data was found at the location.
+     */
+    public static CompletableFuture<PizzaDronzEngine> start(String location, ExecutionPools pools) {
+        return start(location, pools, false);
+    }
+
+    /**
+     * Starts an engine, fetching the restaurants, central area and no-fly zones at the same time.
+     *
+     * @param location  The URL of the REST server, or a {@code file:} URI of a directory of local files.
+     * @param pools     The thread pools to run the calls on.
+     * @param ownsPools Whether to shut the pools down when the engine is closed.
+     *
+     * @return A future which completes with the engine.
+     */
+    private static CompletableFuture<PizzaDronzEngine> start(String location, ExecutionPools pools,
+                                                             boolean ownsPools) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return DataSource.open(location, pools.cpu(), pools.io());
+            } catch (IOException err) {
+                throw new UncheckedIOException(err);
+            }
+        }, pools.io()).thenCompose(dataSource -> {
+            var restaurants = dataSource.fetchAsync(Endpoints.RESTAURANTS);
+            var centralArea = dataSource.fetchAsync(Endpoints.CENTRAL_AREA);
+            var noFlyZones  = dataSource.fetchAsync(Endpoints.NO_FLY_ZONES);
+            return CompletableFuture.allOf(restaurants, centralArea, noFlyZones).thenApply(
+                    __ -> new PizzaDronzEngine(pools, ownsPools, dataSource, restaurants.join(), centralArea.join(),
+                                               noFlyZones.join()));
+        });
+    }
+
+    /**
+     * Gets the source the orders are read from.
+     *
+     * @return The data source.
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Gets the validator the orders are validated with.
+     *
+     * @return The validator.
+     */
+    public OrderValidator getOrderValidator() {
+        return orderValidator;
+    }
+
+    /**
+     * Gets the index of the restaurants fetched when the engine was started.
+     *
+     * @return The index of the restaurants.
+     */
+    public MenuIndex getMenuIndex() {
+        return menuIndex;
+    }
+
+    /**
+     * Gets the central area fetched when the engine was started.
+     *
+     * @return The central area.
+     */
+    public NamedRegion getCentralArea() {
+        return centralArea;
+    }
+
+    /**
+     * Gets the flight path generator shared by every call.
+     *
+     * @return The flight path generator.
+     */
+    public FlightPathGenerator getFlightPathGenerator() {
+        return flightPathGenerator;
+    }
+
+    /**
+     * Fetches and validates the orders of a date.
+     *
+     * @param date The date.
+     *
+     * @return A future which completes with the validated orders, in the order they were served.
+     */
+    public CompletableFuture<BatchValidationResult> validate(LocalDate date) {
+        return submit(cancelled -> {
+            var orders = new ArrayList<Order>();
+            dataSource.streamOrders(date, order -> {
+                checkCancelled(cancelled);
+                orders.add(order);
+            });
+            return validateOrders(orders.toArray(Order[]::new), cancelled);
+        });
+    }
+
+    /**
+     * Validates the given orders, which are validated in place.
+     *
+     * @param orders The orders.
+     *
+     * @return A future which completes with the validated orders, in the order they were given.
+     */
+    public CompletableFuture<BatchValidationResult> validate(Order[] orders) {
+        return submit(cancelled -> validateOrders(orders, cancelled));
+    }
+
+    /**
+     * Fetches, validates and plans the orders of a date through the pipeline, streaming them from the data source.
+     *
+     * @param date    The date.
+     * @param options The options of the call.
+     *
+     * @return A future which completes with the orders and flight path of the date.
+     */
+    public CompletableFuture<PipelineResult> plan(LocalDate date, PlanOptions options) {
+        return submit(cancelled -> runPipeline(onOrder -> dataSource.streamOrders(date, onOrder), options, cancelled));
+    }
+
+    /**
+     * Validates and plans the given orders through the pipeline, which are validated in place.
+     *
+     * @param orders  The orders.
+     * @param options The options of the call.
+     *
+     * @return A future which completes with the orders and flight path.
+     */
+    public CompletableFuture<PipelineResult> plan(Order[] orders, PlanOptions options) {
+        return submit(cancelled -> runPipeline(onOrder -> Arrays.stream(orders).forEach(onOrder), options, cancelled));
+    }
+
+    /**
+     * Writes the deliveries, flight path and drone GeoJSON files of a planned date, followed by the flight path
+     * archive if asked for.
+     *
+     * @param date    The date.
+     * @param result  The orders and flight path of the date.
+     * @param options The options of the call, which say where and how the files are written.
+     *
+     * @return A future which completes with the files written.
+     */
+    public CompletableFuture<List<WrittenFile>> write(LocalDate date, PipelineResult result, PlanOptions options) {
+        return submit(cancelled -> writeFiles(date, result, options, cancelled));
+    }
+
+    /**
+     * Fetches, validates and plans the orders of a date, and writes its output files, as one call.
+     *
+     * @param date    The date.
+     * @param options The options of the call.
+     *
+     * @return A future which completes with the summary of the date.
+     */
+    public CompletableFuture<DateSummary> run(LocalDate date, PlanOptions options) {
+        return submit(cancelled -> {
+            long startTime = System.nanoTime();
+            PipelineResult result = runPipeline(onOrder -> dataSource.streamOrders(date, onOrder), options,
+                                                cancelled);
+            writeFiles(date, result, options, cancelled);
+            return summarise(date, result, System.nanoTime() - startTime);
+        });
+    }
+
+    /**
+     * Cancels every call which has not finished, and shuts down the pools of the engine if it created them. Calls made
+     * afterwards fail at once.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (CompletableFuture<?> call : calls)
+            call.cancel(true);
+        synchronized (this) {
+            if (callPool != null) callPool.shutdownNow();
+        }
+        if (ownsPools) pools.close();
+    }
+
+    /**
+     * Runs a call on the pool of the engine. Cancelling the future it returns interrupts the thread running the call,
+     * and tells the call it has been cancelled, so it can stop work it handed to other threads.
+     *
+     * @param call The call.
+     *
+     * @return A future which completes with the outcome of the call.
+     */
+    private <T> CompletableFuture<T> submit(Call<T> call) {
+        var result = new CompletableFuture<T>();
+        Future<?> running;
+        try {
+            running = callPool().submit(() -> {
+                try {
+                    result.complete(call.run(result::isCancelled));
+                } catch (Throwable err) {
+                    result.completeExceptionally(err);
+                }
+            });
+        } catch (RejectedExecutionException err) {
+            result.completeExceptionally(new IllegalStateException("The engine has been closed."));
+            return result;
+        }
+        calls.add(result);
+        result.whenComplete((value, err) -> {
+            calls.remove(result);
+            if (result.isCancelled()) running.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Gets the pool the calls run on, creating it if this is the first call.
+     *
+     * @return The pool.
+     *
+     * @throws RejectedExecutionException If the engine has been closed.
+     */
+    private synchronized ExecutorService callPool() {
+        if (closed) throw new RejectedExecutionException("The engine has been closed.");
+        if (callPool == null) callPool = pools.newPool("engine", pools.getConfig().serverThreads());
+        return callPool;
+    }
+
+    /**
+     * Stops a call if it has been cancelled.
+     *
+     * @param cancelled Whether the call has been cancelled.
+     *
+     * @throws CancellationException If it has.
+     */
+    private static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) throw new CancellationException("The call was cancelled.");
+    }
+
+    /**
+     * Validates orders in place on the CPU pool.
+     *
+     * @param orders    The orders.
+     * @param cancelled Whether the call has been cancelled.
+     *
+     * @return The validated orders.
+     */
+    private BatchValidationResult validateOrders(Order[] orders, BooleanSupplier cancelled) {
+        return orderValidator.validateOrders(orders, menuIndex, pools.cpu(), order -> checkCancelled(cancelled));
+    }
+
+    /**
+     * Runs the orders from a source through a pipeline on the CPU pool. Once the call is cancelled, no more orders are
+     * read from the source, and the pipeline stops as soon as the order it is planning has been planned.
+     *
+     * @param source    The source of the orders.
+     * @param options   The options of the call.
+     * @param cancelled Whether the call has been cancelled.
+     *
+     * @return The orders and flight path.
+     *
+     * @throws IOException If the orders could not be read.
+     */
+    private PipelineResult runPipeline(OrderPipeline.OrderSource source, PlanOptions options,
+                                       BooleanSupplier cancelled) throws IOException {
+        var pipeline = new OrderPipeline(orderValidator, menuIndex, flightPathGenerator, options.bufferSize(),
+                                         pools.cpu());
+        return pipeline.run(onOrder -> source.forEach(order -> {
+            checkCancelled(cancelled);
+            onOrder.accept(order);
+        }), order -> checkCancelled(cancelled), (order, moves) -> {});
+    }
+
+    /**
+     * Writes the output files of a planned date.
+     *
+     * @param date      The date.
+     * @param result    The orders and flight path of the date.
+     * @param options   The options of the call.
+     * @param cancelled Whether the call has been cancelled.
+     *
+     * @return The files written, in the order flight path, drone GeoJSON, deliveries, then the archive if asked for.
+     *
+     * @throws IOException If any of the files could not be written.
+     */
+    private List<WrittenFile> writeFiles(LocalDate date, PipelineResult result, PlanOptions options,
+                                         BooleanSupplier cancelled) throws IOException {
+        checkCancelled(cancelled);
+        try (var writer = new OutputWriter(options.directory(), options.compact(), options.engine(),
+                                           options.compression(), options.geoJSONOptions(), pools.io(), pools.cpu())) {
+            var files = new ArrayList<>(writer.writeAll(date, result.orders(), result.flightPath()));
+            if (options.archive()) {
+                checkCancelled(cancelled);
+                long startTime = System.nanoTime();
+                Path path      = writer.writeArchive(date, result.flightPath());
+                files.add(new WrittenFile(path, System.nanoTime() - startTime));
+            }
+            return files;
+        }
+    }
+
+    /**
+     * Summarises the orders of a planned date.
+     *
+     * @param date        The date.
+     * @param result      The orders and flight path of the date.
+     * @param elapsedNano The time taken to plan and write the date, in nanoseconds.
+     *
+     * @return The summary.
+     */
+    private static DateSummary summarise(LocalDate date, PipelineResult result, long elapsedNano) {
+        int delivered = (int) Arrays.stream(result.validOrders())
+                                    .filter(order -> order.getOrderStatus() == OrderStatus.DELIVERED)
+                                    .count();
+        return new DateSummary(date, result.orders().length, result.validOrders().length, delivered,
+                               result.flightPath().length, elapsedNano);
+    }
+
+    /**
+     * A call to the engine, run on one of its threads.
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        /**
+         * Runs the call.
+         *
+         * @param cancelled Whether the call has been cancelled, which work handed to other threads should check.
+         *
+         * @return The outcome of the call.
+         *
+         * @throws Exception If the call failed.
+         */
+        T run(BooleanSupplier cancelled) throws Exception;
+    }
+}
@@ -0,0 +1,62 @@
+package uk.ac.ed.inf.Engine;
+
+import uk.ac.ed.inf.Output.Compression;
+import uk.ac.ed.inf.Output.OutputEngine;
+import uk.ac.ed.inf.Pipeline.OrderPipeline;
+import uk.ac.ed.inf.Serializers.GeoJSONOptions;
+
+import java.nio.file.Path;
+
+/**
+ * The options of a single call to a {@link PizzaDronzEngine}, so that calls running at the same time in one engine
+ * can plan and write their days differently.
+ *
+ * @param directory      The directory to write the output files to, which is created if it does not exist.
+ * @param compact        Whether to write the files without indentation.
+ * @param engine         The engine to write the flight path and deliveries files with.
+ * @param compression    Which files to compress, and how.
+ * @param geoJSONOptions How the drone GeoJSON file is written.
+ * @param archive        Whether to write a binary archive of the flight path next to the output files.
+ * @param bufferSize     The most orders to buffer between two stages of the pipeline.
+ */
+public record PlanOptions(
+        Path directory,
+        boolean compact,
+        OutputEngine engine,
+        Compression compression,
+        GeoJSONOptions geoJSONOptions,
+        boolean archive,
+        int bufferSize
+) {
+    /**
+     * Creates an instance of the {@link PlanOptions} record.
+     *
+     * @param directory      The directory to write the output files to.
+     * @param compact        Whether to write the files without indentation.
+     * @param engine         The engine to write the flight path and deliveries files with.
+     * @param compression    Which files to compress, and how.
+     * @param geoJSONOptions How the drone GeoJSON file is written.
+     * @param archive        Whether to write a binary archive of the flight path.
+     * @param bufferSize     The most orders to buffer between two stages of the pipeline.
+     *
+     * @throws IllegalArgumentException If any of the options are missing, or the buffer size is not positive.
+     */
+    public PlanOptions {
+        if (directory == null || engine == null || compression == null || geoJSONOptions == null) {
+            throw new IllegalArgumentException("Every option must be given.");
+        }
+        if (bufferSize < 1) throw new IllegalArgumentException("The buffer size must be at least 1.");
+    }
+
+    /**
+     * Gets the options the command line uses when none are given, writing to the given directory.
+     *
+     * @param directory The directory to write the output files to.
+     *
+     * @return The default options.
+     */
+    public static PlanOptions defaults(Path directory) {
+        return new PlanOptions(directory, false, OutputEngine.NIO, Compression.NONE, GeoJSONOptions.EXACT, false,
+                               OrderPipeline.DEFAULT_BUFFER_SIZE);
+    }
+}
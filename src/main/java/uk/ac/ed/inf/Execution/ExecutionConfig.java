@@ -0,0 +1,93 @@
+package uk.ac.ed.inf.Execution;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The sizes of the thread pools of a run, shared by every part of the application so that they do not each create
+ * pools of their own and oversubscribe the machine.
+ * <p>
+ * The sizes can be read from a properties file, whose keys are the names of the options which set them on the command
+ * line: {@code cpu-threads}, {@code io-threads} and {@code server-threads}.
+ *
+ * @param cpuThreads    The number of threads searching for routes, validating orders and encoding output, which are
+ *                      bound by the CPU.
+ * @param ioThreads     The number of threads fetching from the REST server and writing the output files, which spend
+ *                      most of their time waiting.
+ * @param serverThreads The number of requests to the planning API, or calls to an embedded engine, handled at the
+ *                      same time.
+ */
+public record ExecutionConfig(
+        int cpuThreads,
+        int ioThreads,
+        int serverThreads
+) {
+    /**
+     * The keys of a configuration file, in the order of the sizes.
+     */
+    public static final List<String> KEYS = List.of("cpu-threads", "io-threads", "server-threads");
+
+    /**
+     * Creates an instance of the {@link ExecutionConfig} record.
+     *
+     * @param cpuThreads    The number of threads bound by the CPU.
+     * @param ioThreads     The number of threads which spend most of their time waiting.
+     * @param serverThreads The number of requests to the planning API, or calls to an embedded engine, handled at the
+     *                      same time.
+     *
+     * @throws IllegalArgumentException If any of the sizes are less than 1.
+     */
+    public ExecutionConfig {
+        if (cpuThreads < 1 || ioThreads < 1 || serverThreads < 1) {
+            throw new IllegalArgumentException("Every thread pool must have at least 1 thread.");
+        }
+    }
+
+    /**
+     * Gets the sizes used for any not given, which are a CPU thread for each processor, twice as many I/O threads but
+     * at least 4, and 32 requests at a time.
+     *
+     * @return The default sizes.
+     */
+    public static ExecutionConfig defaults() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new ExecutionConfig(processors, Math.max(4, 2 * processors), 32);
+    }
+
+    /**
+     * Reads the sizes from a properties file, keeping the given sizes for any the file does not set.
+     *
+     * @param file     The properties file.
+     * @param defaults The sizes to keep for any the file does not set.
+     *
+     * @return The sizes.
+     *
+     * @throws IOException              If the file could not be read.
+     * @throws IllegalArgumentException If the file sets anything else, or a size which is not a positive whole number.
+     */
+    public static ExecutionConfig load(Path file, ExecutionConfig defaults) throws IOException {
+        var properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        var sizes = new int[] { defaults.cpuThreads(), defaults.ioThreads(), defaults.serverThreads() };
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            int index = KEYS.indexOf((String) entry.getKey());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown setting " + entry.getKey() + " in " + file + ".");
+            }
+            try {
+                sizes[index] = Integer.parseInt(((String) entry.getValue()).trim());
+            } catch (NumberFormatException err) {
+                throw new IllegalArgumentException("The value of " + entry.getKey() + " in " + file
+                                                   + " must be a whole number.");
+            }
+        }
+        return new ExecutionConfig(sizes[0], sizes[1], sizes[2]);
+    }
+}
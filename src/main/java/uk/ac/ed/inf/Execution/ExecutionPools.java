@@ -0,0 +1,288 @@
+package uk.ac.ed.inf.Execution;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The thread pools of a run, created once from an {@link ExecutionConfig} and handed to every part of the application
+ * which runs tasks in the background, so that the number of threads is bounded by the configuration rather than by how
+ * many parts are running. Every pool is measured, so its utilisation can be reported at the end of the run.
+ * <p>
+ * Work bound by the CPU runs on a fork-join pool, which lets tasks wait for the tasks they split off without tying up
+ * a thread. Work which waits on the network or the disk, and the requests of the planning API, run on fixed pools of
+ * platform threads, as Java 18, which the application targets, has no virtual threads. Every thread is a daemon, so
+ * that pools which are never closed do not keep the application running.
+ */
+public final class ExecutionPools implements AutoCloseable {
+    /**
+     * Stores the configuration the pools were created from.
+     */
+    private final ExecutionConfig         config;
+    /**
+     * Stores the pool for work bound by the CPU.
+     */
+    private final ForkJoinPool            cpu;
+    /**
+     * Stores the factory of the threads of the CPU pool, which measures them.
+     */
+    private final CpuThreadFactory        cpuThreads;
+    /**
+     * Stores the pool for work which waits on the network or the disk.
+     */
+    private final ExecutorService         io;
+    /**
+     * Stores every pool created besides the CPU pool, in the order they were created.
+     */
+    private final List<MeteredThreadPool> pools     = new ArrayList<>();
+    /**
+     * Stores the time the pools were created, from {@link System#nanoTime()}.
+     */
+    private final long                    startTime = System.nanoTime();
+
+    /**
+     * Creates the pools of a run.
+     *
+     * @param config The sizes of the pools.
+     */
+    public ExecutionPools(ExecutionConfig config) {
+        this.config = config;
+        cpuThreads = new CpuThreadFactory();
+        cpu = new ForkJoinPool(config.cpuThreads(), cpuThreads, null, false);
+        io = newPool("io", config.ioThreads());
+    }
+
+    /**
+     * Gets the configuration the pools were created from.
+     *
+     * @return The configuration.
+     */
+    public ExecutionConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the pool for work bound by the CPU, such as searching for routes, validating orders and encoding output.
+     *
+     * @return The CPU pool.
+     */
+    public ForkJoinPool cpu() {
+        return cpu;
+    }
+
+    /**
+     * Gets the pool for work which waits on the network or the disk, such as fetching from the REST server and writing
+     * the output files. Tasks on this pool must not wait for other tasks on it, as it has a fixed number of threads.
+     *
+     * @return The I/O pool.
+     */
+    public ExecutorService io() {
+        return io;
+    }
+
+    /**
+     * Creates a fixed pool of threads for tasks which coordinate others, such as the dates of a batch or the requests
+     * to the planning API, which is measured along with the other pools and shut down with them.
+     *
+     * @param name    The name of the pool, which its threads are named after.
+     * @param threads The number of threads.
+     *
+     * @return The pool.
+     */
+    public synchronized ExecutorService newPool(String name, int threads) {
+        var pool = new MeteredThreadPool(name, threads);
+        pools.add(pool);
+        return pool;
+    }
+
+    /**
+     * Measures how busy every pool has been since it was created.
+     *
+     * @return The usage of each pool, starting with the CPU pool.
+     */
+    public synchronized List<PoolUsage> getUsage() {
+        long now   = System.nanoTime();
+        var  usage = new ArrayList<PoolUsage>();
+        usage.add(new PoolUsage("cpu", config.cpuThreads(), -1, cpuThreads.getCpuNanos(), now - startTime));
+        for (MeteredThreadPool pool : pools)
+            usage.add(pool.getUsage(now));
+        return usage;
+    }
+
+    /**
+     * Shuts down every pool, interrupting any tasks still running.
+     */
+    @Override
+    public synchronized void close() {
+        cpu.shutdownNow();
+        for (MeteredThreadPool pool : pools)
+            pool.shutdownNow();
+    }
+
+    /**
+     * Creates the threads of the CPU pool, and adds up the time they spend on the CPU.
+     */
+    private static class CpuThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        /**
+         * Stores the bean which measures the time threads spend on the CPU.
+         */
+        private final ThreadMXBean  threadBean = ManagementFactory.getThreadMXBean();
+        /**
+         * Stores the threads of the pool which are still running.
+         */
+        private final Set<Thread>   threads    = ConcurrentHashMap.newKeySet();
+        /**
+         * Stores the time spent on the CPU by the threads which have finished, in nanoseconds.
+         */
+        private final LongAdder     finished   = new LongAdder();
+        /**
+         * Stores the number of threads created, to number them by.
+         */
+        private final AtomicInteger created    = new AtomicInteger();
+
+        /**
+         * Creates a thread of the pool.
+         *
+         * @param pool The pool.
+         *
+         * @return The thread.
+         */
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            var thread = new ForkJoinWorkerThread(pool) {
+                @Override
+                protected void onTermination(Throwable exception) {
+                    if (threadBean.isCurrentThreadCpuTimeSupported()) {
+                        finished.add(Math.max(0, threadBean.getCurrentThreadCpuTime()));
+                    }
+                    threads.remove(this);
+                    super.onTermination(exception);
+                }
+            };
+            thread.setName("pizzadronz-cpu-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            threads.add(thread);
+            return thread;
+        }
+
+        /**
+         * Gets the time every thread of the pool has spent on the CPU.
+         *
+         * @return The time, in nanoseconds, which is 0 if the JVM cannot measure it.
+         */
+        private long getCpuNanos() {
+            if (!threadBean.isThreadCpuTimeSupported()) return 0;
+            long total = finished.sum();
+            for (Thread thread : threads)
+                total += Math.max(0, threadBean.getThreadCpuTime(thread.getId()));
+            return total;
+        }
+    }
+
+    /**
+     * A fixed pool of daemon threads which adds up the time its threads spend running tasks.
+     */
+    private static class MeteredThreadPool extends ThreadPoolExecutor {
+        /**
+         * Stores the time each thread started its current task, from {@link System#nanoTime()}.
+         */
+        private final ThreadLocal<Long> taskStart = new ThreadLocal<>();
+        /**
+         * Stores the time spent running tasks, in nanoseconds.
+         */
+        private final LongAdder         busy      = new LongAdder();
+        /**
+         * Stores the number of tasks finished.
+         */
+        private final LongAdder         tasks     = new LongAdder();
+        /**
+         * Stores the name of the pool.
+         */
+        private final String            name;
+        /**
+         * Stores the number of threads.
+         */
+        private final int               threads;
+        /**
+         * Stores the time the pool was created, from {@link System#nanoTime()}.
+         */
+        private final long              startTime = System.nanoTime();
+
+        /**
+         * Creates a pool. Idle threads stop after a minute, so a pool which is not used does not hold on to them.
+         *
+         * @param name    The name of the pool.
+         * @param threads The number of threads.
+         */
+        private MeteredThreadPool(String name, int threads) {
+            super(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), namedThreads(name));
+            this.name = name;
+            this.threads = threads;
+            allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * Creates a factory of daemon threads named after a pool.
+         *
+         * @param name The name of the pool.
+         *
+         * @return The factory.
+         */
+        private static ThreadFactory namedThreads(String name) {
+            var created = new AtomicInteger();
+            return task -> {
+                var thread = new Thread(task, "pizzadronz-" + name + "-" + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+
+        /**
+         * Notes the time a thread starts a task.
+         *
+         * @param thread The thread.
+         * @param task   The task.
+         */
+        @Override
+        protected void beforeExecute(Thread thread, Runnable task) {
+            taskStart.set(System.nanoTime());
+            super.beforeExecute(thread, task);
+        }
+
+        /**
+         * Adds the time a thread spent on a task once it has finished.
+         *
+         * @param task      The task.
+         * @param throwable The failure of the task, or null if it finished normally.
+         */
+        @Override
+        protected void afterExecute(Runnable task, Throwable throwable) {
+            super.afterExecute(task, throwable);
+            busy.add(System.nanoTime() - taskStart.get());
+            tasks.increment();
+        }
+
+        /**
+         * Measures how busy the pool has been since it was created.
+         *
+         * @param now The time to measure up to, from {@link System#nanoTime()}.
+         *
+         * @return The usage of the pool.
+         */
+        private PoolUsage getUsage(long now) {
+            return new PoolUsage(name, threads, tasks.sum(), busy.sum(), now - startTime);
+        }
+    }
+}
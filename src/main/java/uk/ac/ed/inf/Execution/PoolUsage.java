@@ -0,0 +1,40 @@
+package uk.ac.ed.inf.Execution;
+
+/**
+ * How much of the time a thread pool was kept busy, from when it was created until it was measured.
+ *
+ * @param name         The name of the pool.
+ * @param threads      The most threads the pool runs tasks on at the same time.
+ * @param tasks        The number of tasks the pool finished, or -1 for a fork-join pool, which splits its tasks up as
+ *                     it runs them.
+ * @param busyNanos    The time the threads of the pool spent running tasks, in nanoseconds. For a fork-join pool this
+ *                     is the time its threads spent on the CPU.
+ * @param elapsedNanos The time since the pool was created, in nanoseconds.
+ */
+public record PoolUsage(
+        String name,
+        int threads,
+        long tasks,
+        long busyNanos,
+        long elapsedNanos
+) {
+    /**
+     * Gets the share of the time the threads of the pool could have spent running tasks which they did.
+     *
+     * @return The utilisation, from 0 to 1.
+     */
+    public double getUtilisation() {
+        if (elapsedNanos <= 0) return 0;
+        return Math.min(1, (double) busyNanos / ((double) threads * elapsedNanos));
+    }
+
+    /**
+     * Describes the usage of the pool on one line.
+     *
+     * @return The description.
+     */
+    public String describe() {
+        return String.format("%s: %d threads, %s%.1f%% busy over %dms.", name, threads,
+                             tasks < 0 ? "" : tasks + " tasks, ", 100 * getUtilisation(), elapsedNanos / 1_000_000);
+    }
+}
@@ -1,22 +1,39 @@
 package uk.ac.ed.inf.FlightPaths;
 
+import uk.ac.ed.inf.RestService.MenuIndex;
 import uk.ac.ed.inf.ilp.constant.OrderStatus;
 import uk.ac.ed.inf.ilp.data.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 /**
- * Generates the flight paths for the given orders.
+ * Generates the flight paths for the given orders. A generator can be shared by threads generating the flight paths of
+ * different days, so that they share its cache of paths.
  */
 public class FlightPathGenerator {
+    /**
+     * The angle of a move in which the drone hovers in place, at a restaurant or at Appleton Tower.
+     */
+    public static final  double HOVER_ANGLE      = 999;
+    /**
+     * The number of nodes the A* algorithm may expand in one search before it gives up on finer moves, which is about
+     * as many as it used to manage within its time limit.
+     */
+    private static final int    MAX_EXPANSIONS   = 25_000;
+
     /**
      * Creates an instance of the {@link LngLatHandler} class.
      */
     private final LngLatHandler                     lngLatHandler = new LngLatHandler();
     /**
-     * Stores the cache of flight paths.
+     * Stores the cache of flight paths. It is shared by every thread generating flight paths, and each restaurant's
+     * path is only searched for once, by the first thread to need it.
      */
-    private final Map<String, List<FlightPathNode>> cache         = new HashMap<>();
+    private final Map<String, List<FlightPathNode>> cache         = new ConcurrentHashMap<>();
     /**
      * Stores the central area, which the drone cannot leave once it has entered.
      */
@@ -26,13 +43,9 @@ public class FlightPathGenerator {
      */
     private final NamedRegion[]                     noFlyZones;
     /**
-     * Stores all the restaurants.
-     */
-    private final Restaurant[]                      restaurants;
-    /**
-     * Stores the time limit for the A* algorithm.
+     * Stores the index of all the restaurants and their menus.
      */
-    private final int                               timeLimit;
+    private final MenuIndex                         menuIndex;
 
     /**
      * Constructs a new {@link FlightPathGenerator} object.
@@ -42,10 +55,20 @@ public class FlightPathGenerator {
      * @param restaurants all the restaurants
      */
     public FlightPathGenerator(NamedRegion centralArea, NamedRegion[] noFlyZones, Restaurant[] restaurants) {
+        this(centralArea, noFlyZones, new MenuIndex(restaurants));
+    }
+
+    /**
+     * Constructs a new {@link FlightPathGenerator} object, sharing an existing index of the restaurants.
+     *
+     * @param centralArea the central area, which the drone cannot leave once it has entered
+     * @param noFlyZones  the no-fly zones, which the drone cannot enter
+     * @param menuIndex   the index of all the restaurants and their menus
+     */
+    public FlightPathGenerator(NamedRegion centralArea, NamedRegion[] noFlyZones, MenuIndex menuIndex) {
         this.centralArea = centralArea;
         this.noFlyZones = noFlyZones;
-        this.restaurants = restaurants;
-        this.timeLimit = 20_000 / restaurants.length;
+        this.menuIndex = menuIndex;
     }
 
     /**
@@ -56,41 +79,70 @@ public class FlightPathGenerator {
      * @return the full flight path for the given orders
      */
     public FlightPathNode[] generateFullPath(Order[] orders) {
-        var fullPath = new LinkedList<FlightPathNode>();
+        return generateFullPath(orders, (order, moves) -> {});
+    }
+
+    /**
+     * Generates the full flight path for the given orders, handing each order to the listener as soon as it has been
+     * planned, along with its part of the flight path. An order which cannot be delivered is handed over with no
+     * moves.
+     *
+     * @param orders    the orders
+     * @param onPlanned the listener to call with each order and its moves, in the order they are flown
+     *
+     * @return the full flight path for the given orders
+     */
+    public FlightPathNode[] generateFullPath(Order[] orders, BiConsumer<Order, List<FlightPathNode>> onPlanned) {
+        var fullPath = new ArrayList<FlightPathNode>();
 
         for (int i = 0; i < orders.length; i++) {
-            Order                order      = orders[i];
-            List<FlightPathNode> toAppleton = generate(order);
-            if (toAppleton.isEmpty()) continue;
-            List<FlightPathNode> toRestaurant = reversePath(toAppleton);
-
-            // Go from Appleton to restaurant.
-            fullPath.addAll(toRestaurant);
-
-            // Hover at restaurant.
-            fullPath.add(new FlightPathNode(order.getOrderNo(),
-                                            toAppleton.get(0).fromCoordinate(),
-                                            999,
-                                            toAppleton.get(0).toCoordinate()
-            ));
-
-            // Go from restaurant to Appleton.
-            fullPath.addAll(toAppleton);
-
-            // Hover at Appleton.
-            fullPath.add(new FlightPathNode(order.getOrderNo(),
-                                            toRestaurant.get(0).fromCoordinate(),
-                                            999,
-                                            toRestaurant.get(0).toCoordinate()
-            ));
-
-            System.out.print("\rGenerated flight path for " + (i + 1) + " orders.");
+            List<FlightPathNode> orderPath = generateOrderPath(orders[i]);
+            fullPath.addAll(orderPath);
+            onPlanned.accept(orders[i], orderPath);
+            if (!orderPath.isEmpty()) System.out.print("\rGenerated flight path for " + (i + 1) + " orders.");
         }
         System.out.println();
 
         return fullPath.toArray(FlightPathNode[]::new);
     }
 
+    /**
+     * Generates the round trip for a single order, from Appleton Tower to the restaurant and back, hovering at each
+     * end, and sets the status of the order.
+     *
+     * @param order the order, which must be valid
+     *
+     * @return the moves of the round trip, which are empty if the order cannot be delivered
+     */
+    public List<FlightPathNode> generateOrderPath(Order order) {
+        List<FlightPathNode> toAppleton = generate(order);
+        if (toAppleton.isEmpty()) return List.of();
+        List<FlightPathNode> toRestaurant = reversePath(toAppleton);
+        var                  path         = new ArrayList<FlightPathNode>(toRestaurant.size() + toAppleton.size() + 2);
+
+        // Go from Appleton to restaurant.
+        path.addAll(toRestaurant);
+
+        // Hover at restaurant.
+        path.add(new FlightPathNode(order.getOrderNo(),
+                                    toAppleton.get(0).fromCoordinate(),
+                                    HOVER_ANGLE,
+                                    toAppleton.get(0).toCoordinate()
+        ));
+
+        // Go from restaurant to Appleton.
+        path.addAll(toAppleton);
+
+        // Hover at Appleton.
+        path.add(new FlightPathNode(order.getOrderNo(),
+                                    toRestaurant.get(0).fromCoordinate(),
+                                    HOVER_ANGLE,
+                                    toRestaurant.get(0).toCoordinate()
+        ));
+
+        return List.copyOf(path);
+    }
+
     /**
      * Generates the flight path for the given order.
      *
@@ -99,39 +151,67 @@ public class FlightPathGenerator {
      * @return the flight path for the given order
      */
     private List<FlightPathNode> generate(Order order) {
-        Restaurant restaurant = getOrderRestaurant(order, restaurants);
+        Restaurant restaurant = getOrderRestaurant(order);
         assert restaurant != null;
 
+        // Build the path out of new FlightPathNodes, and set the order number.
+        List<FlightPathNode> path = route(restaurant)
+                .stream()
+                .map(node -> new FlightPathNode(order.getOrderNo(), node))
+                .toList();
+
+        order.setOrderStatus(path.isEmpty() ? OrderStatus.VALID_BUT_NOT_DELIVERED : OrderStatus.DELIVERED);
+        return path;
+    }
+
+    /**
+     * Searches for the path from every restaurant to Appleton Tower ahead of time, so that the first orders from each
+     * restaurant do not have to wait for it.
+     */
+    public void warmUp() {
+        warmUp(Runnable::run);
+    }
+
+    /**
+     * Searches for the path from every restaurant to Appleton Tower ahead of time on the given executor, each search
+     * as a task of its own, and waits for every search to finish.
+     *
+     * @param executor the executor to search on
+     */
+    public void warmUp(Executor executor) {
+        CompletableFuture.allOf(Arrays.stream(menuIndex.getRestaurants())
+                                      .map(restaurant -> CompletableFuture.runAsync(() -> route(restaurant), executor))
+                                      .toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Gets the path from the given restaurant to Appleton Tower, searching for it if it is not in the cache yet.
+     *
+     * @param restaurant the restaurant
+     *
+     * @return the path, without order numbers, which is empty if there is no path
+     */
+    private List<FlightPathNode> route(Restaurant restaurant) {
         // Set the start position to the restaurant, and the goal position to Appleton Tower.
         LngLat start = restaurant.location();
         var    goal  = new LngLat(-3.186874, 55.944494);
 
         // Fetch the flight from the cache, or compute it if it is not in the cache.
-        List<FlightPathNode> path = cache.computeIfAbsent(restaurant.name(), __ -> aStar(start, goal, 16));
-        // Build the path out of new FlightPathNodes, and set the order number.
-        path = path.stream().map(node -> new FlightPathNode(order.getOrderNo(), node)).toList();
-
-        order.setOrderStatus(path.isEmpty() ? OrderStatus.VALID_BUT_NOT_DELIVERED : OrderStatus.DELIVERED);
-        return path;
+        return cache.computeIfAbsent(restaurant.name(), __ -> aStar(start, goal, 16));
     }
 
     /**
      * Gets the restaurant from the given order.
      *
-     * @param order       The order to get the restaurant from.
-     * @param restaurants The list of restaurants to search through.
+     * @param order The order to get the restaurant from.
      *
      * @return The restaurant from the given order.
      */
-    private Restaurant getOrderRestaurant(Order order, Restaurant[] restaurants) {
-        // As this method is only called on valid orders, it is safe to just find the first restaurant that sells the
+    private Restaurant getOrderRestaurant(Order order) {
+        // As this method is only called on valid orders, it is safe to just look up the restaurant that sells the
         // first pizza in the order.
-        for (Restaurant restaurant : restaurants) {
-            for (Pizza pizza : restaurant.menu()) {
-                if (pizza.name().equals(order.getPizzasInOrder()[0].name())) return restaurant;
-            }
-        }
-        return null;
+        MenuIndex.MenuEntry menuEntry = menuIndex.lookup(order.getPizzasInOrder()[0].name());
+        return menuEntry == null ? null : menuEntry.restaurant();
     }
 
     /**
@@ -162,7 +242,7 @@ public class FlightPathGenerator {
      * @return the shortest path from the start to the goal
      */
     private List<FlightPathNode> aStar(LngLat start, LngLat goal, int maxNeighbours) {
-        long startTime = System.currentTimeMillis();
+        int expansions = 0;
 
         // The set of nodes already evaluated.
         var cameFrom = new HashMap<LngLat, FlightPathNode>();
@@ -182,9 +262,10 @@ public class FlightPathGenerator {
         openSet.add(start);
 
         while (!openSet.isEmpty()) {
-            // If the algorithm has been running for too long, try again with a smaller number of neighbours, until
-            // the number of neighbours is 4, in which case return an empty list.
-            if (System.currentTimeMillis() - startTime > timeLimit)
+            // If the algorithm has expanded too many nodes, try again with a smaller number of neighbours, until the
+            // number of neighbours is 4, in which case return an empty list. The limit counts nodes rather than time,
+            // so that the path found does not depend on how busy the machine is.
+            if (++expansions > MAX_EXPANSIONS)
                 return maxNeighbours > 4 ? aStar(start, goal, maxNeighbours / 2) : new LinkedList<>();
 
             // Get the next node to evaluate, and if it is the goal, return the path to it.
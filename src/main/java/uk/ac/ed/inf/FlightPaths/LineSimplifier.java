@@ -0,0 +1,127 @@
+package uk.ac.ed.inf.FlightPaths;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simplifies the lines drawn along a flight path, by removing points which add little or nothing to their shape.
+ */
+public final class LineSimplifier {
+    /**
+     * The largest difference in radians between two directions which are treated as the same. Moves at the same
+     * angle differ by far less than this once rounded to coordinates, and moves at different angles by far more.
+     */
+    private static final double DIRECTION_TOLERANCE = 1e-9;
+
+    /**
+     * This class only has static methods, so cannot be instantiated.
+     */
+    private LineSimplifier() {}
+
+    /**
+     * Removes the points in the middle of straight runs of moves, and repeated points. A point is in the middle of a
+     * straight run if the line reaches it and leaves it in the same direction, so the shape of the line is unchanged.
+     * Directions are compared from the coordinates rather than the angles of the moves, as the paths to restaurants
+     * are the paths back reversed, whose moves do not fly in the direction of their angles.
+     *
+     * @param points The points of the line.
+     *
+     * @return The points which are kept, in order.
+     */
+    public static List<LngLat> mergeStraightRuns(List<LngLat> points) {
+        var distinct = new ArrayList<LngLat>(points.size());
+        for (LngLat point : points)
+            if (distinct.isEmpty() || !point.equals(distinct.get(distinct.size() - 1))) distinct.add(point);
+        if (distinct.size() < 3) return distinct;
+
+        var kept = new ArrayList<LngLat>(distinct.size());
+        kept.add(distinct.get(0));
+        for (int i = 1; i < distinct.size() - 1; i++) {
+            double in  = direction(kept.get(kept.size() - 1), distinct.get(i));
+            double out = direction(distinct.get(i), distinct.get(i + 1));
+            if (Math.abs(in - out) > DIRECTION_TOLERANCE) kept.add(distinct.get(i));
+        }
+        kept.add(distinct.get(distinct.size() - 1));
+        return kept;
+    }
+
+    /**
+     * Simplifies a line with the <a href=https://en.wikipedia.org/wiki/Ramer%E2%80%93Douglas%E2%80%93Peucker_algorithm>
+     * Douglas-Peucker algorithm</a>, so that no point removed is further than the tolerance from the simplified line.
+     *
+     * @param points    The points of the line.
+     * @param tolerance The furthest a point removed may be from the simplified line, in degrees.
+     *
+     * @return The points which are kept, in order.
+     */
+    public static List<LngLat> douglasPeucker(List<LngLat> points, double tolerance) {
+        if (points.size() < 3 || tolerance <= 0) return points;
+        var keep = new boolean[points.size()];
+        keep[0] = true;
+        keep[points.size() - 1] = true;
+
+        // Each section is stored as its first and last index. A stack avoids recursing once per point of long lines.
+        var    sections           = new ArrayDeque<int[]>();
+        double toleranceSquared   = tolerance * tolerance;
+        sections.push(new int[] { 0, points.size() - 1 });
+        while (!sections.isEmpty()) {
+            int[]  section          = sections.pop();
+            int    furthest         = -1;
+            double furthestDistance = toleranceSquared;
+            for (int i = section[0] + 1; i < section[1]; i++) {
+                double distance = distanceSquared(points.get(i), points.get(section[0]), points.get(section[1]));
+                if (distance > furthestDistance) {
+                    furthest = i;
+                    furthestDistance = distance;
+                }
+            }
+            if (furthest < 0) continue;
+            keep[furthest] = true;
+            sections.push(new int[] { section[0], furthest });
+            sections.push(new int[] { furthest, section[1] });
+        }
+
+        var kept = new ArrayList<LngLat>();
+        for (int i = 0; i < points.size(); i++)
+            if (keep[i]) kept.add(points.get(i));
+        return kept;
+    }
+
+    /**
+     * Calculates the direction from one point to another.
+     *
+     * @param from The point to start from.
+     * @param to   The point to end at, which is not the same as the start.
+     *
+     * @return The direction, in radians.
+     */
+    private static double direction(LngLat from, LngLat to) {
+        return Math.atan2(to.lat() - from.lat(), to.lng() - from.lng());
+    }
+
+    /**
+     * Calculates the square of the distance from a point to a line segment.
+     *
+     * @param point The point.
+     * @param start The start of the segment.
+     * @param end   The end of the segment.
+     *
+     * @return The square of the distance.
+     */
+    private static double distanceSquared(LngLat point, LngLat start, LngLat end) {
+        double dx           = end.lng() - start.lng();
+        double dy           = end.lat() - start.lat();
+        double lengthSquared = dx * dx + dy * dy;
+        double t            = 0;
+        if (lengthSquared > 0) {
+            t = ((point.lng() - start.lng()) * dx + (point.lat() - start.lat()) * dy) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+        double x = point.lng() - (start.lng() + t * dx);
+        double y = point.lat() - (start.lat() + t * dy);
+        return x * x + y * y;
+    }
+}
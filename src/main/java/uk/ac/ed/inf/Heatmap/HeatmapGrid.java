@@ -0,0 +1,120 @@
+package uk.ac.ed.inf.Heatmap;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * A grid of square cells which moves are counted in. Cells are numbered from the south-west corner, along each row
+ * from west to east and then row by row northwards.
+ *
+ * @param west     The longitude of the western edge of the grid.
+ * @param south    The latitude of the southern edge of the grid.
+ * @param cellSize The width and height of each cell, in degrees.
+ * @param columns  The number of cells across the grid.
+ * @param rows     The number of cells up the grid.
+ */
+public record HeatmapGrid(
+        double west,
+        double south,
+        double cellSize,
+        int columns,
+        int rows
+) {
+    /**
+     * The size of the cells if none is given, which is the distance of a single move of the drone.
+     */
+    public static final double DEFAULT_CELL_SIZE = SystemConstants.DRONE_MOVE_DISTANCE;
+
+    /**
+     * Creates an instance of the {@link HeatmapGrid} record.
+     *
+     * @param west     The longitude of the western edge of the grid.
+     * @param south    The latitude of the southern edge of the grid.
+     * @param cellSize The width and height of each cell, in degrees.
+     * @param columns  The number of cells across the grid.
+     * @param rows     The number of cells up the grid.
+     *
+     * @throws IllegalArgumentException If the cell size is not positive, or the grid has no cells or too many.
+     */
+    public HeatmapGrid {
+        if (!(cellSize > 0) || !Double.isFinite(cellSize)) {
+            throw new IllegalArgumentException("The cell size of a heatmap must be a positive number of degrees.");
+        }
+        if (columns <= 0 || rows <= 0 || (long) columns * rows > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A heatmap must have between 1 and " + (Integer.MAX_VALUE - 8)
+                                               + " cells.");
+        }
+    }
+
+    /**
+     * Creates the grid of the given cell size which covers the bounding box of a region.
+     *
+     * @param region   The region to cover.
+     * @param cellSize The width and height of each cell, in degrees.
+     *
+     * @return The grid.
+     *
+     * @throws IllegalArgumentException If the cell size is not positive, or too small for the region.
+     */
+    public static HeatmapGrid covering(NamedRegion region, double cellSize) {
+        double west  = Double.POSITIVE_INFINITY;
+        double south = Double.POSITIVE_INFINITY;
+        double east  = Double.NEGATIVE_INFINITY;
+        double north = Double.NEGATIVE_INFINITY;
+        for (LngLat vertex : region.vertices()) {
+            west = Math.min(west, vertex.lng());
+            south = Math.min(south, vertex.lat());
+            east = Math.max(east, vertex.lng());
+            north = Math.max(north, vertex.lat());
+        }
+        double columns = Math.max(1, Math.ceil((east - west) / cellSize));
+        double rows    = Math.max(1, Math.ceil((north - south) / cellSize));
+        return new HeatmapGrid(west, south, cellSize, (int) Math.min(columns, Integer.MAX_VALUE),
+                               (int) Math.min(rows, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Gets the number of cells in the grid.
+     *
+     * @return The number of cells.
+     */
+    public int cellCount() {
+        return columns * rows;
+    }
+
+    /**
+     * Gets the longitude of the eastern edge of the grid.
+     *
+     * @return The longitude.
+     */
+    public double east() {
+        return west + columns * cellSize;
+    }
+
+    /**
+     * Gets the latitude of the northern edge of the grid.
+     *
+     * @return The latitude.
+     */
+    public double north() {
+        return south + rows * cellSize;
+    }
+
+    /**
+     * Gets the cell containing a point. Points on the boundary between two cells are in the cell to the north or
+     * east.
+     *
+     * @param lng The longitude of the point.
+     * @param lat The latitude of the point.
+     *
+     * @return The number of the cell, or -1 if the point is outside the grid.
+     */
+    public int cell(double lng, double lat) {
+        double column = Math.floor((lng - west) / cellSize);
+        double row    = Math.floor((lat - south) / cellSize);
+        // Written so that NaN coordinates also fall outside the grid.
+        if (!(column >= 0 && column < columns && row >= 0 && row < rows)) return -1;
+        return (int) row * columns + (int) column;
+    }
+}
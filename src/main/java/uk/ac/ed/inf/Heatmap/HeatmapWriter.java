@@ -0,0 +1,181 @@
+package uk.ac.ed.inf.Heatmap;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes a {@link TrafficHeatmap} as a raster, for GIS tools, or as a GeoJSON layer of grid cells, for web maps.
+ */
+public final class HeatmapWriter {
+    /**
+     * The factory the GeoJSON layers are written with.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * This class only has static methods, so cannot be instantiated.
+     */
+    private HeatmapWriter() {
+    }
+
+    /**
+     * Writes a heatmap as an ESRI ASCII grid, with the count of each cell written row by row from the north.
+     *
+     * @param path    The path of the file to write, which is replaced if it exists.
+     * @param heatmap The heatmap to write.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public static Path writeRaster(Path path, TrafficHeatmap heatmap) throws IOException {
+        HeatmapGrid grid = heatmap.getGrid();
+        createParentDirectories(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            writer.write("ncols " + grid.columns() + "\n");
+            writer.write("nrows " + grid.rows() + "\n");
+            writer.write("xllcorner " + grid.west() + "\n");
+            writer.write("yllcorner " + grid.south() + "\n");
+            writer.write("cellsize " + grid.cellSize() + "\n");
+            for (int row = grid.rows() - 1; row >= 0; row--) {
+                for (int column = 0; column < grid.columns(); column++) {
+                    if (column > 0) writer.write(' ');
+                    writer.write(Long.toString(heatmap.getCount(column, row)));
+                }
+                writer.write('\n');
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Writes a heatmap as a GeoJSON feature collection, with a square polygon for each cell any move was counted in.
+     * Each feature has the number of moves counted in the cell and its column and row as properties.
+     *
+     * @param path    The path of the file to write, which is replaced if it exists.
+     * @param heatmap The heatmap to write.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public static Path writeGeoJSON(Path path, TrafficHeatmap heatmap) throws IOException {
+        HeatmapGrid grid = heatmap.getGrid();
+        createParentDirectories(path);
+        try (JsonGenerator json = FACTORY.createGenerator(Files.newOutputStream(path), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+            for (int row = 0; row < grid.rows(); row++) {
+                for (int column = 0; column < grid.columns(); column++) {
+                    long count = heatmap.getCount(column, row);
+                    if (count > 0) writeCell(json, grid, column, row, count);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return path;
+    }
+
+    /**
+     * Counts the moves of every flight path in a directory into a traffic heatmap, and writes it both as a raster and
+     * as a GeoJSON grid alongside them, reporting how many moves were counted.
+     *
+     * @param directory The directory of the flight path files, which the heatmap is written to.
+     * @param grid      The grid to count the moves in.
+     * @param pool      The pool to read the flight path files on in parallel.
+     *
+     * @return The heatmap.
+     *
+     * @throws IOException If a flight path file could not be read, or the heatmap could not be written.
+     */
+    public static TrafficHeatmap writeTraffic(Path directory, HeatmapGrid grid, ForkJoinPool pool) throws IOException {
+        long           startTime = System.nanoTime();
+        List<Path>     files     = TrafficAggregator.findFlightPathFiles(directory);
+        TrafficHeatmap heatmap   = new TrafficAggregator(grid, pool).aggregate(files);
+        writeRaster(directory.resolve("traffic.asc"), heatmap);
+        writeGeoJSON(directory.resolve("traffic.geojson"), heatmap);
+        System.out.println("Wrote heatmap of " + heatmap.getTotal() + " moves over " + files.size() + " days in "
+                           + (System.nanoTime() - startTime) / 1_000_000 + "ms.");
+        return heatmap;
+    }
+
+    /**
+     * Writes the feature of a single cell.
+     *
+     * @param json   The generator to write to.
+     * @param grid   The grid of the heatmap.
+     * @param column The column of the cell.
+     * @param row    The row of the cell.
+     * @param count  The number of moves counted in the cell.
+     *
+     * @throws IOException If the feature could not be written.
+     */
+    private static void writeCell(JsonGenerator json, HeatmapGrid grid, int column, int row, long count)
+            throws IOException {
+        double west  = grid.west() + column * grid.cellSize();
+        double east  = grid.west() + (column + 1) * grid.cellSize();
+        double south = grid.south() + row * grid.cellSize();
+        double north = grid.south() + (row + 1) * grid.cellSize();
+
+        json.writeStartObject();
+        json.writeStringField("type", "Feature");
+        json.writeObjectFieldStart("geometry");
+        json.writeStringField("type", "Polygon");
+        json.writeArrayFieldStart("coordinates");
+        json.writeStartArray();
+        // The ring goes anticlockwise and ends where it starts, as GeoJSON requires.
+        writePosition(json, west, south);
+        writePosition(json, east, south);
+        writePosition(json, east, north);
+        writePosition(json, west, north);
+        writePosition(json, west, south);
+        json.writeEndArray();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeObjectFieldStart("properties");
+        json.writeNumberField("count", count);
+        json.writeNumberField("column", column);
+        json.writeNumberField("row", row);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes a position as a longitude and latitude pair.
+     *
+     * @param json The generator to write to.
+     * @param lng  The longitude.
+     * @param lat  The latitude.
+     *
+     * @throws IOException If the position could not be written.
+     */
+    private static void writePosition(JsonGenerator json, double lng, double lat) throws IOException {
+        json.writeStartArray();
+        json.writeNumber(lng);
+        json.writeNumber(lat);
+        json.writeEndArray();
+    }
+
+    /**
+     * Creates the directory a file is written to, if it does not exist.
+     *
+     * @param path The path of the file.
+     *
+     * @throws IOException If the directory could not be created.
+     */
+    private static void createParentDirectories(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+    }
+}
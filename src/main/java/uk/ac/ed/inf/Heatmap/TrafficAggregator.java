@@ -0,0 +1,227 @@
+package uk.ac.ed.inf.Heatmap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import uk.ac.ed.inf.Archive.FlightPathArchive;
+import uk.ac.ed.inf.Output.NDJSONWriter;
+import uk.ac.ed.inf.Output.OutputFileType;
+import uk.ac.ed.inf.Output.OutputReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link TrafficHeatmap} from the flight paths saved over many days. The files are read in parallel, each
+ * into a heatmap of its own, and the heatmaps are merged as the reads finish.
+ * <p>
+ * Archives are read straight from their moves. Flight path files, whether JSON arrays, newline-delimited JSON or
+ * compressed, are read a token at a time, picking out the coordinates each move starts from without building any
+ * objects for the moves.
+ */
+public class TrafficAggregator {
+    /**
+     * The extensions of the flight path files which can be read, from the quickest to read to the slowest.
+     */
+    private static final List<String> EXTENSIONS = List.of(FlightPathArchive.EXTENSION, ".json", ".json.gz",
+                                                           NDJSONWriter.EXTENSION);
+    /**
+     * The factory the flight path files are parsed with.
+     */
+    private static final JsonFactory  FACTORY    = new JsonFactory();
+
+    /**
+     * Stores the grid the moves are counted in.
+     */
+    private final HeatmapGrid  grid;
+    /**
+     * Stores the pool the files are read on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an instance of the {@link TrafficAggregator} class.
+     *
+     * @param grid The grid to count the moves in.
+     * @param pool The pool to read the files on.
+     */
+    public TrafficAggregator(HeatmapGrid grid, ForkJoinPool pool) {
+        this.grid = grid;
+        this.pool = pool;
+    }
+
+    /**
+     * Finds the saved flight path of each day in a directory. If a day has been saved in more than one form, only the
+     * quickest to read is used, so that no day is counted twice.
+     *
+     * @param directory The directory the flight paths were saved to.
+     *
+     * @return The files, in order of date.
+     *
+     * @throws IOException If the directory could not be listed.
+     */
+    public static List<Path> findFlightPathFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        String prefix = OutputFileType.FLIGHT_PATH.getPrefix() + "-";
+        var    days   = new TreeMap<LocalDate, Path>();
+        var    ranks  = new TreeMap<LocalDate, Integer>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(prefix)) continue;
+                for (int rank = 0; rank < EXTENSIONS.size(); rank++) {
+                    String extension = EXTENSIONS.get(rank);
+                    if (!name.endsWith(extension)) continue;
+                    LocalDate date;
+                    try {
+                        date = LocalDate.parse(name.substring(prefix.length(), name.length() - extension.length()));
+                    } catch (DateTimeParseException ignored) {
+                        // Not a file written by the application, or a different extension ends the same way.
+                        continue;
+                    }
+                    if (ranks.getOrDefault(date, Integer.MAX_VALUE) > rank) {
+                        days.put(date, file);
+                        ranks.put(date, rank);
+                    }
+                }
+            }
+        }
+        return List.copyOf(days.values());
+    }
+
+    /**
+     * Counts the moves of the flight paths saved in the given files.
+     *
+     * @param files The files, each of which is either an archive or a flight path file.
+     *
+     * @return The heatmap of the moves.
+     *
+     * @throws IOException If any of the files could not be read.
+     */
+    public TrafficHeatmap aggregate(List<Path> files) throws IOException {
+        try {
+            return pool.invoke(new AggregationTask(files, 0, files.size()));
+        } catch (UncheckedIOException err) {
+            throw err.getCause();
+        }
+    }
+
+    /**
+     * Counts the moves of the flight path saved in a file.
+     *
+     * @param file    The file, which is either an archive or a flight path file.
+     * @param heatmap The heatmap to count the moves into.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    public static void read(Path file, TrafficHeatmap heatmap) throws IOException {
+        if (file.getFileName().toString().endsWith(FlightPathArchive.EXTENSION)) {
+            heatmap.addAll(FlightPathArchive.open(file).readAll());
+            return;
+        }
+        try (JsonParser parser = FACTORY.createParser(OutputReader.open(file))) {
+            // Works for both an array of moves and one move per line, as only the objects are looked at.
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) readMove(parser, heatmap);
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of a move from its opening brace, and counts it.
+     *
+     * @param parser  The parser, positioned at the start of the move.
+     * @param heatmap The heatmap to count the move into.
+     *
+     * @throws IOException If the move could not be read.
+     */
+    private static void readMove(JsonParser parser, TrafficHeatmap heatmap) throws IOException {
+        double lng = Double.NaN;
+        double lat = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "fromLongitude" -> lng = parser.getDoubleValue();
+                case "fromLatitude" -> lat = parser.getDoubleValue();
+                default -> parser.skipChildren();
+            }
+        }
+        heatmap.add(lng, lat);
+    }
+
+    /**
+     * Reads a slice of the files, splitting it until each task reads a single file. Like every fork-join task it is
+     * serializable, but it is never serialized, so its fields are transient.
+     */
+    private class AggregationTask extends RecursiveTask<TrafficHeatmap> {
+        /**
+         * The version of the serialized form of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Stores all the files.
+         */
+        private final transient List<Path> files;
+        /**
+         * Stores the index of the first file in the slice.
+         */
+        private final transient int        start;
+        /**
+         * Stores the index after the last file in the slice.
+         */
+        private final transient int        end;
+
+        /**
+         * Creates a task to read a slice of the files.
+         *
+         * @param files All the files.
+         * @param start The index of the first file in the slice.
+         * @param end   The index after the last file in the slice.
+         */
+        private AggregationTask(List<Path> files, int start, int end) {
+            this.files = files;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Reads the slice of files.
+         *
+         * @return The heatmap of the moves in the slice.
+         *
+         * @throws UncheckedIOException If any of the files could not be read.
+         */
+        @Override
+        protected TrafficHeatmap compute() {
+            if (end - start > 1) {
+                // Read one half on this thread while the other is stolen, merging them once both are done.
+                int middle = (start + end) >>> 1;
+                var left   = new AggregationTask(files, start, middle);
+                left.fork();
+                TrafficHeatmap heatmap = new AggregationTask(files, middle, end).compute();
+                return heatmap.merge(left.join());
+            }
+            var heatmap = new TrafficHeatmap(grid);
+            if (start < end) {
+                try {
+                    read(files.get(start), heatmap);
+                } catch (IOException err) {
+                    throw new UncheckedIOException(err);
+                }
+            }
+            return heatmap;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package uk.ac.ed.inf.Heatmap;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+
+import java.util.stream.Collector;
+
+/**
+ * Counts the moves of the drone in each cell of a {@link HeatmapGrid}. Each move is counted in the cell it starts
+ * from, so a hover counts as a move in the cell it hovers in.
+ * <p>
+ * A heatmap is not thread-safe. To count moves on several threads, each thread counts into a heatmap of its own, and
+ * the heatmaps are merged at the end, as {@link #collector(HeatmapGrid)} does for parallel streams.
+ */
+public class TrafficHeatmap {
+    /**
+     * Stores the grid the moves are counted in.
+     */
+    private final HeatmapGrid grid;
+    /**
+     * Stores the number of moves in each cell, indexed by the number of the cell.
+     */
+    private final long[]      counts;
+    /**
+     * Stores the number of moves which started outside the grid.
+     */
+    private       long        outside;
+
+    /**
+     * Creates an empty instance of the {@link TrafficHeatmap} class.
+     *
+     * @param grid The grid to count the moves in.
+     */
+    public TrafficHeatmap(HeatmapGrid grid) {
+        this.grid = grid;
+        this.counts = new long[grid.cellCount()];
+    }
+
+    /**
+     * Gets a collector which counts a stream of moves into a new heatmap. Parallel streams count into a heatmap per
+     * thread, which are merged once the stream is exhausted.
+     *
+     * @param grid The grid to count the moves in.
+     *
+     * @return The collector.
+     */
+    public static Collector<FlightPathNode, ?, TrafficHeatmap> collector(HeatmapGrid grid) {
+        return Collector.of(() -> new TrafficHeatmap(grid),
+                            TrafficHeatmap::add,
+                            TrafficHeatmap::merge,
+                            Collector.Characteristics.UNORDERED,
+                            Collector.Characteristics.IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * Gets the grid the moves are counted in.
+     *
+     * @return The grid.
+     */
+    public HeatmapGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Counts a move.
+     *
+     * @param move The move.
+     */
+    public void add(FlightPathNode move) {
+        add(move.fromCoordinate().lng(), move.fromCoordinate().lat());
+    }
+
+    /**
+     * Counts a move starting from the given point.
+     *
+     * @param lng The longitude the move starts from.
+     * @param lat The latitude the move starts from.
+     */
+    public void add(double lng, double lat) {
+        int cell = grid.cell(lng, lat);
+        if (cell < 0) outside++;
+        else counts[cell]++;
+    }
+
+    /**
+     * Counts every move of a flight path.
+     *
+     * @param moves The moves.
+     */
+    public void addAll(Iterable<FlightPathNode> moves) {
+        for (FlightPathNode move : moves)
+            add(move);
+    }
+
+    /**
+     * Counts every move of a flight path.
+     *
+     * @param moves The moves.
+     */
+    public void addAll(FlightPathNode[] moves) {
+        for (FlightPathNode move : moves)
+            add(move);
+    }
+
+    /**
+     * Adds the counts of another heatmap to this one.
+     *
+     * @param other The heatmap to add, which must have the same grid.
+     *
+     * @return This heatmap.
+     *
+     * @throws IllegalArgumentException If the heatmaps have different grids.
+     */
+    public TrafficHeatmap merge(TrafficHeatmap other) {
+        if (!grid.equals(other.grid)) {
+            throw new IllegalArgumentException("Only heatmaps of the same grid can be merged.");
+        }
+        for (int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+        outside += other.outside;
+        return this;
+    }
+
+    /**
+     * Gets the number of moves counted in a cell.
+     *
+     * @param column The column of the cell, counting from the west.
+     * @param row    The row of the cell, counting from the south.
+     *
+     * @return The number of moves.
+     *
+     * @throws IndexOutOfBoundsException If the cell is outside the grid.
+     */
+    public long getCount(int column, int row) {
+        if (column < 0 || column >= grid.columns() || row < 0 || row >= grid.rows()) {
+            throw new IndexOutOfBoundsException("Cell " + column + ", " + row + " is outside the grid.");
+        }
+        return counts[row * grid.columns() + column];
+    }
+
+    /**
+     * Gets the number of moves which started outside the grid.
+     *
+     * @return The number of moves.
+     */
+    public long getOutside() {
+        return outside;
+    }
+
+    /**
+     * Gets the number of moves counted, both inside and outside the grid.
+     *
+     * @return The number of moves.
+     */
+    public long getTotal() {
+        long total = outside;
+        for (long count : counts)
+            total += count;
+        return total;
+    }
+
+    /**
+     * Gets the highest number of moves counted in a single cell.
+     *
+     * @return The number of moves.
+     */
+    public long getMaximum() {
+        long maximum = 0;
+        for (long count : counts)
+            maximum = Math.max(maximum, count);
+        return maximum;
+    }
+}
@@ -0,0 +1,97 @@
+package uk.ac.ed.inf.Output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds everything a {@link JSONChannelWriter} writes in a chain of buffers taken from a {@link BufferPool}, rather
+ * than writing it to a channel as it goes. Each full buffer is kept as it is and replaced with a fresh one, so the
+ * contents are never copied before the whole chain is written to a channel with a single gathering write.
+ */
+public class BufferChain implements JSONChannelWriter.BufferSink {
+    /**
+     * Stores the pool the buffers are taken from.
+     */
+    private final BufferPool       pool;
+    /**
+     * Stores the buffers which have been filled, flipped ready to be written.
+     */
+    private final List<ByteBuffer> filled = new ArrayList<>();
+    /**
+     * Stores the buffer currently being written to.
+     */
+    private       ByteBuffer       current;
+
+    /**
+     * Creates an empty chain, taking its first buffer from the pool.
+     *
+     * @param pool The pool to take the buffers from.
+     */
+    public BufferChain(BufferPool pool) {
+        this.pool = pool;
+        this.current = pool.acquire();
+    }
+
+    /**
+     * Gets the buffer to start writing to.
+     *
+     * @return The first buffer.
+     */
+    public ByteBuffer first() {
+        return current;
+    }
+
+    /**
+     * Keeps a filled buffer in the chain and takes a fresh one from the pool.
+     *
+     * @param buffer The filled buffer, which must be the buffer most recently given out by the chain.
+     *
+     * @return A fresh buffer.
+     */
+    @Override
+    public ByteBuffer drain(ByteBuffer buffer) {
+        if (buffer.position() == 0) return buffer;
+        filled.add(buffer.flip());
+        current = pool.acquire();
+        return current;
+    }
+
+    /**
+     * Writes the contents of the chain to a channel, with a single gathering write if the channel supports it. The
+     * chain must have been flushed first.
+     *
+     * @param channel The channel to write to.
+     *
+     * @throws IOException If the channel could not be written to.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        if (channel instanceof GatheringByteChannel gathering) {
+            ByteBuffer[] buffers   = filled.toArray(ByteBuffer[]::new);
+            long         remaining = 0;
+            for (ByteBuffer buffer : buffers)
+                remaining += buffer.remaining();
+            while (remaining > 0)
+                remaining -= gathering.write(buffers);
+        } else {
+            for (ByteBuffer buffer : filled) {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns every buffer in the chain to the pool. The chain must not be used afterwards.
+     */
+    public void release() {
+        for (ByteBuffer buffer : filled)
+            pool.release(buffer);
+        filled.clear();
+        pool.release(current);
+        current = null;
+    }
+}
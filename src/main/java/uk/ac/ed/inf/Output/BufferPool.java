@@ -0,0 +1,91 @@
+package uk.ac.ed.inf.Output;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct {@link ByteBuffer}s of a fixed size, so that the native memory behind them is allocated once and
+ * reused for every file rather than allocated and freed per file.
+ * <p>
+ * The pool keeps at most a fixed number of free buffers. Buffers released once it is full are dropped, and their
+ * native memory freed when they are garbage collected, so that a burst of large files does not pin that memory for
+ * the rest of the run.
+ */
+public class BufferPool {
+    /**
+     * Stores the size of each buffer, in bytes.
+     */
+    private final int                               bufferSize;
+    /**
+     * Stores the most free buffers which are kept.
+     */
+    private final int                               maxBuffers;
+    /**
+     * Stores the buffers which are not in use.
+     */
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    /**
+     * Stores the number of buffers in the queue, or about to be added to it.
+     */
+    private final AtomicInteger                     size    = new AtomicInteger();
+
+    /**
+     * Creates an empty pool. Buffers are allocated as they are first needed.
+     *
+     * @param bufferSize The size of each buffer, in bytes.
+     * @param maxBuffers The most free buffers to keep.
+     *
+     * @throws IllegalArgumentException If the size of the buffers is not positive, or the number of buffers negative.
+     */
+    public BufferPool(int bufferSize, int maxBuffers) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("The size of the buffers must be positive");
+        if (maxBuffers < 0) throw new IllegalArgumentException("The number of buffers must not be negative");
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating a new one if none are free.
+     *
+     * @return The buffer.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) return ByteBuffer.allocateDirect(bufferSize);
+        size.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Returns a buffer to the pool, or drops it if the pool is full. The buffer must not be used by the caller
+     * afterwards.
+     *
+     * @param buffer The buffer.
+     */
+    public void release(ByteBuffer buffer) {
+        if (size.incrementAndGet() > maxBuffers) {
+            size.decrementAndGet();
+            return;
+        }
+        buffers.offer(buffer);
+    }
+
+    /**
+     * Gets the number of free buffers in the pool.
+     *
+     * @return The number of free buffers.
+     */
+    public int getFreeCount() {
+        return buffers.size();
+    }
+
+    /**
+     * Gets the size of each buffer.
+     *
+     * @return The size of each buffer, in bytes.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,147 @@
+package uk.ac.ed.inf.Output;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Encodes a long flight path in parallel. The path is split into chunks at the boundaries between orders, each chunk
+ * is encoded into its own {@link BufferChain} on a worker pool, and the chains are written to the file in order. The
+ * file is identical to one encoded by a single {@link JSONChannelWriter}.
+ * <p>
+ * Only a limited number of chunks are encoded ahead of the one being written, so the memory used does not grow with
+ * the length of the path.
+ */
+public class ChunkedFlightPathEncoder {
+    /**
+     * Stores the pool the chunks' buffers are taken from.
+     */
+    private final BufferPool   bufferPool;
+    /**
+     * Stores the pool the chunks are encoded on.
+     */
+    private final ForkJoinPool workers;
+    /**
+     * Stores whether the output is indented.
+     */
+    private final boolean      pretty;
+    /**
+     * Stores the smallest number of nodes in a chunk, other than the last.
+     */
+    private final int          chunkSize;
+
+    /**
+     * Creates an instance of the {@link ChunkedFlightPathEncoder} class.
+     *
+     * @param bufferPool The pool to take the chunks' buffers from.
+     * @param workers    The pool to encode the chunks on.
+     * @param pretty     Whether to indent the output.
+     * @param chunkSize  The smallest number of nodes in a chunk, other than the last.
+     */
+    public ChunkedFlightPathEncoder(BufferPool bufferPool, ForkJoinPool workers, boolean pretty, int chunkSize) {
+        this.bufferPool = bufferPool;
+        this.workers = workers;
+        this.pretty = pretty;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Splits a flight path into chunks of at least the given number of nodes, without splitting the nodes of an order
+     * between chunks. The last chunk may be smaller.
+     *
+     * @param flightPath The flight path.
+     * @param chunkSize  The smallest number of nodes in a chunk.
+     *
+     * @return The index of the first node of each chunk, followed by the length of the path.
+     */
+    public static int[] split(FlightPathNode[] flightPath, int chunkSize) {
+        var boundaries = new ArrayList<Integer>();
+        boundaries.add(0);
+        int start = 0;
+        for (int i = 1; i < flightPath.length; i++) {
+            if (i - start >= chunkSize && !Objects.equals(flightPath[i].orderNo(), flightPath[i - 1].orderNo())) {
+                boundaries.add(i);
+                start = i;
+            }
+        }
+        boundaries.add(flightPath.length);
+        return boundaries.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Encodes a flight path to a channel.
+     *
+     * @param flightPath The flight path.
+     * @param channel    The channel to write to.
+     *
+     * @throws IOException If the channel could not be written to.
+     */
+    public void write(FlightPathNode[] flightPath, WritableByteChannel channel) throws IOException {
+        int[] boundaries = split(flightPath, chunkSize);
+        int   chunks     = boundaries.length - 1;
+        int   window     = 2 * workers.getParallelism();
+
+        var pending = new ArrayDeque<CompletableFuture<BufferChain>>();
+        int next    = 0;
+        try {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                // Keep the workers busy with the chunks after this one while it is written.
+                while (next < chunks && next < chunk + window) {
+                    int index = next++;
+                    pending.add(CompletableFuture.supplyAsync(
+                            () -> encode(flightPath, boundaries[index], boundaries[index + 1], index, chunks),
+                            workers
+                    ));
+                }
+                BufferChain chain = pending.remove().join();
+                try {
+                    chain.writeTo(channel);
+                } finally {
+                    chain.release();
+                }
+            }
+        } catch (CompletionException err) {
+            if (err.getCause() instanceof IOException cause) throw cause;
+            throw err;
+        } finally {
+            // Return the buffers of any chunks which were encoded but never written.
+            for (CompletableFuture<BufferChain> future : pending)
+                future.thenAccept(BufferChain::release);
+        }
+    }
+
+    /**
+     * Encodes one chunk of a flight path.
+     *
+     * @param flightPath The flight path.
+     * @param from       The index of the first node of the chunk.
+     * @param to         The index after the last node of the chunk.
+     * @param chunk      The index of the chunk.
+     * @param chunks     The number of chunks.
+     *
+     * @return The chain of buffers holding the encoded chunk.
+     */
+    private BufferChain encode(FlightPathNode[] flightPath, int from, int to, int chunk, int chunks) {
+        var chain = new BufferChain(bufferPool);
+        var json  = new JSONChannelWriter(chain, chain.first(), pretty);
+        try {
+            if (chunk == 0) json.startArray();
+            else json.continueArray();
+            JSONEncoders.writeFlightPathNodes(json, flightPath, from, to);
+            if (chunk == chunks - 1) json.endArray();
+            else json.flush();
+            return chain;
+        } catch (IOException err) {
+            chain.release();
+            throw new CompletionException(err);
+        }
+    }
+}
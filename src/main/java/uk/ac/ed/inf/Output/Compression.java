@@ -0,0 +1,64 @@
+package uk.ac.ed.inf.Output;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Which output files are gzip compressed, and how. Compressed files have {@link #EXTENSION} added to their name, and
+ * are compressed as they are written rather than afterwards.
+ *
+ * @param fileTypes  The types of file to compress.
+ * @param level      The compression level, from 0 to 9, or -1 for the default level.
+ * @param bufferSize The size of the compressor's output buffer, in bytes.
+ */
+public record Compression(
+        Set<OutputFileType> fileTypes,
+        int level,
+        int bufferSize
+) {
+    /**
+     * The extension added to the name of a compressed file.
+     */
+    public static final String      EXTENSION           = ".gz";
+    /**
+     * The default size of the compressor's output buffer.
+     */
+    public static final int         DEFAULT_BUFFER_SIZE = 1 << 16;
+    /**
+     * No files are compressed.
+     */
+    public static final Compression NONE                = new Compression(
+            EnumSet.noneOf(OutputFileType.class),
+            Deflater.DEFAULT_COMPRESSION,
+            DEFAULT_BUFFER_SIZE
+    );
+
+    /**
+     * Creates an instance of the {@link Compression} record.
+     *
+     * @param fileTypes  The types of file to compress.
+     * @param level      The compression level, from 0 to 9, or -1 for the default level.
+     * @param bufferSize The size of the compressor's output buffer, in bytes.
+     *
+     * @throws IllegalArgumentException If the level or buffer size is out of range.
+     */
+    public Compression {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("The compression level must be between -1 and 9.");
+        }
+        if (bufferSize <= 0) throw new IllegalArgumentException("The compression buffer size must be positive.");
+        fileTypes = fileTypes.isEmpty() ? EnumSet.noneOf(OutputFileType.class) : EnumSet.copyOf(fileTypes);
+    }
+
+    /**
+     * Checks whether files of the given type are compressed.
+     *
+     * @param fileType The type of file.
+     *
+     * @return Whether the files are compressed.
+     */
+    public boolean appliesTo(OutputFileType fileType) {
+        return fileTypes.contains(fileType);
+    }
+}
@@ -0,0 +1,56 @@
+package uk.ac.ed.inf.Output;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * The outcome of generating the flight path and output files of a single date.
+ *
+ * @param date        The date.
+ * @param orders      The number of orders fetched for the date.
+ * @param validOrders The number of orders which were valid.
+ * @param delivered   The number of orders which were delivered.
+ * @param moves       The number of moves in the flight path.
+ * @param elapsedNano The time taken from fetching the orders to writing the last file, in nanoseconds.
+ */
+public record DateSummary(
+        LocalDate date,
+        int orders,
+        int validOrders,
+        int delivered,
+        int moves,
+        long elapsedNano
+) {
+    /**
+     * The header of the CSV file the summaries are written to, naming the values of {@link #toCSV()}.
+     */
+    public static final String CSV_HEADER = "date,orders,validOrders,delivered,moves,elapsedMillis,ordersPerSecond";
+
+    /**
+     * Gets the time taken for the date.
+     *
+     * @return The elapsed time, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedNano / 1_000_000;
+    }
+
+    /**
+     * Gets the number of orders handled each second for the date.
+     *
+     * @return The throughput, in orders per second, or 0 if no time was taken.
+     */
+    public double getOrdersPerSecond() {
+        return elapsedNano == 0 ? 0 : orders * 1e9 / elapsedNano;
+    }
+
+    /**
+     * Gets the summary as a line of CSV, without a line separator.
+     *
+     * @return The line.
+     */
+    public String toCSV() {
+        return date + "," + orders + "," + validOrders + "," + delivered + "," + moves + "," + getElapsedMillis() + ","
+               + String.format(Locale.ROOT, "%.1f", getOrdersPerSecond());
+    }
+}
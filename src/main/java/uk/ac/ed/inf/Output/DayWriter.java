@@ -0,0 +1,131 @@
+package uk.ac.ed.inf.Output;
+
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Tiles.TilePyramidWriter;
+import uk.ac.ed.inf.Tiles.ZoomRange;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Writes every output file of a date from its checkpoint: the deliveries, flight path and drone GeoJSON files, then
+ * the flight path archive and the tiles of the flight path if asked for. A file which could not be written is
+ * reported, and does not stop the others.
+ */
+public class DayWriter {
+    /**
+     * Stores the writer for the output files.
+     */
+    private final OutputWriter outputWriter;
+    /**
+     * Stores whether to write the flight path archive.
+     */
+    private final boolean      archive;
+    /**
+     * Stores whether the deliveries and flight path are streamed as they are planned, so are not written again.
+     */
+    private final boolean      streamed;
+    /**
+     * Stores the directory of the tile pyramid.
+     */
+    private final Path         tileDirectory;
+    /**
+     * Stores the zoom levels to add each flight path to the tile pyramid at, or null to write no tiles.
+     */
+    private final ZoomRange    tileZooms;
+    /**
+     * Stores the lock which stops two dates being added to the tile pyramid at the same time, as they share tiles.
+     */
+    private final Object       tileLock = new Object();
+
+    /**
+     * Creates an instance of the {@link DayWriter} class.
+     *
+     * @param outputWriter  The writer for the output files.
+     * @param archive       Whether to write the flight path archive.
+     * @param streamed      Whether the deliveries and flight path are streamed as they are planned.
+     * @param tileDirectory The directory of the tile pyramid.
+     * @param tileZooms     The zoom levels to add each flight path to the tile pyramid at, or null to write no tiles.
+     */
+    public DayWriter(OutputWriter outputWriter, boolean archive, boolean streamed, Path tileDirectory,
+                     ZoomRange tileZooms) {
+        this.outputWriter = outputWriter;
+        this.archive = archive;
+        this.streamed = streamed;
+        this.tileDirectory = tileDirectory;
+        this.tileZooms = tileZooms;
+    }
+
+    /**
+     * Writes the output files of a date from its checkpoint.
+     *
+     * @param checkpoint The checkpoint of the date.
+     *
+     * @return Whether the output files were written.
+     */
+    public boolean write(DayCheckpoint checkpoint) {
+        FlightPathNode[] flightPath = checkpoint.getFlightPath();
+        boolean          written    = writeOutputFiles(checkpoint.getDate(), checkpoint.getOrders(), flightPath);
+        if (tileZooms != null) writeTiles(checkpoint.getDate(), flightPath);
+        return written;
+    }
+
+    /**
+     * Writes the deliveries, flight path and drone GeoJSON files for the given date concurrently, reporting how long
+     * each took, followed by the flight path archive if asked for. If the deliveries and flight path have already been
+     * streamed, only the drone GeoJSON file is written.
+     *
+     * @param date       The date to generate the files for.
+     * @param orders     The orders of the date.
+     * @param flightPath The flight path of the date.
+     *
+     * @return Whether every file was written.
+     */
+    private boolean writeOutputFiles(LocalDate date, Order[] orders, FlightPathNode[] flightPath) {
+        try {
+            long startTime = System.nanoTime();
+            if (streamed) {
+                Path path = outputWriter.writeGeoJSON(date, flightPath);
+                System.out.println("Wrote data to " + path + " in " + (System.nanoTime() - startTime) / 1_000_000
+                                   + "ms.");
+            } else {
+                for (WrittenFile file : outputWriter.writeAll(date, orders, flightPath))
+                    System.out.println("Wrote data to " + file.path() + " in " + file.getElapsedMillis() + "ms.");
+            }
+            if (archive) {
+                long archiveStartTime = System.nanoTime();
+                Path path             = outputWriter.writeArchive(date, flightPath);
+                long elapsedMillis    = (System.nanoTime() - archiveStartTime) / 1_000_000;
+                System.out.println("Wrote archive to " + path + " in " + elapsedMillis + "ms.");
+            }
+            System.out.println("Wrote output files in " + (System.nanoTime() - startTime) / 1_000_000 + "ms.");
+            return true;
+        } catch (IOException err) {
+            System.err.println(err.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Adds the flight path for the given date to the tile pyramid, reporting how many tiles were rewritten.
+     *
+     * @param date       The date of the flight path.
+     * @param flightPath The flight path.
+     */
+    private void writeTiles(LocalDate date, FlightPathNode[] flightPath) {
+        try {
+            long startTime = System.nanoTime();
+            var  writer    = new TilePyramidWriter(tileDirectory, tileZooms);
+            int  tiles;
+            synchronized (tileLock) {
+                tiles = writer.addDay(date, flightPath).size();
+            }
+            System.out.println("Wrote " + tiles + " tiles in " + (System.nanoTime() - startTime) / 1_000_000 + "ms.");
+        } catch (IOException err) {
+            System.err.println(err.getMessage());
+        }
+    }
+}
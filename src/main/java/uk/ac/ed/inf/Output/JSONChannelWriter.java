@@ -0,0 +1,362 @@
+package uk.ac.ed.inf.Output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a JSON array of flat objects straight into a direct {@link ByteBuffer}, handing it to a {@link BufferSink},
+ * usually a channel, whenever it fills. The bytes written are identical to those of Jackson's
+ * {@code UTF8JsonGenerator}, with or without its default pretty printer. Doubles are written with
+ * {@link Double#toString(double)}, as Jackson does by default.
+ * <p>
+ * A writer is used by one thread at a time, and writes exactly one array, or one run of consecutive objects of an
+ * array which is split between several writers.
+ */
+public class JSONChannelWriter {
+    /**
+     * The hexadecimal digits, in the case Jackson uses for escapes.
+     */
+    private static final byte[] HEX              = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * The line separator used between the fields of a pretty printed object.
+     */
+    private static final byte[] LINE_SEPARATOR   = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    /**
+     * The indentation of the fields of an object in the array.
+     */
+    private static final byte[] INDENT           = "  ".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * The bytes written for a null value.
+     */
+    private static final byte[] NULL             = "null".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * The most bytes a single character of a string can be written as.
+     */
+    private static final int    MAX_CHAR_BYTES   = 6;
+    /**
+     * The most bytes a double can be written as, including the quotes around a non-finite value.
+     */
+    private static final int    MAX_DOUBLE_BYTES = 26;
+
+    /**
+     * Stores the sink the buffer is flushed to.
+     */
+    private final BufferSink sink;
+    /**
+     * Stores whether the output is indented.
+     */
+    private final boolean    pretty;
+    /**
+     * Stores the scratch space the digits of an int are written to before being copied to the buffer.
+     */
+    private final byte[]     scratch = new byte[10];
+    /**
+     * Stores the buffer being written to.
+     */
+    private       ByteBuffer buffer;
+    /**
+     * Stores the number of objects written to the array so far.
+     */
+    private       int        objectCount;
+    /**
+     * Stores the number of fields written to the current object so far.
+     */
+    private       int        fieldCount;
+
+    /**
+     * Creates an instance of the {@link JSONChannelWriter} class.
+     *
+     * @param channel The channel to flush the buffer to.
+     * @param buffer  The buffer to write to, which must be at least 64 bytes.
+     * @param pretty  Whether to indent the output in the same way as Jackson's default pretty printer.
+     */
+    public JSONChannelWriter(WritableByteChannel channel, ByteBuffer buffer, boolean pretty) {
+        this(full -> {
+            full.flip();
+            while (full.hasRemaining())
+                channel.write(full);
+            return full.clear();
+        }, buffer, pretty);
+    }
+
+    /**
+     * Creates an instance of the {@link JSONChannelWriter} class.
+     *
+     * @param sink   The sink to hand the buffer to when it fills.
+     * @param buffer The buffer to write to first, which must be at least 64 bytes.
+     * @param pretty Whether to indent the output in the same way as Jackson's default pretty printer.
+     */
+    public JSONChannelWriter(BufferSink sink, ByteBuffer buffer, boolean pretty) {
+        this.sink = sink;
+        this.buffer = buffer;
+        this.pretty = pretty;
+    }
+
+    /**
+     * Starts the array.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void startArray() throws IOException {
+        ensure(1);
+        buffer.put((byte) '[');
+    }
+
+    /**
+     * Ends the array and flushes everything written to the sink.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void endArray() throws IOException {
+        ensure(2);
+        if (pretty) buffer.put((byte) ' ');
+        buffer.put((byte) ']');
+        flush();
+    }
+
+    /**
+     * Continues an array which another writer has already written objects to, so that the first object written by
+     * this writer is preceded by a separator.
+     */
+    public void continueArray() {
+        objectCount = 1;
+    }
+
+    /**
+     * Starts an object in the array.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void startObject() throws IOException {
+        ensure(3);
+        if (objectCount++ > 0) buffer.put((byte) ',');
+        if (pretty) buffer.put((byte) ' ');
+        buffer.put((byte) '{');
+        fieldCount = 0;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void endObject() throws IOException {
+        ensure(LINE_SEPARATOR.length + 1);
+        if (pretty) {
+            if (fieldCount > 0) buffer.put(LINE_SEPARATOR);
+            else buffer.put((byte) ' ');
+        }
+        buffer.put((byte) '}');
+    }
+
+    /**
+     * Writes a string field, or a null field if the value is null.
+     *
+     * @param name  The name of the field.
+     * @param value The value of the field.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeStringField(FieldName name, String value) throws IOException {
+        writeFieldName(name);
+        if (value == null) {
+            ensure(NULL.length);
+            buffer.put(NULL);
+        } else {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Writes a number field.
+     *
+     * @param name  The name of the field.
+     * @param value The value of the field.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeNumberField(FieldName name, int value) throws IOException {
+        writeFieldName(name);
+        ensure(11);
+        long remaining = value;
+        if (remaining < 0) {
+            buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+        int end   = scratch.length;
+        int start = end;
+        do {
+            scratch[--start] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        buffer.put(scratch, start, end - start);
+    }
+
+    /**
+     * Writes a number field. Non-finite values are written as strings, as Jackson does by default.
+     *
+     * @param name  The name of the field.
+     * @param value The value of the field.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeNumberField(FieldName name, double value) throws IOException {
+        writeFieldName(name);
+        ensure(MAX_DOUBLE_BYTES);
+        boolean quoted = !Double.isFinite(value);
+        String  text   = Double.toString(value);
+        if (quoted) buffer.put((byte) '"');
+        for (int i = 0; i < text.length(); i++)
+            buffer.put((byte) text.charAt(i));
+        if (quoted) buffer.put((byte) '"');
+    }
+
+    /**
+     * Writes the name of a field, preceded by its separator and indentation.
+     *
+     * @param name The name of the field.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    private void writeFieldName(FieldName name) throws IOException {
+        byte[] bytes = pretty ? name.pretty : name.compact;
+        ensure(1 + LINE_SEPARATOR.length + INDENT.length + bytes.length);
+        if (fieldCount++ > 0) buffer.put((byte) ',');
+        if (pretty) buffer.put(LINE_SEPARATOR).put(INDENT);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes a quoted string, escaping it in the same way as Jackson. Control characters, quotes and backslashes are
+     * escaped, surrogates are escaped individually, and any other character is written as UTF-8.
+     *
+     * @param value The string to write.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    private void writeString(String value) throws IOException {
+        ensure(1);
+        buffer.put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            ensure(MAX_CHAR_BYTES);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeASCII(c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                writeUnicodeEscape(c);
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        ensure(1);
+        buffer.put((byte) '"');
+    }
+
+    /**
+     * Writes an ASCII character of a string, escaping it if needed.
+     *
+     * @param c The character to write.
+     */
+    private void writeASCII(char c) {
+        if (c >= 0x20 && c != '"' && c != '\\') {
+            buffer.put((byte) c);
+            return;
+        }
+        char shortEscape = switch (c) {
+            case '"', '\\' -> c;
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+        if (shortEscape == 0) {
+            writeUnicodeEscape(c);
+        } else {
+            buffer.put((byte) '\\');
+            buffer.put((byte) shortEscape);
+        }
+    }
+
+    /**
+     * Writes a character as a {@code \}{@code uXXXX} escape.
+     *
+     * @param c The character to write.
+     */
+    private void writeUnicodeEscape(char c) {
+        buffer.put((byte) '\\');
+        buffer.put((byte) 'u');
+        buffer.put(HEX[c >> 12]);
+        buffer.put(HEX[c >> 8 & 0xF]);
+        buffer.put(HEX[c >> 4 & 0xF]);
+        buffer.put(HEX[c & 0xF]);
+    }
+
+    /**
+     * Makes sure there is space for the given number of bytes in the buffer, flushing it if there is not.
+     *
+     * @param bytes The number of bytes about to be written.
+     *
+     * @throws IOException If the buffer could not be flushed.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    /**
+     * Hands everything written so far to the sink.
+     *
+     * @throws IOException If the sink could not accept the buffer.
+     */
+    public void flush() throws IOException {
+        buffer = sink.drain(buffer);
+    }
+
+    /**
+     * Accepts the buffer of a {@link JSONChannelWriter} when it fills.
+     */
+    public interface BufferSink {
+        /**
+         * Takes the bytes written to a buffer, and gives back an empty buffer to carry on writing to.
+         *
+         * @param buffer The buffer, which has not been flipped, so its contents end at its position.
+         *
+         * @return An empty buffer, which may be the same buffer once its contents have been written elsewhere.
+         *
+         * @throws IOException If the contents could not be written.
+         */
+        ByteBuffer drain(ByteBuffer buffer) throws IOException;
+    }
+
+    /**
+     * The name of a field, encoded once with the separator that follows it in each output style.
+     */
+    public static final class FieldName {
+        /**
+         * Stores the quoted name and separator used in compact output.
+         */
+        private final byte[] compact;
+        /**
+         * Stores the quoted name and separator used in pretty output.
+         */
+        private final byte[] pretty;
+
+        /**
+         * Creates an instance of the {@link FieldName} class.
+         *
+         * @param name The name of the field, which must not need escaping.
+         */
+        public FieldName(String name) {
+            this.compact = ("\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+            this.pretty = ("\"" + name + "\" : ").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
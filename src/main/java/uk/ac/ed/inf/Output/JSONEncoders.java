@@ -0,0 +1,117 @@
+package uk.ac.ed.inf.Output;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Output.JSONChannelWriter.FieldName;
+import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
+import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+
+/**
+ * Encodes orders and flight path nodes with a {@link JSONChannelWriter}, writing the same fields in the same order as
+ * the {@link OrderJSONSerializer} and the {@link FlightPathNodeJSONSerializer}.
+ */
+public final class JSONEncoders {
+    /**
+     * The name of the order number field.
+     */
+    private static final FieldName ORDER_NO              = new FieldName("orderNo");
+    /**
+     * The name of the order status field.
+     */
+    private static final FieldName ORDER_STATUS          = new FieldName("orderStatus");
+    /**
+     * The name of the order validation code field.
+     */
+    private static final FieldName ORDER_VALIDATION_CODE = new FieldName("orderValidationCode");
+    /**
+     * The name of the order cost field.
+     */
+    private static final FieldName COST_IN_PENCE         = new FieldName("costInPence");
+    /**
+     * The name of the starting longitude field.
+     */
+    private static final FieldName FROM_LONGITUDE        = new FieldName("fromLongitude");
+    /**
+     * The name of the starting latitude field.
+     */
+    private static final FieldName FROM_LATITUDE         = new FieldName("fromLatitude");
+    /**
+     * The name of the angle field.
+     */
+    private static final FieldName ANGLE                 = new FieldName("angle");
+    /**
+     * The name of the ending longitude field.
+     */
+    private static final FieldName TO_LONGITUDE          = new FieldName("toLongitude");
+    /**
+     * The name of the ending latitude field.
+     */
+    private static final FieldName TO_LATITUDE           = new FieldName("toLatitude");
+
+    /**
+     * This class only has static methods, so cannot be instantiated.
+     */
+    private JSONEncoders() {}
+
+    /**
+     * Writes an array of orders.
+     *
+     * @param json   The writer to use.
+     * @param orders The orders to write.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void writeOrders(JSONChannelWriter json, Order[] orders) throws IOException {
+        json.startArray();
+        for (Order order : orders) {
+            json.startObject();
+            json.writeStringField(ORDER_NO, order.getOrderNo());
+            json.writeStringField(ORDER_STATUS, order.getOrderStatus().toString());
+            json.writeStringField(ORDER_VALIDATION_CODE, order.getOrderValidationCode().toString());
+            json.writeNumberField(COST_IN_PENCE, order.getPriceTotalInPence());
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    /**
+     * Writes an array of flight path nodes.
+     *
+     * @param json       The writer to use.
+     * @param flightPath The flight path nodes to write.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void writeFlightPath(JSONChannelWriter json, FlightPathNode[] flightPath) throws IOException {
+        json.startArray();
+        writeFlightPathNodes(json, flightPath, 0, flightPath.length);
+        json.endArray();
+    }
+
+    /**
+     * Writes a run of flight path nodes as objects of an array which has already been started.
+     *
+     * @param json       The writer to use.
+     * @param flightPath The flight path.
+     * @param from       The index of the first node to write.
+     * @param to         The index after the last node to write.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void writeFlightPathNodes(JSONChannelWriter json, FlightPathNode[] flightPath, int from, int to)
+            throws IOException {
+        for (int i = from; i < to; i++) {
+            FlightPathNode node = flightPath[i];
+            json.startObject();
+            json.writeStringField(ORDER_NO, node.orderNo());
+            json.writeNumberField(FROM_LONGITUDE, node.fromCoordinate().lng());
+            json.writeNumberField(FROM_LATITUDE, node.fromCoordinate().lat());
+            json.writeNumberField(ANGLE, node.angle());
+            json.writeNumberField(TO_LONGITUDE, node.toCoordinate().lng());
+            json.writeNumberField(TO_LATITUDE, node.toCoordinate().lat());
+            json.endObject();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package uk.ac.ed.inf.Output;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
+import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Streams the deliveries and flight path of a day as newline-delimited JSON while they are being worked out, so that
+ * other systems can tail the files rather than waiting for the whole day to be planned. Each line of the deliveries
+ * file is one order, and each line of the flight path file is one move, written compactly by the same serializers as
+ * the JSON array files.
+ * <p>
+ * Each order is written, and both files flushed, as soon as its outcome is known: straight after validation for an
+ * invalid order, and once it has been planned for a valid order, after its moves. The deliveries file therefore lists
+ * the invalid orders first, in the order they finished validating, followed by the valid orders in the order they
+ * are flown. A line is always complete once it can be read, and the files are never compressed, as a reader could not
+ * decompress a partly written stream.
+ */
+public class NDJSONWriter implements AutoCloseable {
+    /**
+     * The extension of the files written.
+     */
+    public static final String EXTENSION = ".ndjson";
+
+    /**
+     * Stores the path of the deliveries file.
+     */
+    private final Path          deliveriesPath;
+    /**
+     * Stores the path of the flight path file.
+     */
+    private final Path          flightPathPath;
+    /**
+     * Stores the mapper used to serialize each record.
+     */
+    private final ObjectMapper  mapper;
+    /**
+     * Stores the generator writing to the deliveries file.
+     */
+    private final JsonGenerator deliveries;
+    /**
+     * Stores the generator writing to the flight path file.
+     */
+    private final JsonGenerator flightPath;
+
+    /**
+     * Creates an instance of the {@link NDJSONWriter} class, replacing any files already written for the date.
+     *
+     * @param directory The directory to write the files to, which is created if it does not exist.
+     * @param date      The date of the files.
+     *
+     * @throws IOException If the files could not be created.
+     */
+    public NDJSONWriter(Path directory, LocalDate date) throws IOException {
+        this(directory, date, false);
+    }
+
+    /**
+     * Creates an instance of the {@link NDJSONWriter} class, either replacing or adding to any files already written
+     * for the date.
+     *
+     * @param directory The directory to write the files to, which is created if it does not exist.
+     * @param date      The date of the files.
+     * @param append    Whether to add the records to the end of the files already written, rather than replace them.
+     *
+     * @throws IOException If the files could not be created.
+     */
+    public NDJSONWriter(Path directory, LocalDate date, boolean append) throws IOException {
+        Files.createDirectories(directory);
+        deliveriesPath = directory.resolve(fileName(OutputFileType.DELIVERIES, date));
+        flightPathPath = directory.resolve(fileName(OutputFileType.FLIGHT_PATH, date));
+
+        // The records are flushed once per order, rather than after every value as Jackson does by default.
+        var factory = new JsonFactory();
+        mapper = new ObjectMapper(factory)
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .registerModule(new SimpleModule()
+                                        .addSerializer(Order.class, new OrderJSONSerializer())
+                                        .addSerializer(FlightPathNode.class, new FlightPathNodeJSONSerializer()));
+        deliveries = createGenerator(factory, deliveriesPath, append);
+        try {
+            flightPath = createGenerator(factory, flightPathPath, append);
+        } catch (IOException err) {
+            deliveries.close();
+            throw err;
+        }
+    }
+
+    /**
+     * Gets the name of the newline-delimited file of the given type for the given date.
+     *
+     * @param fileType The type of file, which is either the deliveries or the flight path.
+     * @param date     The date of the file.
+     *
+     * @return The name of the file.
+     */
+    public static String fileName(OutputFileType fileType, LocalDate date) {
+        return fileType.getPrefix() + "-" + date + EXTENSION;
+    }
+
+    /**
+     * Creates a generator which writes each root value on a line of its own.
+     *
+     * @param factory The factory to create the generator with.
+     * @param path    The path of the file to write to.
+     * @param append  Whether to add to the end of the file, rather than replace it.
+     *
+     * @return The generator.
+     *
+     * @throws IOException If the file could not be created.
+     */
+    private static JsonGenerator createGenerator(JsonFactory factory, Path path, boolean append) throws IOException {
+        OutputStream out = append
+                           ? Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                           : Files.newOutputStream(path);
+        var generator = factory.createGenerator(new BufferedOutputStream(out), JsonEncoding.UTF8);
+        // Each value is followed by a newline instead, so that the last line is complete as soon as it is flushed.
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    /**
+     * Gets the path of the deliveries file.
+     *
+     * @return The path.
+     */
+    public Path getDeliveriesPath() {
+        return deliveriesPath;
+    }
+
+    /**
+     * Gets the path of the flight path file.
+     *
+     * @return The path.
+     */
+    public Path getFlightPathPath() {
+        return flightPathPath;
+    }
+
+    /**
+     * Writes an order which has just been validated, if it is invalid, as it will not be planned. This is called from
+     * the threads validating the orders.
+     *
+     * @param order The validated order.
+     *
+     * @throws UncheckedIOException If the order could not be written.
+     */
+    public void orderValidated(Order order) {
+        if (order.getOrderStatus() == OrderStatus.INVALID) writeOrder(order);
+    }
+
+    /**
+     * Writes the moves of an order which has just been planned, followed by the order itself.
+     *
+     * @param order The planned order.
+     * @param moves The moves of the order, which are empty if it could not be delivered.
+     *
+     * @throws UncheckedIOException If the order or its moves could not be written.
+     */
+    public synchronized void orderPlanned(Order order, List<FlightPathNode> moves) {
+        try {
+            for (FlightPathNode move : moves)
+                writeLine(flightPath, move);
+            flightPath.flush();
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        writeOrder(order);
+    }
+
+    /**
+     * Writes an order to the deliveries file, and flushes it.
+     *
+     * @param order The order.
+     *
+     * @throws UncheckedIOException If the order could not be written.
+     */
+    public synchronized void writeOrder(Order order) {
+        try {
+            writeLine(deliveries, order);
+            deliveries.flush();
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    /**
+     * Writes a record followed by a newline.
+     *
+     * @param generator The generator to write to.
+     * @param record    The record to write.
+     *
+     * @throws IOException If the record could not be written.
+     */
+    private void writeLine(JsonGenerator generator, Object record) throws IOException {
+        mapper.writeValue(generator, record);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Closes both files.
+     *
+     * @throws IOException If either file could not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try (deliveries; flightPath) {
+            deliveries.flush();
+            flightPath.flush();
+        }
+    }
+}
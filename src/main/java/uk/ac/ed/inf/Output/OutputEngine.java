@@ -0,0 +1,15 @@
+package uk.ac.ed.inf.Output;
+
+/**
+ * The engine used to write the flight path and deliveries files. Both engines write identical bytes.
+ */
+public enum OutputEngine {
+    /**
+     * Serializes through Jackson's {@link com.fasterxml.jackson.databind.ObjectWriter}.
+     */
+    JACKSON,
+    /**
+     * Encodes straight into pooled direct buffers with a {@link JSONChannelWriter}.
+     */
+    NIO
+}
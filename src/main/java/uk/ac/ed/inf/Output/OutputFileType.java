@@ -0,0 +1,76 @@
+package uk.ac.ed.inf.Output;
+
+import java.time.LocalDate;
+
+/**
+ * The types of file written for each day.
+ */
+public enum OutputFileType {
+    /**
+     * The deliveries file, listing every order and its outcome.
+     */
+    DELIVERIES("deliveries", ".json"),
+    /**
+     * The flight path file, listing every move of the drone.
+     */
+    FLIGHT_PATH("flightpath", ".json"),
+    /**
+     * The drone GeoJSON file, with the flight path as a line.
+     */
+    DRONE("drone", ".geojson");
+
+    /**
+     * Stores the start of the name of each file of this type, which is also the name of the type in options.
+     */
+    private final String prefix;
+    /**
+     * Stores the extension of each file of this type.
+     */
+    private final String extension;
+
+    /**
+     * Creates an instance of the {@link OutputFileType} enum.
+     *
+     * @param prefix    The start of the name of each file of this type.
+     * @param extension The extension of each file of this type.
+     */
+    OutputFileType(String prefix, String extension) {
+        this.prefix = prefix;
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the type with the given prefix.
+     *
+     * @param prefix The prefix of the type.
+     *
+     * @return The type.
+     *
+     * @throws IllegalArgumentException If no type has the prefix.
+     */
+    public static OutputFileType fromPrefix(String prefix) {
+        for (OutputFileType type : values())
+            if (type.prefix.equals(prefix)) return type;
+        throw new IllegalArgumentException("Unknown output file type " + prefix + ".");
+    }
+
+    /**
+     * Gets the prefix of the type, which is used to name the type in options.
+     *
+     * @return The prefix.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gets the name of the file of this type for the given date.
+     *
+     * @param date The date of the file.
+     *
+     * @return The name of the file.
+     */
+    public String fileName(LocalDate date) {
+        return prefix + "-" + date + extension;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.ac.ed.inf.Output;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the files written by an {@link OutputWriter}, decompressing them if they are gzip compressed.
+ */
+public final class OutputReader {
+    /**
+     * The first two bytes of every gzip stream.
+     */
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    /**
+     * This class only has static methods, so cannot be instantiated.
+     */
+    private OutputReader() {}
+
+    /**
+     * Opens an output file for reading. Whether the file is compressed is decided by its first bytes rather than its
+     * name.
+     *
+     * @param path The path of the file.
+     *
+     * @return A stream of the decompressed contents of the file.
+     *
+     * @throws IOException If the file could not be opened.
+     */
+    public static InputStream open(Path path) throws IOException {
+        var stream = new BufferedInputStream(Files.newInputStream(path));
+        stream.mark(2);
+        int magic = stream.read() << 8 | stream.read();
+        stream.reset();
+        try {
+            return magic == GZIP_MAGIC ? new GZIPInputStream(stream) : stream;
+        } catch (IOException err) {
+            stream.close();
+            throw err;
+        }
+    }
+
+    /**
+     * Reads the decompressed contents of an output file.
+     *
+     * @param path The path of the file.
+     *
+     * @return The contents of the file.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    public static byte[] readAllBytes(Path path) throws IOException {
+        try (InputStream stream = open(path)) {
+            return stream.readAllBytes();
+        }
+    }
+
+    /**
+     * Reads the decompressed contents of an output file as text.
+     *
+     * @param path The path of the file.
+     *
+     * @return The contents of the file.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    public static String readString(Path path) throws IOException {
+        return new String(readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,570 @@
+package uk.ac.ed.inf.Output;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import uk.ac.ed.inf.Archive.FlightPathArchive;
+import uk.ac.ed.inf.Archive.FlightPathArchiveWriter;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Serializers.FlightPathNodeGeoJSONSerializer;
+import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
+import uk.ac.ed.inf.Serializers.GeoJSONOptions;
+import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the output files of the application. The serializers are registered and the {@link ObjectWriter}s built once
+ * when the writer is created, so a single instance can be reused for every file of every day of a long-running
+ * process. The three files of a day can also be written concurrently, each on its own thread with its own generator
+ * and buffer, as they only read the orders and the flight path.
+ * <p>
+ * The flight path and deliveries files can either be serialized through Jackson or encoded directly into pooled
+ * direct buffers by a {@link JSONChannelWriter}, which writes identical bytes without the overhead of the generic
+ * serialization machinery. Long flight paths are split into chunks which are encoded in parallel.
+ * <p>
+ * Any of the files can be gzip compressed as they are written, as described by a {@link Compression}, and the drone
+ * GeoJSON file can be simplified as described by a {@link GeoJSONOptions}.
+ */
+public class OutputWriter implements AutoCloseable {
+    /**
+     * The size of the buffer between the JSON generator and the file channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 18;
+    /**
+     * The most free buffers the NIO engine keeps for reuse, which is 32 MiB of native memory.
+     */
+    private static final int MAX_BUFFERS = 128;
+    /**
+     * The number of files written for each day.
+     */
+    private static final int FILE_COUNT  = 3;
+    /**
+     * The smallest number of flight path nodes encoded together when the NIO engine splits a flight path into chunks.
+     */
+    private static final int CHUNK_SIZE  = 4096;
+
+    /**
+     * Stores the directory the files are written to.
+     */
+    private final Path                     directory;
+    /**
+     * Stores the writer for the deliveries file.
+     */
+    private final ObjectWriter             deliveriesWriter;
+    /**
+     * Stores the writer for the flight path file.
+     */
+    private final ObjectWriter             flightPathWriter;
+    /**
+     * Stores the writer for the drone GeoJSON file.
+     */
+    private final ObjectWriter             geoJSONWriter;
+    /**
+     * Stores the threads the files of a day are written on concurrently.
+     */
+    private final ExecutorService          executor;
+    /**
+     * Stores whether the writer created its own threads, and so stops them when it is closed.
+     */
+    private final boolean                  ownsExecutor;
+    /**
+     * Stores the direct buffers used by the NIO engine.
+     */
+    private final BufferPool               bufferPool = new BufferPool(BUFFER_SIZE, MAX_BUFFERS);
+    /**
+     * Stores whether the files are written without indentation.
+     */
+    private final boolean                  compact;
+    /**
+     * Stores the engine used to write the flight path and deliveries files.
+     */
+    private final OutputEngine             engine;
+    /**
+     * Stores the encoder which splits long flight paths into chunks encoded in parallel.
+     */
+    private final ChunkedFlightPathEncoder chunkedEncoder;
+    /**
+     * Stores which files are compressed, and how.
+     */
+    private final Compression              compression;
+
+    /**
+     * Creates an instance of the {@link OutputWriter} class which writes the flight path and deliveries files with the
+     * {@link OutputEngine#NIO} engine.
+     *
+     * @param directory The directory to write the files to, which is created if it does not exist.
+     * @param compact   Whether to write the files without indentation.
+     */
+    public OutputWriter(Path directory, boolean compact) {
+        this(directory, compact, OutputEngine.NIO);
+    }
+
+    /**
+     * Creates an instance of the {@link OutputWriter} class.
+     *
+     * @param directory The directory to write the files to, which is created if it does not exist.
+     * @param compact   Whether to write the files without indentation.
+     * @param engine    The engine to write the flight path and deliveries files with.
+     */
+    public OutputWriter(Path directory, boolean compact, OutputEngine engine) {
+        this(directory, compact, engine, Compression.NONE);
+    }
+
+    /**
+     * Creates an instance of the {@link OutputWriter} class.
+     *
+     * @param directory   The directory to write the files to, which is created if it does not exist.
+     * @param compact     Whether to write the files without indentation.
+     * @param engine      The engine to write the flight path and deliveries files with.
+     * @param compression Which files to compress, and how.
+     */
+    public OutputWriter(Path directory, boolean compact, OutputEngine engine, Compression compression) {
+        this(directory, compact, engine, compression, GeoJSONOptions.EXACT);
+    }
+
+    /**
+     * Creates an instance of the {@link OutputWriter} class.
+     *
+     * @param directory      The directory to write the files to, which is created if it does not exist.
+     * @param compact        Whether to write the files without indentation.
+     * @param engine         The engine to write the flight path and deliveries files with.
+     * @param compression    Which files to compress, and how.
+     * @param geoJSONOptions How the drone GeoJSON file is written.
+     */
+    public OutputWriter(Path directory, boolean compact, OutputEngine engine, Compression compression,
+                        GeoJSONOptions geoJSONOptions) {
+        // Daemon threads, so that a writer which is never closed does not keep the application running.
+        this(directory, compact, engine, compression, geoJSONOptions, Executors.newFixedThreadPool(FILE_COUNT, task -> {
+            var thread = new Thread(task, "output-writer");
+            thread.setDaemon(true);
+            return thread;
+        }), ForkJoinPool.commonPool(), true);
+    }
+
+    /**
+     * Creates an instance of the {@link OutputWriter} class which writes the files of a day on threads it shares with
+     * the rest of the application, and leaves them running when it is closed.
+     *
+     * @param directory      The directory to write the files to, which is created if it does not exist.
+     * @param compact        Whether to write the files without indentation.
+     * @param engine         The engine to write the flight path and deliveries files with.
+     * @param compression    Which files to compress, and how.
+     * @param geoJSONOptions How the drone GeoJSON file is written.
+     * @param executor       The executor to write the files of a day on concurrently.
+     * @param workers        The pool to encode the chunks of long flight paths on in parallel.
+     */
+    public OutputWriter(Path directory, boolean compact, OutputEngine engine, Compression compression,
+                        GeoJSONOptions geoJSONOptions, ExecutorService executor, ForkJoinPool workers) {
+        this(directory, compact, engine, compression, geoJSONOptions, executor, workers, false);
+    }
+
+    /**
+     * Creates an instance of the {@link OutputWriter} class.
+     *
+     * @param directory      The directory to write the files to, which is created if it does not exist.
+     * @param compact        Whether to write the files without indentation.
+     * @param engine         The engine to write the flight path and deliveries files with.
+     * @param compression    Which files to compress, and how.
+     * @param geoJSONOptions How the drone GeoJSON file is written.
+     * @param executor       The executor to write the files of a day on concurrently.
+     * @param workers        The pool to encode the chunks of long flight paths on in parallel.
+     * @param ownsExecutor   Whether to shut the executor down when the writer is closed.
+     */
+    private OutputWriter(Path directory, boolean compact, OutputEngine engine, Compression compression,
+                         GeoJSONOptions geoJSONOptions, ExecutorService executor, ForkJoinPool workers,
+                         boolean ownsExecutor) {
+        this.directory = directory;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.compression = compression;
+        this.compact = compact;
+        this.engine = engine;
+        this.chunkedEncoder = new ChunkedFlightPathEncoder(bufferPool, workers, !compact, CHUNK_SIZE);
+
+        // The GeoJSON serializer handles a whole array of nodes, so it needs a separate mapper from the one which
+        // serializes the nodes of the flight path file individually.
+        var factory = new JsonFactory();
+        var jsonMapper = new ObjectMapper(factory).registerModule(
+                new SimpleModule()
+                        .addSerializer(Order.class, new OrderJSONSerializer())
+                        .addSerializer(FlightPathNode.class, new FlightPathNodeJSONSerializer()));
+        var geoJSONMapper = new ObjectMapper(factory).registerModule(
+                new SimpleModule().addSerializer(FlightPathNode[].class,
+                                                 new FlightPathNodeGeoJSONSerializer(geoJSONOptions)));
+
+        deliveriesWriter = configure(jsonMapper.writerFor(Order[].class), compact);
+        flightPathWriter = configure(jsonMapper.writerFor(FlightPathNode[].class), compact);
+        geoJSONWriter = configure(geoJSONMapper.writerFor(FlightPathNode[].class), compact);
+    }
+
+    /**
+     * Applies the indentation setting to a writer.
+     *
+     * @param writer  The writer to configure.
+     * @param compact Whether to write without indentation.
+     *
+     * @return The configured writer.
+     */
+    private static ObjectWriter configure(ObjectWriter writer, boolean compact) {
+        return compact ? writer.without(SerializationFeature.INDENT_OUTPUT)
+                       : writer.with(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Gets the name this writer gives to the file of the given type for the given date, including the compression
+     * extension if files of the type are compressed.
+     *
+     * @param fileType The type of file.
+     * @param date     The date of the file.
+     *
+     * @return The name of the file.
+     */
+    public String fileName(OutputFileType fileType, LocalDate date) {
+        String name = fileType.fileName(date);
+        return compression.appliesTo(fileType) ? name + Compression.EXTENSION : name;
+    }
+
+    /**
+     * Gets the name of the deliveries file for the given date, before any compression.
+     *
+     * @param date The date of the file.
+     *
+     * @return The name of the file.
+     */
+    public static String deliveriesFileName(LocalDate date) {
+        return OutputFileType.DELIVERIES.fileName(date);
+    }
+
+    /**
+     * Gets the name of the flight path file for the given date, before any compression.
+     *
+     * @param date The date of the file.
+     *
+     * @return The name of the file.
+     */
+    public static String flightPathFileName(LocalDate date) {
+        return OutputFileType.FLIGHT_PATH.fileName(date);
+    }
+
+    /**
+     * Gets the name of the drone GeoJSON file for the given date, before any compression.
+     *
+     * @param date The date of the file.
+     *
+     * @return The name of the file.
+     */
+    public static String geoJSONFileName(LocalDate date) {
+        return OutputFileType.DRONE.fileName(date);
+    }
+
+    /**
+     * Writes the deliveries file for the given date.
+     *
+     * @param date   The date of the orders.
+     * @param orders The orders to write.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public Path writeDeliveries(LocalDate date, Order[] orders) throws IOException {
+        if (engine == OutputEngine.NIO) {
+            return encode(OutputFileType.DELIVERIES, date, json -> JSONEncoders.writeOrders(json, orders));
+        }
+        return serialize(OutputFileType.DELIVERIES, date, deliveriesWriter, orders);
+    }
+
+    /**
+     * Writes the flight path file for the given date.
+     *
+     * @param date       The date of the flight path.
+     * @param flightPath The flight path to write.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public Path writeFlightPath(LocalDate date, FlightPathNode[] flightPath) throws IOException {
+        if (engine == OutputEngine.NIO && flightPath.length > CHUNK_SIZE) {
+            return write(OutputFileType.FLIGHT_PATH, date, channel -> chunkedEncoder.write(flightPath, channel));
+        } else if (engine == OutputEngine.NIO) {
+            return encode(OutputFileType.FLIGHT_PATH, date, json -> JSONEncoders.writeFlightPath(json, flightPath));
+        }
+        return serialize(OutputFileType.FLIGHT_PATH, date, flightPathWriter, flightPath);
+    }
+
+    /**
+     * Writes the drone GeoJSON file for the given date.
+     *
+     * @param date       The date of the flight path.
+     * @param flightPath The flight path to write.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public Path writeGeoJSON(LocalDate date, FlightPathNode[] flightPath) throws IOException {
+        return serialize(OutputFileType.DRONE, date, geoJSONWriter, flightPath);
+    }
+
+    /**
+     * Writes the binary archive of the flight path for the given date, which can be searched by order number without
+     * parsing the flight path file. The archive is never compressed, so that it can be mapped into memory.
+     *
+     * @param date       The date of the flight path.
+     * @param flightPath The flight path to archive.
+     *
+     * @return The path of the archive written.
+     *
+     * @throws IOException If the archive could not be written.
+     */
+    public Path writeArchive(LocalDate date, FlightPathNode[] flightPath) throws IOException {
+        return FlightPathArchiveWriter.write(directory.resolve(FlightPathArchive.fileName(date)), date, flightPath);
+    }
+
+    /**
+     * Gets the name of the summary of a batch of dates.
+     *
+     * @param first The first date of the batch.
+     * @param last  The last date of the batch.
+     *
+     * @return The name of the file.
+     */
+    public static String summaryFileName(LocalDate first, LocalDate last) {
+        return "summary-" + first + "-" + last + ".csv";
+    }
+
+    /**
+     * Writes the summary of a batch of dates as CSV, with a line for each date. The summary is never compressed.
+     *
+     * @param summaries The summary of each date, in the order they should be listed.
+     *
+     * @return The path of the file written, which is named after the earliest and latest dates.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public Path writeSummary(List<DateSummary> summaries) throws IOException {
+        LocalDate first = summaries.stream().map(DateSummary::date).min(LocalDate::compareTo).orElseThrow();
+        LocalDate last  = summaries.stream().map(DateSummary::date).max(LocalDate::compareTo).orElseThrow();
+        var       lines = new ArrayList<String>();
+        lines.add(DateSummary.CSV_HEADER);
+        for (DateSummary summary : summaries)
+            lines.add(summary.toCSV());
+        Files.createDirectories(directory);
+        return Files.write(directory.resolve(summaryFileName(first, last)), lines);
+    }
+
+    /**
+     * Writes the flight path, drone GeoJSON and deliveries files for the given date concurrently, returning once all
+     * three have been written.
+     *
+     * @param date       The date of the files.
+     * @param orders     The orders to write to the deliveries file.
+     * @param flightPath The flight path to write to the flight path and drone GeoJSON files.
+     *
+     * @return The files written, in the order flight path, drone GeoJSON, deliveries.
+     *
+     * @throws IOException If any of the files could not be written.
+     */
+    public List<WrittenFile> writeAll(LocalDate date, Order[] orders, FlightPathNode[] flightPath) throws IOException {
+        List<CompletableFuture<WrittenFile>> files = List.of(
+                writeAsync(() -> writeFlightPath(date, flightPath)),
+                writeAsync(() -> writeGeoJSON(date, flightPath)),
+                writeAsync(() -> writeDeliveries(date, orders))
+        );
+        try {
+            return files.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException err) {
+            if (err.getCause() instanceof IOException cause) throw cause;
+            throw err;
+        }
+    }
+
+    /**
+     * Stops the threads used to write files concurrently, unless they are shared. Files can still be written one at a
+     * time afterwards.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) executor.shutdown();
+    }
+
+    /**
+     * Writes a file on one of the writer's threads, timing how long it takes.
+     *
+     * @param fileWrite The write to perform.
+     *
+     * @return A future which completes with the file written.
+     */
+    private CompletableFuture<WrittenFile> writeAsync(FileWrite fileWrite) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long startTime = System.nanoTime();
+                Path path      = fileWrite.write();
+                return new WrittenFile(path, System.nanoTime() - startTime);
+            } catch (IOException err) {
+                throw new CompletionException(err);
+            }
+        }, executor);
+    }
+
+    /**
+     * Serializes the given content to a file with Jackson, through a buffered channel.
+     *
+     * @param fileType The type of file to write.
+     * @param date     The date of the file.
+     * @param writer   The writer to serialize the content with.
+     * @param content  The content to write.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    private Path serialize(OutputFileType fileType, LocalDate date, ObjectWriter writer, Object content)
+            throws IOException {
+        return write(fileType, date, channel -> {
+            try (OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+                writer.writeValue(stream, content);
+            }
+        });
+    }
+
+    /**
+     * Encodes content to a file with a {@link JSONChannelWriter}, through a direct buffer taken from the pool.
+     *
+     * @param fileType The type of file to write.
+     * @param date     The date of the file.
+     * @param encoder  The encoder which writes the content.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    private Path encode(OutputFileType fileType, LocalDate date, Encoder encoder) throws IOException {
+        return write(fileType, date, channel -> {
+            ByteBuffer buffer = bufferPool.acquire();
+            try {
+                encoder.encode(new JSONChannelWriter(channel, buffer, !compact));
+            } finally {
+                bufferPool.release(buffer);
+            }
+        });
+    }
+
+    /**
+     * Opens a file for writing, replacing it if it exists, and hands its channel to the given write. If files of the
+     * type are compressed, the channel compresses everything written to it on the way to the file.
+     *
+     * @param fileType     The type of file to write.
+     * @param date         The date of the file.
+     * @param channelWrite The write to perform on the channel.
+     *
+     * @return The path of the file written.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    private Path write(OutputFileType fileType, LocalDate date, ChannelWrite channelWrite) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(fileName(fileType, date));
+        try (var channel = FileChannel.open(path,
+                                            StandardOpenOption.CREATE,
+                                            StandardOpenOption.WRITE,
+                                            StandardOpenOption.TRUNCATE_EXISTING
+                                           )) {
+            if (!compression.appliesTo(fileType)) {
+                channelWrite.write(channel);
+            } else {
+                try (var gzip = new LevelledGZIPOutputStream(Channels.newOutputStream(channel),
+                                                             compression.bufferSize(),
+                                                             compression.level()
+                )) {
+                    channelWrite.write(Channels.newChannel(gzip));
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Writes a whole file.
+     */
+    private interface FileWrite {
+        /**
+         * Writes the file.
+         *
+         * @return The path of the file written.
+         *
+         * @throws IOException If the file could not be written.
+         */
+        Path write() throws IOException;
+    }
+
+    /**
+     * Writes the contents of a file to its channel.
+     */
+    private interface ChannelWrite {
+        /**
+         * Writes the contents of the file.
+         *
+         * @param channel The channel of the file.
+         *
+         * @throws IOException If the channel could not be written to.
+         */
+        void write(WritableByteChannel channel) throws IOException;
+    }
+
+    /**
+     * Encodes the contents of a file with a {@link JSONChannelWriter}.
+     */
+    private interface Encoder {
+        /**
+         * Encodes the contents of the file.
+         *
+         * @param json The writer to encode with.
+         *
+         * @throws IOException If the buffer could not be flushed.
+         */
+        void encode(JSONChannelWriter json) throws IOException;
+    }
+
+    /**
+     * A {@link GZIPOutputStream} with a configurable compression level.
+     */
+    private static class LevelledGZIPOutputStream extends GZIPOutputStream {
+        /**
+         * Creates an instance of the {@link LevelledGZIPOutputStream} class.
+         *
+         * @param out        The stream to write the compressed data to.
+         * @param bufferSize The size of the output buffer.
+         * @param level      The compression level.
+         *
+         * @throws IOException If the header could not be written.
+         */
+        LevelledGZIPOutputStream(OutputStream out, int bufferSize, int level) throws IOException {
+            super(out, bufferSize);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package uk.ac.ed.inf.Output;
+
+import java.nio.file.Path;
+
+/**
+ * A file written by the {@link OutputWriter}.
+ *
+ * @param path        The path of the file.
+ * @param elapsedNano The time taken to serialize and write the file, in nanoseconds.
+ */
+public record WrittenFile(
+        Path path,
+        long elapsedNano
+) {
+    /**
+     * Gets the time taken to serialize and write the file.
+     *
+     * @return The elapsed time, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedNano / 1_000_000;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Checkpoint.BackfillJournal;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Output.DayWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Carries on with the dates an earlier run did not finish, as recorded in its journal. A date the journal has as
+ * written is skipped, a date the journal has as planned is written from its checkpoint, and any other date is handed
+ * to the planner to be planned again.
+ */
+public class BackfillResumer implements DateProcessor {
+    /**
+     * Stores the journal of the phases each date has finished.
+     */
+    private final BackfillJournal journal;
+    /**
+     * Stores the directory the checkpoint of each date is saved to.
+     */
+    private final Path            directory;
+    /**
+     * Stores the processor which plans the dates which were not planned before.
+     */
+    private final DateProcessor   planner;
+    /**
+     * Stores the writer for the output files of each date.
+     */
+    private final DayWriter       dayWriter;
+
+    /**
+     * Creates an instance of the {@link BackfillResumer} class.
+     *
+     * @param journal   The journal of the phases each date has finished.
+     * @param directory The directory the checkpoint of each date is saved to.
+     * @param planner   The processor which plans the dates which were not planned before.
+     * @param dayWriter The writer for the output files of each date.
+     */
+    public BackfillResumer(BackfillJournal journal, Path directory, DateProcessor planner, DayWriter dayWriter) {
+        this.journal = journal;
+        this.directory = directory;
+        this.planner = planner;
+        this.dayWriter = dayWriter;
+    }
+
+    /**
+     * Carries on with a date from the last phase an earlier run finished for it.
+     *
+     * @param date The date.
+     *
+     * @return The checkpoint holding every order of the date.
+     *
+     * @throws IOException If the checkpoint could not be read, the journal could not be written, or the date could
+     *                     not be planned.
+     */
+    @Override
+    public DayCheckpoint process(LocalDate date) throws IOException {
+        if (!journal.isDone(date, BackfillJournal.Phase.PLANNED)) return planner.process(date);
+        DayCheckpoint checkpoint = DayCheckpoint.load(directory, date);
+        // Without its checkpoint, the date has to be planned again.
+        if (!checkpoint.isSaved()) return planner.process(date);
+
+        if (journal.isDone(date, BackfillJournal.Phase.WRITTEN)) {
+            System.out.println("Skipping " + date + ", as an earlier run already wrote its output files.");
+        } else {
+            System.out.println("Resuming " + date + " from the " + checkpoint.size()
+                               + " orders an earlier run planned.");
+            if (dayWriter.write(checkpoint)) journal.record(date, BackfillJournal.Phase.WRITTEN);
+        }
+        return checkpoint;
+    }
+}
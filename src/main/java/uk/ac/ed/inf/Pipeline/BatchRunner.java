@@ -0,0 +1,90 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Execution.ExecutionPools;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.Output.OutputWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a {@link DateProcessor} over several dates, a bounded number at a time, then reports and writes the throughput
+ * of each date. A date which fails is reported, and does not stop the other dates.
+ */
+public class BatchRunner {
+    /**
+     * Stores the processor each date is handled by.
+     */
+    private final DateProcessor  processor;
+    /**
+     * Stores the pools the dates are run on.
+     */
+    private final ExecutionPools pools;
+    /**
+     * Stores the writer the summary of the batch is written with.
+     */
+    private final OutputWriter   outputWriter;
+
+    /**
+     * Creates an instance of the {@link BatchRunner} class.
+     *
+     * @param processor    The processor to handle each date with.
+     * @param pools        The pools to run the dates on.
+     * @param outputWriter The writer to write the summary of the batch with.
+     */
+    public BatchRunner(DateProcessor processor, ExecutionPools pools, OutputWriter outputWriter) {
+        this.processor = processor;
+        this.pools = pools;
+        this.outputWriter = outputWriter;
+    }
+
+    /**
+     * Handles several dates.
+     *
+     * @param dates       The dates.
+     * @param parallelism The most dates to handle at the same time.
+     */
+    public void run(List<LocalDate> dates, int parallelism) {
+        long            startTime = System.nanoTime();
+        ExecutorService executor  = pools.newPool("batch", parallelism);
+        var summaries = new ArrayList<DateSummary>();
+        try {
+            var futures = new ArrayList<Future<DateSummary>>();
+            for (LocalDate date : dates)
+                futures.add(executor.submit(() -> processor.run(date)));
+            for (int i = 0; i < dates.size(); i++) {
+                try {
+                    summaries.add(futures.get(i).get());
+                } catch (ExecutionException err) {
+                    System.err.println("Could not generate " + dates.get(i) + ": " + err.getCause().getMessage());
+                } catch (InterruptedException err) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        int  orderCount    = 0;
+        System.out.println(DateSummary.CSV_HEADER);
+        for (DateSummary summary : summaries) {
+            System.out.println(summary.toCSV());
+            orderCount += summary.orders();
+        }
+        System.out.println("Generated " + summaries.size() + " of " + dates.size() + " dates, " + orderCount
+                           + " orders, in " + elapsedMillis + "ms with " + parallelism + " threads.");
+        if (summaries.isEmpty()) return;
+        try {
+            System.out.println("Wrote summary to " + outputWriter.writeSummary(summaries) + ".");
+        } catch (IOException err) {
+            System.err.println(err.getMessage());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Checkpoint.BackfillJournal;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Output.DayWriter;
+import uk.ac.ed.inf.Output.NDJSONWriter;
+import uk.ac.ed.inf.RestService.DataSource;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Fetches, validates and plans the orders of a date through an {@link OrderPipeline}, and writes its output files. The
+ * orders and flight path are streamed out as each order is finished with, if asked to. When running incrementally,
+ * only the orders missing from the date's checkpoint go through the pipeline, and the output files are only rewritten
+ * if there were any. Each phase the date finishes is recorded in the journal, if there is one.
+ */
+public class DatePlanner implements DateProcessor {
+    /**
+     * Stores the directory the checkpoints and streamed files are written to.
+     */
+    private final Path            directory;
+    /**
+     * Stores the pipeline the orders are validated and planned through.
+     */
+    private final OrderPipeline   orderPipeline;
+    /**
+     * Stores the source the orders are read from.
+     */
+    private final DataSource      dataSource;
+    /**
+     * Stores the writer for the output files of each date.
+     */
+    private final DayWriter       dayWriter;
+    /**
+     * Stores the journal of the phases each date has finished, or null if the run is not resumable.
+     */
+    private final BackfillJournal journal;
+    /**
+     * Stores whether each date starts from its checkpoint and saves it again afterwards.
+     */
+    private final boolean         incremental;
+    /**
+     * Stores whether the orders and flight path are streamed out as each order is finished with.
+     */
+    private final boolean         streamed;
+
+    /**
+     * Creates an instance of the {@link DatePlanner} class.
+     *
+     * @param directory     The directory to write the checkpoints and streamed files to.
+     * @param orderPipeline The pipeline to validate and plan the orders through.
+     * @param dataSource    The source to read the orders from.
+     * @param dayWriter     The writer for the output files of each date.
+     * @param journal       The journal to record the phases each date finishes in, or null if the run is not
+     *                      resumable.
+     * @param incremental   Whether each date starts from its checkpoint and saves it again afterwards.
+     * @param streamed      Whether to stream out the orders and flight path as each order is finished with.
+     */
+    public DatePlanner(Path directory, OrderPipeline orderPipeline, DataSource dataSource, DayWriter dayWriter,
+                       BackfillJournal journal, boolean incremental, boolean streamed) {
+        this.directory = directory;
+        this.orderPipeline = orderPipeline;
+        this.dataSource = dataSource;
+        this.dayWriter = dayWriter;
+        this.journal = journal;
+        this.incremental = incremental;
+        this.streamed = streamed;
+    }
+
+    /**
+     * Fetches, validates and plans the orders of a date, and writes its output files.
+     *
+     * @param date The date.
+     *
+     * @return The checkpoint holding every order of the date.
+     *
+     * @throws IOException If the orders could not be fetched, the checkpoint could not be read or saved, the journal
+     *                     could not be written, or the streamed files could not be written.
+     */
+    @Override
+    public DayCheckpoint process(LocalDate date) throws IOException {
+        OrderWatcher watcher = createWatcher(date);
+        boolean      resumed = watcher.getCheckpoint().isSaved();
+
+        List<Dispatch> dispatches = poll(date, watcher, resumed);
+        if (journal != null) journal.record(date, BackfillJournal.Phase.VALIDATED);
+        boolean written = true;
+        if (resumed && dispatches.isEmpty()) {
+            System.out.println("No new orders for " + date + ", so the output files are up to date.");
+        } else {
+            saveCheckpoint(date, watcher.getCheckpoint(), dispatches.size());
+            written = dayWriter.write(watcher.getCheckpoint());
+        }
+        if (journal != null && written) journal.record(date, BackfillJournal.Phase.WRITTEN);
+        return watcher.getCheckpoint();
+    }
+
+    /**
+     * Creates the watcher of a date's orders, which starts from the date's checkpoint when running incrementally, and
+     * records in the journal once the orders have been read in full.
+     *
+     * @param date The date.
+     *
+     * @return The watcher.
+     *
+     * @throws IOException If the checkpoint could not be read.
+     */
+    OrderWatcher createWatcher(LocalDate date) throws IOException {
+        DayCheckpoint checkpoint = incremental
+                                   ? DayCheckpoint.load(directory, date)
+                                   : new DayCheckpoint(directory, date);
+        return new OrderWatcher(orderPipeline, onOrder -> {
+            dataSource.streamOrders(date, onOrder);
+            if (journal != null) journal.record(date, BackfillJournal.Phase.FETCHED);
+        }, checkpoint);
+    }
+
+    /**
+     * Polls the source once for the orders of a date, and dispatches the ones the watcher has not seen before,
+     * streaming them out if asked to.
+     *
+     * @param date    The date.
+     * @param watcher The watcher of the date's orders.
+     * @param append  Whether to add to the streamed files already written for the date, rather than replace them.
+     *
+     * @return The new orders.
+     *
+     * @throws IOException If the orders could not be fetched, or the streamed files could not be written.
+     */
+    List<Dispatch> poll(LocalDate date, OrderWatcher watcher, boolean append) throws IOException {
+        List<Dispatch> dispatches;
+        if (streamed) {
+            try (var stream = new NDJSONWriter(directory, date, append)) {
+                dispatches = watcher.poll(stream::orderValidated, stream::orderPlanned);
+                System.out.println("Streamed data to " + stream.getDeliveriesPath() + " and "
+                                   + stream.getFlightPathPath() + ".");
+            }
+        } else {
+            dispatches = watcher.poll(order -> {}, (order, moves) -> {});
+        }
+        long validOrders = dispatches.stream()
+                                     .filter(dispatch -> dispatch.order().getOrderStatus() != OrderStatus.INVALID)
+                                     .count();
+        boolean allNew = dispatches.size() == watcher.getCheckpoint().size();
+        System.out.println("Fetched " + validOrders + " valid orders out of " + dispatches.size()
+                           + (allNew ? " total" : " new") + " orders for " + date + ".");
+        return dispatches;
+    }
+
+    /**
+     * Saves the checkpoint of a date when running incrementally or resumably, and records in the journal that the date
+     * has been planned.
+     *
+     * @param date       The date.
+     * @param checkpoint The checkpoint of the date.
+     * @param added      The number of orders added to the checkpoint since it was last saved.
+     *
+     * @throws IOException If the checkpoint could not be saved, or the journal could not be written.
+     */
+    void saveCheckpoint(LocalDate date, DayCheckpoint checkpoint, int added) throws IOException {
+        if (!incremental && journal == null) return;
+        Path path = checkpoint.save();
+        System.out.println("Checkpointed " + checkpoint.size() + " orders, " + added + " of them new, to " + path
+                           + ".");
+        if (journal != null) journal.record(date, BackfillJournal.Phase.PLANNED);
+    }
+}
@@ -0,0 +1,52 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One way of handling the orders of a date, such as planning them in full, planning the part belonging to a shard, or
+ * merging the parts of every shard. Each is timed and summarised the same way by {@link #run(LocalDate)}.
+ */
+@FunctionalInterface
+public interface DateProcessor {
+    /**
+     * Handles the orders of a date.
+     *
+     * @param date The date.
+     *
+     * @return The checkpoint holding the orders handled, and the moves of each.
+     *
+     * @throws IOException If the orders could not be read, or the files of the date could not be read or saved.
+     */
+    DayCheckpoint process(LocalDate date) throws IOException;
+
+    /**
+     * Handles the orders of a date, and summarises them along with the time they took.
+     *
+     * @param date The date.
+     *
+     * @return The summary of the date.
+     *
+     * @throws IOException If the orders could not be read, or the files of the date could not be read or saved.
+     */
+    default DateSummary run(LocalDate date) throws IOException {
+        long          startTime   = System.nanoTime();
+        DayCheckpoint checkpoint  = process(date);
+        long          elapsedNano = System.nanoTime() - startTime;
+        Order[]       orders      = checkpoint.getOrders();
+        int           validOrders = (int) Arrays.stream(orders)
+                                                .filter(order -> order.getOrderStatus() != OrderStatus.INVALID)
+                                                .count();
+        int           delivered   = (int) Arrays.stream(orders)
+                                                .filter(order -> order.getOrderStatus() == OrderStatus.DELIVERED)
+                                                .count();
+        return new DateSummary(date, orders.length, validOrders, delivered, checkpoint.getFlightPath().length,
+                               elapsedNano);
+    }
+}
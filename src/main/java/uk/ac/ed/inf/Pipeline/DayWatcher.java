@@ -0,0 +1,110 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.Output.DayWriter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a date for new orders, polling at a fixed interval and dispatching each new order as it arrives, until the
+ * date is over. The output files are rewritten after every poll which found new orders, and the time each order took
+ * to dispatch is reported against the latency target.
+ */
+public class DayWatcher {
+    /**
+     * Stores the planner the orders of each poll are dispatched through.
+     */
+    private final DatePlanner         planner;
+    /**
+     * Stores the writer for the output files of the date.
+     */
+    private final DayWriter           dayWriter;
+    /**
+     * Stores the flight path generator, which is warmed up before the first poll.
+     */
+    private final FlightPathGenerator flightPathGenerator;
+    /**
+     * Stores the executor the flight path generator is warmed up on.
+     */
+    private final Executor            executor;
+
+    /**
+     * Creates an instance of the {@link DayWatcher} class.
+     *
+     * @param planner             The planner to dispatch the orders of each poll through.
+     * @param dayWriter           The writer for the output files of the date.
+     * @param flightPathGenerator The flight path generator the planner plans with, which is warmed up before the first
+     *                            poll.
+     * @param executor            The executor to warm up the flight path generator on.
+     */
+    public DayWatcher(DatePlanner planner, DayWriter dayWriter, FlightPathGenerator flightPathGenerator,
+                      Executor executor) {
+        this.planner = planner;
+        this.dayWriter = dayWriter;
+        this.flightPathGenerator = flightPathGenerator;
+        this.executor = executor;
+    }
+
+    /**
+     * Watches a date until it is over.
+     *
+     * @param date          The date.
+     * @param interval      The interval between the start of one poll and the next.
+     * @param latencyTarget The time each order should be dispatched within.
+     *
+     * @throws IOException          If the checkpoint could not be read.
+     * @throws InterruptedException If the thread is interrupted while waiting for the next poll.
+     */
+    public void watch(LocalDate date, Duration interval, Duration latencyTarget)
+            throws IOException, InterruptedException {
+        OrderWatcher watcher  = planner.createWatcher(date);
+        boolean      streamed = watcher.getCheckpoint().isSaved();
+        flightPathGenerator.warmUp(executor);
+        System.out.println("Watching for new orders for " + date + " every " + interval.toMillis() + "ms.");
+        while (true) {
+            long pollStart = System.nanoTime();
+            try {
+                List<Dispatch> dispatches = planner.poll(date, watcher, streamed);
+                streamed = true;
+                if (!dispatches.isEmpty()) {
+                    reportLatencies(dispatches, latencyTarget);
+                    planner.saveCheckpoint(date, watcher.getCheckpoint(), dispatches.size());
+                    dayWriter.write(watcher.getCheckpoint());
+                }
+            } catch (IOException err) {
+                // The next poll tries again, as the REST server may only be unavailable for a moment.
+                System.err.println("Could not poll for new orders: " + err.getMessage());
+            }
+            if (LocalDate.now().isAfter(date)) break;
+            long waitNanos = interval.toNanos() - (System.nanoTime() - pollStart);
+            if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        System.out.println("Stopped watching " + date + ", as the date is over.");
+    }
+
+    /**
+     * Reports how long each order of a poll took to dispatch, flagging the ones which missed the latency target.
+     *
+     * @param dispatches    The orders of the poll.
+     * @param latencyTarget The time each order should be dispatched within.
+     */
+    private static void reportLatencies(List<Dispatch> dispatches, Duration latencyTarget) {
+        long slowest = 0;
+        int  missed  = 0;
+        for (Dispatch dispatch : dispatches) {
+            boolean late = dispatch.latencyNanos() > latencyTarget.toNanos();
+            System.out.println("Dispatched " + dispatch.order().getOrderNo() + " ("
+                               + dispatch.order().getOrderStatus() + ") in " + dispatch.getLatencyMillis() + "ms"
+                               + (late ? ", missing the " + latencyTarget.toMillis() + "ms target." : "."));
+            slowest = Math.max(slowest, dispatch.getLatencyMillis());
+            if (late) missed++;
+        }
+        System.out.println("Dispatched " + dispatches.size() + " new orders, the slowest in " + slowest + "ms, with "
+                           + missed + " missing the " + latencyTarget.toMillis() + "ms target.");
+    }
+}
@@ -0,0 +1,25 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.ilp.data.Order;
+
+/**
+ * An order which has been validated and, if it is valid, planned by an {@link OrderWatcher}.
+ *
+ * @param order        The order, with its outcome set.
+ * @param moves        The number of moves in its round trip, which is 0 unless it can be delivered.
+ * @param latencyNanos The time from the order being read to it being handed to the listeners, in nanoseconds.
+ */
+public record Dispatch(
+        Order order,
+        int moves,
+        long latencyNanos
+) {
+    /**
+     * Gets the time from the order being read to it being dispatched.
+     *
+     * @return The latency, in milliseconds.
+     */
+    public long getLatencyMillis() {
+        return latencyNanos / 1_000_000;
+    }
+}
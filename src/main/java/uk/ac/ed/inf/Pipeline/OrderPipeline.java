@@ -0,0 +1,355 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Fetches, validates, plans and hands on the orders of a day as a pipeline, so that while one order is being planned
+ * the next is already being validated and the one after that fetched. The stages are connected by bounded buffers, so
+ * a slow stage holds back the stages before it, and only a few orders are ever in flight between two stages.
+ * <p>
+ * Each stage handles the orders one at a time, so the orders leave the pipeline in the
+ * order they were fetched, and the flight path is the same as planning the orders in one go. Each order carries its
+ * position through the stages, so a source which only hands over some of the orders of a day can say where each of
+ * them belongs among the rest.
+ */
+public class OrderPipeline {
+    /**
+     * The number of orders buffered between two stages if none is given.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 32;
+
+    /**
+     * Stores the validator the orders are validated with.
+     */
+    private final OrderValidator      orderValidator;
+    /**
+     * Stores the index of the restaurants the orders are validated against.
+     */
+    private final MenuIndex           menuIndex;
+    /**
+     * Stores the generator the flight paths are planned with.
+     */
+    private final FlightPathGenerator flightPathGenerator;
+    /**
+     * Stores the most orders buffered between two stages.
+     */
+    private final int                 bufferSize;
+    /**
+     * Stores the executor the stages run on, or null if each run creates threads of its own.
+     */
+    private final Executor            executor;
+
+    /**
+     * Creates an instance of the {@link OrderPipeline} class.
+     *
+     * @param orderValidator      The validator to validate the orders with.
+     * @param menuIndex           The index of the restaurants to validate the orders against.
+     * @param flightPathGenerator The generator to plan the flight paths with.
+     * @param bufferSize          The most orders to buffer between two stages.
+     *
+     * @throws IllegalArgumentException If the buffer size is not positive.
+     */
+    public OrderPipeline(OrderValidator orderValidator, MenuIndex menuIndex, FlightPathGenerator flightPathGenerator,
+                         int bufferSize) {
+        this(orderValidator, menuIndex, flightPathGenerator, bufferSize, null);
+    }
+
+    /**
+     * Creates an instance of the {@link OrderPipeline} class whose stages run on a shared executor. The executor should
+     * be a fork-join pool, or have enough threads for every stage of every pipeline running at once, as a stage waits
+     * while the buffer of the next is full.
+     *
+     * @param orderValidator      The validator to validate the orders with.
+     * @param menuIndex           The index of the restaurants to validate the orders against.
+     * @param flightPathGenerator The generator to plan the flight paths with.
+     * @param bufferSize          The most orders to buffer between two stages.
+     * @param executor            The executor to run the stages on, or null to create threads for each run.
+     *
+     * @throws IllegalArgumentException If the buffer size is not positive.
+     */
+    public OrderPipeline(OrderValidator orderValidator, MenuIndex menuIndex, FlightPathGenerator flightPathGenerator,
+                         int bufferSize, Executor executor) {
+        if (bufferSize < 1) throw new IllegalArgumentException("The buffer size must be at least 1.");
+        this.orderValidator = orderValidator;
+        this.menuIndex = menuIndex;
+        this.flightPathGenerator = flightPathGenerator;
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the orders from a source through the pipeline. The source is read on the calling thread, and is held back
+     * while the buffer of the validation stage is full.
+     *
+     * @param source      The source of the orders.
+     * @param onValidated The listener to call with each order once it has been validated, valid or not.
+     * @param onPlanned   The listener to call with each valid order and its moves once it has been planned. An order
+     *                    which cannot be delivered is handed over with no moves.
+     *
+     * @return The orders and flight path of the day.
+     *
+     * @throws IOException If the orders could not be read, or a listener failed to write them.
+     */
+    public PipelineResult run(OrderSource source, Consumer<Order> onValidated,
+                              BiConsumer<Order, List<FlightPathNode>> onPlanned) throws IOException {
+        return run(onOrder -> {
+            var position = new AtomicInteger();
+            source.forEach(order -> onOrder.accept(order, position.getAndIncrement()));
+        }, (position, order, moves) -> {
+            onValidated.accept(order);
+            if (order.getOrderStatus() != OrderStatus.INVALID) onPlanned.accept(order, moves);
+        });
+    }
+
+    /**
+     * Runs the orders from a source through the pipeline, along with the position the source gives each of them. The
+     * source is read on the calling thread, and is held back while the buffer of the validation stage is full.
+     *
+     * @param source     The source of the orders and their positions.
+     * @param onFinished The listener to call with each order, its position and its moves once it has been validated
+     *                   and, if it is valid, planned. An order which is invalid or cannot be delivered is handed over
+     *                   with no moves.
+     *
+     * @return The orders and flight path of the day.
+     *
+     * @throws IOException If the orders could not be read, or the listener failed to write them.
+     */
+    public PipelineResult run(PositionedOrderSource source, OrderListener onFinished) throws IOException {
+        ExecutorService ownExecutor = executor != null ? null : Executors.newCachedThreadPool(task -> {
+            var thread = new Thread(task, "pizzadronz-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Executor executor = ownExecutor != null ? ownExecutor : this.executor;
+        try {
+            var fetched   = new SubmissionPublisher<PlannedOrder>(executor, bufferSize);
+            var validated = new PipelineStage<PlannedOrder, PlannedOrder>(executor, bufferSize, this::validate);
+            var planned   = new PipelineStage<PlannedOrder, PlannedOrder>(executor, bufferSize, this::plan);
+            var collector = new Collector(onFinished);
+            fetched.subscribe(validated);
+            validated.subscribe(planned);
+            planned.subscribe(collector);
+
+            try {
+                source.forEach((order, position) -> fetched.submit(new PlannedOrder(position, order, List.of())));
+            } catch (IOException | RuntimeException err) {
+                fetched.closeExceptionally(err);
+                throw err;
+            }
+            fetched.close();
+            return collector.result.get();
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the pipeline to finish.");
+        } catch (ExecutionException err) {
+            Throwable cause = err.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) throw uncheckedIOException.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IOException(cause);
+        } finally {
+            if (ownExecutor != null) ownExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates an order.
+     *
+     * @param fetched The order and its position.
+     *
+     * @return The order and its position, with the outcome of the order set.
+     */
+    private PlannedOrder validate(PlannedOrder fetched) {
+        orderValidator.validateOrder(fetched.order(), menuIndex);
+        return fetched;
+    }
+
+    /**
+     * Plans the round trip of an order, if it is valid.
+     *
+     * @param validated The validated order and its position.
+     *
+     * @return The order, its position and its moves, which are empty unless the order can be delivered.
+     */
+    private PlannedOrder plan(PlannedOrder validated) {
+        Order order = validated.order();
+        if (order.getOrderStatus() == OrderStatus.INVALID) return validated;
+        return new PlannedOrder(validated.position(), order, flightPathGenerator.generateOrderPath(order));
+    }
+
+    /**
+     * The source of the orders of a pipeline.
+     */
+    @FunctionalInterface
+    public interface OrderSource {
+        /**
+         * Reads every order, handing each to the consumer as soon as it has been read.
+         *
+         * @param onOrder The consumer to call with each order.
+         *
+         * @throws IOException If the orders could not be read.
+         */
+        void forEach(Consumer<Order> onOrder) throws IOException;
+    }
+
+    /**
+     * The source of the orders of a pipeline, which gives each order a position of its own choosing, such as its
+     * position among every order of the day.
+     */
+    @FunctionalInterface
+    public interface PositionedOrderSource {
+        /**
+         * Reads every order, handing each and its position to the consumer as soon as it has been read.
+         *
+         * @param onOrder The consumer to call with each order and its position.
+         *
+         * @throws IOException If the orders could not be read.
+         */
+        void forEach(ObjIntConsumer<Order> onOrder) throws IOException;
+    }
+
+    /**
+     * The listener called with each order once it has passed through the pipeline.
+     */
+    @FunctionalInterface
+    public interface OrderListener {
+        /**
+         * Handles an order which has passed through the pipeline.
+         *
+         * @param position The position the source gave the order.
+         * @param order    The order, with its outcome set.
+         * @param moves    The moves of its round trip, which are empty unless it can be delivered.
+         */
+        void accept(int position, Order order, List<FlightPathNode> moves);
+    }
+
+    /**
+     * An order passing through the pipeline, along with its position and, once it has been planned, its moves.
+     *
+     * @param position The position the source gave the order.
+     * @param order    The order.
+     * @param moves    The moves of its round trip, which are empty unless it has been planned and can be delivered.
+     */
+    private record PlannedOrder(
+            int position,
+            Order order,
+            List<FlightPathNode> moves
+    ) {}
+
+    /**
+     * The last stage of the pipeline, which hands each order to the listeners and collects the orders and flight path.
+     */
+    private static class Collector implements Flow.Subscriber<PlannedOrder> {
+        /**
+         * Stores the result, which is completed once every order has been collected.
+         */
+        private final CompletableFuture<PipelineResult> result      = new CompletableFuture<>();
+        /**
+         * Stores every order collected.
+         */
+        private final List<Order>                       orders      = new ArrayList<>();
+        /**
+         * Stores the valid orders collected.
+         */
+        private final List<Order>                       validOrders = new ArrayList<>();
+        /**
+         * Stores the moves of the valid orders collected.
+         */
+        private final List<FlightPathNode>              flightPath  = new ArrayList<>();
+        /**
+         * Stores the listener to call with each order.
+         */
+        private final OrderListener                     onFinished;
+        /**
+         * Stores the subscription to the planning stage.
+         */
+        private       Flow.Subscription                 subscription;
+
+        /**
+         * Creates the last stage of a pipeline.
+         *
+         * @param onFinished The listener to call with each order.
+         */
+        private Collector(OrderListener onFinished) {
+            this.onFinished = onFinished;
+        }
+
+        /**
+         * Starts receiving orders from the planning stage.
+         *
+         * @param subscription The subscription to the planning stage.
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        /**
+         * Hands an order to the listener and collects it, then requests the next one. If a listener fails, the
+         * pipeline is cancelled and the result fails with it.
+         *
+         * @param planned The order, its position and its moves.
+         */
+        @Override
+        public void onNext(PlannedOrder planned) {
+            Order order = planned.order();
+            try {
+                onFinished.accept(planned.position(), order, planned.moves());
+            } catch (RuntimeException err) {
+                subscription.cancel();
+                result.completeExceptionally(err);
+                return;
+            }
+            orders.add(order);
+            if (order.getOrderStatus() != OrderStatus.INVALID) {
+                validOrders.add(order);
+                flightPath.addAll(planned.moves());
+            }
+            subscription.request(1);
+        }
+
+        /**
+         * Fails the result with a failure of an earlier stage.
+         *
+         * @param throwable The failure.
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        /**
+         * Completes the result once every order has been collected.
+         */
+        @Override
+        public void onComplete() {
+            result.complete(new PipelineResult(orders.toArray(Order[]::new),
+                                               validOrders.toArray(Order[]::new),
+                                               flightPath.toArray(FlightPathNode[]::new)
+            ));
+        }
+    }
+}
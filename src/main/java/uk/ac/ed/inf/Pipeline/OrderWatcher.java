@@ -0,0 +1,118 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Watches the orders of a day for ones which have not been seen before, sending only those through an
+ * {@link OrderPipeline} and recording them in the day's checkpoint. Each poll reads the orders from the source again,
+ * so polling as the day goes on dispatches the orders as they arrive, while the flight path generator stays warm
+ * between polls.
+ */
+public class OrderWatcher {
+    /**
+     * The interval between polls if none is given.
+     */
+    public static final Duration DEFAULT_INTERVAL       = Duration.ofSeconds(30);
+    /**
+     * The time each order should be dispatched within, from it being read, if no target is given.
+     */
+    public static final Duration DEFAULT_LATENCY_TARGET = Duration.ofSeconds(1);
+
+    /**
+     * Stores the pipeline the new orders are sent through.
+     */
+    private final OrderPipeline             pipeline;
+    /**
+     * Stores the source of the orders of the day.
+     */
+    private final OrderPipeline.OrderSource source;
+    /**
+     * Stores the checkpoint of the orders seen so far.
+     */
+    private final DayCheckpoint             checkpoint;
+
+    /**
+     * Creates an instance of the {@link OrderWatcher} class.
+     *
+     * @param pipeline   The pipeline to send the new orders through.
+     * @param source     The source of the orders of the day, which is read again on every poll.
+     * @param checkpoint The checkpoint of the orders already seen, which the new orders are added to.
+     */
+    public OrderWatcher(OrderPipeline pipeline, OrderPipeline.OrderSource source, DayCheckpoint checkpoint) {
+        this.pipeline = pipeline;
+        this.source = source;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Gets the checkpoint of the orders seen so far.
+     *
+     * @return The checkpoint.
+     */
+    public DayCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Reads the orders once, and sends the ones not seen before through the pipeline.
+     *
+     * @param onValidated The listener to call with each new order once it has been validated.
+     * @param onPlanned   The listener to call with each new valid order and its moves once it has been planned.
+     *
+     * @return The new orders, in the order they were dispatched.
+     *
+     * @throws IOException If the orders could not be read, or a listener failed to write them.
+     */
+    public List<Dispatch> poll(Consumer<Order> onValidated, BiConsumer<Order, List<FlightPathNode>> onPlanned)
+            throws IOException {
+        // The checkpoint is added to by the last stage while the orders are still being read, so the orders to skip
+        // are taken from a copy.
+        Set<String>       seen       = checkpoint.getOrderNumbers();
+        Map<String, Long> arrivals   = new ConcurrentHashMap<>();
+        List<Dispatch>    dispatches = new ArrayList<>();
+        pipeline.run(onOrder -> source.forEach(order -> {
+            if (seen.contains(order.getOrderNo())) return;
+            arrivals.put(order.getOrderNo(), System.nanoTime());
+            onOrder.accept(order);
+        }), order -> {
+            // An order counts as dispatched once the listeners have been called with it.
+            onValidated.accept(order);
+            if (order.getOrderStatus() == OrderStatus.INVALID) {
+                checkpoint.add(order, List.of());
+                dispatches.add(dispatch(order, 0, arrivals));
+            }
+        }, (order, moves) -> {
+            onPlanned.accept(order, moves);
+            checkpoint.add(order, moves);
+            dispatches.add(dispatch(order, moves.size(), arrivals));
+        });
+        return dispatches;
+    }
+
+    /**
+     * Records the dispatch of an order.
+     *
+     * @param order    The order.
+     * @param moves    The number of moves in its round trip.
+     * @param arrivals The time each order of the poll was read, by order number.
+     *
+     * @return The dispatch.
+     */
+    private static Dispatch dispatch(Order order, int moves, Map<String, Long> arrivals) {
+        long arrival = arrivals.getOrDefault(order.getOrderNo(), System.nanoTime());
+        return new Dispatch(order, moves, System.nanoTime() - arrival);
+    }
+}
@@ -0,0 +1,17 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.data.Order;
+
+/**
+ * The orders and flight path of a day, once they have passed through every stage of an {@link OrderPipeline}.
+ *
+ * @param orders      Every order fetched, in the order they were served, with their outcomes set.
+ * @param validOrders The orders which passed validation, in the same order.
+ * @param flightPath  The full flight path, with the moves of the valid orders in the same order.
+ */
+public record PipelineResult(
+        Order[] orders,
+        Order[] validOrders,
+        FlightPathNode[] flightPath
+) {}
@@ -0,0 +1,89 @@
+package uk.ac.ed.inf.Pipeline;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Function;
+
+/**
+ * A stage of an {@link OrderPipeline}, which transforms each item it receives and publishes the result to the next
+ * stage. Items are requested one at a time, and publishing blocks while the next stage's buffer is full, so a slow
+ * stage holds back the stages before it rather than letting items pile up in memory.
+ *
+ * @param <T> The type of the items received.
+ * @param <R> The type of the items published.
+ */
+class PipelineStage<T, R> extends SubmissionPublisher<R> implements Flow.Processor<T, R> {
+    /**
+     * Stores the transformation applied to each item.
+     */
+    private final Function<T, R>    transform;
+    /**
+     * Stores the subscription to the previous stage.
+     */
+    private       Flow.Subscription subscription;
+
+    /**
+     * Creates a stage of a pipeline.
+     *
+     * @param executor   The executor to deliver the published items on.
+     * @param bufferSize The most items to buffer for the next stage before publishing blocks.
+     * @param transform  The transformation to apply to each item.
+     */
+    PipelineStage(Executor executor, int bufferSize, Function<T, R> transform) {
+        super(executor, bufferSize);
+        this.transform = transform;
+    }
+
+    /**
+     * Starts receiving items from the previous stage.
+     *
+     * @param subscription The subscription to the previous stage.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    /**
+     * Transforms an item and publishes the result, then requests the next item. If the transformation fails, or the
+     * next stage has gone, the previous stage is cancelled and the failure is passed on.
+     *
+     * @param item The item.
+     */
+    @Override
+    public void onNext(T item) {
+        if (!hasSubscribers()) {
+            subscription.cancel();
+            close();
+            return;
+        }
+        try {
+            submit(transform.apply(item));
+        } catch (RuntimeException err) {
+            subscription.cancel();
+            closeExceptionally(err);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    /**
+     * Passes a failure of the previous stage on to the next.
+     *
+     * @param throwable The failure.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    /**
+     * Tells the next stage that there are no more items, once the ones already published have been delivered.
+     */
+    @Override
+    public void onComplete() {
+        close();
+    }
+}
@@ -0,0 +1,93 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+/**
+ * One of several workers which plan a day's orders between them, each taking the orders of a fixed set of restaurants.
+ * As every path from a restaurant is only ever planned by the worker which owns it, each worker only has to cache the
+ * paths of its own restaurants.
+ *
+ * @param index The index of the shard, counting from 0.
+ * @param count The number of shards.
+ */
+public record Shard(
+        int index,
+        int count
+) {
+    /**
+     * Creates an instance of the {@link Shard} record.
+     *
+     * @param index The index of the shard.
+     * @param count The number of shards.
+     *
+     * @throws IllegalArgumentException If there are no shards, or the index is not one of them.
+     */
+    public Shard {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("The shard must be from 0 to one less than the number of shards.");
+        }
+    }
+
+    /**
+     * Parses a shard.
+     *
+     * @param shard The shard, as index/count.
+     *
+     * @return The shard.
+     *
+     * @throws IllegalArgumentException If the text is not a valid shard.
+     */
+    public static Shard parse(String shard) {
+        String[] parts = shard.split("/", -1);
+        try {
+            if (parts.length == 2) return new Shard(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        } catch (NumberFormatException ignored) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid shard " + shard + ". Shards must have the format index/count.");
+    }
+
+    /**
+     * Gets the index of the shard an order belongs to, which is decided by the restaurant of its first pizza on any
+     * menu. The name of the restaurant is hashed with {@link String#hashCode()}, which is the same in every JVM, so
+     * every worker agrees on the owner of every order. Orders with no pizza on any menu belong to the first shard.
+     *
+     * @param order     The order.
+     * @param menuIndex The index of the restaurants.
+     * @param count     The number of shards.
+     *
+     * @return The index of the shard.
+     */
+    public static int of(Order order, MenuIndex menuIndex, int count) {
+        if (order.getPizzasInOrder() == null) return 0;
+        for (Pizza pizza : order.getPizzasInOrder()) {
+            MenuIndex.MenuEntry entry = pizza == null ? null : menuIndex.lookup(pizza.name());
+            if (entry != null) return Math.floorMod(entry.restaurant().name().hashCode(), count);
+        }
+        return 0;
+    }
+
+    /**
+     * Gets whether an order belongs to the shard.
+     *
+     * @param order     The order.
+     * @param menuIndex The index of the restaurants.
+     *
+     * @return Whether the shard owns the order.
+     */
+    public boolean owns(Order order, MenuIndex menuIndex) {
+        return of(order, menuIndex, count) == index;
+    }
+
+    /**
+     * Gets the shard as index/count, as it is given on the command line.
+     *
+     * @return The shard.
+     */
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,66 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Checkpoint.ShardPartial;
+import uk.ac.ed.inf.Output.DayWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Merges the parts of a date saved by every {@link ShardPlanner} back into the orders and flight path of a single run,
+ * and writes the output files from them.
+ */
+public class ShardMerger implements DateProcessor {
+    /**
+     * Stores the number of shards.
+     */
+    private final int       shardCount;
+    /**
+     * Stores the directory the part of each date was saved to.
+     */
+    private final Path      shardDirectory;
+    /**
+     * Stores the directory the checkpoint of each date belongs to.
+     */
+    private final Path      directory;
+    /**
+     * Stores the writer for the output files of each date.
+     */
+    private final DayWriter dayWriter;
+
+    /**
+     * Creates an instance of the {@link ShardMerger} class.
+     *
+     * @param shardCount     The number of shards.
+     * @param shardDirectory The directory the part of each date was saved to.
+     * @param directory      The directory the checkpoint of each date belongs to.
+     * @param dayWriter      The writer for the output files of each date.
+     */
+    public ShardMerger(int shardCount, Path shardDirectory, Path directory, DayWriter dayWriter) {
+        this.shardCount = shardCount;
+        this.shardDirectory = shardDirectory;
+        this.directory = directory;
+        this.dayWriter = dayWriter;
+    }
+
+    /**
+     * Merges the parts of a date and writes its output files.
+     *
+     * @param date The date.
+     *
+     * @return The checkpoint holding every order of the date, which is not saved.
+     *
+     * @throws IOException If the part of a shard is missing or could not be read, or the parts do not hold every
+     *                     order of the date exactly once.
+     */
+    @Override
+    public DayCheckpoint process(LocalDate date) throws IOException {
+        var checkpoint = new DayCheckpoint(directory, date);
+        ShardPartial.merge(shardDirectory, date, shardCount, checkpoint);
+        System.out.println("Merged " + checkpoint.size() + " orders for " + date + " from " + shardCount + " shards.");
+        dayWriter.write(checkpoint);
+        return checkpoint;
+    }
+}
@@ -0,0 +1,87 @@
+package uk.ac.ed.inf.Pipeline;
+
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Checkpoint.ShardPartial;
+import uk.ac.ed.inf.RestService.DataSource;
+import uk.ac.ed.inf.RestService.MenuIndex;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates and plans the orders of a date which belong to a shard, and saves them along with their positions among
+ * every order of the date for a {@link ShardMerger} to put back in order. No output files are written.
+ */
+public class ShardPlanner implements DateProcessor {
+    /**
+     * Stores the shard the orders are planned for.
+     */
+    private final Shard         shard;
+    /**
+     * Stores the directory the part of each date is saved to.
+     */
+    private final Path          shardDirectory;
+    /**
+     * Stores the pipeline the orders are validated and planned through.
+     */
+    private final OrderPipeline orderPipeline;
+    /**
+     * Stores the source the orders are read from.
+     */
+    private final DataSource    dataSource;
+    /**
+     * Stores the index of the restaurants, which decides the shard each order belongs to.
+     */
+    private final MenuIndex     menuIndex;
+
+    /**
+     * Creates an instance of the {@link ShardPlanner} class.
+     *
+     * @param shard          The shard to plan the orders for.
+     * @param shardDirectory The directory to save the part of each date to.
+     * @param orderPipeline  The pipeline to validate and plan the orders through.
+     * @param dataSource     The source to read the orders from.
+     * @param menuIndex      The index of the restaurants, which decides the shard each order belongs to.
+     */
+    public ShardPlanner(Shard shard, Path shardDirectory, OrderPipeline orderPipeline, DataSource dataSource,
+                        MenuIndex menuIndex) {
+        this.shard = shard;
+        this.shardDirectory = shardDirectory;
+        this.orderPipeline = orderPipeline;
+        this.dataSource = dataSource;
+        this.menuIndex = menuIndex;
+    }
+
+    /**
+     * Plans the shard's part of a date and saves it.
+     *
+     * @param date The date.
+     *
+     * @return The checkpoint holding the orders of the shard, which is not saved.
+     *
+     * @throws IOException If the orders could not be fetched, or the part could not be saved.
+     */
+    @Override
+    public DayCheckpoint process(LocalDate date) throws IOException {
+        var partial = new ShardPartial(date, shard.index(), shard.count());
+        var orders  = new DayCheckpoint(shardDirectory, date);
+        // Each order carries its position among every order of the day through the pipeline, so orders without a
+        // number, or sharing one, are still put back where they belong.
+        orderPipeline.run(onOrder -> {
+            var position = new AtomicInteger();
+            partial.setOrderCount(dataSource.streamOrders(date, order -> {
+                int index = position.getAndIncrement();
+                if (shard.owns(order, menuIndex)) onOrder.accept(order, index);
+            }));
+        }, (position, order, moves) -> {
+            partial.add(position, order, moves);
+            orders.add(order, moves);
+        });
+        Path path = partial.save(shardDirectory);
+        System.out.println("Planned " + partial.size() + " orders for " + date + " as shard " + shard
+                           + ", and saved them to " + path + ".");
+        return orders;
+    }
+}
@@ -1,97 +1,148 @@
 package uk.ac.ed.inf;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
-import uk.ac.ed.inf.FlightPaths.FlightPathNode;
-import uk.ac.ed.inf.RestService.OrderValidator;
-import uk.ac.ed.inf.RestService.RESTManager;
-import uk.ac.ed.inf.Serializers.FlightPathNodeGeoJSONSerializer;
-import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
-import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
-import uk.ac.ed.inf.ilp.constant.OrderStatus;
-import uk.ac.ed.inf.ilp.data.Order;
-import uk.ac.ed.inf.ilp.data.Restaurant;
+import uk.ac.ed.inf.Checkpoint.BackfillJournal;
+import uk.ac.ed.inf.Engine.PizzaDronzEngine;
+import uk.ac.ed.inf.Execution.ExecutionPools;
+import uk.ac.ed.inf.Execution.PoolUsage;
+import uk.ac.ed.inf.Heatmap.HeatmapGrid;
+import uk.ac.ed.inf.Heatmap.HeatmapWriter;
+import uk.ac.ed.inf.Output.DayWriter;
+import uk.ac.ed.inf.Output.OutputWriter;
+import uk.ac.ed.inf.Pipeline.BackfillResumer;
+import uk.ac.ed.inf.Pipeline.BatchRunner;
+import uk.ac.ed.inf.Pipeline.DatePlanner;
+import uk.ac.ed.inf.Pipeline.DateProcessor;
+import uk.ac.ed.inf.Pipeline.DayWatcher;
+import uk.ac.ed.inf.Pipeline.OrderPipeline;
+import uk.ac.ed.inf.Pipeline.ShardMerger;
+import uk.ac.ed.inf.Pipeline.ShardPlanner;
+import uk.ac.ed.inf.Server.PlanningServer;
 
-import java.io.File;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.util.LinkedList;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
- * Main class for the PizzaDronz application.
+ * Main class for the PizzaDronz application, which wires the engine to the mode of the run chosen by its options.
  */
 public class PizzaDronz {
     /**
-     * Stores the instance of the {@link RESTManager} class.
+     * The directory the output files, checkpoints and journal are written to.
      */
-    private final RESTManager      restManager;
+    private static final Path RESULT_DIRECTORY = Path.of("resultfiles");
+
+    /**
+     * Stores the options of the run.
+     */
+    private final RunOptions       options;
+    /**
+     * Stores the thread pools shared by every part of the run.
+     */
+    private final ExecutionPools   pools;
     /**
-     * Creates an instance of the {@link OrderValidator} class.
+     * Stores the engine, which holds the restaurants, central area and no-fly zones for every date of the run.
      */
-    private final OrderValidator   orderValidator = new OrderValidator();
+    private final PizzaDronzEngine engine;
     /**
-     * Stores the flight paths.
+     * Stores the writer for the output files.
      */
-    private final FlightPathNode[] flightPath;
+    private final OutputWriter     outputWriter;
     /**
-     * Stores the orders.
+     * Stores the writer for the output files of each date.
      */
-    private       Order[]          orders         = null;
+    private final DayWriter        dayWriter;
+    /**
+     * Stores the journal of the phases each date has finished, or null if the run is not resumable.
+     */
+    private final BackfillJournal  journal;
+    /**
+     * Stores the pipeline each date's orders are validated and planned through.
+     */
+    private final OrderPipeline    orderPipeline;
+    /**
+     * Stores the planner which fetches, validates and plans the orders of a date in full.
+     */
+    private final DatePlanner      planner;
 
     /**
-     * Creates an instance of the {@link PizzaDronz} class.
+     * Creates an instance of the {@link PizzaDronz} class, fetching the restaurants, central area and no-fly zones
+     * once for every date of the run.
      *
-     * @param apiUrl The URL of the API.
-     * @param date   The date to generate the flight paths for.
-     */
-    private PizzaDronz(String apiUrl, LocalDate date) throws IOException {
-        // Set up the RESTManager and the FlightPathGenerator.
-        restManager = new RESTManager(apiUrl);
-        var flightPathGenerator = new FlightPathGenerator(restManager.getCentralArea(),
-                                                          restManager.getNoFlyZones(),
-                                                          restManager.getRestaurants()
+     * @param options The options of the run.
+     */
+    private PizzaDronz(RunOptions options) throws IOException {
+        this.options = options;
+        pools = new ExecutionPools(options.getExecutionConfig());
+        engine = await(PizzaDronzEngine.start(options.getApiUrl(), pools));
+        outputWriter = new OutputWriter(RESULT_DIRECTORY,
+                                        options.isCompact(),
+                                        options.getEngine(),
+                                        options.getCompression(),
+                                        options.getGeoJSONOptions(),
+                                        pools.io(),
+                                        pools.cpu()
         );
+        dayWriter = new DayWriter(outputWriter,
+                                  options.isArchive(),
+                                  options.isNDJSON(),
+                                  RESULT_DIRECTORY.resolve("tiles"),
+                                  options.getTileZooms()
+        );
+        journal = options.isResume() ? BackfillJournal.open(RESULT_DIRECTORY) : null;
+        orderPipeline = new OrderPipeline(engine.getOrderValidator(),
+                                          engine.getMenuIndex(),
+                                          engine.getFlightPathGenerator(),
+                                          OrderPipeline.DEFAULT_BUFFER_SIZE,
+                                          pools.cpu()
+        );
+        planner = new DatePlanner(RESULT_DIRECTORY, orderPipeline, engine.getDataSource(), dayWriter, journal,
+                                  options.isIncremental(), options.isNDJSON());
+    }
 
-        // Fetch and validate the orders, then generate the flight path.
-        Order[] validOrders = fetchAndValidateOrders(date);
-        flightPath = flightPathGenerator.generateFullPath(validOrders);
-
-        // Generate the JSON files.
-        generateFlightPathJSON(date);
-        generateFlightPathGeoJSON(date);
-        generateDeliveryJSON(date);
+    /**
+     * Waits for work done in the background.
+     *
+     * @param future The work.
+     *
+     * @return The outcome of the work.
+     *
+     * @throws IOException If the work failed to reach the REST server.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException err) {
+            if (err.getCause() instanceof UncheckedIOException cause) throw cause.getCause();
+            throw err;
+        }
     }
 
     /**
      * Entry point of the application.
      *
-     * @param args The command line arguments. The first argument is the date and the second argument is the path to the
-     *             file containing the orders.
+     * @param args The command line arguments. The first argument is the date, or dates, and the second argument is
+     *             the URL of the REST server or a {@code file:} URI of a directory of local data, followed by any
+     *             options described in {@link RunOptions}.
      */
     public static void main(String[] args) {
-        // Check if the correct number of arguments were provided.
-        if (args.length != 2) {
-            System.err.println("Please provide arguments in the following format: <date> <rest-url>");
-            return;
-        }
-
-        // Check if the date is valid.
-        LocalDate date;
+        // Check that the arguments are valid.
+        RunOptions options;
         try {
-            date = LocalDate.parse(args[0]);
-        } catch (Exception err) {
-            System.err.println("The date provided is invalid. Please ensure the date has the format: YYYY-MM-DD.");
+            options = RunOptions.parse(args);
+        } catch (IllegalArgumentException err) {
+            System.err.println(err.getMessage());
             return;
         }
 
         try {
             long startTime = System.currentTimeMillis();
-            System.out.println("Starting PizzaDronz with date " + args[0] + " and REST URL " + args[1] + ".");
-            new PizzaDronz(args[1], date);
+            System.out.println("Starting PizzaDronz with date " + args[0] + " and data from " + args[1] + ".");
+            new PizzaDronz(options).run();
             System.out.println("Exiting PizzaDronz. Runtime: " + (System.currentTimeMillis() - startTime) + "ms.");
         } catch (Exception err) {
             System.err.println("An exception occurred which the system could not recover from: " + err.getMessage());
@@ -99,79 +150,93 @@ public class PizzaDronz {
     }
 
     /**
-     * Fetches and validates all orders for the given date.
+     * Generates the flight paths and output files of every date of the run, followed by the heatmap if asked for,
+     * then serves the planning API until the application is stopped if asked to, and finally reports how busy each
+     * thread pool was kept.
      *
-     * @param date The date to fetch the orders for.
-     *
-     * @return The valid orders.
-     */
-    private Order[] fetchAndValidateOrders(LocalDate date) {
-        Restaurant[] restaurants = restManager.getRestaurants();
-        orders = restManager.getOrders(date);
-        List<Order> validOrders = new LinkedList<>();
-        for (int i = 0; i < orders.length; i++) {
-            Order       order  = orders[i];
-            OrderStatus status = orderValidator.validateOrder(order, restaurants).getOrderStatus();
-            if (status == OrderStatus.VALID_BUT_NOT_DELIVERED) validOrders.add(order);
-            System.out.print("\rFetched " + validOrders.size() + " valid orders out of " + (i + 1) + " total orders.");
+     * @throws IOException          If the files of a single date could not be written, or the API could not be
+     *                              served.
+     * @throws InterruptedException If the thread is interrupted while serving the API.
+     */
+    private void run() throws IOException, InterruptedException {
+        try (pools; engine; outputWriter; journal) {
+            DateProcessor processor = createProcessor();
+            if (options.getWatchInterval() != null) {
+                new DayWatcher(planner, dayWriter, engine.getFlightPathGenerator(), pools.cpu())
+                        .watch(options.getDate(), options.getWatchInterval(), options.getLatencyTarget());
+            } else if (options.isBatch()) {
+                new BatchRunner(processor, pools, outputWriter).run(options.getDates(), options.getParallelism());
+            } else {
+                processor.run(options.getDate());
+            }
+            if (journal != null && !journal.finish(options.getDates(), options.isIncremental())) {
+                System.out.println("Kept the journal at " + journal.getPath() + " to resume from.");
+            }
+            if (options.getHeatmapCellSize() != null) writeHeatmap();
+            if (options.getServerPort() != null) serve(options.getServerPort(), processor);
+            reportUsage(pools.getUsage());
         }
-        System.out.println();
-        return validOrders.toArray(Order[]::new);
     }
 
     /**
-     * Generates the deliveries JSON file for the given date.
+     * Creates the processor each date of the run is handled by: the planner of a shard, the merger of every shard,
+     * or the planner of the whole date, which carries on from the journal when resuming.
      *
-     * @param date The date to generate the JSON files for.
+     * @return The processor.
      */
-    private void generateDeliveryJSON(LocalDate date) {
-        writeFile("deliveries-" + date + ".json", Order.class, new OrderJSONSerializer(), orders);
+    private DateProcessor createProcessor() {
+        if (options.getShard() != null) {
+            return new ShardPlanner(options.getShard(), options.getShardDirectory(),
+                                    orderPipeline, engine.getDataSource(), engine.getMenuIndex());
+        }
+        if (options.getMergeShards() != null) {
+            return new ShardMerger(options.getMergeShards(), options.getShardDirectory(), RESULT_DIRECTORY,
+                                   dayWriter);
+        }
+        if (journal != null) return new BackfillResumer(journal, RESULT_DIRECTORY, planner, dayWriter);
+        return planner;
     }
 
     /**
-     * Generates the flight path JSON file for the given date.
+     * Reports how busy each thread pool was kept over the run.
      *
-     * @param date The date to generate the JSON files for.
+     * @param usage The usage of each pool.
      */
-    private void generateFlightPathJSON(LocalDate date) {
-        writeFile("flightpath-" + date + ".json", FlightPathNode.class, new FlightPathNodeJSONSerializer(), flightPath);
+    private static void reportUsage(List<PoolUsage> usage) {
+        System.out.println("Thread pool utilisation:");
+        for (PoolUsage pool : usage)
+            System.out.println("  " + pool.describe());
     }
 
     /**
-     * Generates the flight path GeoJSON file for the given date.
+     * Serves the planning API on the loopback interface until the application is stopped.
+     *
+     * @param port      The port to serve the API on.
+     * @param processor The processor which generates the output files of a day for the API.
      *
-     * @param date The date to generate the GeoJSON files for.
-     */
-    private void generateFlightPathGeoJSON(LocalDate date) {
-        writeFile("drone-" + date + ".geojson",
-                  FlightPathNode[].class,
-                  new FlightPathNodeGeoJSONSerializer(),
-                  flightPath
-                 );
+     * @throws IOException          If the port could not be bound.
+     * @throws InterruptedException If the thread is interrupted while serving the API.
+     */
+    private void serve(int port, DateProcessor processor) throws IOException, InterruptedException {
+        new PlanningServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                           engine.getOrderValidator(),
+                           engine.getMenuIndex(),
+                           engine.getFlightPathGenerator(),
+                           processor::run,
+                           pools.newPool("server", pools.getConfig().serverThreads())
+        ).serveUntilStopped(pools.cpu());
     }
 
     /**
-     * Writes the given content to the given file.
-     *
-     * @param fileName   The name of the file to write to.
-     * @param dataType   The class of the data type.
-     * @param serializer The serializer to use.
-     * @param content    The content to write.
-     * @param <T>        The type of the data.
-     */
-    @SuppressWarnings("ResultOfMethodCallIgnored")
-    private <T> void writeFile(String fileName, Class<T> dataType, StdSerializer<T> serializer, Object content) {
+     * Counts the moves of every flight path in the result files, including the ones just generated, into a traffic
+     * heatmap, and writes it both as a raster and as a GeoJSON grid.
+     */
+    private void writeHeatmap() {
         try {
-            var module = new SimpleModule().addSerializer(dataType, serializer);
-            var file   = new File("resultfiles/" + fileName);
-            file.getParentFile().mkdirs();
-            file.createNewFile();
-            new ObjectMapper()
-                    .enable(SerializationFeature.INDENT_OUTPUT)
-                    .registerModule(module)
-                    .writeValue(file, content);
-            System.out.println("Wrote data to resultfiles/" + fileName + ".");
-        } catch (Exception err) {
+            HeatmapWriter.writeTraffic(RESULT_DIRECTORY,
+                                       HeatmapGrid.covering(engine.getCentralArea(), options.getHeatmapCellSize()),
+                                       pools.cpu());
+        } catch (IOException err) {
             System.err.println(err.getMessage());
         }
     }
@@ -0,0 +1,41 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The result of validating a batch of orders.
+ *
+ * @param orders The validated orders, in the same order as they were given.
+ * @param counts The number of orders given each {@link OrderValidationCode}.
+ */
+public record BatchValidationResult(
+        Order[] orders,
+        Map<OrderValidationCode, Integer> counts
+) {
+    /**
+     * Gets the number of orders which were given the specified validation code.
+     *
+     * @param code The validation code.
+     *
+     * @return The number of orders with the validation code.
+     */
+    public int getCount(OrderValidationCode code) {
+        return counts.getOrDefault(code, 0);
+    }
+
+    /**
+     * Gets the valid orders, in the same order as they were given.
+     *
+     * @return The valid orders.
+     */
+    public Order[] getValidOrders() {
+        return Arrays
+                .stream(orders)
+                .filter(order -> order.getOrderValidationCode() == OrderValidationCode.NO_ERROR)
+                .toArray(Order[]::new);
+    }
+}
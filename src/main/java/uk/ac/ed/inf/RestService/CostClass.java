@@ -0,0 +1,42 @@
+package uk.ac.ed.inf.RestService;
+
+/**
+ * The relative cost of evaluating a {@link ValidationRule}.
+ */
+public enum CostClass {
+    /**
+     * A check of a few fields or characters.
+     */
+    CHEAP(1),
+    /**
+     * A check which looks up the pizzas on the order.
+     */
+    MODERATE(4),
+    /**
+     * A check which does substantially more work than a lookup per pizza.
+     */
+    EXPENSIVE(16);
+
+    /**
+     * Stores the relative cost of evaluating a rule of this class.
+     */
+    private final int weight;
+
+    /**
+     * Creates a cost class.
+     *
+     * @param weight the relative cost of evaluating a rule of this class
+     */
+    CostClass(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the relative cost of evaluating a rule of this class.
+     *
+     * @return the relative cost
+     */
+    public int weight() {
+        return weight;
+    }
+}
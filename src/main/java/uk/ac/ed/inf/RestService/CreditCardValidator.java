@@ -0,0 +1,125 @@
+package uk.ac.ed.inf.RestService;
+
+import java.time.LocalDate;
+
+/**
+ * Validates the fields of a credit card by scanning their characters directly, without compiling regular expressions,
+ * splitting strings or using exceptions for control flow, so that no objects are allocated per call.
+ */
+public final class CreditCardValidator {
+    /**
+     * The number of digits in a credit card number.
+     */
+    private static final int CARD_NUMBER_LENGTH = 16;
+    /**
+     * The number of digits in a CVV.
+     */
+    private static final int CVV_LENGTH         = 3;
+    /**
+     * The value used to mark a field of an expiry date which could not be parsed.
+     */
+    private static final int INVALID_FIELD      = -1;
+
+    /**
+     * This class only has static methods, so cannot be instantiated.
+     */
+    private CreditCardValidator() {}
+
+    /**
+     * Check that a credit card number is valid, i.e. that it is a Visa or MasterCard number made of sixteen ASCII
+     * digits starting with a 2, 4 or 5.
+     *
+     * @param creditCardNumber the credit card number to check
+     *
+     * @return whether the credit card number is valid
+     */
+    public static boolean isValidNumber(String creditCardNumber) {
+        if (creditCardNumber == null || creditCardNumber.length() != CARD_NUMBER_LENGTH) return false;
+        char first = creditCardNumber.charAt(0);
+        return (first == '2' || first == '4' || first == '5') && isAsciiDigits(creditCardNumber);
+    }
+
+    /**
+     * Check that a credit card CVV is valid, i.e. that it is made of three ASCII digits.
+     *
+     * @param cvv the credit card CVV to check
+     *
+     * @return whether the credit card CVV is valid
+     */
+    public static boolean isValidCVV(String cvv) {
+        return cvv != null && cvv.length() == CVV_LENGTH && isAsciiDigits(cvv);
+    }
+
+    /**
+     * Check that a credit card expiry date of the form {@code MM/YY} is valid and has not passed on the order date.
+     * Each field is parsed with the same rules as {@link Integer#parseInt(String)}, and anything after a second
+     * {@code /} is ignored.
+     *
+     * @param creditCardExpiry the credit card expiry date to check
+     * @param orderDate        the date the order was placed
+     *
+     * @return whether the credit card expiry date is valid
+     */
+    public static boolean isValidExpiry(String creditCardExpiry, LocalDate orderDate) {
+        if (creditCardExpiry == null || orderDate == null) return false;
+
+        // Find the end of each field
+        int monthEnd = creditCardExpiry.indexOf('/');
+        if (monthEnd < 0) return false;
+        int yearEnd = creditCardExpiry.indexOf('/', monthEnd + 1);
+        if (yearEnd < 0) yearEnd = creditCardExpiry.length();
+
+        // Check that both the month and year are numbers in range
+        int expiryMonth = parseField(creditCardExpiry, 0, monthEnd);
+        int expiryYear  = parseField(creditCardExpiry, monthEnd + 1, yearEnd);
+        if (expiryMonth < 1 || expiryMonth > 12 || expiryYear < 0 || expiryYear > 99) return false;
+
+        // Check that the expiry date has not passed
+        int currentMonth = orderDate.getMonthValue();
+        int currentYear  = orderDate.getYear() % 100;
+        return expiryYear > currentYear || expiryYear == currentYear && expiryMonth >= currentMonth;
+    }
+
+    /**
+     * Check that every character of a string is an ASCII digit.
+     *
+     * @param value the string to check
+     *
+     * @return whether every character is an ASCII digit
+     */
+    private static boolean isAsciiDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a field of an expiry date, accepting exactly what {@link Integer#parseInt(String)} accepts. As valid
+     * fields are at most 99, any value above that is clamped rather than allowed to overflow.
+     *
+     * @param value the string containing the field
+     * @param start the index of the first character of the field
+     * @param end   the index after the last character of the field
+     *
+     * @return the value of the field, which is negative if the field is not a number
+     */
+    private static int parseField(String value, int start, int end) {
+        if (start >= end) return INVALID_FIELD;
+        boolean negative = false;
+        char    first    = value.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) return INVALID_FIELD;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0) return INVALID_FIELD;
+            result = Math.min(result * 10 + digit, 1_000);
+        }
+        // A negative number is always out of range, except for -0
+        return negative && result != 0 ? INVALID_FIELD : result;
+    }
+}
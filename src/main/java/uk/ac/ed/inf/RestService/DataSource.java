@@ -0,0 +1,90 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Where the restaurants, orders, central area and no-fly zones are read from, which is either the REST server through
+ * a {@link RESTManager}, or a directory of local files through a {@link LocalDataSource}.
+ */
+public interface DataSource {
+    /**
+     * Opens the data source at a location.
+     *
+     * @param location The URL of the REST server, or a {@code file:} URI of a directory of local files.
+     * @param pool     The pool to parse local orders on in parallel.
+     * @param executor The executor to read data in the background on.
+     *
+     * @return The data source.
+     *
+     * @throws IOException              If no server or data was found at the location.
+     * @throws IllegalArgumentException If the location is a {@code file:} URI which is not a valid path.
+     */
+    static DataSource open(String location, ForkJoinPool pool, Executor executor) throws IOException {
+        Path directory = LocalDataSource.directoryOf(location);
+        if (directory != null) return new LocalDataSource(directory, pool, executor);
+        return new RESTManager(location, executor);
+    }
+
+    /**
+     * Reads the list of restaurants.
+     *
+     * @return The list of restaurants, or null if they could not be read.
+     */
+    Restaurant[] getRestaurants();
+
+    /**
+     * Reads the list of orders for a given date.
+     *
+     * @param date The date to get the orders for, or null to get every order.
+     *
+     * @return The list of orders, in the order they are stored, or null if they could not be read.
+     */
+    Order[] getOrders(LocalDate date);
+
+    /**
+     * Reads the orders of a given date, handing each to the consumer as soon as it has been read, rather than waiting
+     * for all of them.
+     *
+     * @param date    The date to get the orders for.
+     * @param onOrder The consumer to call with each order, in the order they are stored.
+     *
+     * @return The number of orders read.
+     *
+     * @throws IOException If the orders could not be read.
+     */
+    int streamOrders(LocalDate date, Consumer<Order> onOrder) throws IOException;
+
+    /**
+     * Reads the central area.
+     *
+     * @return The central area, or null if it could not be read.
+     */
+    NamedRegion getCentralArea();
+
+    /**
+     * Reads the list of no-fly zones.
+     *
+     * @return The list of no-fly zones, or null if they could not be read.
+     */
+    NamedRegion[] getNoFlyZones();
+
+    /**
+     * Reads the data of an endpoint in the background, so that several can be read at the same time.
+     *
+     * @param endpoint The endpoint to read.
+     *
+     * @return A future which completes with the data, or with an {@link java.io.UncheckedIOException} if it could not
+     *         be read.
+     */
+    <T> CompletableFuture<T> fetchAsync(Endpoint<T> endpoint);
+}
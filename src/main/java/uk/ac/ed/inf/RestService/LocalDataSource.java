@@ -0,0 +1,396 @@
+package uk.ac.ed.inf.RestService;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Reads the data of the REST server from a directory of local files instead, so that the application can run without
+ * a server, on dumps of orders far larger than the server could serve. The directory holds a JSON file for each
+ * endpoint, named after it as the fixtures of the tests are, and the orders as newline-delimited JSON, one order per
+ * line: the orders of a date in {@code orders-YYYY-MM-DD.ndjson}, and every order in {@code orders.ndjson}.
+ * <p>
+ * An order file is memory-mapped rather than read, and split at line boundaries into chunks which are parsed in
+ * parallel. The orders are still handed on in the order they are stored, a chunk at a time, with only a few chunks
+ * parsed ahead of the one being handed on.
+ */
+public final class LocalDataSource implements DataSource {
+    /**
+     * The scheme of the location of a directory of local files.
+     */
+    public static final  String SCHEME            = "file:";
+    /**
+     * The extension of an order file.
+     */
+    public static final  String ORDERS_EXTENSION  = ".ndjson";
+    /**
+     * The smallest chunk an order file is split into, in bytes, below which parsing in parallel is not worth it.
+     */
+    private static final long   MIN_CHUNK_SIZE    = 1 << 16;
+    /**
+     * The largest chunk an order file is split into, in bytes, which is mapped in one go.
+     */
+    private static final long   MAX_CHUNK_SIZE    = 1 << 28;
+    /**
+     * The number of chunks an order file is split into for each thread of the pool, so that a thread which finishes
+     * early can take another.
+     */
+    private static final int    CHUNKS_PER_THREAD = 4;
+    /**
+     * The number of bytes read at a time when looking for the end of a line.
+     */
+    private static final int    SCAN_SIZE         = 1 << 12;
+
+    /**
+     * The object mapper used to parse the JSON files into Java objects.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    /**
+     * The reader used to parse each line of an order file.
+     */
+    private final ObjectReader orderReader  = objectMapper.readerFor(Order.class);
+    /**
+     * The directory the files are in.
+     */
+    private final Path         directory;
+    /**
+     * The pool the chunks of an order file are parsed on.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The executor data read in the background is read on.
+     */
+    private final Executor     executor;
+
+    /**
+     * Creates a new LocalDataSource object, which parses and reads in the background on the common fork-join pool.
+     *
+     * @param directory The directory the files are in.
+     *
+     * @throws IOException If the directory has no restaurants file.
+     */
+    public LocalDataSource(Path directory) throws IOException {
+        this(directory, ForkJoinPool.commonPool(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new LocalDataSource object.
+     *
+     * @param directory The directory the files are in.
+     * @param pool      The pool to parse the chunks of an order file on.
+     * @param executor  The executor to read data in the background on.
+     *
+     * @throws IOException If the directory has no restaurants file.
+     */
+    public LocalDataSource(Path directory, ForkJoinPool pool, Executor executor) throws IOException {
+        this.directory = directory;
+        this.pool = pool;
+        this.executor = executor;
+        if (!Files.isRegularFile(getFile(Endpoints.RESTAURANTS))) {
+            throw new IOException("No data was found in " + directory + ".");
+        }
+    }
+
+    /**
+     * Gets the directory a location refers to, if it is a directory of local files.
+     *
+     * @param location The URL of the REST server, or a {@code file:} URI of a directory of local files.
+     *
+     * @return The directory, or null if the location is not a {@code file:} URI.
+     *
+     * @throws IllegalArgumentException If the location is a {@code file:} URI which is not a valid path.
+     */
+    public static Path directoryOf(String location) {
+        if (!location.startsWith(SCHEME)) return null;
+        try {
+            return Path.of(URI.create(location));
+        } catch (IllegalArgumentException err) {
+            throw new IllegalArgumentException("The data directory " + location + " is not a valid file URI, such as"
+                                               + " file:///path/to/data.");
+        }
+    }
+
+    /**
+     * Gets the file holding the data of an endpoint.
+     *
+     * @param endpoint The endpoint.
+     *
+     * @return The path of the file.
+     */
+    public Path getFile(Endpoint<?> endpoint) {
+        return directory.resolve(endpoint.url() + ".json");
+    }
+
+    /**
+     * Gets the file holding the orders of a date.
+     *
+     * @param date The date, or null for the file holding every order.
+     *
+     * @return The path of the file.
+     */
+    public Path getOrdersFile(LocalDate date) {
+        String name = Endpoints.ORDERS.url() + (date == null ? "" : "-" + date);
+        return directory.resolve(name + ORDERS_EXTENSION);
+    }
+
+    /**
+     * Reads the list of restaurants from the restaurants file.
+     *
+     * @return The list of restaurants, or null if the file could not be read.
+     */
+    public Restaurant[] getRestaurants() {
+        try {
+            return read(Endpoints.RESTAURANTS);
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the list of orders for a given date from its order file, parsing the chunks of the file in parallel.
+     *
+     * @param date The date to get the orders for, or null to get every order.
+     *
+     * @return The list of orders, in the order they are stored, or null if the file could not be read.
+     */
+    public Order[] getOrders(LocalDate date) {
+        try {
+            var orders = new ArrayList<Order>();
+            streamOrders(date, orders::add);
+            return orders.toArray(Order[]::new);
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the orders of a given date from its order file, parsing the chunks of the file in parallel and handing
+     * each chunk's orders to the consumer as soon as it and every chunk before it have been parsed. The consumer is
+     * called on the calling thread.
+     *
+     * @param date    The date to get the orders for, or null to get every order.
+     * @param onOrder The consumer to call with each order, in the order they are stored.
+     *
+     * @return The number of orders read.
+     *
+     * @throws IOException If the file could not be read, or a line is not an order.
+     */
+    public int streamOrders(LocalDate date, Consumer<Order> onOrder) throws IOException {
+        try (FileChannel channel = FileChannel.open(getOrdersFile(date))) {
+            long[] bounds  = split(channel);
+            var    parsing = new ArrayDeque<CompletableFuture<List<Order>>>();
+            int    window  = 2 * pool.getParallelism();
+            int    next    = 0;
+            int    count   = 0;
+            while (next < bounds.length - 1 && parsing.size() < window) {
+                parsing.add(parseAsync(channel, bounds[next], bounds[++next]));
+            }
+            while (!parsing.isEmpty()) {
+                List<Order> orders = await(parsing.poll());
+                if (next < bounds.length - 1) parsing.add(parseAsync(channel, bounds[next], bounds[++next]));
+                for (Order order : orders)
+                    onOrder.accept(order);
+                count += orders.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Reads the central area from the central area file.
+     *
+     * @return The central area, or null if the file could not be read.
+     */
+    public NamedRegion getCentralArea() {
+        try {
+            return read(Endpoints.CENTRAL_AREA);
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the list of no-fly zones from the no-fly zones file.
+     *
+     * @return The list of no-fly zones, or null if the file could not be read.
+     */
+    public NamedRegion[] getNoFlyZones() {
+        try {
+            return read(Endpoints.NO_FLY_ZONES);
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the file of an endpoint in the background, so that several can be read at the same time. The orders are
+     * read from the file holding every order.
+     *
+     * @param endpoint The endpoint to read.
+     *
+     * @return A future which completes with the data, or with an {@link UncheckedIOException} if it could not be
+     *         read.
+     */
+    public <T> CompletableFuture<T> fetchAsync(Endpoint<T> endpoint) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (endpoint.equals(Endpoints.ORDERS)) {
+                    var orders = new ArrayList<Order>();
+                    streamOrders(null, orders::add);
+                    return endpoint.clazz().cast(orders.toArray(Order[]::new));
+                }
+                return read(endpoint);
+            } catch (IOException err) {
+                throw new UncheckedIOException(err);
+            }
+        }, executor);
+    }
+
+    /**
+     * Reads the file of an endpoint.
+     *
+     * @param endpoint The endpoint.
+     *
+     * @return The data in the file.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    private <T> T read(Endpoint<T> endpoint) throws IOException {
+        return objectMapper.readValue(getFile(endpoint).toFile(), endpoint.clazz());
+    }
+
+    /**
+     * Splits an order file into chunks which each end at the end of a line, enough for every thread of the pool to
+     * parse several, but none smaller than {@link #MIN_CHUNK_SIZE} or larger than {@link #MAX_CHUNK_SIZE} unless a
+     * single line is.
+     *
+     * @param channel The channel of the file.
+     *
+     * @return The offset each chunk starts at, followed by the size of the file.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    private long[] split(FileChannel channel) throws IOException {
+        long size       = channel.size();
+        long chunkCount = Math.max((long) pool.getParallelism() * CHUNKS_PER_THREAD,
+                                   (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        chunkCount = Math.max(1, Math.min(chunkCount, size / MIN_CHUNK_SIZE));
+
+        var bounds = new ArrayList<Long>();
+        bounds.add(0L);
+        for (long i = 1; i < chunkCount; i++) {
+            long bound = nextLine(channel, Math.max(i * size / chunkCount, bounds.get(bounds.size() - 1)), size);
+            if (bound > bounds.get(bounds.size() - 1) && bound < size) bounds.add(bound);
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Finds the start of the first line which starts at or after an offset of a file.
+     *
+     * @param channel  The channel of the file.
+     * @param position The offset, which must be at least 1.
+     * @param size     The size of the file.
+     *
+     * @return The offset of the start of the line, or the size of the file if there is none.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+        var buffer = ByteBuffer.allocate(SCAN_SIZE);
+        // Start at the byte before the offset, in case it ends the line before.
+        position--;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++)
+                if (buffer.get(i) == '\n') return position + i + 1;
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses a chunk of an order file on the pool.
+     *
+     * @param channel The channel of the file.
+     * @param start   The offset the chunk starts at.
+     * @param end     The offset the chunk ends at.
+     *
+     * @return A future which completes with the orders of the chunk, or with an {@link UncheckedIOException} if it
+     *         could not be parsed.
+     */
+    private CompletableFuture<List<Order>> parseAsync(FileChannel channel, long start, long end) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return parse(channel, start, end);
+            } catch (IOException err) {
+                throw new UncheckedIOException(err);
+            }
+        }, pool);
+    }
+
+    /**
+     * Maps a chunk of an order file into memory and parses its orders.
+     *
+     * @param channel The channel of the file.
+     * @param start   The offset the chunk starts at.
+     * @param end     The offset the chunk ends at.
+     *
+     * @return The orders of the chunk.
+     *
+     * @throws IOException If the chunk could not be mapped, or a line is not an order.
+     */
+    private List<Order> parse(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        var              orders = new ArrayList<Order>();
+        try (MappingIterator<Order> iterator = orderReader.readValues(new ByteBufferBackedInputStream(buffer))) {
+            while (iterator.hasNextValue())
+                orders.add(iterator.nextValue());
+        }
+        return orders;
+    }
+
+    /**
+     * Waits for a chunk to be parsed.
+     *
+     * @param future The parsing of the chunk.
+     *
+     * @return The orders of the chunk.
+     *
+     * @throws IOException If the chunk could not be parsed.
+     */
+    private static List<Order> await(CompletableFuture<List<Order>> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException err) {
+            if (err.getCause() instanceof UncheckedIOException cause) throw cause.getCause();
+            throw err;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.time.DayOfWeek;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A precompiled index over the restaurants and their menus, built once and shared by the {@link OrderValidator} and
+ * the {@link uk.ac.ed.inf.FlightPaths.FlightPathGenerator}, so that looking up the pizzas on an order costs one hash
+ * lookup per pizza rather than a scan of every menu.
+ */
+public class MenuIndex {
+    /**
+     * Stores the restaurants the index was built from.
+     */
+    private final Restaurant[]           restaurants;
+    /**
+     * Stores the menu entry for each pizza name.
+     */
+    private final Map<String, MenuEntry> entries = new HashMap<>();
+    /**
+     * Stores the opening days of each restaurant as a bitmask, where bit {@code n} is set if the restaurant is open on
+     * the day with {@link DayOfWeek#getValue()} {@code n + 1}.
+     */
+    private final int[]                  openingDays;
+
+    /**
+     * Builds the index for the given restaurants.
+     *
+     * @param restaurants the restaurants to index
+     */
+    public MenuIndex(Restaurant[] restaurants) {
+        this.restaurants = restaurants;
+        this.openingDays = new int[restaurants.length];
+        for (int i = 0; i < restaurants.length; i++) {
+            Restaurant restaurant = restaurants[i];
+            if (restaurant == null) continue;
+
+            // Record the days the restaurant is open.
+            if (restaurant.openingDays() != null) {
+                for (DayOfWeek day : restaurant.openingDays())
+                    if (day != null) openingDays[i] |= dayBit(day);
+            }
+
+            // Record each pizza on the menu. A pizza sold by more than one restaurant resolves to the first of them,
+            // which is the restaurant the flight path generator always flew from, so the validator checks the opening
+            // days and prices of the restaurant the order is then collected from. A pizza listed twice on the same
+            // menu keeps its first price.
+            if (restaurant.menu() == null) continue;
+            for (Pizza pizza : restaurant.menu()) {
+                if (pizza == null || pizza.name() == null) continue;
+                entries.putIfAbsent(pizza.name(), new MenuEntry(restaurant, i, pizza.priceInPence()));
+            }
+        }
+    }
+
+    /**
+     * Gets the bit representing the given day in an opening days bitmask.
+     *
+     * @param day the day
+     *
+     * @return the bit representing the day
+     */
+    private static int dayBit(DayOfWeek day) {
+        return 1 << day.getValue() - 1;
+    }
+
+    /**
+     * Checks whether this index was built from the given array of restaurants.
+     *
+     * @param restaurants the restaurants to check
+     *
+     * @return whether this index was built from the given array
+     */
+    public boolean isIndexOf(Restaurant[] restaurants) {
+        return this.restaurants == restaurants;
+    }
+
+    /**
+     * Gets the restaurants the index was built from.
+     *
+     * @return the restaurants
+     */
+    public Restaurant[] getRestaurants() {
+        return restaurants;
+    }
+
+    /**
+     * Looks up the menu entry for the pizza with the given name.
+     *
+     * @param pizzaName the name of the pizza
+     *
+     * @return the menu entry, or null if no restaurant sells the pizza
+     */
+    public MenuEntry lookup(String pizzaName) {
+        return pizzaName == null ? null : entries.get(pizzaName);
+    }
+
+    /**
+     * Checks whether the restaurant at the given index is open on the given day.
+     *
+     * @param restaurantIndex the index of the restaurant
+     * @param day             the day
+     *
+     * @return whether the restaurant is open on the day
+     */
+    public boolean isOpen(int restaurantIndex, DayOfWeek day) {
+        return day != null && (openingDays[restaurantIndex] & dayBit(day)) != 0;
+    }
+
+    /**
+     * An entry on a restaurant's menu.
+     *
+     * @param restaurant      the restaurant which sells the pizza
+     * @param restaurantIndex the index of the restaurant in the indexed array
+     * @param priceInPence    the price of the pizza on the restaurant's menu
+     */
+    public record MenuEntry(
+            Restaurant restaurant,
+            int restaurantIndex,
+            int priceInPence
+    ) {}
+}
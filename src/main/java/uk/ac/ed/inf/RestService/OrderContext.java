@@ -0,0 +1,102 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+/**
+ * An order being validated, together with the data it is validated against. The menu entries of the pizzas on the
+ * order are looked up on first use and shared by every {@link ValidationRule} which needs them.
+ */
+public class OrderContext {
+    /**
+     * Stores the order being validated.
+     */
+    private final Order                 order;
+    /**
+     * Stores the index of the defined restaurants.
+     */
+    private final MenuIndex             menuIndex;
+    /**
+     * Stores whether the menu entries have been looked up yet.
+     */
+    private       boolean               resolved    = false;
+    /**
+     * Stores the menu entry of each pizza on the order, or null if any of them do not exist.
+     */
+    private       MenuIndex.MenuEntry[] menuEntries = null;
+
+    /**
+     * Creates the context for validating an order.
+     *
+     * @param order     the order being validated
+     * @param menuIndex the index of the defined restaurants
+     */
+    public OrderContext(Order order, MenuIndex menuIndex) {
+        this.order = order;
+        this.menuIndex = menuIndex;
+    }
+
+    /**
+     * Gets the order being validated.
+     *
+     * @return the order
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Gets the index of the defined restaurants.
+     *
+     * @return the menu index
+     */
+    public MenuIndex getMenuIndex() {
+        return menuIndex;
+    }
+
+    /**
+     * Gets the menu entry of each pizza on the order.
+     *
+     * @return the menu entries, or null if the order has no pizzas or any of them are not on a menu
+     */
+    public MenuIndex.MenuEntry[] getMenuEntries() {
+        if (!resolved) {
+            menuEntries = lookUpPizzas(order.getPizzasInOrder());
+            resolved = true;
+        }
+        return menuEntries;
+    }
+
+    /**
+     * Gets the index of the restaurant that every pizza on the order is from.
+     *
+     * @return the index of the restaurant, or -1 if the pizzas do not all exist or are not all from one restaurant
+     */
+    public int getRestaurantIndex() {
+        MenuIndex.MenuEntry[] entries = getMenuEntries();
+        if (entries == null) return -1;
+        for (MenuIndex.MenuEntry entry : entries)
+            if (entry.restaurantIndex() != entries[0].restaurantIndex()) return -1;
+        return entries[0].restaurantIndex();
+    }
+
+    /**
+     * Looks up the menu entry of each pizza on the order.
+     *
+     * @param pizzas the pizzas on the order
+     *
+     * @return the menu entries, or null if there are no pizzas or any of them are not on a menu
+     */
+    private MenuIndex.MenuEntry[] lookUpPizzas(Pizza[] pizzas) {
+        // Check that there is at least one pizza in the order
+        if (pizzas == null || pizzas.length == 0) return null;
+        var entries = new MenuIndex.MenuEntry[pizzas.length];
+        // Look up each pizza, and give up as soon as one is not on any menu
+        for (int i = 0; i < pizzas.length; i++) {
+            if (pizzas[i] == null) return null;
+            entries[i] = menuIndex.lookup(pizzas[i].name());
+            if (entries[i] == null) return null;
+        }
+        return entries;
+    }
+}
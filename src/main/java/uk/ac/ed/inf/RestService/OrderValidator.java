@@ -2,245 +2,272 @@ package uk.ac.ed.inf.RestService;
 
 import uk.ac.ed.inf.ilp.constant.OrderStatus;
 import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
-import uk.ac.ed.inf.ilp.constant.SystemConstants;
 import uk.ac.ed.inf.ilp.data.Order;
-import uk.ac.ed.inf.ilp.data.Pizza;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 import uk.ac.ed.inf.ilp.interfaces.OrderValidation;
 
-import java.time.LocalDate;
-import java.util.Arrays;
-import java.util.Objects;
+import java.util.EnumMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 /**
  * Handles the validation of orders.
  */
 public class OrderValidator implements OrderValidation {
     /**
-     * Validate an order and deliver a validated version where the OrderStatus and OrderValidationCode are set
-     * accordingly.
-     *
-     * @param order              the order which needs validation
-     * @param definedRestaurants the array of defined restaurants
-     *
-     * @return the validated order
+     * Stores the index of the restaurants most recently validated against, so that repeated calls with the same
+     * array of restaurants only build it once.
      */
-    public Order validateOrder(Order order, Restaurant[] definedRestaurants) {
-        // Check that all the pizzas exist
-        Restaurant[] pizzaRestaurants = pizzasAllExist(order.getPizzasInOrder(), definedRestaurants);
-        if (Arrays.stream(pizzaRestaurants).anyMatch(Objects::isNull))
-            return setValidationCodeAndStatus(order, OrderValidationCode.PIZZA_NOT_DEFINED);
-
-        // Check that the number of pizzas is valid
-        if (!pizzaCountIsValid(order.getPizzasInOrder()))
-            return setValidationCodeAndStatus(order, OrderValidationCode.MAX_PIZZA_COUNT_EXCEEDED);
-
-        // Check that all the pizzas are from the same restaurant
-        Restaurant restaurant = pizzaAreFromSameRestaurant(pizzaRestaurants);
-        if (restaurant == null)
-            return setValidationCodeAndStatus(order, OrderValidationCode.PIZZA_FROM_MULTIPLE_RESTAURANTS);
-
-        // Check that the restaurant is open
-        if (!restaurantIsOpen(restaurant, order.getOrderDate()))
-            return setValidationCodeAndStatus(order, OrderValidationCode.RESTAURANT_CLOSED);
-
-        // Check that the total price is correct
-        if (!totalIsCorrect(order.getPriceTotalInPence(), order.getPizzasInOrder(), restaurant.menu()))
-            return setValidationCodeAndStatus(order, OrderValidationCode.TOTAL_INCORRECT);
-
-        // Check that the credit card number is valid
-        if (!creditCardNumberIsValid(order.getCreditCardInformation().getCreditCardNumber()))
-            return setValidationCodeAndStatus(order, OrderValidationCode.CARD_NUMBER_INVALID);
-
-        // Check that the expiry date is valid
-        if (!creditCardExpiryIsValid(order.getCreditCardInformation().getCreditCardExpiry(), order.getOrderDate()))
-            return setValidationCodeAndStatus(order, OrderValidationCode.EXPIRY_DATE_INVALID);
-
-        // Check that the CVV is valid
-        if (!creditCardCVVIsValid(order.getCreditCardInformation().getCvv()))
-            return setValidationCodeAndStatus(order, OrderValidationCode.CVV_INVALID);
-
-        // If all the checks pass, the order is valid
-        return setValidationCodeAndStatus(order, OrderValidationCode.NO_ERROR, OrderStatus.VALID_BUT_NOT_DELIVERED);
+    private volatile MenuIndex          menuIndex = null;
+    /**
+     * Stores the pipeline of rules which orders are validated against.
+     */
+    private final    ValidationPipeline pipeline;
+    /**
+     * Stores the pool batches of orders are validated on when no pool is given.
+     */
+    private final    ForkJoinPool       pool;
+
+    /**
+     * Creates an {@link OrderValidator} which validates orders against the standard {@link ValidationRules}, evaluated
+     * in a fixed order.
+     */
+    public OrderValidator() {
+        this(new ValidationPipeline());
     }
 
     /**
-     * Set the validation code of an order and set the status to Invalid.
+     * Creates an {@link OrderValidator} which validates orders against the given pipeline of rules.
      *
-     * @param order the order to set the validation code and status of
-     * @param code  the validation code to set
+     * @param pipeline the pipeline of rules which orders are validated against
+     */
+    public OrderValidator(ValidationPipeline pipeline) {
+        this(pipeline, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an {@link OrderValidator} which validates orders against the given pipeline of rules, and validates
+     * batches of orders on the given pool unless another is given.
      *
-     * @return the order with the validation code and status set
+     * @param pipeline the pipeline of rules which orders are validated against
+     * @param pool     the pool to validate batches of orders on
      */
-    private Order setValidationCodeAndStatus(Order order, OrderValidationCode code) {
-        return setValidationCodeAndStatus(order, code, OrderStatus.INVALID);
+    public OrderValidator(ValidationPipeline pipeline, ForkJoinPool pool) {
+        this.pipeline = pipeline;
+        this.pool = pool;
     }
 
     /**
-     * Set the validation code and status of an order.
+     * Validate a batch of orders in parallel on the validator's fork-join pool, which is the common pool unless another
+     * was given. The orders are validated in place, so the result keeps them in the order they were given.
      *
-     * @param order  the order to set the validation code and status of
-     * @param code   the validation code to set
-     * @param status the status to set
+     * @param orders             the orders which need validation
+     * @param definedRestaurants the array of defined restaurants
      *
-     * @return the order with the validation code and status set
+     * @return the validated orders and the number of orders given each validation code
      */
-    private Order setValidationCodeAndStatus(Order order, OrderValidationCode code, OrderStatus status) {
-        // Set the order status and validation code
-        order.setOrderStatus(status);
-        order.setOrderValidationCode(code);
-        return order;
+    public BatchValidationResult validateOrders(Order[] orders, Restaurant[] definedRestaurants) {
+        return validateOrders(orders, indexFor(definedRestaurants), pool);
     }
 
     /**
-     * Check that a credit card number is valid.
+     * Validate a batch of orders in parallel on the given fork-join pool. The orders are validated in place, so the
+     * result keeps them in the order they were given.
      *
-     * @param creditCardNumber the credit card number to check
+     * @param orders    the orders which need validation
+     * @param menuIndex the index of the defined restaurants
+     * @param pool      the pool to validate the orders on
      *
-     * @return whether the credit card number is valid
+     * @return the validated orders and the number of orders given each validation code
      */
-    private boolean creditCardNumberIsValid(String creditCardNumber) {
-        // Check that the number is a valid card number for either Visa or MasterCard
-        return creditCardNumber != null && creditCardNumber.matches("^[245]\\d{15}$");
+    public BatchValidationResult validateOrders(Order[] orders, MenuIndex menuIndex, ForkJoinPool pool) {
+        return validateOrders(orders, menuIndex, pool, order -> {});
     }
 
     /**
-     * Check that a credit card expiry date is valid.
+     * Validate a batch of orders in parallel on the given fork-join pool, handing each order to the listener as soon
+     * as it has been validated. The listener is called from the threads of the pool, so it must be thread-safe, and
+     * sees the orders in no particular order. The orders are validated in place, so the result keeps them in the
+     * order they were given.
      *
-     * @param creditCardExpiry the credit card expiry date to check
+     * @param orders      the orders which need validation
+     * @param menuIndex   the index of the defined restaurants
+     * @param pool        the pool to validate the orders on
+     * @param onValidated the listener to call with each order once it has been validated
      *
-     * @return whether the credit card expiry date is valid
+     * @return the validated orders and the number of orders given each validation code
      */
-    private boolean creditCardExpiryIsValid(String creditCardExpiry, LocalDate orderDate) {
-        // Check that both the month and year are numbers
-        int expiryMonth;
-        int expiryYear;
-        try {
-            String[] splitDate = creditCardExpiry.split("/");
-            expiryMonth = Integer.parseInt(splitDate[0]);
-            expiryYear = Integer.parseInt(splitDate[1]);
-        } catch (Exception err) {
-            return false;
-        }
-
-        // Check that those numbers are valid
-        if (expiryMonth < 1 || expiryMonth > 12 || expiryYear < 0 || expiryYear > 99) return false;
-
-        // Check that the expiry date has not passed
-        int currentMonth = orderDate.getMonthValue();
-        int currentYear  = orderDate.getYear() % 100;
-        return expiryYear > currentYear || expiryYear == currentYear && expiryMonth >= currentMonth;
+    public BatchValidationResult validateOrders(Order[] orders, MenuIndex menuIndex, ForkJoinPool pool,
+                                                Consumer<Order> onValidated) {
+        int[] codeCounts = pool.invoke(new BatchValidationTask(orders, menuIndex, onValidated, 0, orders.length));
+        var   counts     = new EnumMap<OrderValidationCode, Integer>(OrderValidationCode.class);
+        for (OrderValidationCode code : OrderValidationCode.values())
+            if (codeCounts[code.ordinal()] > 0) counts.put(code, codeCounts[code.ordinal()]);
+        return new BatchValidationResult(orders, counts);
     }
 
     /**
-     * Check that a credit card CVV is valid.
+     * Validate an order and deliver a validated version where the OrderStatus and OrderValidationCode are set
+     * accordingly.
      *
-     * @param cvv the credit card CVV to check
+     * @param order              the order which needs validation
+     * @param definedRestaurants the array of defined restaurants
      *
-     * @return whether the credit card CVV is valid
+     * @return the validated order
      */
-    private boolean creditCardCVVIsValid(String cvv) {
-        // Check that the CVV is a three-digit number
-        return cvv != null && cvv.matches("^\\d{3}$");
+    public Order validateOrder(Order order, Restaurant[] definedRestaurants) {
+        return validateOrder(order, indexFor(definedRestaurants));
     }
 
     /**
-     * Check that the total price of an order is correct.
+     * Validate an order against a precompiled index of the defined restaurants, and deliver a validated version where
+     * the OrderStatus and OrderValidationCode are set accordingly.
      *
-     * @param totalOnOrder the total price of the order
-     * @param pizzas       the pizzas on the order
-     * @param menu         the pizzas available on the restaurant menu
+     * @param order     the order which needs validation
+     * @param menuIndex the index of the defined restaurants
      *
-     * @return whether the total price of the order is correct
+     * @return the validated order
      */
-    private boolean totalIsCorrect(int totalOnOrder, Pizza[] pizzas, Pizza[] menu) {
-        if (pizzas == null || menu == null) return false;
-        // Check that the price of each pizza sums to the total price of the order.
-        int total = SystemConstants.ORDER_CHARGE_IN_PENCE;
-        for (Pizza pizza : pizzas) {
-            // Find the pizza on the menu
-            Pizza menuPizza = Arrays
-                    .stream(menu)
-                    .filter(Objects::nonNull)
-                    .filter(p -> p.name().equals(pizza.name()))
-                    .toArray(Pizza[]::new)[0];
-            // Add the price of the pizza to the total
-            total += menuPizza.priceInPence();
-        }
-        return total == totalOnOrder;
+    public Order validateOrder(Order order, MenuIndex menuIndex) {
+        OrderValidationCode code = pipeline.validate(new OrderContext(order, menuIndex));
+        if (code == OrderValidationCode.NO_ERROR)
+            return setValidationCodeAndStatus(order, code, OrderStatus.VALID_BUT_NOT_DELIVERED);
+        return setValidationCodeAndStatus(order, code);
     }
 
     /**
-     * Check that the number of pizzas on an order is valid.
+     * Check an order against every validation rule, rather than stopping at the first failure. The order itself is
+     * not modified.
      *
-     * @param pizzas the pizzas on the order
+     * @param order     the order to check
+     * @param menuIndex the index of the defined restaurants
      *
-     * @return whether the number of pizzas on the order is valid
+     * @return a bitmask of every failed validation code, which can be decoded with
+     * {@link ValidationPipeline#toCodes(int)}
      */
-    private boolean pizzaCountIsValid(Pizza[] pizzas) {
-        // Check the number of pizzas doesn't exceed the system maximum per order.
-        return pizzas.length <= SystemConstants.MAX_PIZZAS_PER_ORDER;
+    public int findAllFailures(Order order, MenuIndex menuIndex) {
+        return pipeline.findAllFailures(new OrderContext(order, menuIndex));
     }
 
     /**
-     * Check that all the pizzas on an order exist.
-     *
-     * @param pizzas      the pizzas on the order
-     * @param restaurants the restaurants that the pizzas could be from
-     *
-     * @return whether all the pizzas on the order exist
-     */
-    private Restaurant[] pizzasAllExist(Pizza[] pizzas, Restaurant[] restaurants) {
-        // Check that there is at least one pizza in the order
-        if (pizzas == null || pizzas.length == 0) return new Restaurant[] { null };
-        var pizzaRestaurants = new Restaurant[pizzas.length];
-        // For each pizza...
-        for (int i = 0; i < pizzas.length; i++) {
-            if (pizzas[i] == null) continue;
-            // Check each restaurant...
-            for (Restaurant restaurant : restaurants) {
-                // Check the names of each pizza on the restaurant's menu...
-                String[] pizzaNames = Arrays
-                        .stream(restaurant.menu())
-                        .filter(Objects::nonNull)
-                        .map(Pizza::name)
-                        .toArray(String[]::new);
-                for (String pizzaName : pizzaNames) {
-                    // If the pizza is found, set the restaurant value in the array
-                    if (pizzaName.equals(pizzas[i].name())) {
-                        pizzaRestaurants[i] = restaurant;
-                        break;
-                    }
-                }
-            }
-        }
-        return pizzaRestaurants;
+     * Get the index of the given restaurants, reusing the previous index if it was built from the same array.
+     *
+     * @param restaurants the restaurants to index
+     *
+     * @return the index of the restaurants
+     */
+    private MenuIndex indexFor(Restaurant[] restaurants) {
+        MenuIndex index = menuIndex;
+        if (index == null || !index.isIndexOf(restaurants)) menuIndex = index = new MenuIndex(restaurants);
+        return index;
     }
 
     /**
-     * Check that all the pizzas on an order are from the same restaurant.
+     * Set the validation code of an order and set the status to Invalid.
      *
-     * @param restaurants the restaurants that the pizzas are be from
+     * @param order the order to set the validation code and status of
+     * @param code  the validation code to set
      *
-     * @return the restaurant that all the pizzas are from, or null if they are not all from the same restaurant
+     * @return the order with the validation code and status set
      */
-    private Restaurant pizzaAreFromSameRestaurant(Restaurant[] restaurants) {
-        // Check that all the restaurants are the same, and return that restaurant or null
-        return Arrays.stream(restaurants).filter(Objects::nonNull).distinct().count() == 1 ? restaurants[0] : null;
+    private Order setValidationCodeAndStatus(Order order, OrderValidationCode code) {
+        return setValidationCodeAndStatus(order, code, OrderStatus.INVALID);
     }
 
     /**
-     * Check that a restaurant is open.
+     * Set the validation code and status of an order.
      *
-     * @param restaurant the restaurant to check
+     * @param order  the order to set the validation code and status of
+     * @param code   the validation code to set
+     * @param status the status to set
      *
-     * @return whether the restaurant is open
+     * @return the order with the validation code and status set
      */
-    private boolean restaurantIsOpen(Restaurant restaurant, LocalDate orderDate) {
-        // Check that the restaurant is open today
-        return orderDate != null && Arrays
-                .stream(restaurant.openingDays())
-                .filter(Objects::nonNull)
-                .anyMatch(day -> day == orderDate.getDayOfWeek());
+    private Order setValidationCodeAndStatus(Order order, OrderValidationCode code, OrderStatus status) {
+        // Set the order status and validation code
+        order.setOrderStatus(status);
+        order.setOrderValidationCode(code);
+        return order;
+    }
+
+    /**
+     * Validates a slice of a batch of orders, splitting it in half until it is small enough to validate directly. Like
+     * every fork-join task it is serializable, but it is never serialized, so its fields are transient.
+     */
+    private class BatchValidationTask extends RecursiveTask<int[]> {
+        /**
+         * The version of the serialized form of the task.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The number of orders below which a slice is validated directly rather than split.
+         */
+        private static final int  THRESHOLD        = 256;
+
+        /**
+         * Stores the whole batch of orders.
+         */
+        private final transient Order[]         orders;
+        /**
+         * Stores the index of the defined restaurants.
+         */
+        private final transient MenuIndex       menuIndex;
+        /**
+         * Stores the listener to call with each order once it has been validated.
+         */
+        private final transient Consumer<Order> onValidated;
+        /**
+         * Stores the index of the first order in the slice.
+         */
+        private final transient int             start;
+        /**
+         * Stores the index after the last order in the slice.
+         */
+        private final transient int             end;
+
+        /**
+         * Creates a task to validate a slice of a batch of orders.
+         *
+         * @param orders      the whole batch of orders
+         * @param menuIndex   the index of the defined restaurants
+         * @param onValidated the listener to call with each order once it has been validated
+         * @param start       the index of the first order in the slice
+         * @param end         the index after the last order in the slice
+         */
+        private BatchValidationTask(Order[] orders, MenuIndex menuIndex, Consumer<Order> onValidated, int start,
+                                    int end) {
+            this.orders = orders;
+            this.menuIndex = menuIndex;
+            this.onValidated = onValidated;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Validates the slice of orders.
+         *
+         * @return the number of orders in the slice given each validation code, indexed by ordinal
+         */
+        @Override
+        protected int[] compute() {
+            if (end - start > THRESHOLD) {
+                // Split the slice in half, validating one half on this thread while the other is stolen.
+                int middle = (start + end) >>> 1;
+                var left   = new BatchValidationTask(orders, menuIndex, onValidated, start, middle);
+                left.fork();
+                int[] counts = new BatchValidationTask(orders, menuIndex, onValidated, middle, end).compute();
+                int[] other  = left.join();
+                for (int i = 0; i < counts.length; i++)
+                    counts[i] += other[i];
+                return counts;
+            }
+            var counts = new int[OrderValidationCode.values().length];
+            for (int i = start; i < end; i++) {
+                counts[validateOrder(orders[i], menuIndex).getOrderValidationCode().ordinal()]++;
+                onValidated.accept(orders[i]);
+            }
+            return counts;
+        }
     }
 }
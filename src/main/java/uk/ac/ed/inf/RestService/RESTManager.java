@@ -1,5 +1,6 @@
 package uk.ac.ed.inf.RestService;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import uk.ac.ed.inf.ilp.data.NamedRegion;
@@ -7,13 +8,18 @@ import uk.ac.ed.inf.ilp.data.Order;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * A class to manage the REST API calls to the server, and to parse the JSON responses into Java objects.
  */
-public class RESTManager {
+public class RESTManager implements DataSource {
     /**
      * The object mapper used to parse between JSON and Java Objects.
      */
@@ -22,14 +28,29 @@ public class RESTManager {
      * The base URL of the server.
      */
     private final String       baseUrl;
+    /**
+     * The executor requests made in the background are made on.
+     */
+    private final Executor     executor;
 
     /**
-     * Creates a new RESTManager object.
+     * Creates a new RESTManager object, which makes requests in the background on the common fork-join pool.
      *
      * @param baseUrl The base URL of the server.
      */
     public RESTManager(String baseUrl) throws IOException {
+        this(baseUrl, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new RESTManager object.
+     *
+     * @param baseUrl  The base URL of the server.
+     * @param executor The executor to make requests in the background on.
+     */
+    public RESTManager(String baseUrl, Executor executor) throws IOException {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.executor = executor;
         try {
             GET(Endpoints.IS_ALIVE);
         } catch (Exception e) {
@@ -67,6 +88,29 @@ public class RESTManager {
         }
     }
 
+    /**
+     * Makes a request to the `orders` endpoint for a given date, handing each order to the consumer as soon as it has
+     * been read, rather than waiting for the whole response.
+     *
+     * @param date    The date to get the orders for.
+     * @param onOrder The consumer to call with each order, in the order they are served.
+     *
+     * @return The number of orders read.
+     *
+     * @throws IOException If the orders could not be fetched or read.
+     */
+    public int streamOrders(LocalDate date, Consumer<Order> onOrder) throws IOException {
+        var url   = new URL(baseUrl + Endpoints.ORDERS.url() + "/" + date);
+        int count = 0;
+        try (MappingIterator<Order> orders = objectMapper.readerFor(Order.class).readValues(url)) {
+            while (orders.hasNextValue()) {
+                onOrder.accept(orders.nextValue());
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Makes a request to the `centralArea` endpoint to get the central area.
      *
@@ -95,6 +139,24 @@ public class RESTManager {
         }
     }
 
+    /**
+     * Makes a request to an endpoint in the background, so that several can be made at the same time.
+     *
+     * @param endpoint The endpoint to call.
+     *
+     * @return A future which completes with the response from the server, or with an {@link UncheckedIOException} if
+     *         the request failed.
+     */
+    public <T> CompletableFuture<T> fetchAsync(Endpoint<T> endpoint) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return GET(endpoint);
+            } catch (IOException err) {
+                throw new UncheckedIOException(err);
+            }
+        }, executor);
+    }
+
     /**
      * Performs a GET request to the server.
      *
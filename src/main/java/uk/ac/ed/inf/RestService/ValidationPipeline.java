@@ -0,0 +1,201 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs an order through a list of {@link ValidationRule}s.
+ * <p>
+ * The rules are given in order of priority: when an order fails several rules, the code of the earliest one is
+ * reported. The rules need not be evaluated in that order, though. They are sorted by cost, and an adaptive
+ * pipeline, which must be asked for, periodically re-sorts them by observed cost per rejection, so that cheap rules
+ * which often reject orders are tried first. A rule is skipped once a failure of higher priority has been found, and
+ * every rule of higher priority than the reported failure is always evaluated, so the reported code does not depend
+ * on the evaluation order.
+ */
+public class ValidationPipeline {
+    /**
+     * The average number of validations between each re-sort of an adaptive pipeline.
+     */
+    private static final int REORDER_INTERVAL = 4096;
+
+    /**
+     * Stores the rules, in order of priority.
+     */
+    private final ValidationRule[] rules;
+    /**
+     * Stores whether the evaluation order is adapted to the observed rejection rates.
+     */
+    private final boolean          adaptive;
+    /**
+     * Stores the number of times each rule has been evaluated.
+     */
+    private final LongAdder[]      evaluations;
+    /**
+     * Stores the number of times each rule has rejected an order.
+     */
+    private final LongAdder[]      rejections;
+    /**
+     * Stores the indices of the rules in the order they are evaluated.
+     */
+    private volatile int[]         evaluationOrder;
+
+    /**
+     * Creates a pipeline of the standard {@link ValidationRules}, evaluated in a fixed order.
+     */
+    public ValidationPipeline() {
+        this(ValidationRules.ALL, false);
+    }
+
+    /**
+     * Creates a pipeline of the given rules.
+     *
+     * @param rules    the rules, in the order of priority in which their failures are reported
+     * @param adaptive whether to adapt the evaluation order to the observed rejection rates
+     */
+    public ValidationPipeline(List<ValidationRule> rules, boolean adaptive) {
+        this.rules = rules.toArray(ValidationRule[]::new);
+        this.adaptive = adaptive;
+        this.evaluations = new LongAdder[this.rules.length];
+        this.rejections = new LongAdder[this.rules.length];
+        Arrays.setAll(evaluations, i -> new LongAdder());
+        Arrays.setAll(rejections, i -> new LongAdder());
+        this.evaluationOrder = sortedOrder(Comparator.comparingInt(i -> this.rules[i].cost().weight()));
+    }
+
+    /**
+     * Creates a pipeline of the standard {@link ValidationRules} which adapts its evaluation order to the observed
+     * rejection rates.
+     *
+     * @return the adaptive pipeline
+     */
+    public static ValidationPipeline adaptive() {
+        return new ValidationPipeline(ValidationRules.ALL, true);
+    }
+
+    /**
+     * Converts a bitmask returned by {@link #findAllFailures(OrderContext)} to the set of codes it contains.
+     *
+     * @param failures the bitmask of failures
+     *
+     * @return the validation codes in the bitmask
+     */
+    public static EnumSet<OrderValidationCode> toCodes(int failures) {
+        var codes = EnumSet.noneOf(OrderValidationCode.class);
+        for (OrderValidationCode code : OrderValidationCode.values())
+            if ((failures & bit(code)) != 0) codes.add(code);
+        return codes;
+    }
+
+    /**
+     * Gets the bit representing a validation code in a bitmask of failures.
+     *
+     * @param code the validation code
+     *
+     * @return the bit representing the code
+     */
+    public static int bit(OrderValidationCode code) {
+        return 1 << code.ordinal();
+    }
+
+    /**
+     * Validates an order, stopping as soon as the result is known.
+     *
+     * @param context the order being validated
+     *
+     * @return the code of the highest priority rule which the order fails, or {@link OrderValidationCode#NO_ERROR}
+     */
+    public OrderValidationCode validate(OrderContext context) {
+        // The priority of the highest priority failure found so far. Rules of equal or lower priority cannot change
+        // the result, so are skipped.
+        int failure = rules.length;
+        for (int rule : evaluationOrder) {
+            if (rule >= failure) continue;
+            if (!evaluate(rule, context)) {
+                failure = rule;
+                if (failure == 0) break;
+            }
+        }
+        // Sample when to re-sort, rather than counting validations, so that the threads share no counter to decide.
+        if (adaptive && ThreadLocalRandom.current().nextInt(REORDER_INTERVAL) == 0) reorder();
+        return failure == rules.length ? OrderValidationCode.NO_ERROR : rules[failure].code();
+    }
+
+    /**
+     * Validates an order against every rule, rather than stopping at the first failure.
+     *
+     * @param context the order being validated
+     *
+     * @return a bitmask of the codes of every rule the order fails, as described by {@link #bit(OrderValidationCode)}
+     */
+    public int findAllFailures(OrderContext context) {
+        int failures = 0;
+        for (int rule = 0; rule < rules.length; rule++)
+            if (!evaluate(rule, context)) failures |= bit(rules[rule].code());
+        return failures;
+    }
+
+    /**
+     * Gets the rules in the order they are currently evaluated.
+     *
+     * @return the rules, in evaluation order
+     */
+    public List<ValidationRule> getEvaluationOrder() {
+        var ordered = new ArrayList<ValidationRule>(rules.length);
+        for (int rule : evaluationOrder)
+            ordered.add(rules[rule]);
+        return ordered;
+    }
+
+    /**
+     * Evaluates a rule, recording whether it rejected the order.
+     *
+     * @param rule    the index of the rule
+     * @param context the order being validated
+     *
+     * @return whether the order passes the rule
+     */
+    private boolean evaluate(int rule, OrderContext context) {
+        boolean passes = rules[rule].passes(context);
+        if (adaptive) {
+            evaluations[rule].increment();
+            if (!passes) rejections[rule].increment();
+        }
+        return passes;
+    }
+
+    /**
+     * Re-sorts the rules by their expected cost per rejection, so that the rules most likely to cheaply reject an
+     * order are evaluated first.
+     */
+    private void reorder() {
+        var costPerRejection = new double[rules.length];
+        for (int rule = 0; rule < rules.length; rule++) {
+            // Add one to each count, so that rules which have never been evaluated or never rejected still sort.
+            double rejectionRate = (rejections[rule].sum() + 1.0) / (evaluations[rule].sum() + 1.0);
+            costPerRejection[rule] = rules[rule].cost().weight() / rejectionRate;
+        }
+        evaluationOrder = sortedOrder(Comparator.comparingDouble(i -> costPerRejection[i]));
+    }
+
+    /**
+     * Sorts the indices of the rules, breaking ties by priority.
+     *
+     * @param comparator the comparator to sort by
+     *
+     * @return the sorted indices
+     */
+    private int[] sortedOrder(Comparator<Integer> comparator) {
+        Integer[] order = new Integer[rules.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, comparator.thenComparingInt(i -> i));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+}
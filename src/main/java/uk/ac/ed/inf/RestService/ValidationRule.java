@@ -0,0 +1,70 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+
+import java.util.function.Predicate;
+
+/**
+ * A single check in a {@link ValidationPipeline}.
+ * <p>
+ * A rule may be evaluated before rules which come earlier in the pipeline. If a rule depends on an earlier rule
+ * passing, e.g. it needs the pizzas on the order to exist, it should pass whenever that dependency does not hold,
+ * as the earlier rule will report the failure instead.
+ */
+public interface ValidationRule {
+    /**
+     * Creates a rule from a predicate.
+     *
+     * @param code   the code reported when the rule fails
+     * @param cost   the relative cost of evaluating the rule
+     * @param passes the predicate which decides whether an order passes the rule
+     *
+     * @return the rule
+     */
+    static ValidationRule of(OrderValidationCode code, CostClass cost, Predicate<OrderContext> passes) {
+        return new ValidationRule() {
+            @Override
+            public OrderValidationCode code() {
+                return code;
+            }
+
+            @Override
+            public CostClass cost() {
+                return cost;
+            }
+
+            @Override
+            public boolean passes(OrderContext context) {
+                return passes.test(context);
+            }
+
+            @Override
+            public String toString() {
+                return code.toString();
+            }
+        };
+    }
+
+    /**
+     * Gets the code reported when the rule fails.
+     *
+     * @return the validation code
+     */
+    OrderValidationCode code();
+
+    /**
+     * Gets the relative cost of evaluating the rule.
+     *
+     * @return the cost class
+     */
+    CostClass cost();
+
+    /**
+     * Checks whether an order passes the rule.
+     *
+     * @param context the order and the data it is validated against
+     *
+     * @return whether the order passes
+     */
+    boolean passes(OrderContext context);
+}
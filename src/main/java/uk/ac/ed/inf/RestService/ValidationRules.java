@@ -0,0 +1,192 @@
+package uk.ac.ed.inf.RestService;
+
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The standard rules which an order must pass to be valid.
+ */
+public interface ValidationRules {
+    /**
+     * The rule that all the pizzas on the order exist.
+     */
+    ValidationRule       PIZZAS_DEFINED    = ValidationRule.of(OrderValidationCode.PIZZA_NOT_DEFINED,
+                                                               CostClass.MODERATE,
+                                                               ValidationRules::pizzasAllExist
+                                                              );
+    /**
+     * The rule that the number of pizzas doesn't exceed the system maximum per order.
+     */
+    ValidationRule       PIZZA_COUNT       = ValidationRule.of(OrderValidationCode.MAX_PIZZA_COUNT_EXCEEDED,
+                                                               CostClass.CHEAP,
+                                                               ValidationRules::pizzaCountIsValid
+                                                              );
+    /**
+     * The rule that all the pizzas are from the same restaurant.
+     */
+    ValidationRule       SINGLE_RESTAURANT = ValidationRule.of(OrderValidationCode.PIZZA_FROM_MULTIPLE_RESTAURANTS,
+                                                               CostClass.MODERATE,
+                                                               ValidationRules::pizzasAreFromSameRestaurant
+                                                              );
+    /**
+     * The rule that the restaurant is open on the day of the order.
+     */
+    ValidationRule       RESTAURANT_OPEN   = ValidationRule.of(OrderValidationCode.RESTAURANT_CLOSED,
+                                                               CostClass.MODERATE,
+                                                               ValidationRules::restaurantIsOpen
+                                                              );
+    /**
+     * The rule that the price of each pizza plus the order charge sums to the total on the order.
+     */
+    ValidationRule       TOTAL_CORRECT     = ValidationRule.of(OrderValidationCode.TOTAL_INCORRECT,
+                                                               CostClass.MODERATE,
+                                                               ValidationRules::totalIsCorrect
+                                                              );
+    /**
+     * The rule that the credit card number is a valid Visa or MasterCard number.
+     */
+    ValidationRule       CARD_NUMBER       = ValidationRule.of(OrderValidationCode.CARD_NUMBER_INVALID,
+                                                               CostClass.CHEAP,
+                                                               ValidationRules::creditCardNumberIsValid
+                                                              );
+    /**
+     * The rule that the credit card has not expired on the day of the order.
+     */
+    ValidationRule       EXPIRY_DATE       = ValidationRule.of(OrderValidationCode.EXPIRY_DATE_INVALID,
+                                                               CostClass.CHEAP,
+                                                               ValidationRules::creditCardExpiryIsValid
+                                                              );
+    /**
+     * The rule that the credit card CVV is three digits.
+     */
+    ValidationRule       CVV               = ValidationRule.of(OrderValidationCode.CVV_INVALID,
+                                                               CostClass.CHEAP,
+                                                               ValidationRules::creditCardCVVIsValid
+                                                              );
+    /**
+     * The standard rules, in the order of priority in which their failures are reported.
+     */
+    List<ValidationRule> ALL               = List.of(PIZZAS_DEFINED,
+                                                     PIZZA_COUNT,
+                                                     SINGLE_RESTAURANT,
+                                                     RESTAURANT_OPEN,
+                                                     TOTAL_CORRECT,
+                                                     CARD_NUMBER,
+                                                     EXPIRY_DATE,
+                                                     CVV
+                                                    );
+
+    /**
+     * Check that all the pizzas on an order exist.
+     *
+     * @param context the order being validated
+     *
+     * @return whether all the pizzas on the order exist
+     */
+    private static boolean pizzasAllExist(OrderContext context) {
+        return context.getMenuEntries() != null;
+    }
+
+    /**
+     * Check that the number of pizzas on an order is valid. Passes if there are no pizzas, as an earlier rule
+     * reports that.
+     *
+     * @param context the order being validated
+     *
+     * @return whether the number of pizzas on the order is valid
+     */
+    private static boolean pizzaCountIsValid(OrderContext context) {
+        // Check the number of pizzas doesn't exceed the system maximum per order.
+        Pizza[] pizzas = context.getOrder().getPizzasInOrder();
+        return pizzas == null || pizzas.length <= SystemConstants.MAX_PIZZAS_PER_ORDER;
+    }
+
+    /**
+     * Check that all the pizzas on an order are from the same restaurant. Passes if the pizzas do not all exist, as an
+     * earlier rule reports that.
+     *
+     * @param context the order being validated
+     *
+     * @return whether all the pizzas are from the same restaurant
+     */
+    private static boolean pizzasAreFromSameRestaurant(OrderContext context) {
+        return context.getMenuEntries() == null || context.getRestaurantIndex() >= 0;
+    }
+
+    /**
+     * Check that the restaurant is open on the day of the order. Passes if the pizzas do not resolve to a single
+     * restaurant, as an earlier rule reports that.
+     *
+     * @param context the order being validated
+     *
+     * @return whether the restaurant is open
+     */
+    private static boolean restaurantIsOpen(OrderContext context) {
+        int restaurantIndex = context.getRestaurantIndex();
+        if (restaurantIndex < 0) return true;
+        LocalDate orderDate = context.getOrder().getOrderDate();
+        return orderDate != null && context.getMenuIndex().isOpen(restaurantIndex, orderDate.getDayOfWeek());
+    }
+
+    /**
+     * Check that the total price of an order is correct. Passes if the pizzas do not all exist, as an earlier rule
+     * reports that.
+     *
+     * @param context the order being validated
+     *
+     * @return whether the total price of the order is correct
+     */
+    private static boolean totalIsCorrect(OrderContext context) {
+        MenuIndex.MenuEntry[] menuEntries = context.getMenuEntries();
+        if (menuEntries == null) return true;
+        // Check that the price of each pizza sums to the total price of the order.
+        int total = SystemConstants.ORDER_CHARGE_IN_PENCE;
+        for (MenuIndex.MenuEntry menuEntry : menuEntries)
+            total += menuEntry.priceInPence();
+        return total == context.getOrder().getPriceTotalInPence();
+    }
+
+    /**
+     * Check that a credit card number is valid. Fails if the order has no credit card information.
+     *
+     * @param context the order being validated
+     *
+     * @return whether the credit card number is valid
+     */
+    private static boolean creditCardNumberIsValid(OrderContext context) {
+        CreditCardInformation card = context.getOrder().getCreditCardInformation();
+        return card != null && CreditCardValidator.isValidNumber(card.getCreditCardNumber());
+    }
+
+    /**
+     * Check that a credit card expiry date is valid. Passes if the order has no credit card information, as an
+     * earlier rule reports that.
+     *
+     * @param context the order being validated
+     *
+     * @return whether the credit card expiry date is valid
+     */
+    private static boolean creditCardExpiryIsValid(OrderContext context) {
+        CreditCardInformation card = context.getOrder().getCreditCardInformation();
+        return card == null
+               || CreditCardValidator.isValidExpiry(card.getCreditCardExpiry(), context.getOrder().getOrderDate());
+    }
+
+    /**
+     * Check that a credit card CVV is valid. Passes if the order has no credit card information, as an earlier rule
+     * reports that.
+     *
+     * @param context the order being validated
+     *
+     * @return whether the credit card CVV is valid
+     */
+    private static boolean creditCardCVVIsValid(OrderContext context) {
+        CreditCardInformation card = context.getOrder().getCreditCardInformation();
+        return card == null || CreditCardValidator.isValidCVV(card.getCvv());
+    }
+}
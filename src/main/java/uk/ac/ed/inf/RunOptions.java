@@ -0,0 +1,536 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.Execution.ExecutionConfig;
+import uk.ac.ed.inf.Heatmap.HeatmapGrid;
+import uk.ac.ed.inf.Output.Compression;
+import uk.ac.ed.inf.Output.OutputEngine;
+import uk.ac.ed.inf.Output.OutputFileType;
+import uk.ac.ed.inf.Pipeline.OrderWatcher;
+import uk.ac.ed.inf.Pipeline.Shard;
+import uk.ac.ed.inf.RestService.LocalDataSource;
+import uk.ac.ed.inf.Serializers.GeoJSONOptions;
+import uk.ac.ed.inf.Server.PlanningServer;
+import uk.ac.ed.inf.Tiles.ZoomRange;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The options of a single run of the application, parsed from the command line arguments. The arguments are the date
+ * and the REST URL, or a {@code file:} URI of a directory of local data read by a {@link LocalDataSource}, followed by
+ * any number of options of the form {@code --name} or {@code --name=value}. In place of a single date, a range of
+ * dates {@code first..last} or a list {@code date,date,...} can be given to run in batch, and any date can be given
+ * as {@code today}.
+ */
+public class RunOptions {
+    /**
+     * The format of the command line arguments, shown when they are invalid.
+     */
+    public static final  String      USAGE   = "<date>|<first>..<last>|<date>,<date>,..."
+                                               + " <rest-url>|file:<directory> [--compact]"
+                                               + " [--engine=nio|jackson] [--parallelism=<threads>]"
+                                               + " [--gzip[=deliveries,flightpath,drone]] [--gzip-level=<0-9>]"
+                                               + " [--gzip-buffer=<bytes>] [--archive] [--geojson-per-order]"
+                                               + " [--geojson-simplify] [--geojson-tolerance=<degrees>]"
+                                               + " [--geojson-precision=<0-15>] [--tiles[=<min>-<max>]] [--ndjson]"
+                                               + " [--heatmap[=<degrees>]] [--serve[=<port>]]"
+                                               + " [--incremental] [--watch[=<seconds>]] [--latency-target=<ms>]"
+                                               + " [--resume] [--shard=<index>/<count>|--merge-shards=<count>]"
+                                               + " [--shard-dir=<path>] [--cpu-threads=<threads>]"
+                                               + " [--io-threads=<threads>] [--server-threads=<threads>]"
+                                               + " [--exec-config=<file>]";
+    /**
+     * The names of the options which are recognised.
+     */
+    private static final Set<String> OPTIONS = Set.of("compact", "engine", "gzip", "gzip-level", "gzip-buffer",
+                                                      "archive", "geojson-per-order", "geojson-simplify",
+                                                      "geojson-tolerance", "geojson-precision", "tiles",
+                                                      "ndjson", "heatmap", "parallelism", "serve",
+                                                      "incremental", "watch", "latency-target", "resume",
+                                                      "shard", "merge-shards", "shard-dir", "cpu-threads",
+                                                      "io-threads", "server-threads", "exec-config");
+
+    /**
+     * Stores the dates to generate the flight paths for.
+     */
+    private final List<LocalDate>     dates;
+    /**
+     * Stores the URL of the REST server, or the URI of the directory of local data.
+     */
+    private final String              apiUrl;
+    /**
+     * Stores the value of each option given, which is an empty string for an option given without a value.
+     */
+    private final Map<String, String> options;
+
+    /**
+     * Creates an instance of the {@link RunOptions} class.
+     *
+     * @param dates   The dates to generate the flight paths for.
+     * @param apiUrl  The URL of the REST server.
+     * @param options The value of each option given.
+     */
+    private RunOptions(List<LocalDate> dates, String apiUrl, Map<String, String> options) {
+        this.dates = dates;
+        this.apiUrl = apiUrl;
+        this.options = options;
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args The command line arguments.
+     *
+     * @return The parsed options.
+     *
+     * @throws IllegalArgumentException If the arguments are invalid, with a message describing the problem.
+     */
+    public static RunOptions parse(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Please provide arguments in the following format: " + USAGE);
+        }
+
+        List<LocalDate> dates = parseDates(args[0]);
+
+        var options = new HashMap<String, String>();
+        for (int i = 2; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i] + ". Options must start with --.");
+            }
+            int    separator = args[i].indexOf('=');
+            String name      = separator < 0 ? args[i].substring(2) : args[i].substring(2, separator);
+            String value     = separator < 0 ? "" : args[i].substring(separator + 1);
+            if (!OPTIONS.contains(name)) throw new IllegalArgumentException("Unknown option --" + name + ".");
+            options.put(name, value);
+        }
+        // Check the values of the options now, rather than part way through the run.
+        var runOptions = new RunOptions(dates, args[1], options);
+        runOptions.getEngine();
+        runOptions.getCompression();
+        runOptions.getGeoJSONOptions();
+        runOptions.getTileZooms();
+        runOptions.getHeatmapCellSize();
+        runOptions.getParallelism();
+        runOptions.getServerPort();
+        runOptions.getLatencyTarget();
+        runOptions.getExecutionConfig();
+        runOptions.getDataDirectory();
+        if (runOptions.getWatchInterval() != null && runOptions.isBatch()) {
+            throw new IllegalArgumentException("Only a single date can be watched.");
+        }
+        if (runOptions.getWatchInterval() != null && runOptions.isResume()) {
+            throw new IllegalArgumentException("A watched date cannot be resumed, as it is never finished.");
+        }
+        if (runOptions.getShard() != null || runOptions.getMergeShards() != null) {
+            if (runOptions.getShard() != null && runOptions.getMergeShards() != null) {
+                throw new IllegalArgumentException("A run can either plan a shard or merge the shards, not both.");
+            }
+            if (runOptions.getWatchInterval() != null || runOptions.isResume() || runOptions.isIncremental()
+                || runOptions.isNDJSON()) {
+                throw new IllegalArgumentException("Shards cannot be watched, resumed, run incrementally or streamed.");
+            }
+        }
+        return runOptions;
+    }
+
+    /**
+     * Parses the dates to generate the flight paths for.
+     *
+     * @param text A single date, an inclusive range of dates {@code first..last}, or a comma-separated list of dates.
+     *             Any of the dates may be {@code today}.
+     *
+     * @return The dates, without any repeats, in the order given.
+     *
+     * @throws IllegalArgumentException If any of the dates are invalid, or the range is empty.
+     */
+    private static List<LocalDate> parseDates(String text) {
+        try {
+            int separator = text.indexOf("..");
+            if (separator >= 0) {
+                LocalDate first = parseDate(text.substring(0, separator));
+                LocalDate last  = parseDate(text.substring(separator + 2));
+                if (last.isBefore(first)) {
+                    throw new IllegalArgumentException("The range of dates " + text + " ends before it starts.");
+                }
+                return first.datesUntil(last.plusDays(1)).toList();
+            }
+            var dates = new LinkedHashSet<LocalDate>();
+            for (String date : text.split(",", -1))
+                dates.add(parseDate(date));
+            return List.copyOf(dates);
+        } catch (DateTimeParseException err) {
+            throw new IllegalArgumentException(
+                    "The date provided is invalid. Please ensure the date has the format: YYYY-MM-DD.");
+        }
+    }
+
+    /**
+     * Parses a single date.
+     *
+     * @param text The date, as YYYY-MM-DD, or {@code today} for the current date.
+     *
+     * @return The date.
+     *
+     * @throws DateTimeParseException If the date is invalid.
+     */
+    private static LocalDate parseDate(String text) {
+        return text.equals("today") ? LocalDate.now() : LocalDate.parse(text);
+    }
+
+    /**
+     * Gets the date to generate the flight paths for, which is the first date if several were given.
+     *
+     * @return The date.
+     */
+    public LocalDate getDate() {
+        return dates.get(0);
+    }
+
+    /**
+     * Gets the dates to generate the flight paths for.
+     *
+     * @return The dates, in the order given.
+     */
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    /**
+     * Gets whether several dates were given, to be run in batch.
+     *
+     * @return Whether to run in batch.
+     */
+    public boolean isBatch() {
+        return dates.size() > 1;
+    }
+
+    /**
+     * Gets the most dates to generate flight paths for at the same time, which defaults to the number of processors,
+     * and is never more than the number of dates.
+     *
+     * @return The number of dates.
+     *
+     * @throws IllegalArgumentException If the value given is not a positive whole number.
+     */
+    public int getParallelism() {
+        int parallelism = getInt("parallelism", Runtime.getRuntime().availableProcessors());
+        if (parallelism < 1) throw new IllegalArgumentException("The value of --parallelism must be at least 1.");
+        return Math.min(parallelism, dates.size());
+    }
+
+    /**
+     * Gets the URL of the REST server, or the {@code file:} URI of the directory of local data read instead.
+     *
+     * @return The URL.
+     */
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    /**
+     * Gets the directory of local data to read instead of the REST server, given as a {@code file:} URI in place of
+     * its URL.
+     *
+     * @return The directory, or null if the data is fetched from the REST server.
+     *
+     * @throws IllegalArgumentException If the URI is not a valid path.
+     */
+    public Path getDataDirectory() {
+        return LocalDataSource.directoryOf(apiUrl);
+    }
+
+    /**
+     * Gets whether the output files should be written without indentation.
+     *
+     * @return Whether the output should be compact.
+     */
+    public boolean isCompact() {
+        return options.containsKey("compact");
+    }
+
+    /**
+     * Gets whether a binary archive of the flight path should be written next to the output files.
+     *
+     * @return Whether to write the archive.
+     */
+    public boolean isArchive() {
+        return options.containsKey("archive");
+    }
+
+    /**
+     * Gets whether the deliveries and flight path should be streamed as newline-delimited JSON while the orders are
+     * validated and planned, rather than written as JSON arrays at the end.
+     *
+     * @return Whether to stream the output.
+     */
+    public boolean isNDJSON() {
+        return options.containsKey("ndjson");
+    }
+
+    /**
+     * Gets whether each date should only validate and plan the orders which arrived since its last run, using the
+     * checkpoint that run left in the result files, and save a new checkpoint for the next run.
+     *
+     * @return Whether to run incrementally.
+     */
+    public boolean isIncremental() {
+        return options.containsKey("incremental");
+    }
+
+    /**
+     * Gets whether to keep a journal of the phases each date has finished in the result files, and to carry on from
+     * the journal left by an earlier run which stopped part way, skipping the work it had already finished. The journal
+     * is removed once every date has been written.
+     *
+     * @return Whether to resume from the journal.
+     */
+    public boolean isResume() {
+        return options.containsKey("resume");
+    }
+
+    /**
+     * Gets the engine to write the flight path and deliveries files with, which defaults to {@link OutputEngine#NIO}.
+     *
+     * @return The output engine.
+     *
+     * @throws IllegalArgumentException If the engine given is not recognised.
+     */
+    public OutputEngine getEngine() {
+        String engine = options.getOrDefault("engine", OutputEngine.NIO.name());
+        try {
+            return OutputEngine.valueOf(engine.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException err) {
+            throw new IllegalArgumentException("Unknown output engine " + engine + ".");
+        }
+    }
+
+    /**
+     * Gets which output files to compress, and how. Giving {@code --gzip} without a value compresses every file.
+     *
+     * @return The compression settings.
+     *
+     * @throws IllegalArgumentException If any of the compression options are invalid.
+     */
+    public Compression getCompression() {
+        var fileTypes = EnumSet.noneOf(OutputFileType.class);
+        if (options.containsKey("gzip")) {
+            String types = options.get("gzip");
+            if (types.isEmpty()) {
+                fileTypes = EnumSet.allOf(OutputFileType.class);
+            } else {
+                for (String type : types.split(","))
+                    fileTypes.add(OutputFileType.fromPrefix(type));
+            }
+        }
+        return new Compression(fileTypes,
+                               getInt("gzip-level", Compression.NONE.level()),
+                               getInt("gzip-buffer", Compression.DEFAULT_BUFFER_SIZE)
+        );
+    }
+
+    /**
+     * Gets how the drone GeoJSON file should be written, which by default is every point of the flight path as one
+     * line at full precision.
+     *
+     * @return The GeoJSON options.
+     *
+     * @throws IllegalArgumentException If any of the GeoJSON options are invalid.
+     */
+    public GeoJSONOptions getGeoJSONOptions() {
+        return new GeoJSONOptions(options.containsKey("geojson-per-order"),
+                                  options.containsKey("geojson-simplify"),
+                                  getDouble("geojson-tolerance", 0),
+                                  getInt("geojson-precision", GeoJSONOptions.FULL_PRECISION)
+        );
+    }
+
+    /**
+     * Gets the zoom levels to add the flight path to the tile pyramid at. Giving {@code --tiles} without a value uses
+     * {@link ZoomRange#DEFAULT}.
+     *
+     * @return The zoom levels, or null if the flight path should not be added to the tile pyramid.
+     *
+     * @throws IllegalArgumentException If the zoom range is invalid.
+     */
+    public ZoomRange getTileZooms() {
+        if (!options.containsKey("tiles")) return null;
+        String zooms = options.get("tiles");
+        return zooms.isEmpty() ? ZoomRange.DEFAULT : ZoomRange.parse(zooms);
+    }
+
+    /**
+     * Gets the size of the cells of the traffic heatmap built from every flight path in the result files. Giving
+     * {@code --heatmap} without a value uses {@link HeatmapGrid#DEFAULT_CELL_SIZE}.
+     *
+     * @return The width and height of each cell in degrees, or null if the heatmap should not be built.
+     *
+     * @throws IllegalArgumentException If the cell size is not a positive number.
+     */
+    public Double getHeatmapCellSize() {
+        if (!options.containsKey("heatmap")) return null;
+        if (options.get("heatmap").isEmpty()) return HeatmapGrid.DEFAULT_CELL_SIZE;
+        double cellSize = getDouble("heatmap", HeatmapGrid.DEFAULT_CELL_SIZE);
+        if (!(cellSize > 0) || !Double.isFinite(cellSize)) {
+            throw new IllegalArgumentException("The value of --heatmap must be a positive number.");
+        }
+        return cellSize;
+    }
+
+    /**
+     * Gets the port to serve the planning API on once the dates have been generated. Giving {@code --serve} without a
+     * value uses {@link PlanningServer#DEFAULT_PORT}.
+     *
+     * @return The port, or null if the API should not be served.
+     *
+     * @throws IllegalArgumentException If the port is not a valid port number.
+     */
+    public Integer getServerPort() {
+        if (!options.containsKey("serve")) return null;
+        if (options.get("serve").isEmpty()) return PlanningServer.DEFAULT_PORT;
+        int port = getInt("serve", PlanningServer.DEFAULT_PORT);
+        if (port < 0 || port > 65535) throw new IllegalArgumentException("The value of --serve must be a port number.");
+        return port;
+    }
+
+    /**
+     * Gets how often to poll for new orders when watching the date, rather than generating it once. Giving
+     * {@code --watch} without a value polls every {@link OrderWatcher#DEFAULT_INTERVAL}.
+     *
+     * @return The interval between polls, or null if the date should not be watched.
+     *
+     * @throws IllegalArgumentException If the interval is not a positive number of seconds.
+     */
+    public Duration getWatchInterval() {
+        if (!options.containsKey("watch")) return null;
+        if (options.get("watch").isEmpty()) return OrderWatcher.DEFAULT_INTERVAL;
+        double seconds = getDouble("watch", 0);
+        if (!(seconds > 0) || !Double.isFinite(seconds)) {
+            throw new IllegalArgumentException("The value of --watch must be a positive number of seconds.");
+        }
+        return Duration.ofNanos((long) (seconds * 1_000_000_000L));
+    }
+
+    /**
+     * Gets the time each order should be dispatched within when watching the date, from it being read from the REST
+     * server, which defaults to {@link OrderWatcher#DEFAULT_LATENCY_TARGET}. Orders which take longer are reported.
+     *
+     * @return The latency target.
+     *
+     * @throws IllegalArgumentException If the target is not a positive number of milliseconds.
+     */
+    public Duration getLatencyTarget() {
+        int millis = getInt("latency-target", (int) OrderWatcher.DEFAULT_LATENCY_TARGET.toMillis());
+        if (millis < 1) throw new IllegalArgumentException("The value of --latency-target must be at least 1.");
+        return Duration.ofMillis(millis);
+    }
+
+    /**
+     * Gets the shard of each date's orders to plan, when several workers share the dates between them. A worker only
+     * saves its part of each date to the shard directory, for {@code --merge-shards} to write the output files from.
+     *
+     * @return The shard, or null if every order should be planned.
+     *
+     * @throws IllegalArgumentException If the shard is invalid.
+     */
+    public Shard getShard() {
+        return options.containsKey("shard") ? Shard.parse(options.get("shard")) : null;
+    }
+
+    /**
+     * Gets the number of shards to merge the saved parts of each date from, rather than planning the date.
+     *
+     * @return The number of shards, or null if the date should be planned.
+     *
+     * @throws IllegalArgumentException If the number is not a positive whole number.
+     */
+    public Integer getMergeShards() {
+        if (!options.containsKey("merge-shards")) return null;
+        int count = getInt("merge-shards", 0);
+        if (count < 1) throw new IllegalArgumentException("The value of --merge-shards must be at least 1.");
+        return count;
+    }
+
+    /**
+     * Gets the directory the shards save their parts of each date to, and the merge reads them from, which defaults to
+     * the shards directory in the result files. Workers on several hosts can share a network directory.
+     *
+     * @return The shard directory.
+     */
+    public Path getShardDirectory() {
+        String directory = options.getOrDefault("shard-dir", "");
+        return directory.isEmpty() ? Path.of("resultfiles", "shards") : Path.of(directory);
+    }
+
+    /**
+     * Gets the sizes of the thread pools shared by every part of the run. Each size is taken from its option if given,
+     * then from the file given by {@code --exec-config}, and otherwise from {@link ExecutionConfig#defaults()}.
+     *
+     * @return The sizes of the thread pools.
+     *
+     * @throws IllegalArgumentException If the file could not be read, or any of the sizes are not positive whole
+     *                                  numbers.
+     */
+    public ExecutionConfig getExecutionConfig() {
+        ExecutionConfig config = ExecutionConfig.defaults();
+        if (options.containsKey("exec-config")) {
+            try {
+                config = ExecutionConfig.load(Path.of(options.get("exec-config")), config);
+            } catch (IOException err) {
+                throw new IllegalArgumentException("Could not read the execution config " + options.get("exec-config")
+                                                   + ".");
+            }
+        }
+        return new ExecutionConfig(getInt("cpu-threads", config.cpuThreads()),
+                                   getInt("io-threads", config.ioThreads()),
+                                   getInt("server-threads", config.serverThreads())
+        );
+    }
+
+    /**
+     * Gets the value of an option which takes a whole number.
+     *
+     * @param name         The name of the option.
+     * @param defaultValue The value to use if the option is not given.
+     *
+     * @return The value of the option.
+     *
+     * @throws IllegalArgumentException If the value is not a whole number.
+     */
+    private int getInt(String name, int defaultValue) {
+        if (!options.containsKey(name)) return defaultValue;
+        try {
+            return Integer.parseInt(options.get(name));
+        } catch (NumberFormatException err) {
+            throw new IllegalArgumentException("The value of --" + name + " must be a whole number.");
+        }
+    }
+
+    /**
+     * Gets the value of an option which takes a number.
+     *
+     * @param name         The name of the option.
+     * @param defaultValue The value to use if the option is not given.
+     *
+     * @return The value of the option.
+     *
+     * @throws IllegalArgumentException If the value is not a number.
+     */
+    private double getDouble(String name, double defaultValue) {
+        if (!options.containsKey(name)) return defaultValue;
+        try {
+            return Double.parseDouble(options.get(name));
+        } catch (NumberFormatException err) {
+            throw new IllegalArgumentException("The value of --" + name + " must be a number.");
+        }
+    }
+}
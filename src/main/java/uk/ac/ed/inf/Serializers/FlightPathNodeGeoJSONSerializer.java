@@ -3,19 +3,46 @@ package uk.ac.ed.inf.Serializers;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
 import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.FlightPaths.LineSimplifier;
+import uk.ac.ed.inf.ilp.data.LngLat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Serializes an array of {@link FlightPathNode} objects to GeoJSON.
  */
 public class FlightPathNodeGeoJSONSerializer extends StdSerializer<FlightPathNode[]> {
+    /**
+     * Stores how the GeoJSON is written.
+     */
+    private final GeoJSONOptions options;
+    /**
+     * Stores the factor coordinates are multiplied by before being rounded, if they are rounded.
+     */
+    private final double         scale;
+
     /**
      * Creates an instance of the {@link FlightPathNodeGeoJSONSerializer} class.
      */
     public FlightPathNodeGeoJSONSerializer() {
-        this(null);
+        this(GeoJSONOptions.EXACT);
+    }
+
+    /**
+     * Creates an instance of the {@link FlightPathNodeGeoJSONSerializer} class.
+     *
+     * @param options How the GeoJSON is written.
+     */
+    public FlightPathNodeGeoJSONSerializer(GeoJSONOptions options) {
+        super(FlightPathNode[].class);
+        this.options = options;
+        this.scale = Math.pow(10, Math.max(0, options.precision()));
     }
 
     /**
@@ -25,6 +52,8 @@ public class FlightPathNodeGeoJSONSerializer extends StdSerializer<FlightPathNod
      */
     public FlightPathNodeGeoJSONSerializer(Class<FlightPathNode[]> flightPathNodeArrayClass) {
         super(flightPathNodeArrayClass);
+        this.options = GeoJSONOptions.EXACT;
+        this.scale = 1;
     }
 
     /**
@@ -41,24 +70,119 @@ public class FlightPathNodeGeoJSONSerializer extends StdSerializer<FlightPathNod
         json.writeStartObject();
         json.writeStringField("type", "FeatureCollection");
         json.writeArrayFieldStart("features");
-        json.writeStartObject();
-        json.writeStringField("type", "Feature");
-        json.writeObjectFieldStart("geometry");
-        json.writeStringField("type", "LineString");
-        json.writeArrayFieldStart("coordinates");
-        for (FlightPathNode node : path) {
-            json.writeStartArray();
-            json.writeNumber(node.fromCoordinate().lng());
-            json.writeNumber(node.fromCoordinate().lat());
-            json.writeEndArray();
+        if (options.perOrder()) {
+            writeOrderFeatures(path, json);
+        } else {
+            json.writeStartObject();
+            json.writeStringField("type", "Feature");
+            json.writeObjectFieldStart("geometry");
+            json.writeStringField("type", "LineString");
+            json.writeFieldName("coordinates");
+            writeLine(path, 0, path.length, false, json);
+            json.writeEndObject();
+            json.writeObjectFieldStart("properties");
+            json.writeStringField("name", "Flight Path");
+            json.writeEndObject();
+            json.writeEndObject();
         }
         json.writeEndArray();
         json.writeEndObject();
-        json.writeObjectFieldStart("properties");
-        json.writeStringField("name", "Flight Path");
-        json.writeEndObject();
-        json.writeEndObject();
+    }
+
+    /**
+     * Writes a feature for each order, in the order they are first flown, with each run of consecutive moves of the
+     * order as one line of a MultiLineString.
+     *
+     * @param path The flight path.
+     * @param json The {@link JsonGenerator} to use.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeOrderFeatures(FlightPathNode[] path, JsonGenerator json) throws IOException {
+        // Each run is stored as the index of its first move and the index after its last move.
+        var runs = new LinkedHashMap<String, List<int[]>>();
+        for (int start = 0, end; start < path.length; start = end) {
+            end = start + 1;
+            while (end < path.length && Objects.equals(path[end].orderNo(), path[start].orderNo()))
+                end++;
+            runs.computeIfAbsent(path[start].orderNo(), __ -> new ArrayList<>()).add(new int[] { start, end });
+        }
+
+        for (var order : runs.entrySet()) {
+            int moves  = 0;
+            int hovers = 0;
+            json.writeStartObject();
+            json.writeStringField("type", "Feature");
+            json.writeObjectFieldStart("geometry");
+            json.writeStringField("type", "MultiLineString");
+            json.writeArrayFieldStart("coordinates");
+            for (int[] run : order.getValue()) {
+                writeLine(path, run[0], run[1], true, json);
+                moves += run[1] - run[0];
+                for (int i = run[0]; i < run[1]; i++)
+                    if (path[i].angle() == FlightPathGenerator.HOVER_ANGLE) hovers++;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeObjectFieldStart("properties");
+            json.writeStringField("orderNo", order.getKey());
+            json.writeNumberField("moves", moves);
+            json.writeNumberField("hovers", hovers);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the line through the starting coordinates of a section of the flight path, simplified and rounded as set
+     * by the options.
+     *
+     * @param path       The flight path.
+     * @param start      The index of the first move of the section.
+     * @param end        The index after the last move of the section.
+     * @param includeEnd Whether to end the line at the ending coordinate of the last move.
+     * @param json       The {@link JsonGenerator} to use.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeLine(FlightPathNode[] path, int start, int end, boolean includeEnd, JsonGenerator json)
+            throws IOException {
+        var points = new ArrayList<LngLat>(end - start + 1);
+        for (int i = start; i < end; i++)
+            points.add(path[i].fromCoordinate());
+        if (includeEnd && end > start) points.add(path[end - 1].toCoordinate());
+
+        List<LngLat> line = points;
+        if (options.mergeStraightRuns()) line = LineSimplifier.mergeStraightRuns(line);
+        if (options.tolerance() > 0) line = LineSimplifier.douglasPeucker(line, options.tolerance());
+
+        json.writeStartArray();
+        double previousLng = Double.NaN;
+        double previousLat = Double.NaN;
+        for (LngLat point : line) {
+            double lng = round(point.lng());
+            double lat = round(point.lat());
+            // Rounding can make neighbouring points the same, and a simplified line has no need for the repeats.
+            if (options.isSimplified() && lng == previousLng && lat == previousLat) continue;
+            json.writeStartArray();
+            json.writeNumber(lng);
+            json.writeNumber(lat);
+            json.writeEndArray();
+            previousLng = lng;
+            previousLat = lat;
+        }
         json.writeEndArray();
-        json.writeEndObject();
+    }
+
+    /**
+     * Rounds a coordinate to the precision set by the options.
+     *
+     * @param value The coordinate.
+     *
+     * @return The rounded coordinate, which is written with at most the set number of decimal places.
+     */
+    private double round(double value) {
+        if (options.precision() == GeoJSONOptions.FULL_PRECISION || !Double.isFinite(value)) return value;
+        return Math.round(value * scale) / scale;
     }
 }
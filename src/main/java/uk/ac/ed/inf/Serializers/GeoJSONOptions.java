@@ -0,0 +1,63 @@
+package uk.ac.ed.inf.Serializers;
+
+import java.io.Serializable;
+
+/**
+ * How the drone GeoJSON file is written by a {@link FlightPathNodeGeoJSONSerializer}. The default options write every
+ * point of the flight path as one line at full precision; the others make the file smaller and quicker to render.
+ *
+ * @param perOrder          Whether to write a feature for each order, with the runs of the order's moves as a
+ *                          MultiLineString, rather than one line for the whole flight path.
+ * @param mergeStraightRuns Whether to remove the points in the middle of straight runs of moves, and repeated points,
+ *                          which leaves the shape of the lines unchanged.
+ * @param tolerance         How far in degrees a point may be from the line once it is removed by the Douglas-Peucker
+ *                          algorithm, or 0 to not apply the algorithm.
+ * @param precision         The number of decimal places coordinates are rounded to, or {@link #FULL_PRECISION}.
+ */
+public record GeoJSONOptions(
+        boolean perOrder,
+        boolean mergeStraightRuns,
+        double tolerance,
+        int precision
+) implements Serializable {
+    /**
+     * The precision of coordinates which are not rounded.
+     */
+    public static final int            FULL_PRECISION = -1;
+    /**
+     * The most decimal places coordinates can be rounded to.
+     */
+    public static final int            MAX_PRECISION  = 15;
+    /**
+     * The options which write every point of the flight path exactly.
+     */
+    public static final GeoJSONOptions EXACT          = new GeoJSONOptions(false, false, 0, FULL_PRECISION);
+
+    /**
+     * Creates an instance of the {@link GeoJSONOptions} record.
+     *
+     * @param perOrder          Whether to write a feature for each order.
+     * @param mergeStraightRuns Whether to remove the points in the middle of straight runs of moves.
+     * @param tolerance         The tolerance of the Douglas-Peucker algorithm in degrees, or 0 to not apply it.
+     * @param precision         The number of decimal places coordinates are rounded to, or {@link #FULL_PRECISION}.
+     *
+     * @throws IllegalArgumentException If the tolerance or precision is out of range.
+     */
+    public GeoJSONOptions {
+        if (!(tolerance >= 0) || Double.isInfinite(tolerance)) {
+            throw new IllegalArgumentException("The simplification tolerance must be a finite number of at least 0.");
+        }
+        if (precision < FULL_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("The coordinate precision must be between 0 and " + MAX_PRECISION + ".");
+        }
+    }
+
+    /**
+     * Checks whether any points are removed from the lines.
+     *
+     * @return Whether the lines are simplified.
+     */
+    public boolean isSimplified() {
+        return mergeStraightRuns || tolerance > 0;
+    }
+}
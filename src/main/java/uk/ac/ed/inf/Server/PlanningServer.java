@@ -0,0 +1,378 @@
+package uk.ac.ed.inf.Server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
+import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the planning of the application over HTTP, keeping the restaurants, the validator and a warm flight path
+ * generator resident between requests, so that each request only pays for its own work. The endpoints are:
+ * <ul>
+ *     <li>{@code GET /isAlive}, which responds with {@code true};</li>
+ *     <li>{@code POST /orders/validate}, which validates the order in the body and responds with its outcome;</li>
+ *     <li>{@code POST /orders/plan}, which validates the order in the body, plans its flight path if it is valid,
+ *     and responds with both;</li>
+ *     <li>{@code POST /days/<date>}, which generates the output files of a day and responds with its summary.</li>
+ * </ul>
+ * Orders are read in the format of the REST service, and written in the format of the deliveries and flight path
+ * files.
+ * <p>
+ * Each request is handled on a thread taken from the executor the server is given: a cached pool by default, or the
+ * fixed pool of {@link uk.ac.ed.inf.Execution.ExecutionConfig#serverThreads()} platform threads when run from the
+ * command line. These are platform threads rather than virtual threads, as the project targets Java 18, which has
+ * none. Requests spend most of their time planning rather than waiting, so a small pool of platform threads keeps
+ * their latency low too, and because the executor is a parameter, moving to virtual threads once the project targets
+ * Java 21 only means passing {@code Executors.newVirtualThreadPerTaskExecutor()}.
+ */
+public class PlanningServer implements AutoCloseable {
+    /**
+     * The port the server listens on if none is given.
+     */
+    public static final  int    DEFAULT_PORT      = 8080;
+    /**
+     * The content type of every response.
+     */
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    /**
+     * The number of locks the days are spread over.
+     */
+    private static final int    DAY_LOCKS         = 64;
+
+    /**
+     * Stores the mapper the orders in requests are read with.
+     */
+    private final ObjectMapper        requestMapper  = new ObjectMapper().registerModule(new JavaTimeModule());
+    /**
+     * Stores the mapper the responses are written with.
+     */
+    private final ObjectMapper        responseMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule()
+                                    .addSerializer(Order.class, new OrderJSONSerializer())
+                                    .addSerializer(FlightPathNode.class, new FlightPathNodeJSONSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * Stores the locks which stop the files of the same day being generated by two requests at once. Each day takes
+     * the lock its hash picks, so the number of locks stays fixed however many days are requested.
+     */
+    private final Object[]            dayLocks       = new Object[DAY_LOCKS];
+    /**
+     * Stores the latch which is released once the server has stopped.
+     */
+    private final CountDownLatch      stopped        = new CountDownLatch(1);
+    /**
+     * Stores the executor which handles the requests.
+     */
+    private final ExecutorService     executor;
+    /**
+     * Stores the validator the orders are validated with.
+     */
+    private final OrderValidator      orderValidator;
+    /**
+     * Stores the index of the restaurants the orders are validated against.
+     */
+    private final MenuIndex           menuIndex;
+    /**
+     * Stores the generator the flight paths are planned with.
+     */
+    private final FlightPathGenerator flightPathGenerator;
+    /**
+     * Stores the planner which generates the output files of a day.
+     */
+    private final DayPlanner          dayPlanner;
+    /**
+     * Stores the underlying HTTP server.
+     */
+    private final HttpServer          server;
+
+    /**
+     * Creates an instance of the {@link PlanningServer} class, which does not accept requests until it is started.
+     *
+     * @param address             The address to listen on, which may have port 0 to pick any free port.
+     * @param orderValidator      The validator to validate orders with.
+     * @param menuIndex           The index of the restaurants to validate orders against.
+     * @param flightPathGenerator The generator to plan flight paths with.
+     * @param dayPlanner          The planner which generates the output files of a day.
+     *
+     * @throws IOException If the address could not be bound.
+     */
+    public PlanningServer(InetSocketAddress address, OrderValidator orderValidator, MenuIndex menuIndex,
+                          FlightPathGenerator flightPathGenerator, DayPlanner dayPlanner) throws IOException {
+        this(address, orderValidator, menuIndex, flightPathGenerator, dayPlanner, Executors.newCachedThreadPool());
+    }
+
+    /**
+     * Creates an instance of the {@link PlanningServer} class which handles its requests on the given executor, which
+     * it shuts down when it is stopped. It does not accept requests until it is started.
+     *
+     * @param address             The address to listen on, which may have port 0 to pick any free port.
+     * @param orderValidator      The validator to validate orders with.
+     * @param menuIndex           The index of the restaurants to validate orders against.
+     * @param flightPathGenerator The generator to plan flight paths with.
+     * @param dayPlanner          The planner which generates the output files of a day.
+     * @param executor            The executor to handle the requests on.
+     *
+     * @throws IOException If the address could not be bound.
+     */
+    public PlanningServer(InetSocketAddress address, OrderValidator orderValidator, MenuIndex menuIndex,
+                          FlightPathGenerator flightPathGenerator, DayPlanner dayPlanner, ExecutorService executor)
+            throws IOException {
+        this.executor = executor;
+        this.orderValidator = orderValidator;
+        this.menuIndex = menuIndex;
+        this.flightPathGenerator = flightPathGenerator;
+        this.dayPlanner = dayPlanner;
+        for (int i = 0; i < dayLocks.length; i++)
+            dayLocks[i] = new Object();
+        server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Waits until the server has been stopped.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Warms up the flight path generator, then serves requests until the application is stopped.
+     *
+     * @param executor The executor to warm up the flight path generator on.
+     *
+     * @throws InterruptedException If the thread is interrupted while serving.
+     */
+    public void serveUntilStopped(Executor executor) throws InterruptedException {
+        flightPathGenerator.warmUp(executor);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+        start();
+        System.out.println("Serving the planning API on http://localhost:" + getPort() + "/.");
+        awaitStop();
+    }
+
+    /**
+     * Stops the server, waiting up to a second for the requests being handled to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+        stopped.countDown();
+    }
+
+    /**
+     * Handles a request to the server.
+     *
+     * @param exchange The request and response.
+     *
+     * @throws IOException If the response could not be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path   = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            try {
+                if (path.equals("/isAlive")) {
+                    if (requireMethod(exchange, method, "GET")) respond(exchange, 200, true);
+                } else if (path.equals("/orders/validate")) {
+                    if (requireMethod(exchange, method, "POST")) respond(exchange, 200, validate(exchange));
+                } else if (path.equals("/orders/plan")) {
+                    if (requireMethod(exchange, method, "POST")) respond(exchange, 200, plan(exchange));
+                } else if (path.startsWith("/days/")) {
+                    if (requireMethod(exchange, method, "POST")) {
+                        respond(exchange, 200, planDay(path.substring("/days/".length())));
+                    }
+                } else {
+                    respond(exchange, 404, error("There is no endpoint at " + path + "."));
+                }
+            } catch (IllegalArgumentException err) {
+                respond(exchange, 400, error(err.getMessage()));
+            } catch (IOException | RuntimeException err) {
+                respond(exchange, 500, error(err.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Checks the method of a request, responding with an error if it is not the one expected.
+     *
+     * @param exchange The request and response.
+     * @param method   The method of the request.
+     * @param expected The method the endpoint expects.
+     *
+     * @return Whether the method is the one expected.
+     *
+     * @throws IOException If the error could not be sent.
+     */
+    private boolean requireMethod(HttpExchange exchange, String method, String expected) throws IOException {
+        if (method.equals(expected)) return true;
+        exchange.getResponseHeaders().set("Allow", expected);
+        respond(exchange, 405, error("The endpoint only accepts " + expected + " requests."));
+        return false;
+    }
+
+    /**
+     * Validates the order in the body of a request.
+     *
+     * @param exchange The request.
+     *
+     * @return The validated order.
+     *
+     * @throws IOException If the body could not be read.
+     */
+    private Order validate(HttpExchange exchange) throws IOException {
+        return orderValidator.validateOrder(readOrder(exchange.getRequestBody()), menuIndex);
+    }
+
+    /**
+     * Validates the order in the body of a request, and plans its flight path if it is valid.
+     *
+     * @param exchange The request.
+     *
+     * @return The validated order and its flight path, which is empty unless the order could be delivered.
+     *
+     * @throws IOException If the body could not be read.
+     */
+    private Map<String, Object> plan(HttpExchange exchange) throws IOException {
+        Order            order      = validate(exchange);
+        FlightPathNode[] flightPath = new FlightPathNode[0];
+        if (order.getOrderStatus() != OrderStatus.INVALID) {
+            flightPath = flightPathGenerator.generateOrderPath(order).toArray(FlightPathNode[]::new);
+        }
+        var response = new LinkedHashMap<String, Object>();
+        response.put("order", order);
+        response.put("flightPath", flightPath);
+        return response;
+    }
+
+    /**
+     * Generates the output files of a day. Requests for the same day wait for each other, as they write the same files.
+     * Requests for different days are handled concurrently, unless their days happen to share a lock.
+     *
+     * @param date The date, as YYYY-MM-DD.
+     *
+     * @return The summary of the day.
+     *
+     * @throws IOException If the files could not be written.
+     */
+    private DateSummary planDay(String date) throws IOException {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException err) {
+            throw new IllegalArgumentException("The date " + date + " is invalid. Dates have the format YYYY-MM-DD.");
+        }
+        synchronized (dayLocks[Math.floorMod(day.hashCode(), dayLocks.length)]) {
+            return dayPlanner.plan(day);
+        }
+    }
+
+    /**
+     * Reads an order from the body of a request.
+     *
+     * @param body The body.
+     *
+     * @return The order.
+     *
+     * @throws IOException If the body could not be read.
+     * @throws IllegalArgumentException If the body is not an order.
+     */
+    private Order readOrder(InputStream body) throws IOException {
+        Order order;
+        try {
+            order = requestMapper.readValue(body, Order.class);
+        } catch (JsonProcessingException err) {
+            throw new IllegalArgumentException("The body of the request is not a valid order.");
+        }
+        if (order == null) throw new IllegalArgumentException("The body of the request is not a valid order.");
+        return order;
+    }
+
+    /**
+     * Builds the body of an error response.
+     *
+     * @param message The message describing the error.
+     *
+     * @return The body.
+     */
+    private static Map<String, String> error(String message) {
+        return Map.of("error", String.valueOf(message));
+    }
+
+    /**
+     * Sends a JSON response.
+     *
+     * @param exchange The request and response.
+     * @param status   The status code.
+     * @param content  The content to send as JSON.
+     *
+     * @throws IOException If the response could not be sent.
+     */
+    private void respond(HttpExchange exchange, int status, Object content) throws IOException {
+        byte[] body = responseMapper.writeValueAsBytes(content);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Generates the output files of a single day.
+     */
+    @FunctionalInterface
+    public interface DayPlanner {
+        /**
+         * Generates the output files of a day.
+         *
+         * @param date The date.
+         *
+         * @return The summary of the day.
+         *
+         * @throws IOException If the files could not be written.
+         */
+        DateSummary plan(LocalDate date) throws IOException;
+    }
+}
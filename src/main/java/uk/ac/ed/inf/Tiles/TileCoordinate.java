@@ -0,0 +1,215 @@
+package uk.ac.ed.inf.Tiles;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.nio.file.Path;
+
+/**
+ * The position of a tile in a z/x/y pyramid of Web Mercator tiles, as used by web maps. At each zoom level the world
+ * is split into 2^zoom by 2^zoom tiles, numbered from the north west.
+ *
+ * @param zoom The zoom level.
+ * @param x    The column of the tile, counting east.
+ * @param y    The row of the tile, counting south.
+ */
+public record TileCoordinate(
+        int zoom,
+        int x,
+        int y
+) {
+    /**
+     * The highest zoom level supported.
+     */
+    public static final int    MAX_ZOOM     = 24;
+    /**
+     * The extension of each tile file.
+     */
+    public static final String EXTENSION    = ".geojson";
+    /**
+     * The furthest latitude north or south covered by the tiles.
+     */
+    public static final double MAX_LATITUDE = 85.0511287798066;
+
+    /**
+     * Creates an instance of the {@link TileCoordinate} record.
+     *
+     * @param zoom The zoom level.
+     * @param x    The column of the tile.
+     * @param y    The row of the tile.
+     *
+     * @throws IllegalArgumentException If the zoom level is not supported, or the tile is outside the world.
+     */
+    public TileCoordinate {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("The zoom level must be between 0 and " + MAX_ZOOM + ".");
+        }
+        if (x < 0 || x >= 1 << zoom || y < 0 || y >= 1 << zoom) {
+            throw new IllegalArgumentException("The tile " + zoom + "/" + x + "/" + y + " is outside the world.");
+        }
+    }
+
+    /**
+     * Gets the tile containing a point.
+     *
+     * @param zoom  The zoom level.
+     * @param point The point.
+     *
+     * @return The tile.
+     */
+    public static TileCoordinate of(int zoom, LngLat point) {
+        return new TileCoordinate(zoom, column(zoom, point.lng()), row(zoom, point.lat()));
+    }
+
+    /**
+     * Parses a tile from its {@link #toString()} form.
+     *
+     * @param tile The tile, as z/x/y.
+     *
+     * @return The tile.
+     *
+     * @throws IllegalArgumentException If the text is not a tile.
+     */
+    public static TileCoordinate parse(String tile) {
+        String[] parts = tile.split("/");
+        try {
+            if (parts.length == 3) {
+                return new TileCoordinate(Integer.parseInt(parts[0]),
+                                          Integer.parseInt(parts[1]),
+                                          Integer.parseInt(parts[2])
+                );
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid tile " + tile + ". Tiles must have the format z/x/y.");
+    }
+
+    /**
+     * Gets the column of the tiles containing a longitude.
+     *
+     * @param zoom The zoom level.
+     * @param lng  The longitude.
+     *
+     * @return The column.
+     */
+    public static int column(int zoom, double lng) {
+        int tiles = 1 << zoom;
+        return clamp((int) Math.floor((lng + 180) / 360 * tiles), tiles);
+    }
+
+    /**
+     * Gets the row of the tiles containing a latitude.
+     *
+     * @param zoom The zoom level.
+     * @param lat  The latitude.
+     *
+     * @return The row.
+     */
+    public static int row(int zoom, double lat) {
+        int    tiles   = 1 << zoom;
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+        double y       = (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2;
+        return clamp((int) Math.floor(y * tiles), tiles);
+    }
+
+    /**
+     * Keeps a column or row within the world.
+     *
+     * @param index The column or row.
+     * @param tiles The number of columns or rows.
+     *
+     * @return The column or row, between 0 and the number of columns or rows.
+     */
+    private static int clamp(int index, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, index));
+    }
+
+    /**
+     * Gets the longitude of the western edge of the tile.
+     *
+     * @return The longitude.
+     */
+    public double west() {
+        return longitude(x);
+    }
+
+    /**
+     * Gets the longitude of the eastern edge of the tile.
+     *
+     * @return The longitude.
+     */
+    public double east() {
+        return longitude(x + 1);
+    }
+
+    /**
+     * Gets the latitude of the northern edge of the tile.
+     *
+     * @return The latitude.
+     */
+    public double north() {
+        return latitude(y);
+    }
+
+    /**
+     * Gets the latitude of the southern edge of the tile.
+     *
+     * @return The latitude.
+     */
+    public double south() {
+        return latitude(y + 1);
+    }
+
+    /**
+     * Gets the width of the tile.
+     *
+     * @return The width, in degrees of longitude.
+     */
+    public double width() {
+        return 360.0 / (1 << zoom);
+    }
+
+    /**
+     * Gets the path of the tile's file under the root of a pyramid.
+     *
+     * @param root The root of the pyramid.
+     *
+     * @return The path of the file.
+     */
+    public Path path(Path root) {
+        return root.resolve(Integer.toString(zoom)).resolve(Integer.toString(x)).resolve(y + EXTENSION);
+    }
+
+    /**
+     * Gets the tile as z/x/y.
+     *
+     * @return The tile.
+     */
+    @Override
+    public String toString() {
+        return zoom + "/" + x + "/" + y;
+    }
+
+    /**
+     * Gets the longitude of the western edge of a column.
+     *
+     * @param column The column.
+     *
+     * @return The longitude.
+     */
+    private double longitude(int column) {
+        return (double) column / (1 << zoom) * 360 - 180;
+    }
+
+    /**
+     * Gets the latitude of the northern edge of a row.
+     *
+     * @param row The row.
+     *
+     * @return The latitude.
+     */
+    private double latitude(int row) {
+        double n = Math.PI * (1 - 2.0 * row / (1 << zoom));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+}
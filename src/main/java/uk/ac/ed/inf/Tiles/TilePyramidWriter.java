@@ -0,0 +1,332 @@
+package uk.ac.ed.inf.Tiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.FlightPaths.LineSimplifier;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Writes flight paths to a z/x/y pyramid of GeoJSON tiles, so that a map only has to fetch the tiles on screen rather
+ * than whole days of output. Each tile holds a feature for each order of each day which passes through it, with the
+ * order's lines clipped to the tile and simplified to the tile's resolution.
+ * <p>
+ * Days are added one at a time, and adding a day only rewrites the tiles it passes through. Each day's tiles are
+ * recorded, so that adding a day again also removes it from any tiles it no longer passes through.
+ */
+public class TilePyramidWriter {
+    /**
+     * The number of distinguishable positions across a tile, which sets how far lines are simplified at each zoom.
+     */
+    private static final int    EXTENT         = 4096;
+    /**
+     * The directory under the root which records the tiles of each day.
+     */
+    private static final String DAYS_DIRECTORY = "days";
+
+    /**
+     * Stores the root directory of the pyramid.
+     */
+    private final Path         root;
+    /**
+     * Stores the zoom levels the pyramid is generated for.
+     */
+    private final ZoomRange    zooms;
+    /**
+     * Stores the mapper the tiles are read and written with.
+     */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Creates an instance of the {@link TilePyramidWriter} class.
+     *
+     * @param root  The root directory of the pyramid, which is created if it does not exist.
+     * @param zooms The zoom levels to generate the pyramid for.
+     */
+    public TilePyramidWriter(Path root, ZoomRange zooms) {
+        this.root = root;
+        this.zooms = zooms;
+    }
+
+    /**
+     * Adds the flight path of a day to the pyramid, replacing the day if it was added before.
+     *
+     * @param date       The date of the flight path.
+     * @param flightPath The flight path.
+     *
+     * @return The tiles which were rewritten.
+     *
+     * @throws IOException If a tile could not be read or written.
+     */
+    public Set<TileCoordinate> addDay(LocalDate date, FlightPathNode[] flightPath) throws IOException {
+        Map<String, List<List<LngLat>>> orders = orderLines(flightPath);
+        var                             tiles  = new HashMap<TileCoordinate, Map<String, List<List<LngLat>>>>();
+        for (int zoom = zooms.min(); zoom <= zooms.max(); zoom++) {
+            double tolerance = 360.0 / (1 << zoom) / EXTENT;
+            for (var order : orders.entrySet()) {
+                for (List<LngLat> line : order.getValue()) {
+                    List<LngLat> simplified = LineSimplifier.douglasPeucker(LineSimplifier.mergeStraightRuns(line),
+                                                                            tolerance);
+                    clip(tiles, zoom, order.getKey(), simplified);
+                }
+            }
+        }
+
+        // Tiles the day passed through when it was last added, but no longer does, still need the day removing.
+        Set<TileCoordinate> rewritten = new HashSet<>(readDayTiles(date));
+        rewritten.addAll(tiles.keySet());
+        for (TileCoordinate tile : rewritten)
+            writeTile(tile, date, tiles.getOrDefault(tile, Map.of()));
+        writeDayTiles(date, tiles.keySet());
+        return rewritten;
+    }
+
+    /**
+     * Adds the flight paths of several days to the pyramid, such as those read from an archive.
+     *
+     * @param flightPaths The flight path of each day.
+     *
+     * @return The tiles which were rewritten.
+     *
+     * @throws IOException If a tile could not be read or written.
+     */
+    public Set<TileCoordinate> addDays(SortedMap<LocalDate, FlightPathNode[]> flightPaths) throws IOException {
+        var rewritten = new HashSet<TileCoordinate>();
+        for (var day : flightPaths.entrySet())
+            rewritten.addAll(addDay(day.getKey(), day.getValue()));
+        return rewritten;
+    }
+
+    /**
+     * Splits a flight path into lines for each order, with a line for each run of consecutive moves of the order
+     * through the start of each move and the end of the last.
+     *
+     * @param flightPath The flight path.
+     *
+     * @return The lines of each order, in the order the orders are first flown.
+     */
+    private static Map<String, List<List<LngLat>>> orderLines(FlightPathNode[] flightPath) {
+        var orders = new LinkedHashMap<String, List<List<LngLat>>>();
+        for (int start = 0, end; start < flightPath.length; start = end) {
+            var line = new ArrayList<LngLat>();
+            end = start;
+            while (end < flightPath.length && Objects.equals(flightPath[end].orderNo(), flightPath[start].orderNo()))
+                line.add(flightPath[end++].fromCoordinate());
+            line.add(flightPath[end - 1].toCoordinate());
+            orders.computeIfAbsent(flightPath[start].orderNo(), __ -> new ArrayList<>()).add(line);
+        }
+        return orders;
+    }
+
+    /**
+     * Clips a line to the tiles it passes through at a zoom level, adding the pieces to the lines of the order in
+     * each tile.
+     *
+     * @param tiles   The lines of each order in each tile.
+     * @param zoom    The zoom level.
+     * @param orderNo The order number.
+     * @param line    The line to clip.
+     */
+    private static void clip(Map<TileCoordinate, Map<String, List<List<LngLat>>>> tiles, int zoom, String orderNo,
+                             List<LngLat> line) {
+        int maxIndex = (1 << zoom) - 1;
+        for (int i = 0; i + 1 < line.size(); i++) {
+            LngLat from = line.get(i);
+            LngLat to   = line.get(i + 1);
+            // One tile either side, so that a point on the edge of a tile is clipped into both tiles it touches.
+            int west  = Math.max(0, TileCoordinate.column(zoom, Math.min(from.lng(), to.lng())) - 1);
+            int east  = Math.min(maxIndex, TileCoordinate.column(zoom, Math.max(from.lng(), to.lng())) + 1);
+            int north = Math.max(0, TileCoordinate.row(zoom, Math.max(from.lat(), to.lat())) - 1);
+            int south = Math.min(maxIndex, TileCoordinate.row(zoom, Math.min(from.lat(), to.lat())) + 1);
+            for (int x = west; x <= east; x++) {
+                for (int y = north; y <= south; y++) {
+                    var      tile   = new TileCoordinate(zoom, x, y);
+                    LngLat[] inside = clip(from, to, tile);
+                    if (inside == null) continue;
+                    List<List<LngLat>> lines = tiles.computeIfAbsent(tile, __ -> new LinkedHashMap<>())
+                                                    .computeIfAbsent(orderNo, __ -> new ArrayList<>());
+                    List<LngLat> last = lines.isEmpty() ? null : lines.get(lines.size() - 1);
+                    if (last != null && last.get(last.size() - 1).equals(inside[0])) {
+                        last.add(inside[1]);
+                    } else {
+                        lines.add(new ArrayList<>(List.of(inside[0], inside[1])));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Clips a segment to a tile with the
+     * <a href=https://en.wikipedia.org/wiki/Liang%E2%80%93Barsky_algorithm>Liang-Barsky algorithm</a>. Ends of the
+     * segment inside the tile are kept exactly.
+     *
+     * @param from The start of the segment.
+     * @param to   The end of the segment.
+     * @param tile The tile.
+     *
+     * @return The start and end of the part of the segment inside the tile, or null if none of it is.
+     */
+    private static LngLat[] clip(LngLat from, LngLat to, TileCoordinate tile) {
+        double dx = to.lng() - from.lng();
+        double dy = to.lat() - from.lat();
+        double[] p = { -dx, dx, -dy, dy };
+        double[] q = {
+                from.lng() - tile.west(), tile.east() - from.lng(), from.lat() - tile.south(), tile.north() - from.lat()
+        };
+        double start = 0;
+        double end   = 1;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) return null;
+            } else if (p[i] < 0) {
+                start = Math.max(start, q[i] / p[i]);
+            } else {
+                end = Math.min(end, q[i] / p[i]);
+            }
+        }
+        if (start >= end) return null;
+        return new LngLat[] {
+                start == 0 ? from : new LngLat(from.lng() + start * dx, from.lat() + start * dy),
+                end == 1 ? to : new LngLat(from.lng() + end * dx, from.lat() + end * dy)
+        };
+    }
+
+    /**
+     * Rewrites a tile with the given lines for a day in place of any it had before. A tile with no features left is
+     * deleted.
+     *
+     * @param tile  The tile.
+     * @param date  The date of the day.
+     * @param lines The lines of each order of the day in the tile.
+     *
+     * @throws IOException If the tile could not be read or written.
+     */
+    private void writeTile(TileCoordinate tile, LocalDate date, Map<String, List<List<LngLat>>> lines)
+            throws IOException {
+        Path   path = tile.path(root);
+        String day  = date.toString();
+
+        var features = new ArrayList<JsonNode>();
+        if (Files.exists(path)) {
+            for (JsonNode feature : mapper.readTree(path.toFile()).path("features"))
+                if (!feature.path("properties").path("date").asText().equals(day)) features.add(feature);
+        }
+        double scale = Math.pow(10, precision(tile.zoom()));
+        for (var order : lines.entrySet())
+            features.add(feature(day, order.getKey(), order.getValue(), scale));
+        features.sort(Comparator.comparing(feature -> feature.path("properties").path("date").asText()));
+
+        if (features.isEmpty()) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        ObjectNode collection = mapper.createObjectNode().put("type", "FeatureCollection");
+        collection.putArray("features").addAll(features);
+        Files.createDirectories(path.getParent());
+        mapper.writeValue(path.toFile(), collection);
+    }
+
+    /**
+     * Builds the feature of an order of a day in a tile.
+     *
+     * @param day     The date of the day.
+     * @param orderNo The order number.
+     * @param lines   The lines of the order in the tile.
+     * @param scale   The factor coordinates are multiplied by before being rounded.
+     *
+     * @return The feature.
+     */
+    private ObjectNode feature(String day, String orderNo, List<List<LngLat>> lines, double scale) {
+        ObjectNode feature  = mapper.createObjectNode().put("type", "Feature");
+        ObjectNode geometry = feature.putObject("geometry").put("type", "MultiLineString");
+        ArrayNode  multi    = geometry.putArray("coordinates");
+        for (List<LngLat> line : lines) {
+            ArrayNode coordinates = multi.addArray();
+            double    previousLng = Double.NaN;
+            double    previousLat = Double.NaN;
+            for (LngLat point : line) {
+                double lng = Math.round(point.lng() * scale) / scale;
+                double lat = Math.round(point.lat() * scale) / scale;
+                if (lng == previousLng && lat == previousLat) continue;
+                coordinates.addArray().add(lng).add(lat);
+                previousLng = lng;
+                previousLat = lat;
+            }
+        }
+        feature.putObject("properties").put("date", day).put("orderNo", orderNo);
+        return feature;
+    }
+
+    /**
+     * Gets the number of decimal places coordinates are rounded to at a zoom level, which is enough to tell apart
+     * every position across a tile.
+     *
+     * @param zoom The zoom level.
+     *
+     * @return The number of decimal places.
+     */
+    private static int precision(int zoom) {
+        return (int) Math.min(15, Math.ceil(Math.log10(EXTENT * (1 << zoom) / 360.0)));
+    }
+
+    /**
+     * Reads the tiles a day passed through when it was last added.
+     *
+     * @param date The date of the day.
+     *
+     * @return The tiles, which are empty if the day has not been added.
+     *
+     * @throws IOException If the record of the day's tiles could not be read.
+     */
+    private Set<TileCoordinate> readDayTiles(LocalDate date) throws IOException {
+        Path path = dayTilesPath(date);
+        if (!Files.exists(path)) return Set.of();
+        var tiles = new HashSet<TileCoordinate>();
+        for (String line : Files.readAllLines(path))
+            if (!line.isBlank()) tiles.add(TileCoordinate.parse(line.strip()));
+        return tiles;
+    }
+
+    /**
+     * Records the tiles a day passes through.
+     *
+     * @param date  The date of the day.
+     * @param tiles The tiles.
+     *
+     * @throws IOException If the record could not be written.
+     */
+    private void writeDayTiles(LocalDate date, Set<TileCoordinate> tiles) throws IOException {
+        Path path = dayTilesPath(date);
+        Files.createDirectories(path.getParent());
+        Files.write(path, tiles.stream().map(TileCoordinate::toString).sorted().toList());
+    }
+
+    /**
+     * Gets the path of the record of the tiles a day passes through.
+     *
+     * @param date The date of the day.
+     *
+     * @return The path of the record.
+     */
+    private Path dayTilesPath(LocalDate date) {
+        return root.resolve(DAYS_DIRECTORY).resolve(date + ".txt");
+    }
+}
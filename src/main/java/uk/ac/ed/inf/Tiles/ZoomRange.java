@@ -0,0 +1,53 @@
+package uk.ac.ed.inf.Tiles;
+
+/**
+ * The zoom levels a tile pyramid is generated for.
+ *
+ * @param min The lowest zoom level.
+ * @param max The highest zoom level, inclusive.
+ */
+public record ZoomRange(
+        int min,
+        int max
+) {
+    /**
+     * The zoom levels generated if none are given, from the whole of Edinburgh down to single streets.
+     */
+    public static final ZoomRange DEFAULT = new ZoomRange(12, 18);
+
+    /**
+     * Creates an instance of the {@link ZoomRange} record.
+     *
+     * @param min The lowest zoom level.
+     * @param max The highest zoom level.
+     *
+     * @throws IllegalArgumentException If the zoom levels are out of range or in the wrong order.
+     */
+    public ZoomRange {
+        if (min < 0 || max > TileCoordinate.MAX_ZOOM || min > max) {
+            throw new IllegalArgumentException("The zoom levels must be between 0 and " + TileCoordinate.MAX_ZOOM
+                                               + ", with the lowest first.");
+        }
+    }
+
+    /**
+     * Parses a zoom range.
+     *
+     * @param range The range, as min-max, or a single zoom level.
+     *
+     * @return The zoom range.
+     *
+     * @throws IllegalArgumentException If the text is not a valid zoom range.
+     */
+    public static ZoomRange parse(String range) {
+        String[] parts = range.split("-", -1);
+        try {
+            if (parts.length == 1) return new ZoomRange(Integer.parseInt(parts[0]), Integer.parseInt(parts[0]));
+            if (parts.length == 2) return new ZoomRange(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        } catch (NumberFormatException ignored) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid zoom range " + range
+                                           + ". Zoom ranges must have the format min-max.");
+    }
+}
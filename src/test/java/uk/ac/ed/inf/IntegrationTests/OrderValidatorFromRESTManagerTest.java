@@ -1,6 +1,7 @@
 package uk.ac.ed.inf.IntegrationTests;
 
 import junit.framework.TestCase;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
 import uk.ac.ed.inf.RestService.OrderValidator;
 import uk.ac.ed.inf.RestService.RESTManager;
 import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
@@ -12,17 +13,25 @@ import java.time.LocalDate;
 public class OrderValidatorFromRESTManagerTest extends TestCase {
     OrderValidator validator = new OrderValidator();
 
+    MockRESTServer server;
+
     RESTManager manager;
 
-    public OrderValidatorFromRESTManagerTest(String testName) {
-        super(testName);
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockRESTServer();
         try {
-            manager = new RESTManager("https://ilp-rest.azurewebsites.net");
+            manager = new RESTManager(server.getBaseUrl());
         } catch (Exception e) {
             fail("Exception thrown when creating RESTManager");
         }
     }
 
+    @Override
+    protected void tearDown() {
+        server.close();
+    }
+
     public void testGivenDate() {
         Order[]      orders       = manager.getOrders(LocalDate.parse("2023-09-01"));
         Restaurant[] restaurants  = manager.getRestaurants();
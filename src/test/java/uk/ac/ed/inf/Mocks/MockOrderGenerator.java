@@ -0,0 +1,242 @@
+package uk.ac.ed.inf.Mocks;
+
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates deterministic orders in the same shape as the ILP REST service: for each day, a number of valid orders
+ * plus exactly one invalid order for each of the eight {@link OrderValidationCode}s that mark an order as invalid.
+ */
+public class MockOrderGenerator {
+    /**
+     * The first day which has orders.
+     */
+    public static final LocalDate             FIRST_DATE       = LocalDate.of(2023, 9, 1);
+    /**
+     * The number of consecutive days which have orders.
+     */
+    public static final int                   DAYS_WITH_ORDERS = 150;
+    /**
+     * The validation codes of the invalid orders generated for each day.
+     */
+    public static final OrderValidationCode[] INVALID_CODES    = {
+            OrderValidationCode.CARD_NUMBER_INVALID,
+            OrderValidationCode.EXPIRY_DATE_INVALID,
+            OrderValidationCode.CVV_INVALID,
+            OrderValidationCode.TOTAL_INCORRECT,
+            OrderValidationCode.PIZZA_NOT_DEFINED,
+            OrderValidationCode.MAX_PIZZA_COUNT_EXCEEDED,
+            OrderValidationCode.PIZZA_FROM_MULTIPLE_RESTAURANTS,
+            OrderValidationCode.RESTAURANT_CLOSED
+    };
+
+    /**
+     * Stores the restaurants that the orders are placed with.
+     */
+    private final Restaurant[] restaurants;
+    /**
+     * Stores the number of valid orders generated for each day.
+     */
+    private final int          validOrdersPerDay;
+
+    /**
+     * Creates an instance of the {@link MockOrderGenerator} class.
+     *
+     * @param restaurants       The restaurants that the orders are placed with.
+     * @param validOrdersPerDay The number of valid orders generated for each day.
+     */
+    public MockOrderGenerator(Restaurant[] restaurants, int validOrdersPerDay) {
+        this.restaurants = restaurants;
+        this.validOrdersPerDay = validOrdersPerDay;
+    }
+
+    /**
+     * Checks whether the given date has any orders.
+     *
+     * @param date The date to check.
+     *
+     * @return Whether the given date has any orders.
+     */
+    public static boolean hasOrders(LocalDate date) {
+        return !date.isBefore(FIRST_DATE) && date.isBefore(FIRST_DATE.plusDays(DAYS_WITH_ORDERS));
+    }
+
+    /**
+     * Generates every order, across all days.
+     *
+     * @return Every order.
+     */
+    public List<Order> generateAll() {
+        var orders = new ArrayList<Order>();
+        for (int i = 0; i < DAYS_WITH_ORDERS; i++)
+            orders.addAll(generate(FIRST_DATE.plusDays(i)));
+        return orders;
+    }
+
+    /**
+     * Generates the orders for the given date. The same date always yields the same orders.
+     *
+     * @param date The date to generate the orders for.
+     *
+     * @return The orders for the given date.
+     */
+    public List<Order> generate(LocalDate date) {
+        if (!hasOrders(date)) return List.of();
+        var random = new Random(date.toEpochDay());
+        var orders = new ArrayList<Order>();
+        for (int i = 0; i < validOrdersPerDay; i++)
+            orders.add(generateValidOrder(date, random));
+        for (OrderValidationCode code : INVALID_CODES)
+            orders.add(generateInvalidOrder(date, random, code));
+        Collections.shuffle(orders, random);
+        for (int i = 0; i < orders.size(); i++)
+            orders.get(i).setOrderNo(orderNumber(date, i));
+        return orders;
+    }
+
+    /**
+     * Generates a valid order for the given date.
+     *
+     * @param date   The date of the order.
+     * @param random The source of randomness.
+     *
+     * @return A valid order.
+     */
+    public Order generateValidOrder(LocalDate date, Random random) {
+        Restaurant[] open       = restaurantsByOpening(date.getDayOfWeek(), true);
+        Restaurant   restaurant = open[random.nextInt(open.length)];
+        var          pizzas     = new Pizza[1 + random.nextInt(SystemConstants.MAX_PIZZAS_PER_ORDER)];
+        for (int i = 0; i < pizzas.length; i++)
+            pizzas[i] = restaurant.menu()[random.nextInt(restaurant.menu().length)];
+        return new Order(null,
+                         date,
+                         OrderStatus.UNDEFINED,
+                         OrderValidationCode.UNDEFINED,
+                         total(pizzas),
+                         pizzas,
+                         new CreditCardInformation(cardNumber(random),
+                                                   String.format("%02d/%02d",
+                                                                 1 + random.nextInt(12),
+                                                                 date.getYear() % 100 + 1 + random.nextInt(4)
+                                                                ),
+                                                   String.format("%03d", random.nextInt(1000))
+                         )
+        );
+    }
+
+    /**
+     * Generates an order for the given date which fails validation with the given code.
+     *
+     * @param date   The date of the order.
+     * @param random The source of randomness.
+     * @param code   The validation code the order should fail with.
+     *
+     * @return An invalid order.
+     */
+    public Order generateInvalidOrder(LocalDate date, Random random, OrderValidationCode code) {
+        Order                 order = generateValidOrder(date, random);
+        CreditCardInformation card  = order.getCreditCardInformation();
+        Pizza[]               pizzas;
+        switch (code) {
+            case CARD_NUMBER_INVALID -> card.setCreditCardNumber("1" + card.getCreditCardNumber().substring(1));
+            case EXPIRY_DATE_INVALID -> card.setCreditCardExpiry(String.format("%02d/%02d",
+                                                                               1 + random.nextInt(12),
+                                                                               date.getYear() % 100 - 1
+                                                                              ));
+            case CVV_INVALID -> card.setCvv(card.getCvv().substring(1));
+            case TOTAL_INCORRECT -> order.setPriceTotalInPence(order.getPriceTotalInPence() + 1);
+            case PIZZA_NOT_DEFINED -> {
+                pizzas = order.getPizzasInOrder().clone();
+                pizzas[0] = new Pizza("Pizza-Surprise", 500);
+                order.setPizzasInOrder(pizzas);
+                order.setPriceTotalInPence(total(pizzas));
+            }
+            case MAX_PIZZA_COUNT_EXCEEDED -> {
+                pizzas = new Pizza[SystemConstants.MAX_PIZZAS_PER_ORDER + 1];
+                Arrays.fill(pizzas, order.getPizzasInOrder()[0]);
+                order.setPizzasInOrder(pizzas);
+                order.setPriceTotalInPence(total(pizzas));
+            }
+            case PIZZA_FROM_MULTIPLE_RESTAURANTS -> {
+                Restaurant[] open = restaurantsByOpening(date.getDayOfWeek(), true);
+                pizzas = new Pizza[] { open[0].menu()[0], open[open.length - 1].menu()[0] };
+                order.setPizzasInOrder(pizzas);
+                order.setPriceTotalInPence(total(pizzas));
+            }
+            case RESTAURANT_CLOSED -> {
+                Restaurant[] closed = restaurantsByOpening(date.getDayOfWeek(), false);
+                pizzas = new Pizza[] { closed[random.nextInt(closed.length)].menu()[0] };
+                order.setPizzasInOrder(pizzas);
+                order.setPriceTotalInPence(total(pizzas));
+            }
+            default -> throw new IllegalArgumentException("Cannot generate an order failing with " + code + ".");
+        }
+        return order;
+    }
+
+    /**
+     * Generates the order number of the order at the given position on the given date. Multiplying by an odd
+     * constant is a bijection on 32-bit integers, so no two orders share an order number.
+     *
+     * @param date  The date of the order.
+     * @param index The position of the order on the date.
+     *
+     * @return The order number.
+     */
+    public static String orderNumber(LocalDate date, int index) {
+        return String.format("%08X", (int) (date.toEpochDay() * 100_000 + index) * 0x9E3779B1);
+    }
+
+    /**
+     * Gets the restaurants which are either open or closed on the given day.
+     *
+     * @param day  The day of the week.
+     * @param open Whether to get the open restaurants, rather than the closed ones.
+     *
+     * @return The restaurants which are open or closed on the given day.
+     */
+    private Restaurant[] restaurantsByOpening(DayOfWeek day, boolean open) {
+        return Arrays
+                .stream(restaurants)
+                .filter(restaurant -> Arrays.asList(restaurant.openingDays()).contains(day) == open)
+                .toArray(Restaurant[]::new);
+    }
+
+    /**
+     * Generates a valid Visa or MasterCard credit card number.
+     *
+     * @param random The source of randomness.
+     *
+     * @return A credit card number.
+     */
+    private String cardNumber(Random random) {
+        var number = new StringBuilder().append("245".charAt(random.nextInt(3)));
+        while (number.length() < 16)
+            number.append(random.nextInt(10));
+        return number.toString();
+    }
+
+    /**
+     * Calculates the correct total for the given pizzas, including the order charge.
+     *
+     * @param pizzas The pizzas on the order.
+     *
+     * @return The correct total, in pence.
+     */
+    private int total(Pizza[] pizzas) {
+        return SystemConstants.ORDER_CHARGE_IN_PENCE + Arrays.stream(pizzas).mapToInt(Pizza::priceInPence).sum();
+    }
+}
@@ -0,0 +1,385 @@
+package uk.ac.ed.inf.Mocks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.ac.ed.inf.RestService.Endpoint;
+import uk.ac.ed.inf.RestService.Endpoints;
+import uk.ac.ed.inf.RestService.LocalDataSource;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An embedded stand-in for the ILP REST service, serving the {@link Endpoints} contract from the fixtures in
+ * {@code src/test/resources/fixtures} and from orders produced by a {@link MockOrderGenerator}. The latency and
+ * bandwidth of each endpoint can be configured, so that the behaviour of the system under slow or large responses
+ * can be measured without relying on an outside service.
+ */
+public class MockRESTServer implements AutoCloseable {
+    /**
+     * The number of valid orders served for each day by default, matching the ILP REST service.
+     */
+    public static final int DEFAULT_VALID_ORDERS_PER_DAY = 50;
+
+    /**
+     * The object mapper used to convert the served data to JSON.
+     */
+    private final ObjectMapper               objectMapper  = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * Stores the injected latency of each endpoint, in milliseconds.
+     */
+    private final Map<String, Long>          latencies     = new ConcurrentHashMap<>();
+    /**
+     * Stores the bandwidth cap of each endpoint, in bytes per second.
+     */
+    private final Map<String, Long>          bandwidths    = new ConcurrentHashMap<>();
+    /**
+     * Stores the responses which have already been serialized, keyed by request path.
+     */
+    private final Map<String, byte[]>        responses     = new ConcurrentHashMap<>();
+    /**
+     * Stores the number of requests made to each endpoint.
+     */
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    /**
+     * Stores the restaurants served by the {@code restaurants} endpoint.
+     */
+    private final Restaurant[]               restaurants;
+    /**
+     * Stores the central area served by the {@code centralArea} endpoint.
+     */
+    private final NamedRegion                centralArea;
+    /**
+     * Stores the no-fly zones served by the {@code noFlyZones} endpoint.
+     */
+    private final NamedRegion[]              noFlyZones;
+    /**
+     * Stores the executor which handles the requests.
+     */
+    private final ExecutorService            executor      = Executors.newCachedThreadPool();
+    /**
+     * Stores the underlying HTTP server.
+     */
+    private final HttpServer                 server;
+    /**
+     * Stores the generator of the orders served by the {@code orders} endpoint.
+     */
+    private volatile MockOrderGenerator      orderGenerator;
+    /**
+     * Stores the number of orders of each day which have arrived, and so are served.
+     */
+    private volatile int                     arrivedOrders = Integer.MAX_VALUE;
+
+    /**
+     * Creates and starts a {@link MockRESTServer} serving the default number of orders per day.
+     *
+     * @throws IOException If the fixtures cannot be read or the server cannot be started.
+     */
+    public MockRESTServer() throws IOException {
+        this(DEFAULT_VALID_ORDERS_PER_DAY);
+    }
+
+    /**
+     * Creates and starts a {@link MockRESTServer} on an ephemeral port of the loopback interface.
+     *
+     * @param validOrdersPerDay The number of valid orders served for each day, which controls the payload size of the
+     *                          {@code orders} endpoint.
+     *
+     * @throws IOException If the fixtures cannot be read or the server cannot be started.
+     */
+    public MockRESTServer(int validOrdersPerDay) throws IOException {
+        restaurants = readFixture("restaurants.json", Restaurant[].class);
+        centralArea = readFixture("centralArea.json", NamedRegion.class);
+        noFlyZones = readFixture("noFlyZones.json", NamedRegion[].class);
+        orderGenerator = new MockOrderGenerator(restaurants, validOrdersPerDay);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the base URL of the server, to be passed to the {@link uk.ac.ed.inf.RestService.RESTManager}.
+     *
+     * @return The base URL of the server.
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Gets the restaurants served by the server.
+     *
+     * @return The restaurants.
+     */
+    public Restaurant[] getRestaurants() {
+        return restaurants;
+    }
+
+    /**
+     * Gets the central area served by the server.
+     *
+     * @return The central area.
+     */
+    public NamedRegion getCentralArea() {
+        return centralArea;
+    }
+
+    /**
+     * Gets the no-fly zones served by the server.
+     *
+     * @return The no-fly zones.
+     */
+    public NamedRegion[] getNoFlyZones() {
+        return noFlyZones;
+    }
+
+    /**
+     * Gets the generator of the orders served by the server.
+     *
+     * @return The order generator.
+     */
+    public MockOrderGenerator getOrderGenerator() {
+        return orderGenerator;
+    }
+
+    /**
+     * Sets the number of valid orders served for each day.
+     *
+     * @param validOrdersPerDay The number of valid orders served for each day.
+     */
+    public void setValidOrdersPerDay(int validOrdersPerDay) {
+        orderGenerator = new MockOrderGenerator(restaurants, validOrdersPerDay);
+        responses.clear();
+    }
+
+    /**
+     * Limits the orders served for each day to the first of them, as if the rest have not arrived yet. Raising the
+     * limit makes more orders arrive, in the same way as they do over the course of a day.
+     *
+     * @param arrivedOrders The number of orders of each day which have arrived.
+     */
+    public void setArrivedOrders(int arrivedOrders) {
+        this.arrivedOrders = arrivedOrders;
+        responses.clear();
+    }
+
+    /**
+     * Sets the latency injected before each response from the given endpoint.
+     *
+     * @param endpoint The endpoint to delay.
+     * @param millis   The latency, in milliseconds.
+     */
+    public void setLatency(Endpoint<?> endpoint, long millis) {
+        latencies.put(endpoint.url(), millis);
+    }
+
+    /**
+     * Caps the rate at which responses from the given endpoint are sent.
+     *
+     * @param endpoint       The endpoint to throttle.
+     * @param bytesPerSecond The bandwidth cap, in bytes per second.
+     */
+    public void setBandwidth(Endpoint<?> endpoint, long bytesPerSecond) {
+        bandwidths.put(endpoint.url(), bytesPerSecond);
+    }
+
+    /**
+     * Gets the number of requests which have been made to the given endpoint.
+     *
+     * @param endpoint The endpoint.
+     *
+     * @return The number of requests made to the endpoint.
+     */
+    public int getRequestCount(Endpoint<?> endpoint) {
+        return requestCounts.computeIfAbsent(endpoint.url(), __ -> new AtomicInteger()).get();
+    }
+
+    /**
+     * Gets the size of the response body served for the given request path.
+     *
+     * @param path The request path, relative to the base URL, e.g. {@code orders/2023-09-01}.
+     *
+     * @return The size of the response body, in bytes, or -1 if the path is not served.
+     */
+    public int getPayloadSize(String path) {
+        byte[] body = respond(path);
+        return body == null ? -1 : body.length;
+    }
+
+    /**
+     * Writes the data served by the server to a directory, in the layout read by a {@link LocalDataSource}: a JSON file
+     * for each endpoint, and a file of newline-delimited orders for each date.
+     *
+     * @param directory The directory, which is created if it does not exist.
+     * @param dates     The dates to write the orders of.
+     *
+     * @throws IOException If the files cannot be written.
+     */
+    public void writeLocalData(Path directory, List<LocalDate> dates) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writeValue(directory.resolve(Endpoints.RESTAURANTS.url() + ".json").toFile(), restaurants);
+        objectMapper.writeValue(directory.resolve(Endpoints.CENTRAL_AREA.url() + ".json").toFile(), centralArea);
+        objectMapper.writeValue(directory.resolve(Endpoints.NO_FLY_ZONES.url() + ".json").toFile(), noFlyZones);
+        for (LocalDate date : dates) {
+            Path file = directory.resolve(Endpoints.ORDERS.url() + "-" + date + LocalDataSource.ORDERS_EXTENSION);
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                for (Order order : orderGenerator.generate(date))
+                    writer.write(objectMapper.writeValueAsString(order) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handles a request to the server.
+     *
+     * @param exchange The request and response.
+     *
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path     = exchange.getRequestURI().getPath().substring(1);
+            String endpoint = path.contains("/") ? path.substring(0, path.indexOf('/')) : path;
+            requestCounts.computeIfAbsent(endpoint, __ -> new AtomicInteger()).incrementAndGet();
+
+            byte[] body = respond(path);
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            long latency = latencies.getOrDefault(endpoint, 0L);
+            if (latency > 0) Thread.sleep(latency);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            send(exchange.getResponseBody(), body, bandwidths.getOrDefault(endpoint, 0L));
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the response body, sleeping between chunks so that the given bandwidth is not exceeded.
+     *
+     * @param out            The stream to write to.
+     * @param body           The response body.
+     * @param bytesPerSecond The bandwidth cap, in bytes per second, or 0 for no cap.
+     *
+     * @throws IOException          If the body cannot be written.
+     * @throws InterruptedException If the thread is interrupted while throttling.
+     */
+    private void send(OutputStream out, byte[] body, long bytesPerSecond) throws IOException, InterruptedException {
+        if (bytesPerSecond <= 0) {
+            out.write(body);
+            return;
+        }
+        // Send the body in chunks of 1/20th of a second each, pacing them against the start time.
+        int  chunkSize = (int) Math.max(1, bytesPerSecond / 20);
+        long startTime = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            long dueNanos = (offset + length) * 1_000_000_000L / bytesPerSecond;
+            long waitNanos = dueNanos - (System.nanoTime() - startTime);
+            if (waitNanos > 0) Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /**
+     * Builds, or fetches from the cache, the response body for the given request path.
+     *
+     * @param path The request path, relative to the base URL.
+     *
+     * @return The response body, or null if the path is not served.
+     */
+    private byte[] respond(String path) {
+        byte[] cached = responses.get(path);
+        if (cached != null) return cached;
+        Object content = content(path);
+        if (content == null) return null;
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(content);
+            responses.put(path, body);
+            return body;
+        } catch (IOException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    /**
+     * Gets the data served for the given request path.
+     *
+     * @param path The request path, relative to the base URL.
+     *
+     * @return The data served, or null if the path is not served.
+     */
+    private Object content(String path) {
+        if (path.equals(Endpoints.IS_ALIVE.url())) return true;
+        if (path.equals(Endpoints.RESTAURANTS.url())) return restaurants;
+        if (path.equals(Endpoints.CENTRAL_AREA.url())) return centralArea;
+        if (path.equals(Endpoints.NO_FLY_ZONES.url())) return noFlyZones;
+        if (path.equals(Endpoints.ORDERS.url())) return orderGenerator.generateAll().toArray(Order[]::new);
+        if (path.startsWith(Endpoints.ORDERS.url() + "/")) {
+            try {
+                LocalDate date = LocalDate.parse(path.substring(Endpoints.ORDERS.url().length() + 1));
+                List<Order> orders = orderGenerator.generate(date);
+                return orders.subList(0, Math.min(arrivedOrders, orders.size())).toArray(Order[]::new);
+            } catch (DateTimeParseException err) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a fixture from the test resources.
+     *
+     * @param name  The name of the fixture file.
+     * @param clazz The class of the data in the fixture.
+     * @param <T>   The type of the data in the fixture.
+     *
+     * @return The data in the fixture.
+     *
+     * @throws IOException If the fixture cannot be read.
+     */
+    private <T> T readFixture(String name, Class<T> clazz) throws IOException {
+        try (InputStream in = MockRESTServer.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IOException("Missing fixture " + name + ".");
+            return objectMapper.readValue(in, clazz);
+        }
+    }
+}
@@ -1,40 +1,64 @@
 package uk.ac.ed.inf.SystemTests;
 
 import junit.framework.TestCase;
+import uk.ac.ed.inf.Archive.FlightPathArchive;
+import uk.ac.ed.inf.Checkpoint.BackfillJournal;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Checkpoint.ShardPartial;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.Output.OutputReader;
 import uk.ac.ed.inf.PizzaDronz;
+import uk.ac.ed.inf.RestService.Endpoints;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class PizzaDronzTest extends TestCase {
     private final String emptyDate = "2023-01-01";
 
     private final String validDate = "2023-09-01";
 
+    private MockRESTServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockRESTServer();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.close();
+    }
+
     private void resetResultFilesDirectory() {
         var directory = new File("resultfiles");
         for (var file : Objects.requireNonNull(directory.listFiles()))
             file.delete();
     }
 
-    private void runSystem(String date) {
+    private void runSystem(String date, String... options) {
         resetResultFilesDirectory();
-        PizzaDronz.main(new String[] { date, "https://ilp-rest.azurewebsites.net" });
+        var args = new String[options.length + 2];
+        args[0] = date;
+        args[1] = server.getBaseUrl();
+        System.arraycopy(options, 0, args, 2, options.length);
+        PizzaDronz.main(args);
     }
 
     private String readFile(String filename) {
-        try (var br = new BufferedReader(new FileReader("resultfiles/" + filename))) {
-            StringBuilder sb = new StringBuilder();
-            String        line = br.readLine();
-            while (line != null) {
-                sb.append(line);
-                sb.append(System.lineSeparator());
-                line = br.readLine();
-            }
-            return sb.toString().replaceAll("\\s+", "");
+        try {
+            return OutputReader.readString(Path.of("resultfiles", filename)).replaceAll("\\s+", "");
         } catch (Exception e) {
             return "";
         }
@@ -55,6 +79,7 @@ public class PizzaDronzTest extends TestCase {
         runSystem(emptyDate);
         var directory = new File("resultfiles");
         var files     = Objects.requireNonNull(directory.listFiles());
+        Arrays.sort(files);
         assertEquals("deliveries-" + emptyDate + ".json", files[0].getName());
         assertEquals("drone-" + emptyDate + ".geojson", files[1].getName());
         assertEquals("flightpath-" + emptyDate + ".json", files[2].getName());
@@ -77,8 +102,194 @@ public class PizzaDronzTest extends TestCase {
         assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 58);
         assertEquals(countRegexMatches("\\[-?\\d+(\\.\\d+)?,\\d+(\\.\\d+)?\\]",
                                        readFile("drone-" + validDate + ".geojson")
-                                      ), 5484);
-        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("flightpath-" + validDate + ".json")), 5484);
+                                      ), 6042);
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("flightpath-" + validDate + ".json")), 6042);
+        resetResultFilesDirectory();
+    }
+
+    public void testCompressedFileContents() {
+        runSystem(validDate, "--gzip=flightpath,drone");
+        var files = Objects.requireNonNull(new File("resultfiles").listFiles());
+        Arrays.sort(files);
+        assertEquals("deliveries-" + validDate + ".json", files[0].getName());
+        assertEquals("drone-" + validDate + ".geojson.gz", files[1].getName());
+        assertEquals("flightpath-" + validDate + ".json.gz", files[2].getName());
+        assertEquals(6042, countRegexMatches("\\[-?\\d+(\\.\\d+)?,\\d+(\\.\\d+)?\\]",
+                                             readFile("drone-" + validDate + ".geojson.gz")));
+        assertEquals(6042, countRegexMatches("\\{[^\\}]+\\}", readFile("flightpath-" + validDate + ".json.gz")));
+        resetResultFilesDirectory();
+    }
+
+    public void testArchive() throws IOException {
+        runSystem(validDate, "--archive");
+        Path              file    = Path.of("resultfiles", FlightPathArchive.fileName(LocalDate.parse(validDate)));
+        FlightPathArchive archive = FlightPathArchive.open(file);
+        FlightPathNode[]  moves   = archive.readAll();
+        assertEquals(6042, moves.length);
+        assertTrue(Files.size(file) < Files.size(Path.of("resultfiles", "flightpath-" + validDate + ".json")) / 10);
+        assertTrue(Arrays.equals(Arrays.stream(moves)
+                                       .filter(move -> move.orderNo().equals(moves[0].orderNo()))
+                                       .toArray(FlightPathNode[]::new),
+                                 archive.find(moves[0].orderNo())));
+        resetResultFilesDirectory();
+    }
+
+    public void testStreamedFileContents() throws IOException {
+        runSystem(validDate, "--ndjson");
+        var files = Objects.requireNonNull(new File("resultfiles").listFiles());
+        Arrays.sort(files);
+        assertEquals(3, files.length);
+        assertEquals("deliveries-" + validDate + ".ndjson", files[0].getName());
+        assertEquals("drone-" + validDate + ".geojson", files[1].getName());
+        assertEquals("flightpath-" + validDate + ".ndjson", files[2].getName());
+        assertEquals(58, Files.readAllLines(files[0].toPath()).size());
+        // Every streamed move is also in the drone GeoJSON file, which is written from the same flight path.
+        assertEquals(countRegexMatches("\\[-?\\d+(\\.\\d+)?,\\d+(\\.\\d+)?\\]",
+                                       readFile("drone-" + validDate + ".geojson")
+                                      ), Files.readAllLines(files[2].toPath()).size());
+        resetResultFilesDirectory();
+    }
+
+    public void testHeatmap() throws IOException {
+        runSystem(validDate, "--heatmap");
+        List<String> raster = Files.readAllLines(Path.of("resultfiles", "traffic.asc"));
+        long         total  = 0;
+        for (String row : raster.subList(5, raster.size()))
+            for (String count : row.split(" "))
+                total += Long.parseLong(count);
+        assertTrue(total > 0 && total <= 6042);
+        assertTrue(readFile("traffic.geojson").startsWith("{\"type\":\"FeatureCollection\""));
+        resetResultFilesDirectory();
+    }
+
+    public void testBatch() {
+        runSystem("2023-08-31..2023-09-02", "--parallelism=2");
+        var files = Objects.requireNonNull(new File("resultfiles").listFiles());
+        Arrays.sort(files);
+        assertEquals(10, files.length);
+        for (String date : new String[] { "2023-08-31", validDate, "2023-09-02" }) {
+            assertTrue(new File("resultfiles", "deliveries-" + date + ".json").exists());
+            assertTrue(new File("resultfiles", "drone-" + date + ".geojson").exists());
+            assertTrue(new File("resultfiles", "flightpath-" + date + ".json").exists());
+        }
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 58);
+
+        String summary = readFile("summary-2023-08-31-2023-09-02.csv");
+        assertTrue(summary.startsWith(DateSummary.CSV_HEADER));
+        assertTrue(summary.contains("2023-09-01,58,"));
+        resetResultFilesDirectory();
+    }
+
+    public void testIncremental() throws IOException {
+        server.setValidOrdersPerDay(20);
+        runSystem(validDate, "--incremental");
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 28);
+        assertTrue(new File("resultfiles", DayCheckpoint.fileName(LocalDate.parse(validDate))).exists());
+
+        // The second run only processes the orders which were not served to the first.
+        server.setValidOrdersPerDay(50);
+        String[] args = { validDate, server.getBaseUrl(), "--incremental" };
+        PizzaDronz.main(args);
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 58);
+        assertEquals(58, DayCheckpoint.load(Path.of("resultfiles"), LocalDate.parse(validDate)).size());
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("flightpath-" + validDate + ".json")),
+                     DayCheckpoint.load(Path.of("resultfiles"), LocalDate.parse(validDate)).getFlightPath().length);
+
+        // With no new orders, the output files are left as they are.
+        Path     deliveries = Path.of("resultfiles", "deliveries-" + validDate + ".json");
+        FileTime modified   = Files.getLastModifiedTime(deliveries);
+        PizzaDronz.main(args);
+        assertEquals(modified, Files.getLastModifiedTime(deliveries));
+        resetResultFilesDirectory();
+    }
+
+    public void testResume() throws IOException {
+        // Stand in for a run which stopped after writing the first date and planning the second.
+        resetResultFilesDirectory();
+        LocalDate first = LocalDate.parse("2023-08-31");
+        new DayCheckpoint(Path.of("resultfiles"), first).save();
+        new DayCheckpoint(Path.of("resultfiles"), LocalDate.parse(validDate)).save();
+        try (var journal = BackfillJournal.open(Path.of("resultfiles"))) {
+            journal.record(first, BackfillJournal.Phase.WRITTEN);
+            journal.record(LocalDate.parse(validDate), BackfillJournal.Phase.PLANNED);
+            journal.record(first.plusDays(2), BackfillJournal.Phase.FETCHED);
+        }
+
+        String[] args = { "2023-08-31..2023-09-02", server.getBaseUrl(), "--resume" };
+        PizzaDronz.main(args);
+        assertEquals(1, server.getRequestCount(Endpoints.ORDERS));
+        assertFalse(new File("resultfiles", "deliveries-2023-08-31.json").exists());
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 0);
+        assertTrue(new File("resultfiles", "deliveries-2023-09-02.json").exists());
+        assertTrue(readFile("summary-2023-08-31-2023-09-02.csv").contains("2023-09-01,0,"));
+
+        // Once every date is written, the journal and checkpoints are removed so the next run starts afresh.
+        assertFalse(new File("resultfiles", BackfillJournal.FILE_NAME).exists());
+        assertFalse(new File("resultfiles", DayCheckpoint.fileName(first)).exists());
+        PizzaDronz.main(args);
+        assertEquals(4, server.getRequestCount(Endpoints.ORDERS));
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 58);
+        assertEquals(10, Objects.requireNonNull(new File("resultfiles").listFiles()).length);
+        resetResultFilesDirectory();
+    }
+
+    public void testShardedAcrossProcesses() throws Exception {
+        runSystem(validDate);
+        String deliveries = readFile("deliveries-" + validDate + ".json");
+        String flightPath = readFile("flightpath-" + validDate + ".json");
+
+        // Plan each shard in a JVM of its own, sharing a directory, then merge the shards here.
+        Path        shards  = Files.createTempDirectory("shards");
+        String      java    = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var         workers = new Process[2];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                            PizzaDronz.class.getName(), validDate, server.getBaseUrl(),
+                                            "--shard=" + i + "/" + workers.length, "--shard-dir=" + shards)
+                    .inheritIO()
+                    .start();
+        }
+        for (Process worker : workers)
+            assertEquals(0, worker.waitFor());
+        runSystem(validDate, "--merge-shards=" + workers.length, "--shard-dir=" + shards);
+
+        assertEquals(deliveries, readFile("deliveries-" + validDate + ".json"));
+        assertEquals(flightPath, readFile("flightpath-" + validDate + ".json"));
+        assertTrue(new File("resultfiles", "drone-" + validDate + ".geojson").exists());
+        for (int i = 0; i < workers.length; i++)
+            Files.delete(shards.resolve(ShardPartial.fileName(LocalDate.parse(validDate), i, workers.length)));
+        Files.delete(shards);
+        resetResultFilesDirectory();
+    }
+
+    public void testWatchPastDate() {
+        // A date which is over cannot get new orders, so it is polled once and the watch stops.
+        runSystem(validDate, "--watch=0.1");
+        assertEquals(countRegexMatches("\\{[^\\}]+\\}", readFile("deliveries-" + validDate + ".json")), 58);
+        assertEquals(1, server.getRequestCount(Endpoints.ORDERS));
+        resetResultFilesDirectory();
+    }
+
+    public void testLocalDataSource() throws IOException {
+        runSystem(validDate);
+        String deliveries = readFile("deliveries-" + validDate + ".json");
+        String flightPath = readFile("flightpath-" + validDate + ".json");
+
+        // Read the same data from local files, without making any requests to the server.
+        Path data = Files.createTempDirectory("local-data");
+        server.writeLocalData(data, List.of(LocalDate.parse(validDate)));
+        int requests = server.getRequestCount(Endpoints.ORDERS);
+        resetResultFilesDirectory();
+        PizzaDronz.main(new String[] { validDate, data.toUri().toString() });
+
+        assertEquals(requests, server.getRequestCount(Endpoints.ORDERS));
+        assertEquals(deliveries, readFile("deliveries-" + validDate + ".json"));
+        assertEquals(flightPath, readFile("flightpath-" + validDate + ".json"));
+        try (Stream<Path> files = Files.list(data)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(data);
         resetResultFilesDirectory();
     }
 
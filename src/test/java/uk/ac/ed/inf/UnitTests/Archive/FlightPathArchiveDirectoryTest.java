@@ -0,0 +1,76 @@
+package uk.ac.ed.inf.UnitTests.Archive;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Archive.ArchivedFlightPath;
+import uk.ac.ed.inf.Archive.FlightPathArchive;
+import uk.ac.ed.inf.Archive.FlightPathArchiveDirectory;
+import uk.ac.ed.inf.Archive.FlightPathArchiveWriter;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+public class FlightPathArchiveDirectoryTest extends TestCase {
+    private final LocalDate start = LocalDate.of(2023, 9, 1);
+
+    private Path                       directory;
+    private FlightPathArchiveDirectory archives;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("flight-path-archive-directory-test");
+        archives = new FlightPathArchiveDirectory(directory);
+        // One order a day, on every other day.
+        for (int day = 0; day < 10; day += 2) {
+            LocalDate date = start.plusDays(day);
+            FlightPathArchiveWriter.write(directory.resolve(FlightPathArchive.fileName(date)), date,
+                                          new FlightPathNode[] { generateNode("order" + day, day) });
+        }
+        Files.writeString(directory.resolve("flightpath-" + start + ".json"), "[ ]");
+        Files.writeString(directory.resolve("flightpath-latest.bin"), "");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    private FlightPathNode generateNode(String orderNo, int day) {
+        var position = new LngLat(-3.19 + day * 0.001, 55.94);
+        return new FlightPathNode(orderNo, position, 999, position);
+    }
+
+    public void testGetDates() throws IOException {
+        assertEquals(List.of(start, start.plusDays(2), start.plusDays(4), start.plusDays(6), start.plusDays(8)),
+                     archives.getDates());
+        assertEquals(List.of(), new FlightPathArchiveDirectory(directory.resolve("missing")).getDates());
+    }
+
+    public void testReadRange() throws IOException {
+        SortedMap<LocalDate, FlightPathNode[]> flightPaths = archives.readRange(start.plusDays(1), start.plusDays(6));
+        assertEquals(List.of(start.plusDays(2), start.plusDays(4), start.plusDays(6)),
+                     List.copyOf(flightPaths.keySet()));
+        assertEquals(generateNode("order4", 4), flightPaths.get(start.plusDays(4))[0]);
+    }
+
+    public void testFind() throws IOException {
+        ArchivedFlightPath found = archives.find("order6");
+        assertEquals(start.plusDays(6), found.date());
+        assertEquals(generateNode("order6", 6), found.moves()[0]);
+
+        assertNull(archives.find("order6", start, start.plusDays(5)));
+        assertNotNull(archives.find("order6", start.plusDays(6), start.plusDays(6)));
+        assertNull(archives.find("order1"));
+        assertNull(archives.open(start.plusDays(1)));
+    }
+}
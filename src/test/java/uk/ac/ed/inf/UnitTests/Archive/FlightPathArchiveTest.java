@@ -0,0 +1,173 @@
+package uk.ac.ed.inf.UnitTests.Archive;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Archive.FlightPathArchive;
+import uk.ac.ed.inf.Archive.FlightPathArchiveWriter;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.FlightPaths.LngLatHandler;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class FlightPathArchiveTest extends TestCase {
+    private final LocalDate     date    = LocalDate.of(2023, 9, 1);
+    private final LngLatHandler handler = new LngLatHandler();
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempDirectory("flight-path-archive-test").resolve(FlightPathArchive.fileName(date));
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.delete(file.getParent());
+    }
+
+    private List<FlightPathNode> generateOrderPath(String orderNo, Random random) {
+        // Builds the path of an order the way the flight path generator does: the path to Appleton Tower reversed,
+        // a hover, the path itself, and another hover.
+        var    toAppleton = new ArrayList<FlightPathNode>();
+        LngLat position   = new LngLat(-3.19 + random.nextDouble() * 0.01, 55.94 + random.nextDouble() * 0.01);
+        for (int i = 0; i < 20 + random.nextInt(30); i++) {
+            double angle = 22.5 * random.nextInt(16);
+            LngLat next  = handler.nextPosition(position, angle);
+            toAppleton.add(new FlightPathNode(orderNo, position, angle, next));
+            position = next;
+        }
+        var path = new ArrayList<FlightPathNode>();
+        for (int i = toAppleton.size() - 1; i >= 0; i--)
+            path.add(new FlightPathNode((toAppleton.get(i).angle() + 180) % 360, toAppleton.get(i)));
+        path.add(new FlightPathNode(orderNo, toAppleton.get(0).fromCoordinate(), 999,
+                                    toAppleton.get(0).toCoordinate()));
+        path.addAll(toAppleton);
+        path.add(new FlightPathNode(orderNo, path.get(0).fromCoordinate(), 999, path.get(0).toCoordinate()));
+        return path;
+    }
+
+    private FlightPathNode[] generateFlightPath(int orders) {
+        var random = new Random(0);
+        var path   = new ArrayList<FlightPathNode>();
+        for (int i = 0; i < orders; i++)
+            path.addAll(generateOrderPath(String.format("%08X", random.nextInt()), random));
+        return path.toArray(FlightPathNode[]::new);
+    }
+
+    public void testRoundTrip() throws IOException {
+        FlightPathNode[] flightPath = generateFlightPath(100);
+        FlightPathArchiveWriter.write(file, date, flightPath);
+        FlightPathArchive archive = FlightPathArchive.open(file);
+        assertEquals(date, archive.getDate());
+        assertEquals(flightPath.length, archive.getMoveCount());
+        assertTrue(Arrays.equals(flightPath, archive.readAll()));
+    }
+
+    public void testFindOrder() throws IOException {
+        FlightPathNode[] flightPath = generateFlightPath(100);
+        FlightPathArchiveWriter.write(file, date, flightPath);
+        FlightPathArchive archive = FlightPathArchive.open(file);
+        for (String orderNo : Arrays.stream(flightPath).map(FlightPathNode::orderNo).distinct().toList()) {
+            FlightPathNode[] expected = Arrays.stream(flightPath)
+                                              .filter(node -> node.orderNo().equals(orderNo))
+                                              .toArray(FlightPathNode[]::new);
+            assertTrue(archive.contains(orderNo));
+            assertTrue(Arrays.equals(expected, archive.find(orderNo)));
+        }
+        assertFalse(archive.contains("00000000"));
+        assertEquals(0, archive.find("00000000").length);
+        assertEquals(0, archive.find("").length);
+        assertEquals(0, archive.find("0000000000000000").length);
+    }
+
+    public void testOrderSplitIntoRuns() throws IOException {
+        var from = new LngLat(-3.19, 55.94);
+        var to   = handler.nextPosition(from, 90);
+        FlightPathNode[] flightPath = {
+                new FlightPathNode("B", from, 90, to),
+                new FlightPathNode("A", to, 270, from),
+                new FlightPathNode("B", from, 45, to),
+                new FlightPathNode("AB", to, 999, to)
+        };
+        FlightPathArchiveWriter.write(file, date, flightPath);
+        FlightPathArchive archive = FlightPathArchive.open(file);
+        assertTrue(Arrays.equals(new FlightPathNode[] { flightPath[0], flightPath[2] }, archive.find("B")));
+        assertTrue(Arrays.equals(new FlightPathNode[] { flightPath[1] }, archive.find("A")));
+        assertTrue(Arrays.equals(new FlightPathNode[] { flightPath[3] }, archive.find("AB")));
+        assertTrue(Arrays.equals(flightPath, archive.readAll()));
+    }
+
+    public void testUnusualMovesAreExact() throws IOException {
+        var from = new LngLat(-3.19, 55.94);
+        FlightPathNode[] flightPath = {
+                new FlightPathNode(null, from, 12.345, new LngLat(1, 2)),
+                new FlightPathNode(null, new LngLat(-0.0, Double.NaN), -0.0, new LngLat(-0.0, Double.NaN)),
+                new FlightPathNode("1", from, 360, from),
+                new FlightPathNode("1", from, Double.NaN, new LngLat(Double.MAX_VALUE, Double.MIN_VALUE))
+        };
+        FlightPathArchiveWriter.write(file, date, flightPath);
+        FlightPathNode[] read = FlightPathArchive.open(file).readAll();
+        for (int i = 0; i < flightPath.length; i++) {
+            assertEquals(flightPath[i].orderNo(), read[i].orderNo());
+            assertEquals(Double.doubleToRawLongBits(flightPath[i].angle()),
+                         Double.doubleToRawLongBits(read[i].angle()));
+            assertEquals(flightPath[i].fromCoordinate(), read[i].fromCoordinate());
+            assertEquals(flightPath[i].toCoordinate(), read[i].toCoordinate());
+        }
+    }
+
+    public void testArchiveIsCompact() throws IOException {
+        FlightPathNode[] flightPath = generateFlightPath(100);
+        FlightPathArchiveWriter.write(file, date, flightPath);
+        // Moves out to the restaurant are stored with an anchor each, and moves back in a single byte.
+        assertTrue(Files.size(file) < flightPath.length * 12L);
+    }
+
+    public void testGeneratedMovesAreOneByte() throws IOException {
+        // Consecutive moves made as the flight path generator makes them only need their code byte.
+        var    random     = new Random(2);
+        var    flightPath = new FlightPathNode[1000];
+        LngLat position   = new LngLat(-3.19, 55.94);
+        for (int i = 0; i < flightPath.length; i++) {
+            double angle = 22.5 * random.nextInt(16);
+            LngLat next  = handler.nextPosition(position, angle);
+            flightPath[i] = new FlightPathNode("1", position, angle, next);
+            position = next;
+        }
+        FlightPathArchiveWriter.write(file, date, flightPath);
+        assertTrue(Files.size(file) < flightPath.length + 128);
+    }
+
+    public void testEmptyFlightPath() throws IOException {
+        FlightPathArchiveWriter.write(file, date, new FlightPathNode[0]);
+        FlightPathArchive archive = FlightPathArchive.open(file);
+        assertEquals(0, archive.readAll().length);
+        assertEquals(0, archive.find("1").length);
+    }
+
+    public void testRewriteReplacesArchive() throws IOException {
+        FlightPathArchiveWriter.write(file, date, generateFlightPath(10));
+        FlightPathArchive old = FlightPathArchive.open(file);
+        FlightPathArchiveWriter.write(file, date, new FlightPathNode[0]);
+        // The old archive stays mapped and readable after it is replaced.
+        assertEquals(old.getMoveCount(), old.readAll().length);
+        assertEquals(0, FlightPathArchive.open(file).getMoveCount());
+    }
+
+    public void testRejectsOtherFiles() throws IOException {
+        Files.writeString(file, "[ ]");
+        try {
+            FlightPathArchive.open(file);
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+}
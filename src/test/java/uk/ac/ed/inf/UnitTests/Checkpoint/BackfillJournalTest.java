@@ -0,0 +1,116 @@
+package uk.ac.ed.inf.UnitTests.Checkpoint;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Checkpoint.BackfillJournal;
+import uk.ac.ed.inf.Checkpoint.BackfillJournal.Phase;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BackfillJournalTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    public void testEmpty() throws IOException {
+        try (var journal = BackfillJournal.open(directory)) {
+            assertNull(journal.getPhase(date));
+            assertFalse(journal.isDone(date, Phase.FETCHED));
+            assertEquals(directory.resolve(BackfillJournal.FILE_NAME), journal.getPath());
+        }
+    }
+
+    public void testReplay() throws IOException {
+        try (var journal = BackfillJournal.open(directory)) {
+            journal.record(date, Phase.FETCHED);
+            journal.record(date, Phase.VALIDATED);
+            journal.record(date.plusDays(1), Phase.FETCHED);
+            journal.record(date, Phase.PLANNED);
+        }
+        try (var journal = BackfillJournal.open(directory)) {
+            assertEquals(Phase.PLANNED, journal.getPhase(date));
+            assertTrue(journal.isDone(date, Phase.VALIDATED));
+            assertFalse(journal.isDone(date, Phase.WRITTEN));
+            assertEquals(Phase.FETCHED, journal.getPhase(date.plusDays(1)));
+
+            // Starting a date again does not forget the phases it already finished.
+            journal.record(date, Phase.FETCHED);
+            assertEquals(Phase.PLANNED, journal.getPhase(date));
+            journal.record(date, Phase.WRITTEN);
+        }
+        try (var journal = BackfillJournal.open(directory)) {
+            assertEquals(Phase.WRITTEN, journal.getPhase(date));
+        }
+    }
+
+    public void testTornLine() throws IOException {
+        try (var journal = BackfillJournal.open(directory)) {
+            journal.record(date, Phase.FETCHED);
+        }
+        Path path = directory.resolve(BackfillJournal.FILE_NAME);
+        Files.writeString(path, date + " PLAN", StandardOpenOption.APPEND);
+
+        try (var journal = BackfillJournal.open(directory)) {
+            assertEquals(Phase.FETCHED, journal.getPhase(date));
+            journal.record(date, Phase.VALIDATED);
+        }
+        assertEquals(date + " FETCHED\n" + date + " VALIDATED\n", Files.readString(path));
+    }
+
+    public void testCorrupt() throws IOException {
+        Files.writeString(directory.resolve(BackfillJournal.FILE_NAME), date + " FETCHED\nnot a phase\n");
+        try {
+            BackfillJournal.open(directory).close();
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void testDelete() throws IOException {
+        var journal = BackfillJournal.open(directory);
+        journal.record(date, Phase.WRITTEN);
+        journal.delete();
+        assertFalse(Files.exists(journal.getPath()));
+    }
+
+    public void testFinish() throws IOException {
+        Path checkpoint = directory.resolve(DayCheckpoint.fileName(date));
+        Files.writeString(checkpoint, "");
+        try (var journal = BackfillJournal.open(directory)) {
+            journal.record(date, Phase.WRITTEN);
+            journal.record(date.plusDays(1), Phase.PLANNED);
+            // The journal is kept while any date of the run is unwritten.
+            assertFalse(journal.finish(List.of(date, date.plusDays(1)), false));
+            assertTrue(Files.exists(journal.getPath()));
+
+            assertTrue(journal.finish(List.of(date), true));
+            assertFalse(Files.exists(journal.getPath()));
+            assertTrue(Files.exists(checkpoint));
+        }
+        try (var journal = BackfillJournal.open(directory)) {
+            journal.record(date, Phase.WRITTEN);
+            assertTrue(journal.finish(List.of(date), false));
+            assertFalse(Files.exists(checkpoint));
+        }
+    }
+}
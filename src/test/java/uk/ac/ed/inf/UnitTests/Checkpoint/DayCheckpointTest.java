@@ -0,0 +1,102 @@
+package uk.ac.ed.inf.UnitTests.Checkpoint;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class DayCheckpointTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoint");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    private Order order(String orderNo, OrderStatus status, OrderValidationCode code) {
+        var order = new Order();
+        order.setOrderNo(orderNo);
+        order.setOrderStatus(status);
+        order.setOrderValidationCode(code);
+        order.setPriceTotalInPence(1100);
+        return order;
+    }
+
+    private List<FlightPathNode> moves(String orderNo) {
+        var start = new LngLat(-3.186874, 55.944494);
+        var next  = new LngLat(-3.186724, 55.944494);
+        return List.of(new FlightPathNode(orderNo, start, 0, next),
+                       new FlightPathNode(orderNo, next, 999, next),
+                       new FlightPathNode(orderNo, next, 180, start));
+    }
+
+    public void testMissing() throws IOException {
+        DayCheckpoint checkpoint = DayCheckpoint.load(directory, date);
+        assertFalse(checkpoint.isSaved());
+        assertEquals(0, checkpoint.size());
+        assertEquals(directory.resolve("checkpoint-2023-09-01.bin.gz"), checkpoint.getPath());
+    }
+
+    public void testRoundTrip() throws IOException {
+        var checkpoint = new DayCheckpoint(directory, date);
+        checkpoint.add(order("A", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR), moves("A"));
+        checkpoint.add(order("B", OrderStatus.INVALID, OrderValidationCode.CVV_INVALID), List.of());
+        checkpoint.add(order("C", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR), moves("C"));
+        assertEquals(checkpoint.getPath(), checkpoint.save());
+        assertTrue(checkpoint.isSaved());
+
+        DayCheckpoint loaded = DayCheckpoint.load(directory, date);
+        assertTrue(loaded.isSaved());
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.contains("B"));
+        assertFalse(loaded.contains("D"));
+        Order[] orders = loaded.getOrders();
+        assertEquals("A", orders[0].getOrderNo());
+        assertEquals(OrderStatus.INVALID, orders[1].getOrderStatus());
+        assertEquals(OrderValidationCode.CVV_INVALID, orders[1].getOrderValidationCode());
+        assertEquals(1100, orders[2].getPriceTotalInPence());
+        assertTrue(Arrays.equals(checkpoint.getFlightPath(), loaded.getFlightPath()));
+    }
+
+    public void testOrderNumbersAreACopy() {
+        var checkpoint = new DayCheckpoint(directory, date);
+        checkpoint.add(order("A", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR), moves("A"));
+        var orderNumbers = checkpoint.getOrderNumbers();
+        checkpoint.add(order("B", OrderStatus.INVALID, OrderValidationCode.CVV_INVALID), List.of());
+        assertEquals(1, orderNumbers.size());
+        assertEquals(2, checkpoint.size());
+    }
+
+    public void testWrongDate() throws IOException {
+        new DayCheckpoint(directory, date).save();
+        Files.move(directory.resolve(DayCheckpoint.fileName(date)),
+                   directory.resolve(DayCheckpoint.fileName(date.plusDays(1))));
+        try {
+            DayCheckpoint.load(directory, date.plusDays(1));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+}
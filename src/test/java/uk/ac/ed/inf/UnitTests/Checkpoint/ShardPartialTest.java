@@ -0,0 +1,161 @@
+package uk.ac.ed.inf.UnitTests.Checkpoint;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.Checkpoint.ShardPartial;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Pipeline.OrderPipeline;
+import uk.ac.ed.inf.Pipeline.PipelineResult;
+import uk.ac.ed.inf.Pipeline.Shard;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ShardPartialTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    private MockRESTServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("shards");
+        server = new MockRESTServer();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    private Order order(String orderNo) {
+        var order = new Order();
+        order.setOrderNo(orderNo);
+        order.setOrderStatus(OrderStatus.INVALID);
+        order.setOrderValidationCode(OrderValidationCode.CVV_INVALID);
+        return order;
+    }
+
+    private List<Order> generateUnnumberedOrders() {
+        List<Order> orders = server.getOrderGenerator().generate(date);
+        orders.get(1).setOrderNo(orders.get(0).getOrderNo());
+        orders.get(2).setOrderNo(null);
+        orders.get(3).setOrderNo(null);
+        return orders;
+    }
+
+    private void planShard(OrderPipeline pipeline, MenuIndex menuIndex, Shard shard, List<Order> orders)
+            throws IOException {
+        var partial = new ShardPartial(date, shard.index(), shard.count());
+        partial.setOrderCount(orders.size());
+        pipeline.run(onOrder -> {
+            for (int i = 0; i < orders.size(); i++)
+                if (shard.owns(orders.get(i), menuIndex)) onOrder.accept(orders.get(i), i);
+        }, partial::add);
+        partial.save(directory);
+    }
+
+    public void testMergeMatchesSingleRun() throws IOException {
+        var menuIndex = new MenuIndex(server.getRestaurants());
+        var generator = new FlightPathGenerator(server.getCentralArea(), server.getNoFlyZones(), menuIndex);
+        var pipeline  = new OrderPipeline(new OrderValidator(), menuIndex, generator, 4);
+
+        PipelineResult single = pipeline.run(onOrder -> server.getOrderGenerator().generate(date).forEach(onOrder),
+                                             order -> {}, (order, moves) -> {});
+
+        for (int index = 0; index < 3; index++)
+            planShard(pipeline, menuIndex, new Shard(index, 3), server.getOrderGenerator().generate(date));
+
+        var merged = new DayCheckpoint(directory, date);
+        ShardPartial.merge(directory, date, 3, merged);
+        assertEquals(single.orders().length, merged.size());
+        for (int i = 0; i < single.orders().length; i++) {
+            assertEquals(single.orders()[i].getOrderNo(), merged.getOrders()[i].getOrderNo());
+            assertEquals(single.orders()[i].getOrderStatus(), merged.getOrders()[i].getOrderStatus());
+        }
+        assertTrue(Arrays.equals(single.flightPath(), merged.getFlightPath()));
+    }
+
+    public void testDuplicateAndMissingOrderNumbers() throws IOException {
+        var menuIndex = new MenuIndex(server.getRestaurants());
+        var generator = new FlightPathGenerator(server.getCentralArea(), server.getNoFlyZones(), menuIndex);
+        var pipeline  = new OrderPipeline(new OrderValidator(), menuIndex, generator, 4);
+
+        // A single run records the orders in a checkpoint, which keeps the last of the orders sharing a number in the
+        // place of the first, and the merge must do the same.
+        var single = new DayCheckpoint(directory, date);
+        pipeline.run(onOrder -> generateUnnumberedOrders().forEach(onOrder),
+                     order -> {
+                         if (order.getOrderStatus() == OrderStatus.INVALID) single.add(order, List.of());
+                     }, single::add);
+        for (int index = 0; index < 3; index++)
+            planShard(pipeline, menuIndex, new Shard(index, 3), generateUnnumberedOrders());
+
+        var merged = new DayCheckpoint(directory, date);
+        ShardPartial.merge(directory, date, 3, merged);
+        assertEquals(single.size(), merged.size());
+        for (int i = 0; i < single.size(); i++) {
+            assertEquals(single.getOrders()[i].getOrderNo(), merged.getOrders()[i].getOrderNo());
+            assertEquals(single.getOrders()[i].getOrderStatus(), merged.getOrders()[i].getOrderStatus());
+        }
+        assertTrue(merged.contains(null));
+        assertTrue(Arrays.equals(single.getFlightPath(), merged.getFlightPath()));
+    }
+
+    public void testMissingShard() throws IOException {
+        var partial = new ShardPartial(date, 0, 2);
+        partial.setOrderCount(1);
+        partial.add(0, order("A"), List.of());
+        partial.save(directory);
+        try {
+            ShardPartial.merge(directory, date, 2, new DayCheckpoint(directory, date));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void testOverlappingShards() throws IOException {
+        for (int index = 0; index < 2; index++) {
+            var partial = new ShardPartial(date, index, 2);
+            partial.setOrderCount(2);
+            partial.add(0, order(index == 0 ? "A" : "B"), List.of());
+            partial.save(directory);
+        }
+        try {
+            ShardPartial.merge(directory, date, 2, new DayCheckpoint(directory, date));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void testMissingOrder() throws IOException {
+        for (int index = 0; index < 2; index++) {
+            var partial = new ShardPartial(date, index, 2);
+            partial.setOrderCount(3);
+            partial.add(index, order(index == 0 ? "A" : "B"), List.of());
+            partial.save(directory);
+        }
+        try {
+            ShardPartial.merge(directory, date, 2, new DayCheckpoint(directory, date));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package uk.ac.ed.inf.UnitTests.Engine;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Engine.PizzaDronzEngine;
+import uk.ac.ed.inf.Engine.PlanOptions;
+import uk.ac.ed.inf.Execution.ExecutionConfig;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Output.Compression;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.Output.OutputEngine;
+import uk.ac.ed.inf.Output.OutputWriter;
+import uk.ac.ed.inf.Output.WrittenFile;
+import uk.ac.ed.inf.Pipeline.PipelineResult;
+import uk.ac.ed.inf.RestService.BatchValidationResult;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.Serializers.GeoJSONOptions;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class PizzaDronzEngineTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    private MockRESTServer server;
+
+    private PizzaDronzEngine engine;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("engine");
+        server = new MockRESTServer();
+        engine = PizzaDronzEngine.start(server.getBaseUrl(), new ExecutionConfig(2, 4, 1)).join();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        engine.close();
+        server.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    public void testValidate() {
+        Order[]               orders   = server.getOrderGenerator().generate(date).toArray(Order[]::new);
+        BatchValidationResult expected = new OrderValidator().validateOrders(orders, server.getRestaurants());
+        BatchValidationResult fetched  = engine.validate(date).join();
+        BatchValidationResult given    = engine.validate(server.getOrderGenerator().generate(date)
+                                                               .toArray(Order[]::new)).join();
+        for (BatchValidationResult result : List.of(fetched, given)) {
+            assertEquals(orders.length, result.orders().length);
+            for (OrderValidationCode code : OrderValidationCode.values())
+                assertEquals(expected.getCount(code), result.getCount(code));
+        }
+    }
+
+    public void testPlan() {
+        PlanOptions    options = PlanOptions.defaults(directory);
+        PipelineResult fetched = engine.plan(date, options).join();
+        PipelineResult given   = engine.plan(server.getOrderGenerator().generate(date).toArray(Order[]::new),
+                                             options).join();
+
+        assertEquals(fetched.orders().length, given.orders().length);
+        for (int i = 0; i < fetched.orders().length; i++)
+            assertEquals(fetched.orders()[i].getOrderNo(), given.orders()[i].getOrderNo());
+        for (Order order : fetched.validOrders())
+            assertEquals(OrderStatus.DELIVERED, order.getOrderStatus());
+        // Both calls share the engine's generator, so the second plans its paths from the first's cache.
+        assertTrue(fetched.flightPath().length > 0);
+        assertTrue(Arrays.equals(fetched.flightPath(), given.flightPath()));
+    }
+
+    public void testWrite() throws IOException {
+        var options = new PlanOptions(directory, true, OutputEngine.NIO, Compression.NONE, GeoJSONOptions.EXACT, true,
+                                      4);
+        PipelineResult    result = engine.plan(date, options).join();
+        List<WrittenFile> files  = engine.write(date, result, options).join();
+        assertEquals(4, files.size());
+        for (WrittenFile file : files) {
+            assertEquals(directory, file.path().getParent());
+            assertTrue(Files.size(file.path()) > 0);
+        }
+    }
+
+    public void testRun() {
+        DateSummary summary = engine.run(date, PlanOptions.defaults(directory)).join();
+        assertEquals(date, summary.date());
+        assertEquals(server.getOrderGenerator().generate(date).size(), summary.orders());
+        assertEquals(summary.validOrders(), summary.delivered());
+        assertTrue(summary.moves() > 0);
+        assertTrue(Files.exists(directory.resolve(OutputWriter.deliveriesFileName(date))));
+    }
+
+    public void testCancel() throws Exception {
+        var orders = new ArrayList<Order>();
+        for (int i = 0; i < 20; i++)
+            orders.addAll(server.getOrderGenerator().generate(date.plusDays(i)));
+        CompletableFuture<PipelineResult> call = engine.plan(orders.toArray(Order[]::new),
+                                                             PlanOptions.defaults(directory));
+        assertTrue(call.cancel(true));
+        assertTrue(call.isCancelled());
+
+        // The engine runs one call at a time, so the next only runs once the cancelled call has stopped.
+        PipelineResult result = engine.plan(date, PlanOptions.defaults(directory)).get(60, TimeUnit.SECONDS);
+        assertEquals(server.getOrderGenerator().generate(date).size(), result.orders().length);
+    }
+
+    public void testClose() {
+        engine.close();
+        try {
+            engine.validate(date).join();
+            fail();
+        } catch (CompletionException err) {
+            assertTrue(err.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    public void testLocalData() throws IOException {
+        Path data = directory.resolve("data");
+        server.writeLocalData(data, List.of(date));
+        try (var local = PizzaDronzEngine.start(data.toUri().toString(), new ExecutionConfig(2, 4, 1)).join()) {
+            BatchValidationResult expected = engine.validate(date).join();
+            BatchValidationResult result   = local.validate(date).join();
+            assertEquals(expected.orders().length, result.orders().length);
+            for (OrderValidationCode code : OrderValidationCode.values())
+                assertEquals(expected.getCount(code), result.getCount(code));
+        }
+    }
+
+    public void testUnreachableServer() {
+        try {
+            PizzaDronzEngine.start("http://localhost:1/", new ExecutionConfig(1, 1, 1)).join();
+            fail();
+        } catch (CompletionException err) {
+            assertTrue(err.getCause() instanceof UncheckedIOException);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package uk.ac.ed.inf.UnitTests.Execution;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Execution.ExecutionConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ExecutionConfigTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("execution", ".properties");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testDefaults() {
+        ExecutionConfig config = ExecutionConfig.defaults();
+        assertEquals(Runtime.getRuntime().availableProcessors(), config.cpuThreads());
+        assertTrue(config.ioThreads() >= 4);
+        assertTrue(config.serverThreads() >= 1);
+    }
+
+    public void testLoad() throws IOException {
+        Files.writeString(file, "# Sizes for the build machine.\ncpu-threads = 3\nio-threads=12\n");
+        ExecutionConfig config = ExecutionConfig.load(file, new ExecutionConfig(1, 2, 5));
+        assertEquals(new ExecutionConfig(3, 12, 5), config);
+    }
+
+    public void testInvalid() throws IOException {
+        for (String contents : new String[] { "cpu-threads=0", "io-threads=many", "gpu-threads=2" }) {
+            Files.writeString(file, contents);
+            try {
+                ExecutionConfig.load(file, ExecutionConfig.defaults());
+                fail(contents);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+}
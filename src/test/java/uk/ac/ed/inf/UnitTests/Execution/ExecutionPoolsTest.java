@@ -0,0 +1,67 @@
+package uk.ac.ed.inf.UnitTests.Execution;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Execution.ExecutionConfig;
+import uk.ac.ed.inf.Execution.ExecutionPools;
+import uk.ac.ed.inf.Execution.PoolUsage;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class ExecutionPoolsTest extends TestCase {
+    public void testSizes() {
+        try (var pools = new ExecutionPools(new ExecutionConfig(2, 3, 4))) {
+            assertEquals(2, pools.cpu().getParallelism());
+            List<PoolUsage> usage = pools.getUsage();
+            assertEquals(List.of("cpu", "io"), usage.stream().map(PoolUsage::name).toList());
+            assertEquals(3, usage.get(1).threads());
+        }
+    }
+
+    public void testUsage() throws Exception {
+        try (var pools = new ExecutionPools(new ExecutionConfig(1, 2, 4))) {
+            ExecutorService batch = pools.newPool("batch", 2);
+            Future<?>       first = batch.submit(() -> sleep(50));
+            pools.io().submit(() -> sleep(50)).get();
+            first.get();
+            // Keep a CPU thread busy for long enough to be measured.
+            long sum = pools.cpu().submit(() -> IntStream.range(0, 50_000_000).asLongStream().sum()).get();
+            assertTrue(sum > 0);
+
+            List<PoolUsage> usage = pools.getUsage();
+            assertEquals(List.of("cpu", "io", "batch"), usage.stream().map(PoolUsage::name).toList());
+            assertEquals(-1, usage.get(0).tasks());
+            for (PoolUsage pool : usage.subList(1, 3)) {
+                assertEquals(1, pool.tasks());
+                assertTrue(pool.busyNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+                assertTrue(pool.getUtilisation() > 0 && pool.getUtilisation() <= 1);
+                assertTrue(pool.describe().startsWith(pool.name() + ": 2 threads, 1 tasks, "));
+            }
+        }
+    }
+
+    public void testThreadNames() throws Exception {
+        try (var pools = new ExecutionPools(new ExecutionConfig(1, 1, 1))) {
+            assertTrue(pools.io().submit(() -> Thread.currentThread().getName()).get().startsWith("pizzadronz-io-"));
+            assertTrue(pools.cpu().submit(() -> Thread.currentThread().isDaemon()).get());
+        }
+    }
+
+    public void testClose() {
+        var pools = new ExecutionPools(new ExecutionConfig(1, 1, 1));
+        pools.close();
+        assertTrue(pools.cpu().isShutdown());
+        assertTrue(pools.io().isShutdown());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
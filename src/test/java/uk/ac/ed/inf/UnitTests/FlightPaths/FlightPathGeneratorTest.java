@@ -2,11 +2,15 @@ package uk.ac.ed.inf.UnitTests.FlightPaths;
 
 import junit.framework.TestCase;
 import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
 import uk.ac.ed.inf.FlightPaths.LngLatHandler;
 import uk.ac.ed.inf.ilp.data.*;
 
 import java.time.DayOfWeek;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class FlightPathGeneratorTest extends TestCase {
     public void testPathContainsAllOrders() {
@@ -23,6 +27,39 @@ public class FlightPathGeneratorTest extends TestCase {
         assertEquals(Arrays.stream(pathLengths).sum(), fullPath.length);
     }
 
+    public void testListenerReceivesEachOrder() {
+        var orders    = generateOrders();
+        var generator = new FlightPathGenerator(generateCentralRegion(), generateNoFlyZones(), generateRestaurants());
+        var planned   = new ArrayList<Order>();
+        var moves     = new ArrayList<FlightPathNode>();
+        var fullPath = generator.generateFullPath(orders, (order, orderMoves) -> {
+            planned.add(order);
+            for (FlightPathNode move : orderMoves)
+                assertEquals(order.getOrderNo(), move.orderNo());
+            moves.addAll(orderMoves);
+        });
+
+        assertEquals(Arrays.asList(orders), planned);
+        assertTrue(Arrays.equals(fullPath, moves.toArray(FlightPathNode[]::new)));
+    }
+
+    public void testSharedBetweenThreads() throws Exception {
+        var generator  = new FlightPathGenerator(generateCentralRegion(), generateNoFlyZones(), generateRestaurants());
+        var sequential = generator.generateFullPath(generateOrders());
+
+        // Each thread generates its own copy of the orders, as generating a flight path sets their status.
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<FlightPathNode[]>>();
+            for (int i = 0; i < 4; i++)
+                futures.add(executor.submit(() -> generator.generateFullPath(generateOrders())));
+            for (Future<FlightPathNode[]> future : futures)
+                assertTrue(Arrays.equals(sequential, future.get()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     public void testRuntime() {
         long startTime = System.currentTimeMillis();
         var  centralRegion = generateCentralRegion();
@@ -0,0 +1,58 @@
+package uk.ac.ed.inf.UnitTests.FlightPaths;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.LineSimplifier;
+import uk.ac.ed.inf.FlightPaths.LngLatHandler;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LineSimplifierTest extends TestCase {
+    public void testMergeStraightRuns() {
+        // Steps along each of the drone's angles, starting near Appleton Tower so the coordinates are rounded.
+        var handler = new LngLatHandler();
+        for (int i = 0; i < 16; i++) {
+            var points = new ArrayList<LngLat>();
+            points.add(new LngLat(-3.186874, 55.944494));
+            for (int step = 0; step < 50; step++)
+                points.add(handler.nextPosition(points.get(points.size() - 1), i * 22.5));
+            LngLat corner = points.get(points.size() - 1);
+            points.add(handler.nextPosition(corner, (i + 1) * 22.5));
+            assertEquals(List.of(points.get(0), corner, points.get(points.size() - 1)),
+                         LineSimplifier.mergeStraightRuns(points));
+        }
+    }
+
+    public void testMergeStraightRunsRemovesRepeats() {
+        var points = List.of(new LngLat(0, 0), new LngLat(0, 0), new LngLat(1, 0), new LngLat(1, 0), new LngLat(1, 1));
+        assertEquals(List.of(new LngLat(0, 0), new LngLat(1, 0), new LngLat(1, 1)),
+                     LineSimplifier.mergeStraightRuns(points));
+        assertEquals(List.of(new LngLat(0, 0)), LineSimplifier.mergeStraightRuns(List.of(new LngLat(0, 0),
+                                                                                         new LngLat(0, 0))));
+    }
+
+    public void testMergeStraightRunsKeepsReversals() {
+        var points = List.of(new LngLat(0, 0), new LngLat(2, 0), new LngLat(1, 0));
+        assertEquals(points, LineSimplifier.mergeStraightRuns(points));
+    }
+
+    public void testDouglasPeucker() {
+        var points = List.of(new LngLat(0, 0), new LngLat(1, 0.1), new LngLat(2, -0.1), new LngLat(3, 5),
+                             new LngLat(4, 6), new LngLat(5, 7));
+        assertEquals(List.of(new LngLat(0, 0), new LngLat(2, -0.1), new LngLat(3, 5), new LngLat(5, 7)),
+                     LineSimplifier.douglasPeucker(points, 0.5));
+        assertEquals(points, LineSimplifier.douglasPeucker(points, 0));
+        assertEquals(List.of(new LngLat(0, 0), new LngLat(5, 7)), LineSimplifier.douglasPeucker(points, 100));
+    }
+
+    public void testDouglasPeuckerLongLine() {
+        // Every point of a parabola is further from the chord of its neighbours than the tolerance.
+        var points = new ArrayList<LngLat>();
+        for (int i = 0; i <= 100_000; i++)
+            points.add(new LngLat(i * 1e-5, i * 1e-5 * i * 1e-5));
+        assertEquals(points, LineSimplifier.douglasPeucker(points, 1e-15));
+        assertEquals(List.of(points.get(0), points.get(points.size() - 1)),
+                     LineSimplifier.douglasPeucker(points, 1));
+    }
+}
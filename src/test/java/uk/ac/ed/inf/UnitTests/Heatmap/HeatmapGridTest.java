@@ -0,0 +1,58 @@
+package uk.ac.ed.inf.UnitTests.Heatmap;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Heatmap.HeatmapGrid;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+public class HeatmapGridTest extends TestCase {
+    private final NamedRegion centralArea = new NamedRegion("central", new LngLat[] {
+            new LngLat(-3.192473, 55.946233),
+            new LngLat(-3.192473, 55.942617),
+            new LngLat(-3.184319, 55.942617),
+            new LngLat(-3.184319, 55.946233)
+    });
+
+    public void testCovering() {
+        var grid = HeatmapGrid.covering(centralArea, 0.001);
+        assertEquals(-3.192473, grid.west());
+        assertEquals(55.942617, grid.south());
+        assertEquals(9, grid.columns());
+        assertEquals(4, grid.rows());
+        assertEquals(36, grid.cellCount());
+        assertTrue(grid.east() >= -3.184319);
+        assertTrue(grid.north() >= 55.946233);
+    }
+
+    public void testCell() {
+        var grid = new HeatmapGrid(0, 0, 1, 3, 2);
+        assertEquals(0, grid.cell(0, 0));
+        assertEquals(1, grid.cell(1, 0.5));
+        assertEquals(3, grid.cell(0.5, 1));
+        assertEquals(5, grid.cell(2.99, 1.99));
+        assertEquals(-1, grid.cell(3, 0));
+        assertEquals(-1, grid.cell(0, 2));
+        assertEquals(-1, grid.cell(-0.01, 0));
+        assertEquals(-1, grid.cell(Double.NaN, 0));
+    }
+
+    public void testInvalidGrids() {
+        for (double cellSize : new double[] { 0, -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+            try {
+                new HeatmapGrid(0, 0, cellSize, 1, 1);
+                fail();
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        try {
+            new HeatmapGrid(0, 0, 1, 0, 1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            HeatmapGrid.covering(centralArea, 1e-12);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
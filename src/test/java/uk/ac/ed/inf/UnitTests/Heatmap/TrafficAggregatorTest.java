@@ -0,0 +1,130 @@
+package uk.ac.ed.inf.UnitTests.Heatmap;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Heatmap.HeatmapGrid;
+import uk.ac.ed.inf.Heatmap.TrafficAggregator;
+import uk.ac.ed.inf.Heatmap.TrafficHeatmap;
+import uk.ac.ed.inf.Output.Compression;
+import uk.ac.ed.inf.Output.NDJSONWriter;
+import uk.ac.ed.inf.Output.OutputEngine;
+import uk.ac.ed.inf.Output.OutputFileType;
+import uk.ac.ed.inf.Output.OutputWriter;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class TrafficAggregatorTest extends TestCase {
+    private final LocalDate   date = LocalDate.of(2023, 9, 1);
+    private final HeatmapGrid grid = new HeatmapGrid(-3.1925, 55.9425, 0.0005, 20, 10);
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("traffic-aggregator-test");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    private FlightPathNode[] generateFlightPath(long seed) {
+        // Some of the moves start outside the grid.
+        var random = new Random(seed);
+        var path   = new FlightPathNode[1_000];
+        for (int i = 0; i < path.length; i++) {
+            var from = new LngLat(-3.195 + random.nextDouble() * 0.015, 55.94 + random.nextDouble() * 0.008);
+            path[i] = new FlightPathNode(Integer.toString(i / 50), from, 22.5 * random.nextInt(16), from);
+        }
+        return path;
+    }
+
+    private void assertSameCounts(TrafficHeatmap expected, TrafficHeatmap actual) {
+        assertEquals(expected.getTotal(), actual.getTotal());
+        assertEquals(expected.getOutside(), actual.getOutside());
+        for (int row = 0; row < grid.rows(); row++)
+            for (int column = 0; column < grid.columns(); column++)
+                assertEquals(expected.getCount(column, row), actual.getCount(column, row));
+    }
+
+    public void testAggregatesEveryFormat() throws IOException {
+        var expected = new TrafficHeatmap(grid);
+        var gzip     = new Compression(EnumSet.of(OutputFileType.FLIGHT_PATH), 6, Compression.DEFAULT_BUFFER_SIZE);
+        try (var plain = new OutputWriter(directory, false);
+             var compressed = new OutputWriter(directory, true, OutputEngine.NIO, gzip)) {
+            FlightPathNode[] json = generateFlightPath(0);
+            plain.writeFlightPath(date, json);
+            expected.addAll(json);
+
+            FlightPathNode[] archived = generateFlightPath(1);
+            plain.writeArchive(date.plusDays(1), archived);
+            expected.addAll(archived);
+
+            FlightPathNode[] gzipped = generateFlightPath(2);
+            compressed.writeFlightPath(date.plusDays(2), gzipped);
+            expected.addAll(gzipped);
+        }
+        FlightPathNode[] streamed = generateFlightPath(3);
+        try (var writer = new NDJSONWriter(directory, date.plusDays(3))) {
+            writer.orderPlanned(new Order("1", date, OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR, 1100,
+                                          new Pizza[] { new Pizza("Margarita", 1000) },
+                                          new CreditCardInformation("4123123412341234", "01/25", "123")),
+                                List.of(streamed));
+        }
+        expected.addAll(streamed);
+
+        List<Path> files = TrafficAggregator.findFlightPathFiles(directory);
+        assertEquals(4, files.size());
+        assertSameCounts(expected, new TrafficAggregator(grid, ForkJoinPool.commonPool()).aggregate(files));
+    }
+
+    public void testDayCountedOnce() throws IOException {
+        FlightPathNode[] flightPath = generateFlightPath(0);
+        try (var writer = new OutputWriter(directory, false)) {
+            writer.writeFlightPath(date, flightPath);
+            writer.writeArchive(date, flightPath);
+            writer.writeDeliveries(date, new Order[0]);
+        }
+        Files.writeString(directory.resolve("flightpath-notes.json"), "{}");
+
+        List<Path> files = TrafficAggregator.findFlightPathFiles(directory);
+        assertEquals(List.of(directory.resolve("flightpath-2023-09-01.bin")), files);
+
+        var expected = new TrafficHeatmap(grid);
+        expected.addAll(flightPath);
+        assertSameCounts(expected, new TrafficAggregator(grid, ForkJoinPool.commonPool()).aggregate(files));
+    }
+
+    public void testMissingDirectory() throws IOException {
+        assertEquals(List.of(), TrafficAggregator.findFlightPathFiles(directory.resolve("missing")));
+        assertEquals(0, new TrafficAggregator(grid, ForkJoinPool.commonPool()).aggregate(List.of()).getTotal());
+    }
+
+    public void testUnreadableFile() throws IOException {
+        Path file = Files.writeString(directory.resolve("flightpath-2023-09-01.json"), "[{\"fromLongitude\":");
+        try {
+            new TrafficAggregator(grid, ForkJoinPool.commonPool()).aggregate(List.of(file, file));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package uk.ac.ed.inf.UnitTests.Heatmap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Heatmap.HeatmapGrid;
+import uk.ac.ed.inf.Heatmap.HeatmapWriter;
+import uk.ac.ed.inf.Heatmap.TrafficHeatmap;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TrafficHeatmapTest extends TestCase {
+    private final HeatmapGrid grid = new HeatmapGrid(0, 0, 1, 3, 2);
+
+    private FlightPathNode move(double lng, double lat) {
+        return new FlightPathNode("1", new LngLat(lng, lat), 999, new LngLat(lng, lat));
+    }
+
+    private FlightPathNode[] generateMoves(int count) {
+        var random = new Random(0);
+        var moves  = new FlightPathNode[count];
+        for (int i = 0; i < count; i++)
+            moves[i] = move(random.nextDouble() * 3.5 - 0.25, random.nextDouble() * 2.5 - 0.25);
+        return moves;
+    }
+
+    public void testAdd() {
+        var heatmap = new TrafficHeatmap(grid);
+        heatmap.add(move(0.5, 0.5));
+        heatmap.addAll(List.of(move(2.5, 1.5), move(2.5, 1.5)));
+        heatmap.addAll(new FlightPathNode[] { move(5, 5) });
+
+        assertEquals(1, heatmap.getCount(0, 0));
+        assertEquals(2, heatmap.getCount(2, 1));
+        assertEquals(0, heatmap.getCount(1, 0));
+        assertEquals(1, heatmap.getOutside());
+        assertEquals(4, heatmap.getTotal());
+        assertEquals(2, heatmap.getMaximum());
+        try {
+            heatmap.getCount(3, 0);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
+    public void testParallelCollectorMatchesSequential() {
+        FlightPathNode[] moves      = generateMoves(100_000);
+        var              sequential = new TrafficHeatmap(grid);
+        sequential.addAll(moves);
+        TrafficHeatmap parallel = Arrays.stream(moves).parallel().collect(TrafficHeatmap.collector(grid));
+
+        assertEquals(moves.length, parallel.getTotal());
+        assertEquals(sequential.getOutside(), parallel.getOutside());
+        for (int row = 0; row < grid.rows(); row++)
+            for (int column = 0; column < grid.columns(); column++)
+                assertEquals(sequential.getCount(column, row), parallel.getCount(column, row));
+    }
+
+    public void testMergeRequiresSameGrid() {
+        try {
+            new TrafficHeatmap(grid).merge(new TrafficHeatmap(new HeatmapGrid(0, 0, 1, 2, 3)));
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    public void testWriteRaster() throws IOException {
+        var heatmap = new TrafficHeatmap(grid);
+        heatmap.addAll(new FlightPathNode[] { move(0.5, 0.5), move(2.5, 1.5), move(2.5, 1.5) });
+        Path file = Files.createTempFile("heatmap", ".asc");
+        try {
+            HeatmapWriter.writeRaster(file, heatmap);
+            assertEquals(List.of("ncols 3", "nrows 2", "xllcorner 0.0", "yllcorner 0.0", "cellsize 1.0",
+                                 "0 0 2", "1 0 0"), Files.readAllLines(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testWriteGeoJSON() throws IOException {
+        var heatmap = new TrafficHeatmap(grid);
+        heatmap.addAll(new FlightPathNode[] { move(0.5, 0.5), move(2.5, 1.5), move(2.5, 1.5) });
+        Path file = Files.createTempFile("heatmap", ".geojson");
+        try {
+            HeatmapWriter.writeGeoJSON(file, heatmap);
+            JsonNode json = new ObjectMapper().readTree(file.toFile());
+            assertEquals("FeatureCollection", json.get("type").asText());
+            assertEquals(2, json.get("features").size());
+
+            JsonNode cell = json.get("features").get(1);
+            assertEquals("Polygon", cell.get("geometry").get("type").asText());
+            assertEquals("[[[2.0,1.0],[3.0,1.0],[3.0,2.0],[2.0,2.0],[2.0,1.0]]]",
+                         cell.get("geometry").get("coordinates").toString());
+            assertEquals(2, cell.get("properties").get("count").asLong());
+            assertEquals(2, cell.get("properties").get("column").asInt());
+            assertEquals(1, cell.get("properties").get("row").asInt());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
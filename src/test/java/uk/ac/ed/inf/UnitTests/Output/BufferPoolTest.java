@@ -0,0 +1,52 @@
+package uk.ac.ed.inf.UnitTests.Output;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Output.BufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+public class BufferPoolTest extends TestCase {
+    public void testReusesBuffers() {
+        var        pool   = new BufferPool(64, 4);
+        ByteBuffer buffer = pool.acquire();
+        assertTrue(buffer.isDirect());
+        assertEquals(64, buffer.capacity());
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        assertEquals(1, pool.getFreeCount());
+
+        ByteBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(0, pool.getFreeCount());
+    }
+
+    public void testDropsBuffersOverCap() {
+        var pool    = new BufferPool(64, 4);
+        var buffers = new ArrayList<ByteBuffer>();
+        for (int i = 0; i < 10; i++)
+            buffers.add(pool.acquire());
+        buffers.forEach(pool::release);
+        assertEquals(4, pool.getFreeCount());
+
+        // Taking a buffer makes room for one more.
+        pool.acquire();
+        pool.release(ByteBuffer.allocateDirect(64));
+        pool.release(ByteBuffer.allocateDirect(64));
+        assertEquals(4, pool.getFreeCount());
+    }
+
+    public void testInvalidArguments() {
+        try {
+            new BufferPool(0, 4);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            new BufferPool(64, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package uk.ac.ed.inf.UnitTests.Output;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Output.BufferPool;
+import uk.ac.ed.inf.Output.ChunkedFlightPathEncoder;
+import uk.ac.ed.inf.Output.JSONChannelWriter;
+import uk.ac.ed.inf.Output.JSONEncoders;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ChunkedFlightPathEncoderTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("chunked-flight-path", ".json");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    private FlightPathNode[] generateFlightPath(Random random, int orders) {
+        var path = new FlightPathNode[0];
+        for (int order = 0; order < orders; order++) {
+            int    moves   = 1 + random.nextInt(300);
+            String orderNo = Integer.toHexString(order).toUpperCase();
+            path = Arrays.copyOf(path, path.length + moves);
+            for (int i = path.length - moves; i < path.length; i++) {
+                var from = new LngLat(-3.2 + random.nextDouble() * 0.02, 55.94 + random.nextDouble() * 0.01);
+                path[i] = new FlightPathNode(orderNo, from, 22.5 * random.nextInt(16), from);
+            }
+        }
+        return path;
+    }
+
+    private byte[] writeSequentially(FlightPathNode[] path, boolean pretty) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            JSONEncoders.writeFlightPath(new JSONChannelWriter(channel, ByteBuffer.allocateDirect(4096), pretty), path);
+        }
+        return Files.readAllBytes(file);
+    }
+
+    private byte[] writeInChunks(FlightPathNode[] path, boolean pretty, int bufferSize, int chunkSize)
+            throws IOException {
+        var encoder = new ChunkedFlightPathEncoder(new BufferPool(bufferSize, 16), new ForkJoinPool(4), pretty,
+                                                   chunkSize);
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            encoder.write(path, channel);
+        }
+        return Files.readAllBytes(file);
+    }
+
+    public void testSplitKeepsOrdersTogether() {
+        var   path       = generateFlightPath(new Random(0), 50);
+        int[] boundaries = ChunkedFlightPathEncoder.split(path, 500);
+        assertEquals(0, boundaries[0]);
+        assertEquals(path.length, boundaries[boundaries.length - 1]);
+        for (int i = 1; i < boundaries.length - 1; i++) {
+            assertTrue(boundaries[i] - boundaries[i - 1] >= 500);
+            assertFalse(path[boundaries[i]].orderNo().equals(path[boundaries[i] - 1].orderNo()));
+        }
+    }
+
+    public void testSplitShortPath() {
+        assertTrue(Arrays.equals(new int[] { 0, 0 }, ChunkedFlightPathEncoder.split(new FlightPathNode[0], 10)));
+        var path = generateFlightPath(new Random(1), 1);
+        assertTrue(Arrays.equals(new int[] { 0, path.length }, ChunkedFlightPathEncoder.split(path, 1)));
+    }
+
+    public void testMatchesSequentialEncoding() throws IOException {
+        var random = new Random(2);
+        for (int trial = 0; trial < 20; trial++) {
+            var     path       = generateFlightPath(random, random.nextInt(100));
+            boolean pretty     = random.nextBoolean();
+            int     bufferSize = 64 + random.nextInt(8192);
+            int     chunkSize  = 1 + random.nextInt(2000);
+            assertTrue(Arrays.equals(writeSequentially(path, pretty),
+                                     writeInChunks(path, pretty, bufferSize, chunkSize)));
+        }
+    }
+
+    public void testEmptyPath() throws IOException {
+        assertEquals("[ ]", new String(writeInChunks(new FlightPathNode[0], true, 64, 10)));
+        assertEquals("[]", new String(writeInChunks(new FlightPathNode[0], false, 64, 10)));
+    }
+}
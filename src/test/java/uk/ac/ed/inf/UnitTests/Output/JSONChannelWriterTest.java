@@ -0,0 +1,125 @@
+package uk.ac.ed.inf.UnitTests.Output;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Output.JSONChannelWriter;
+import uk.ac.ed.inf.Output.JSONEncoders;
+import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
+import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+public class JSONChannelWriterTest extends TestCase {
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(
+            new SimpleModule()
+                    .addSerializer(Order.class, new OrderJSONSerializer())
+                    .addSerializer(FlightPathNode.class, new FlightPathNodeJSONSerializer()));
+
+    private interface Encoder {
+        void encode(JSONChannelWriter json) throws IOException;
+    }
+
+    private byte[] encode(Encoder encoder, int bufferSize, boolean pretty) throws IOException {
+        var output = new ByteArrayOutputStream();
+        encoder.encode(new JSONChannelWriter(Channels.newChannel(output),
+                                             ByteBuffer.allocateDirect(bufferSize),
+                                             pretty));
+        return output.toByteArray();
+    }
+
+    private byte[] serialize(Object content, boolean pretty) throws IOException {
+        var writer = pretty ? mapper.writer(SerializationFeature.INDENT_OUTPUT) : mapper.writer();
+        return writer.writeValueAsBytes(content);
+    }
+
+    private String randomString(Random random) {
+        // Mostly order numbers, with some strings which need escaping or multibyte encoding.
+        if (random.nextInt(4) != 0) return Integer.toHexString(random.nextInt()).toUpperCase();
+        var chars = new char[random.nextInt(12)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = switch (random.nextInt(6)) {
+                case 0 -> (char) random.nextInt(0x20);
+                case 1 -> "\"\\/".charAt(random.nextInt(3));
+                case 2 -> (char) (0x80 + random.nextInt(0x780));
+                case 3 -> (char) (0x800 + random.nextInt(0xF800));
+                default -> (char) (0x20 + random.nextInt(0x60));
+            };
+        }
+        return new String(chars);
+    }
+
+    private FlightPathNode[] generateFlightPath(Random random, int length) {
+        var path = new FlightPathNode[length];
+        for (int i = 0; i < length; i++) {
+            var from = new LngLat(-3.2 + random.nextDouble() * 0.02, 55.94 + random.nextDouble() * 0.01);
+            var to   = new LngLat(from.lng() + random.nextGaussian() * 1e-4, from.lat() + random.nextGaussian() * 1e-4);
+            double angle = random.nextInt(10) == 0 ? 999 : 22.5 * random.nextInt(16);
+            path[i] = new FlightPathNode(random.nextInt(20) == 0 ? null : randomString(random), from, angle, to);
+        }
+        return path;
+    }
+
+    private Order[] generateOrders(Random random, int count) {
+        var orders = new Order[count];
+        for (int i = 0; i < count; i++) {
+            orders[i] = new Order(randomString(random),
+                                  LocalDate.EPOCH,
+                                  OrderStatus.values()[random.nextInt(OrderStatus.values().length)],
+                                  OrderValidationCode.values()[random.nextInt(OrderValidationCode.values().length)],
+                                  random.nextInt(5) == 0 ? random.nextInt() : random.nextInt(10_000),
+                                  null,
+                                  null
+            );
+        }
+        return orders;
+    }
+
+    public void testFlightPathMatchesJackson() throws IOException {
+        var random = new Random(0);
+        for (int trial = 0; trial < 50; trial++) {
+            var     path       = generateFlightPath(random, random.nextInt(200));
+            int     bufferSize = 64 + random.nextInt(4096);
+            boolean pretty     = random.nextBoolean();
+            assertTrue(Arrays.equals(serialize(path, pretty),
+                                     encode(json -> JSONEncoders.writeFlightPath(json, path), bufferSize, pretty)));
+        }
+    }
+
+    public void testOrdersMatchJackson() throws IOException {
+        var random = new Random(1);
+        for (int trial = 0; trial < 50; trial++) {
+            var     orders     = generateOrders(random, random.nextInt(200));
+            int     bufferSize = 64 + random.nextInt(4096);
+            boolean pretty     = random.nextBoolean();
+            assertTrue(Arrays.equals(serialize(orders, pretty),
+                                     encode(json -> JSONEncoders.writeOrders(json, orders), bufferSize, pretty)));
+        }
+    }
+
+    public void testEmptyArrays() throws IOException {
+        assertEquals("[ ]", new String(encode(json -> JSONEncoders.writeOrders(json, new Order[0]), 64, true)));
+        assertEquals("[]", new String(encode(json -> JSONEncoders.writeOrders(json, new Order[0]), 64, false)));
+    }
+
+    public void testNonFiniteNumbers() throws IOException {
+        var path = new FlightPathNode[] {
+                new FlightPathNode("1", new LngLat(Double.NaN, Double.POSITIVE_INFINITY), Double.NEGATIVE_INFINITY,
+                                   new LngLat(-0.0, Double.MIN_VALUE))
+        };
+        assertEquals(new String(serialize(path, false)),
+                     new String(encode(json -> JSONEncoders.writeFlightPath(json, path), 64, false)));
+    }
+}
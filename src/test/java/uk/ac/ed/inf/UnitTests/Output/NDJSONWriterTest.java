@@ -0,0 +1,138 @@
+package uk.ac.ed.inf.UnitTests.Output;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Output.NDJSONWriter;
+import uk.ac.ed.inf.Output.OutputFileType;
+import uk.ac.ed.inf.Output.OutputWriter;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class NDJSONWriterTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("ndjson-writer-test");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    private Order generateOrder(String orderNo, OrderStatus status, OrderValidationCode code) {
+        return new Order(orderNo, date, status, code, 1100, new Pizza[] { new Pizza("Margarita", 1000) },
+                         new CreditCardInformation("4123123412341234", "01/25", "123"));
+    }
+
+    private List<FlightPathNode> generateMoves(String orderNo) {
+        return List.of(
+                new FlightPathNode(orderNo, new LngLat(-3.186874, 55.944494), 90, new LngLat(-3.186874, 55.944644)),
+                new FlightPathNode(orderNo, new LngLat(-3.186874, 55.944644), 999, new LngLat(-3.186874, 55.944644))
+        );
+    }
+
+    private static String toLines(String array) {
+        // Splits a compact array of flat objects into one object per line.
+        return array.substring(1, array.length() - 1).replace("},{", "}\n{") + "\n";
+    }
+
+    public void testFileNames() throws IOException {
+        try (var writer = new NDJSONWriter(directory.resolve("nested"), date)) {
+            assertEquals(directory.resolve("nested/deliveries-2023-09-01.ndjson"), writer.getDeliveriesPath());
+            assertEquals(directory.resolve("nested/flightpath-2023-09-01.ndjson"), writer.getFlightPathPath());
+            assertEquals("flightpath-2023-09-01.ndjson", NDJSONWriter.fileName(OutputFileType.FLIGHT_PATH, date));
+        }
+    }
+
+    public void testLinesMatchCompactOutput() throws IOException {
+        var orders = new Order[] {
+                generateOrder("1", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR),
+                generateOrder("2", OrderStatus.VALID_BUT_NOT_DELIVERED, OrderValidationCode.NO_ERROR)
+        };
+        var moves = generateMoves("1");
+
+        var writer = new NDJSONWriter(directory.resolve("ndjson"), date);
+        try (writer) {
+            writer.orderPlanned(orders[0], moves);
+            writer.orderPlanned(orders[1], List.of());
+        }
+
+        var arrays = new OutputWriter(directory.resolve("json"), true);
+        assertEquals(toLines(Files.readString(arrays.writeDeliveries(date, orders))),
+                     Files.readString(writer.getDeliveriesPath()));
+        assertEquals(toLines(Files.readString(arrays.writeFlightPath(date, moves.toArray(FlightPathNode[]::new)))),
+                     Files.readString(writer.getFlightPathPath()));
+    }
+
+    public void testOnlyInvalidOrdersWrittenOnValidation() throws IOException {
+        try (var writer = new NDJSONWriter(directory, date)) {
+            writer.orderValidated(generateOrder("1", OrderStatus.VALID_BUT_NOT_DELIVERED,
+                                                OrderValidationCode.NO_ERROR));
+            writer.orderValidated(generateOrder("2", OrderStatus.INVALID, OrderValidationCode.CVV_INVALID));
+            List<String> lines = Files.readAllLines(writer.getDeliveriesPath());
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).contains("\"orderNo\":\"2\""));
+        }
+    }
+
+    public void testAppend() throws IOException {
+        try (var writer = new NDJSONWriter(directory, date)) {
+            writer.orderPlanned(generateOrder("1", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR),
+                                generateMoves("1"));
+        }
+        try (var writer = new NDJSONWriter(directory, date, true)) {
+            writer.orderPlanned(generateOrder("2", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR),
+                                generateMoves("2"));
+            assertEquals(List.of("1", "2"), Files.readAllLines(writer.getDeliveriesPath())
+                                                 .stream()
+                                                 .map(line -> line.replaceAll(".*\"orderNo\":\"(\\w+)\".*", "$1"))
+                                                 .toList());
+            assertEquals(4, Files.readAllLines(writer.getFlightPathPath()).size());
+        }
+        try (var writer = new NDJSONWriter(directory, date, false)) {
+            assertEquals(0, Files.size(writer.getDeliveriesPath()));
+        }
+    }
+
+    public void testFlushedPerOrder() throws IOException {
+        try (var writer = new NDJSONWriter(directory, date)) {
+            var expectedMoves = new ArrayList<String>();
+            for (int i = 0; i < 5; i++) {
+                String orderNo = Integer.toString(i);
+                writer.orderPlanned(generateOrder(orderNo, OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR),
+                                    generateMoves(orderNo));
+                expectedMoves.add(orderNo);
+                expectedMoves.add(orderNo);
+
+                // Everything written so far can be read before the writer is closed, and each line is complete.
+                List<String> deliveries = Files.readAllLines(writer.getDeliveriesPath());
+                List<String> moves      = Files.readAllLines(writer.getFlightPathPath());
+                assertEquals(i + 1, deliveries.size());
+                assertEquals(expectedMoves.size(), moves.size());
+                for (int j = 0; j < moves.size(); j++)
+                    assertTrue(moves.get(j).startsWith("{\"orderNo\":\"" + expectedMoves.get(j) + "\""));
+                assertTrue(Files.readString(writer.getFlightPathPath()).endsWith("}\n"));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package uk.ac.ed.inf.UnitTests.Output;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Output.OutputReader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+public class OutputReaderTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("output-reader-test", ".json");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testReadsPlainFile() throws IOException {
+        Files.writeString(file, "[ ]");
+        assertEquals("[ ]", OutputReader.readString(file));
+    }
+
+    public void testReadsCompressedFile() throws IOException {
+        try (OutputStream stream = new GZIPOutputStream(Files.newOutputStream(file))) {
+            stream.write("[{\"orderNo\":\"1\"}]".getBytes());
+        }
+        assertEquals("[{\"orderNo\":\"1\"}]", OutputReader.readString(file));
+    }
+
+    public void testReadsShortFiles() throws IOException {
+        Files.writeString(file, "");
+        assertEquals("", OutputReader.readString(file));
+        Files.writeString(file, "[");
+        assertEquals("[", OutputReader.readString(file));
+    }
+}
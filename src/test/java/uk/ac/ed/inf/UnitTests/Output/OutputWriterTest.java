@@ -0,0 +1,253 @@
+package uk.ac.ed.inf.UnitTests.Output;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Output.Compression;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.Output.OutputEngine;
+import uk.ac.ed.inf.Output.OutputFileType;
+import uk.ac.ed.inf.Output.OutputReader;
+import uk.ac.ed.inf.Output.OutputWriter;
+import uk.ac.ed.inf.Output.WrittenFile;
+import uk.ac.ed.inf.Serializers.FlightPathNodeGeoJSONSerializer;
+import uk.ac.ed.inf.Serializers.FlightPathNodeJSONSerializer;
+import uk.ac.ed.inf.Serializers.OrderJSONSerializer;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class OutputWriterTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("output-writer-test");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    private Order[] generateOrders() {
+        return new Order[] {
+                new Order("1", date, OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR, 1100,
+                          new Pizza[] { new Pizza("Margarita", 1000) },
+                          new CreditCardInformation("4123123412341234", "01/25", "123")
+                ),
+                new Order("2", date, OrderStatus.INVALID, OrderValidationCode.CVV_INVALID, 1500,
+                          new Pizza[] { new Pizza("Calzone", 1400) },
+                          new CreditCardInformation("4123123412341234", "01/25", "12")
+                )
+        };
+    }
+
+    private FlightPathNode[] generateFlightPath() {
+        return new FlightPathNode[] {
+                new FlightPathNode("1", new LngLat(-3.186874, 55.944494), 90, new LngLat(-3.186874, 55.944644)),
+                new FlightPathNode("1", new LngLat(-3.186874, 55.944644), 999, new LngLat(-3.186874, 55.944644)),
+                new FlightPathNode("1", new LngLat(-3.186874, 55.944644), 270, new LngLat(-3.186874, 55.944494))
+        };
+    }
+
+    private String writeWithNewMapper(SimpleModule module, Object content) throws IOException {
+        // The way the files were written before the output writer, with a new mapper for every file.
+        return new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .registerModule(module)
+                .writeValueAsString(content);
+    }
+
+    public void testPrettyOutputMatchesPerFileMapper() throws IOException {
+        var writer     = new OutputWriter(directory, false);
+        var orders     = generateOrders();
+        var flightPath = generateFlightPath();
+
+        assertEquals(writeWithNewMapper(new SimpleModule().addSerializer(Order.class, new OrderJSONSerializer()),
+                                        orders),
+                     Files.readString(writer.writeDeliveries(date, orders)));
+        assertEquals(writeWithNewMapper(
+                             new SimpleModule().addSerializer(FlightPathNode.class, new FlightPathNodeJSONSerializer()),
+                             flightPath),
+                     Files.readString(writer.writeFlightPath(date, flightPath)));
+        assertEquals(writeWithNewMapper(
+                             new SimpleModule().addSerializer(FlightPathNode[].class,
+                                                              new FlightPathNodeGeoJSONSerializer()),
+                             flightPath),
+                     Files.readString(writer.writeGeoJSON(date, flightPath)));
+    }
+
+    public void testCompactOutput() throws IOException {
+        var writer = new OutputWriter(directory, true);
+        var result = Files.readString(writer.writeDeliveries(date, generateOrders()));
+        assertEquals("[{\"orderNo\":\"1\",\"orderStatus\":\"DELIVERED\",\"orderValidationCode\":\"NO_ERROR\","
+                     + "\"costInPence\":1100},{\"orderNo\":\"2\",\"orderStatus\":\"INVALID\","
+                     + "\"orderValidationCode\":\"CVV_INVALID\",\"costInPence\":1500}]", result);
+        assertFalse(Files.readString(writer.writeGeoJSON(date, generateFlightPath())).contains("\n"));
+    }
+
+    public void testFileNames() throws IOException {
+        var writer = new OutputWriter(directory.resolve("nested"), false);
+        assertEquals(directory.resolve("nested/deliveries-2023-09-01.json"),
+                     writer.writeDeliveries(date, new Order[0]));
+        assertEquals(directory.resolve("nested/flightpath-2023-09-01.json"),
+                     writer.writeFlightPath(date, new FlightPathNode[0]));
+        assertEquals(directory.resolve("nested/drone-2023-09-01.geojson"),
+                     writer.writeGeoJSON(date, new FlightPathNode[0]));
+    }
+
+    public void testOverwritesLongerFile() throws IOException {
+        var writer = new OutputWriter(directory, true);
+        Files.writeString(directory.resolve(OutputWriter.deliveriesFileName(date)), "x".repeat(10_000));
+        assertEquals("[]", Files.readString(writer.writeDeliveries(date, new Order[0])));
+    }
+
+    public void testWriterIsReusable() throws IOException {
+        var writer = new OutputWriter(directory, false);
+        var orders = generateOrders();
+        for (int day = 0; day < 30; day++)
+            writer.writeDeliveries(date.plusDays(day), orders);
+        assertEquals(Files.readString(directory.resolve(OutputWriter.deliveriesFileName(date))),
+                     Files.readString(directory.resolve(OutputWriter.deliveriesFileName(date.plusDays(29)))));
+    }
+
+    public void testWriteAllMatchesSequentialWrites() throws IOException {
+        var orders     = generateOrders();
+        var flightPath = generateFlightPath();
+        try (var writer = new OutputWriter(directory, false)) {
+            List<WrittenFile> files = writer.writeAll(date, orders, flightPath);
+            assertEquals(3, files.size());
+            assertEquals(directory.resolve(OutputWriter.flightPathFileName(date)), files.get(0).path());
+            assertEquals(directory.resolve(OutputWriter.geoJSONFileName(date)), files.get(1).path());
+            assertEquals(directory.resolve(OutputWriter.deliveriesFileName(date)), files.get(2).path());
+            for (WrittenFile file : files)
+                assertTrue(file.elapsedNano() > 0);
+
+            var concurrent = new ArrayList<String>();
+            for (WrittenFile file : files)
+                concurrent.add(Files.readString(file.path()));
+            assertEquals(List.of(Files.readString(writer.writeFlightPath(date, flightPath)),
+                                 Files.readString(writer.writeGeoJSON(date, flightPath)),
+                                 Files.readString(writer.writeDeliveries(date, orders))
+                                ), concurrent);
+        }
+    }
+
+    public void testWriteAllReportsFailure() throws IOException {
+        // A file in place of the output directory means none of the files can be written.
+        Path blocked = Files.createFile(directory.resolve("blocked"));
+        try (var writer = new OutputWriter(blocked, false)) {
+            writer.writeAll(date, generateOrders(), generateFlightPath());
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void testEnginesWriteIdenticalFiles() throws IOException {
+        var orders     = generateOrders();
+        var flightPath = generateFlightPath();
+        for (boolean compact : new boolean[] { false, true }) {
+            var jackson = new OutputWriter(directory.resolve("jackson"), compact, OutputEngine.JACKSON);
+            var nio     = new OutputWriter(directory.resolve("nio"), compact, OutputEngine.NIO);
+            assertEquals(Files.readString(jackson.writeDeliveries(date, orders)),
+                         Files.readString(nio.writeDeliveries(date, orders)));
+            assertEquals(Files.readString(jackson.writeFlightPath(date, flightPath)),
+                         Files.readString(nio.writeFlightPath(date, flightPath)));
+            jackson.close();
+            nio.close();
+        }
+    }
+
+    private FlightPathNode[] generateLongFlightPath() {
+        var random = new Random(0);
+        var path   = new FlightPathNode[20_000];
+        for (int i = 0; i < path.length; i++) {
+            var from = new LngLat(-3.2 + random.nextDouble() * 0.02, 55.94 + random.nextDouble() * 0.01);
+            path[i] = new FlightPathNode(Integer.toString(i / 100), from, 22.5 * random.nextInt(16), from);
+        }
+        return path;
+    }
+
+    public void testCompressedOutput() throws IOException {
+        var orders      = generateOrders();
+        var flightPath  = generateLongFlightPath();
+        var compression = new Compression(EnumSet.allOf(OutputFileType.class), 6, 4096);
+        for (OutputEngine engine : OutputEngine.values()) {
+            var plain      = new OutputWriter(directory.resolve("plain"), false, engine);
+            var compressed = new OutputWriter(directory.resolve("compressed"), false, engine, compression);
+            try (plain; compressed) {
+                List<WrittenFile> plainFiles      = plain.writeAll(date, orders, flightPath);
+                List<WrittenFile> compressedFiles = compressed.writeAll(date, orders, flightPath);
+                for (int i = 0; i < plainFiles.size(); i++) {
+                    Path plainPath      = plainFiles.get(i).path();
+                    Path compressedPath = compressedFiles.get(i).path();
+                    assertEquals(plainPath.getFileName() + Compression.EXTENSION,
+                                 compressedPath.getFileName().toString());
+                    assertTrue(Files.size(compressedPath) < Files.size(plainPath));
+                    assertTrue(Arrays.equals(Files.readAllBytes(plainPath),
+                                             OutputReader.readAllBytes(compressedPath)));
+                }
+            }
+        }
+    }
+
+    public void testCompressionPerFileType() throws IOException {
+        var compression = new Compression(EnumSet.of(OutputFileType.FLIGHT_PATH), 1, 1024);
+        try (var writer = new OutputWriter(directory, true, OutputEngine.NIO, compression)) {
+            assertEquals("flightpath-2023-09-01.json.gz", writer.fileName(OutputFileType.FLIGHT_PATH, date));
+            assertEquals("deliveries-2023-09-01.json", writer.fileName(OutputFileType.DELIVERIES, date));
+            Path flightPath = writer.writeFlightPath(date, generateFlightPath());
+            Path deliveries = writer.writeDeliveries(date, generateOrders());
+            assertEquals(directory.resolve("flightpath-2023-09-01.json.gz"), flightPath);
+            assertEquals(directory.resolve("deliveries-2023-09-01.json"), deliveries);
+            assertEquals((byte) '[', Files.readAllBytes(deliveries)[0]);
+            assertEquals((byte) 0x1F, Files.readAllBytes(flightPath)[0]);
+        }
+    }
+
+    public void testCompressionLevel() throws IOException {
+        var flightPath = generateLongFlightPath();
+        var fastest    = new Compression(EnumSet.allOf(OutputFileType.class), 0, 1 << 16);
+        var smallest   = new Compression(EnumSet.allOf(OutputFileType.class), 9, 1 << 16);
+        try (var fast = new OutputWriter(directory.resolve("0"), false, OutputEngine.NIO, fastest);
+             var small = new OutputWriter(directory.resolve("9"), false, OutputEngine.NIO, smallest)) {
+            assertTrue(Files.size(small.writeFlightPath(date, flightPath))
+                       < Files.size(fast.writeFlightPath(date, flightPath)));
+        }
+    }
+
+    public void testWriteSummary() throws IOException {
+        var summaries = List.of(new DateSummary(date.plusDays(1), 60, 58, 57, 6042, 2_000_000_000L),
+                                new DateSummary(date, 10, 8, 8, 800, 0));
+        try (var writer = new OutputWriter(directory, false)) {
+            Path path = writer.writeSummary(summaries);
+            assertEquals(directory.resolve("summary-2023-09-01-2023-09-02.csv"), path);
+            assertEquals(List.of(DateSummary.CSV_HEADER,
+                                 "2023-09-02,60,58,57,6042,2000,30.0",
+                                 "2023-09-01,10,8,8,800,0,0.0"), Files.readAllLines(path));
+        }
+    }
+}
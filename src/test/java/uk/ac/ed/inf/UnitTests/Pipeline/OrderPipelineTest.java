@@ -0,0 +1,143 @@
+package uk.ac.ed.inf.UnitTests.Pipeline;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.Mocks.MockOrderGenerator;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Pipeline.OrderPipeline;
+import uk.ac.ed.inf.Pipeline.PipelineResult;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrderPipelineTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private MockRESTServer server;
+
+    private MenuIndex menuIndex;
+
+    private FlightPathGenerator generator;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockRESTServer();
+        menuIndex = new MenuIndex(server.getRestaurants());
+        generator = new FlightPathGenerator(server.getCentralArea(), server.getNoFlyZones(), menuIndex);
+    }
+
+    @Override
+    protected void tearDown() {
+        server.close();
+    }
+
+    private OrderPipeline.OrderSource source(List<Order> orders) {
+        return onOrder -> orders.forEach(onOrder);
+    }
+
+    public void testMatchesPhasedRun() throws Exception {
+        List<Order> orders      = server.getOrderGenerator().generate(date);
+        Order[]     validOrders = new OrderValidator()
+                .validateOrders(orders.toArray(Order[]::new), server.getRestaurants())
+                .getValidOrders();
+        FlightPathNode[] expected = generator.generateFullPath(validOrders);
+
+        var            pipeline = new OrderPipeline(new OrderValidator(), menuIndex, generator, 4);
+        var            planned  = new ArrayList<Order>();
+        PipelineResult result   = pipeline.run(source(server.getOrderGenerator().generate(date)),
+                                               order -> {},
+                                               (order, moves) -> planned.add(order)
+        );
+
+        assertEquals(orders.size(), result.orders().length);
+        for (int i = 0; i < orders.size(); i++)
+            assertEquals(orders.get(i).getOrderNo(), result.orders()[i].getOrderNo());
+        assertEquals(validOrders.length, result.validOrders().length);
+        assertEquals(Arrays.asList(result.validOrders()), planned);
+        assertTrue(Arrays.equals(expected, result.flightPath()));
+        for (Order order : result.validOrders())
+            assertEquals(OrderStatus.DELIVERED, order.getOrderStatus());
+    }
+
+    public void testBackpressure() throws Exception {
+        List<Order> orders   = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            orders.addAll(server.getOrderGenerator().generate(date.plusDays(i)));
+        var         pipeline = new OrderPipeline(new OrderValidator(), menuIndex, generator, 1);
+        var         fetched  = new AtomicInteger();
+        var         release  = new CountDownLatch(1);
+        var         executor = Executors.newSingleThreadExecutor();
+        try {
+            var future = executor.submit(() -> pipeline.run(onOrder -> {
+                for (Order order : orders) {
+                    onOrder.accept(order);
+                    fetched.incrementAndGet();
+                }
+            }, order -> {
+                try {
+                    release.await();
+                } catch (InterruptedException err) {
+                    Thread.currentThread().interrupt();
+                }
+            }, (order, moves) -> {}));
+
+            // While the last stage is held up, the source can only get a few orders ahead of it.
+            Thread.sleep(500);
+            assertTrue(fetched.get() < 10);
+            release.countDown();
+            assertEquals(orders.size(), future.get(60, TimeUnit.SECONDS).orders().length);
+            assertEquals(orders.size(), fetched.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testListenerFailure() {
+        var pipeline = new OrderPipeline(new OrderValidator(), menuIndex, generator, 2);
+        try {
+            pipeline.run(source(server.getOrderGenerator().generate(date)),
+                         order -> {
+                             throw new UncheckedIOException(new IOException("Disk full"));
+                         },
+                         (order, moves) -> {}
+            );
+            fail();
+        } catch (IOException err) {
+            assertEquals("Disk full", err.getMessage());
+        }
+    }
+
+    public void testSourceFailure() {
+        var pipeline = new OrderPipeline(new OrderValidator(), menuIndex, generator, 2);
+        try {
+            pipeline.run(onOrder -> {
+                onOrder.accept(server.getOrderGenerator().generate(date).get(0));
+                throw new IOException("Connection reset");
+            }, order -> {}, (order, moves) -> {});
+            fail();
+        } catch (IOException err) {
+            assertEquals("Connection reset", err.getMessage());
+        }
+    }
+
+    public void testInvalidBufferSize() {
+        try {
+            new OrderPipeline(new OrderValidator(), menuIndex, generator, 0);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package uk.ac.ed.inf.UnitTests.Pipeline;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Checkpoint.DayCheckpoint;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.Mocks.MockOrderGenerator;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Pipeline.Dispatch;
+import uk.ac.ed.inf.Pipeline.OrderPipeline;
+import uk.ac.ed.inf.Pipeline.OrderWatcher;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.RestService.RESTManager;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class OrderWatcherTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private MockRESTServer server;
+
+    private RESTManager manager;
+
+    private OrderPipeline pipeline;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockRESTServer();
+        manager = new RESTManager(server.getBaseUrl());
+        var menuIndex = new MenuIndex(server.getRestaurants());
+        var generator = new FlightPathGenerator(server.getCentralArea(), server.getNoFlyZones(), menuIndex);
+        pipeline = new OrderPipeline(new OrderValidator(), menuIndex, generator, 4);
+    }
+
+    @Override
+    protected void tearDown() {
+        server.close();
+    }
+
+    private OrderWatcher createWatcher(DayCheckpoint checkpoint) {
+        return new OrderWatcher(pipeline, onOrder -> manager.streamOrders(date, onOrder), checkpoint);
+    }
+
+    private List<Dispatch> poll(OrderWatcher watcher) throws Exception {
+        return watcher.poll(order -> {}, (order, moves) -> {});
+    }
+
+    public void testPollsOnlyNewOrders() throws Exception {
+        var watcher = createWatcher(new DayCheckpoint(Path.of("resultfiles"), date));
+
+        server.setArrivedOrders(10);
+        assertEquals(10, poll(watcher).size());
+        assertEquals(0, poll(watcher).size());
+
+        server.setArrivedOrders(30);
+        List<Dispatch> dispatches = poll(watcher);
+        assertEquals(20, dispatches.size());
+        for (int i = 0; i < dispatches.size(); i++) {
+            assertEquals(MockOrderGenerator.orderNumber(date, 10 + i), dispatches.get(i).order().getOrderNo());
+            assertTrue(dispatches.get(i).latencyNanos() >= 0);
+        }
+        assertEquals(30, watcher.getCheckpoint().size());
+    }
+
+    public void testStagedArrivalMatchesSingleRun() throws Exception {
+        var watcher = createWatcher(new DayCheckpoint(Path.of("resultfiles"), date));
+        var planned = new ArrayList<Order>();
+        for (int arrived = 5; arrived <= 60; arrived += 11) {
+            server.setArrivedOrders(arrived);
+            watcher.poll(order -> {}, (order, moves) -> planned.add(order));
+        }
+
+        server.setArrivedOrders(Integer.MAX_VALUE);
+        var single = createWatcher(new DayCheckpoint(Path.of("resultfiles"), date));
+        poll(single);
+
+        assertEquals(58, watcher.getCheckpoint().size());
+        assertEquals(50, planned.size());
+        assertTrue(Arrays.equals(single.getCheckpoint().getFlightPath(), watcher.getCheckpoint().getFlightPath()));
+    }
+
+    public void testResumesFromCheckpoint() throws Exception {
+        var checkpoint = new DayCheckpoint(Path.of("resultfiles"), date);
+        server.setArrivedOrders(20);
+        poll(createWatcher(checkpoint));
+
+        server.setArrivedOrders(Integer.MAX_VALUE);
+        List<Dispatch> dispatches = poll(createWatcher(checkpoint));
+        assertEquals(38, dispatches.size());
+        assertEquals(MockOrderGenerator.orderNumber(date, 20), dispatches.get(0).order().getOrderNo());
+    }
+}
@@ -0,0 +1,67 @@
+package uk.ac.ed.inf.UnitTests.Pipeline;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Pipeline.Shard;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+
+public class ShardTest extends TestCase {
+    private MockRESTServer server;
+
+    private MenuIndex menuIndex;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockRESTServer();
+        menuIndex = new MenuIndex(server.getRestaurants());
+    }
+
+    @Override
+    protected void tearDown() {
+        server.close();
+    }
+
+    public void testParse() {
+        assertEquals(new Shard(1, 4), Shard.parse("1/4"));
+        assertEquals("1/4", Shard.parse("1/4").toString());
+        for (String shard : new String[] { "4/4", "-1/4", "0/0", "1", "a/4", "1/2/3" }) {
+            try {
+                Shard.parse(shard);
+                fail(shard);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testEveryOrderHasOneOwner() {
+        List<Order> orders = server.getOrderGenerator().generate(LocalDate.of(2023, 9, 1));
+        var         shards = new Shard[] { new Shard(0, 3), new Shard(1, 3), new Shard(2, 3) };
+        var         owners = new HashMap<String, Integer>();
+        for (Order order : orders) {
+            int owned = 0;
+            for (Shard shard : shards)
+                if (shard.owns(order, menuIndex)) owned++;
+            assertEquals(1, owned);
+
+            // Every order from the same restaurant goes to the same shard.
+            Pizza[] pizzas = order.getPizzasInOrder();
+            if (pizzas == null || pizzas.length == 0 || menuIndex.lookup(pizzas[0].name()) == null) continue;
+            String restaurant = menuIndex.lookup(pizzas[0].name()).restaurant().name();
+            int    shard      = Shard.of(order, menuIndex, 3);
+            assertEquals(shard, (int) owners.computeIfAbsent(restaurant, __ -> shard));
+        }
+    }
+
+    public void testUnknownPizzasGoToTheFirstShard() {
+        var order = new Order();
+        assertEquals(0, Shard.of(order, menuIndex, 3));
+        order.setPizzasInOrder(new Pizza[] { new Pizza("Not on any menu", 1000) });
+        assertEquals(0, Shard.of(order, menuIndex, 3));
+    }
+}
@@ -0,0 +1,115 @@
+package uk.ac.ed.inf.UnitTests.RestService;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.RestService.CreditCardValidator;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+public class CreditCardValidatorTest extends TestCase {
+    private final String alphabet = "0123456789/+- a\n٣１";
+
+    private final LocalDate[] orderDates = {
+            LocalDate.of(2023, 1, 1), LocalDate.of(2023, 10, 3), LocalDate.of(2030, 12, 31), LocalDate.of(2000, 6, 15)
+    };
+
+    // The regex and exception based validators which CreditCardValidator replaces.
+    private boolean referenceNumberIsValid(String creditCardNumber) {
+        return creditCardNumber != null && creditCardNumber.matches("^[245]\\d{15}$");
+    }
+
+    private boolean referenceCVVIsValid(String cvv) {
+        return cvv != null && cvv.matches("^\\d{3}$");
+    }
+
+    private boolean referenceExpiryIsValid(String creditCardExpiry, LocalDate orderDate) {
+        int expiryMonth;
+        int expiryYear;
+        try {
+            String[] splitDate = creditCardExpiry.split("/");
+            expiryMonth = Integer.parseInt(splitDate[0]);
+            expiryYear = Integer.parseInt(splitDate[1]);
+        } catch (Exception err) {
+            return false;
+        }
+        if (expiryMonth < 1 || expiryMonth > 12 || expiryYear < 0 || expiryYear > 99) return false;
+        int currentMonth = orderDate.getMonthValue();
+        int currentYear  = orderDate.getYear() % 100;
+        return expiryYear > currentYear || expiryYear == currentYear && expiryMonth >= currentMonth;
+    }
+
+    private String randomString(Random random, int maxLength) {
+        var builder = new StringBuilder();
+        int length  = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++)
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return builder.toString();
+    }
+
+    private String randomField(Random random, int bound) {
+        // A number, sometimes negative, padded with a random number of leading zeros.
+        int value = random.nextInt(bound) - 10;
+        return "0".repeat(random.nextInt(3)) + value;
+    }
+
+    private String randomExpiry(Random random) {
+        // Mostly well-formed dates, with some noise mixed in to reach the edge cases.
+        String expiry = randomField(random, 25) + "/" + randomField(random, 120);
+        if (random.nextInt(4) == 0) expiry = randomString(random, 3) + expiry;
+        if (random.nextInt(4) == 0) expiry = expiry + randomString(random, 3);
+        return expiry;
+    }
+
+    public void testNumberMatchesRegex() {
+        String[] cases = {
+                null, "", "4123456789012345", "2123456789012345", "5123456789012345", "3123456789012345",
+                "412345678901234", "41234567890123456", "4123456789012345\n", "412345678901234٣", "412345678901234a"
+        };
+        for (String number : cases)
+            assertEquals(number, referenceNumberIsValid(number), CreditCardValidator.isValidNumber(number));
+
+        var random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            String number = "245".charAt(random.nextInt(3)) + randomString(random, 17);
+            assertEquals(number, referenceNumberIsValid(number), CreditCardValidator.isValidNumber(number));
+        }
+    }
+
+    public void testCVVMatchesRegex() {
+        String[] cases = { null, "", "1", "12", "123", "1234", "12a", "٣٣٣", "123\n", "-12" };
+        for (String cvv : cases)
+            assertEquals(cvv, referenceCVVIsValid(cvv), CreditCardValidator.isValidCVV(cvv));
+
+        var random = new Random(2);
+        for (int i = 0; i < 100_000; i++) {
+            String cvv = randomString(random, 4);
+            assertEquals(cvv, referenceCVVIsValid(cvv), CreditCardValidator.isValidCVV(cvv));
+        }
+    }
+
+    public void testExpiryMatchesParser() {
+        String[] cases = {
+                null, "", "/", "//", "01", "01/", "/30", "01/30", "1/30", "01/30/", "01/30/x", "01//30", "12/99",
+                "13/30", "00/30", "01/100", "-1/30", "+1/30", "-0/30", "01/-0", "01/+", "+/30", "0001/0030",
+                "٣/30", "１/30", "01/30\n", "99999999999/30", "01/99999999999", "01/-99999999999", " 1/30"
+        };
+        for (LocalDate orderDate : orderDates) {
+            for (String expiry : cases) {
+                assertEquals(expiry,
+                             referenceExpiryIsValid(expiry, orderDate),
+                             CreditCardValidator.isValidExpiry(expiry, orderDate)
+                            );
+            }
+        }
+
+        var random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            String    expiry    = randomExpiry(random);
+            LocalDate orderDate = orderDates[random.nextInt(orderDates.length)];
+            assertEquals(expiry,
+                         referenceExpiryIsValid(expiry, orderDate),
+                         CreditCardValidator.isValidExpiry(expiry, orderDate)
+                        );
+        }
+    }
+}
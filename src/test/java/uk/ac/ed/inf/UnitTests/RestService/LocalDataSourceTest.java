@@ -0,0 +1,129 @@
+package uk.ac.ed.inf.UnitTests.RestService;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.RestService.DataSource;
+import uk.ac.ed.inf.RestService.Endpoints;
+import uk.ac.ed.inf.RestService.LocalDataSource;
+import uk.ac.ed.inf.RestService.RESTManager;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class LocalDataSourceTest extends TestCase {
+    private final LocalDate date = LocalDate.of(2023, 9, 1);
+
+    private Path directory;
+
+    private MockRESTServer server;
+
+    private ForkJoinPool pool;
+
+    private LocalDataSource source;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("local-data");
+        server = new MockRESTServer();
+        server.writeLocalData(directory, List.of(date));
+        pool = new ForkJoinPool(4);
+        source = new LocalDataSource(directory, pool, pool);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        pool.shutdownNow();
+        server.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    private void assertSameOrders(List<Order> expected, List<Order> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOrderNo(), actual.get(i).getOrderNo());
+            assertEquals(expected.get(i).getOrderDate(), actual.get(i).getOrderDate());
+        }
+    }
+
+    public void testMatchesRESTManager() throws IOException {
+        DataSource rest = new RESTManager(server.getBaseUrl());
+        assertEquals(rest.getRestaurants().length, source.getRestaurants().length);
+        assertEquals(rest.getCentralArea().name(), source.getCentralArea().name());
+        assertEquals(rest.getNoFlyZones().length, source.getNoFlyZones().length);
+        assertSameOrders(List.of(rest.getOrders(date)), List.of(source.getOrders(date)));
+        assertEquals(source.getCentralArea().name(), source.fetchAsync(Endpoints.CENTRAL_AREA).join().name());
+    }
+
+    public void testStreamsInOrderAcrossChunks() throws IOException {
+        // Enough orders for the file to be split into several chunks, parsed in parallel.
+        var expected = new ArrayList<Order>();
+        var lines    = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            server.writeLocalData(directory, List.of(date.plusDays(i)));
+            lines.append(Files.readString(source.getOrdersFile(date.plusDays(i))));
+            expected.addAll(server.getOrderGenerator().generate(date.plusDays(i)));
+        }
+        Files.writeString(source.getOrdersFile(null), lines);
+        assertTrue(Files.size(source.getOrdersFile(null)) > 4 * (1 << 16));
+
+        var streamed = new ArrayList<Order>();
+        assertEquals(expected.size(), source.streamOrders(null, streamed::add));
+        assertSameOrders(expected, streamed);
+        assertSameOrders(expected, List.of(source.getOrders(null)));
+        assertSameOrders(expected, List.of(source.fetchAsync(Endpoints.ORDERS).join()));
+    }
+
+    public void testLastLineWithoutNewline() throws IOException {
+        Path   file  = source.getOrdersFile(date);
+        String lines = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, lines.stripTrailing());
+        assertEquals(server.getOrderGenerator().generate(date).size(), source.getOrders(date).length);
+
+        // A line cut off part way through is not an order.
+        Files.writeString(file, lines.substring(0, lines.length() - 10));
+        try {
+            source.streamOrders(date, order -> {});
+            fail();
+        } catch (IOException ignored) {
+        }
+        assertNull(source.getOrders(date));
+    }
+
+    public void testEmptyAndMissingFiles() throws IOException {
+        Files.writeString(source.getOrdersFile(date), "");
+        assertEquals(0, source.getOrders(date).length);
+        assertNull(source.getOrders(date.plusDays(1)));
+        try {
+            new LocalDataSource(directory.resolve("missing"));
+            fail();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void testDirectoryOf() {
+        assertNull(LocalDataSource.directoryOf(server.getBaseUrl()));
+        assertEquals(directory, LocalDataSource.directoryOf(directory.toUri().toString()));
+        try {
+            LocalDataSource.directoryOf("file:relative");
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    public void testOpen() throws IOException {
+        assertTrue(DataSource.open(directory.toUri().toString(), pool, pool) instanceof LocalDataSource);
+        assertTrue(DataSource.open(server.getBaseUrl(), pool, pool) instanceof RESTManager);
+    }
+}
@@ -0,0 +1,80 @@
+package uk.ac.ed.inf.UnitTests.RestService;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.time.DayOfWeek;
+
+public class MenuIndexTest extends TestCase {
+    private Restaurant[] generateRestaurants() {
+        return new Restaurant[] {
+                new Restaurant("1", new LngLat(0, 0), new DayOfWeek[] {
+                        DayOfWeek.MONDAY, DayOfWeek.SUNDAY
+                }, new Pizza[] {
+                        new Pizza("A", 1000), new Pizza("B", 1400), new Pizza("A", 1)
+                }),
+                new Restaurant("2", new LngLat(1, 1), new DayOfWeek[] {
+                        DayOfWeek.WEDNESDAY, null
+                }, new Pizza[] {
+                        new Pizza("C", 900), null
+                })
+        };
+    }
+
+    public void testLookup() {
+        var restaurants = generateRestaurants();
+        var index       = new MenuIndex(restaurants);
+
+        MenuIndex.MenuEntry entry = index.lookup("B");
+        assertSame(restaurants[0], entry.restaurant());
+        assertEquals(0, entry.restaurantIndex());
+        assertEquals(1400, entry.priceInPence());
+
+        entry = index.lookup("C");
+        assertSame(restaurants[1], entry.restaurant());
+        assertEquals(1, entry.restaurantIndex());
+
+        assertNull(index.lookup("D"));
+        assertNull(index.lookup(null));
+    }
+
+    public void testDuplicatePizzaKeepsFirstPrice() {
+        var index = new MenuIndex(generateRestaurants());
+        assertEquals(1000, index.lookup("A").priceInPence());
+    }
+
+    public void testSharedPizzaResolvesToFirstRestaurant() {
+        var restaurants = new Restaurant[] {
+                new Restaurant("1", new LngLat(0, 0), new DayOfWeek[] { DayOfWeek.MONDAY }, new Pizza[] {
+                        new Pizza("Shared", 1000)
+                }),
+                new Restaurant("2", new LngLat(1, 1), new DayOfWeek[] { DayOfWeek.MONDAY }, new Pizza[] {
+                        new Pizza("Shared", 1200)
+                })
+        };
+        MenuIndex.MenuEntry entry = new MenuIndex(restaurants).lookup("Shared");
+        assertSame(restaurants[0], entry.restaurant());
+        assertEquals(0, entry.restaurantIndex());
+        assertEquals(1000, entry.priceInPence());
+    }
+
+    public void testOpeningDays() {
+        var index = new MenuIndex(generateRestaurants());
+        assertTrue(index.isOpen(0, DayOfWeek.MONDAY));
+        assertTrue(index.isOpen(0, DayOfWeek.SUNDAY));
+        assertFalse(index.isOpen(0, DayOfWeek.TUESDAY));
+        assertTrue(index.isOpen(1, DayOfWeek.WEDNESDAY));
+        assertFalse(index.isOpen(1, DayOfWeek.MONDAY));
+        assertFalse(index.isOpen(1, null));
+    }
+
+    public void testIsIndexOf() {
+        var restaurants = generateRestaurants();
+        var index       = new MenuIndex(restaurants);
+        assertTrue(index.isIndexOf(restaurants));
+        assertFalse(index.isIndexOf(generateRestaurants()));
+    }
+}
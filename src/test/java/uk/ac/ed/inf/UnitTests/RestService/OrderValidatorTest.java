@@ -1,6 +1,9 @@
 package uk.ac.ed.inf.UnitTests.RestService;
 
 import junit.framework.TestCase;
+import uk.ac.ed.inf.Mocks.MockOrderGenerator;
+import uk.ac.ed.inf.RestService.BatchValidationResult;
+import uk.ac.ed.inf.RestService.MenuIndex;
 import uk.ac.ed.inf.RestService.OrderValidator;
 import uk.ac.ed.inf.ilp.constant.OrderStatus;
 import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
@@ -9,6 +12,10 @@ import uk.ac.ed.inf.ilp.data.*;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class OrderValidatorTest extends TestCase {
     OrderValidator validator = new OrderValidator();
@@ -230,6 +237,33 @@ public class OrderValidatorTest extends TestCase {
         assertNotSame(OrderValidationCode.RESTAURANT_CLOSED, order.getOrderValidationCode());
     }
 
+    public void testSharedPizzaUsesFirstRestaurant() {
+        // Both restaurants sell a Margarita, but only the first is open on the order's Tuesday and charges 1000.
+        var restaurants = new Restaurant[] {
+                new Restaurant("First", new LngLat(0, 0), new DayOfWeek[] { DayOfWeek.TUESDAY }, new Pizza[] {
+                        new Pizza("Margarita", 1000)
+                }),
+                new Restaurant("Second", new LngLat(1, 1), new DayOfWeek[] { DayOfWeek.MONDAY }, new Pizza[] {
+                        new Pizza("Margarita", 1200), new Pizza("Calzone", 1400)
+                })
+        };
+        Order order = validator.validateOrder(generateBasicOrder(), restaurants);
+        assertEquals(OrderStatus.VALID_BUT_NOT_DELIVERED, order.getOrderStatus());
+        assertEquals(OrderValidationCode.NO_ERROR, order.getOrderValidationCode());
+
+        order = generateBasicOrder();
+        order.setPizzasInOrder(new Pizza[] { new Pizza("Margarita", 1200) });
+        order.setPriceTotalInPence(SystemConstants.ORDER_CHARGE_IN_PENCE + 1200);
+        order = validator.validateOrder(order, restaurants);
+        assertEquals(OrderValidationCode.TOTAL_INCORRECT, order.getOrderValidationCode());
+
+        order = generateBasicOrder();
+        order.setPizzasInOrder(new Pizza[] { new Pizza("Margarita", 1000), new Pizza("Calzone", 1400) });
+        order.setPriceTotalInPence(SystemConstants.ORDER_CHARGE_IN_PENCE + 1000 + 1400);
+        order = validator.validateOrder(order, restaurants);
+        assertEquals(OrderValidationCode.PIZZA_FROM_MULTIPLE_RESTAURANTS, order.getOrderValidationCode());
+    }
+
     public void testTotalPrice() {
         // Test that an order with an invalid total price is rejected
         Order order = generateBasicOrder();
@@ -398,4 +432,41 @@ public class OrderValidatorTest extends TestCase {
         order = validator.validateOrder(order, generateRestaurants());
         assertNotSame(OrderValidationCode.CVV_INVALID, order.getOrderValidationCode());
     }
+
+    public void testBatchValidation() {
+        // Generate a few thousand orders across many days, so that the batch is split across threads
+        var restaurants = generateRestaurants();
+        var generator   = new MockOrderGenerator(restaurants, 50);
+        var orders      = generator.generateAll().toArray(Order[]::new);
+        var orderNos    = Arrays.stream(orders).map(Order::getOrderNo).toArray(String[]::new);
+
+        BatchValidationResult result = validator.validateOrders(orders, restaurants);
+
+        // The orders keep their positions
+        assertEquals(orders.length, result.orders().length);
+        for (int i = 0; i < orders.length; i++)
+            assertEquals(orderNos[i], result.orders()[i].getOrderNo());
+
+        // The counts match validating the orders one at a time
+        var expected = new EnumMap<OrderValidationCode, Integer>(OrderValidationCode.class);
+        for (Order order : generator.generateAll())
+            expected.merge(validator.validateOrder(order, restaurants).getOrderValidationCode(), 1, Integer::sum);
+        assertEquals(expected, result.counts());
+        assertEquals(50 * MockOrderGenerator.DAYS_WITH_ORDERS, result.getCount(OrderValidationCode.NO_ERROR));
+        assertEquals(MockOrderGenerator.DAYS_WITH_ORDERS, result.getCount(OrderValidationCode.CVV_INVALID));
+        assertEquals(0, result.getCount(OrderValidationCode.UNDEFINED));
+        assertEquals(50 * MockOrderGenerator.DAYS_WITH_ORDERS, result.getValidOrders().length);
+    }
+
+    public void testBatchValidationListener() {
+        var restaurants = generateRestaurants();
+        var orders      = new MockOrderGenerator(restaurants, 50).generateAll().toArray(Order[]::new);
+        var validated   = ConcurrentHashMap.<Order>newKeySet();
+
+        validator.validateOrders(orders, new MenuIndex(restaurants), ForkJoinPool.commonPool(), order -> {
+            assertNotSame(OrderValidationCode.UNDEFINED, order.getOrderValidationCode());
+            assertTrue(validated.add(order));
+        });
+        assertEquals(orders.length, validated.size());
+    }
 }
@@ -1,23 +1,36 @@
 package uk.ac.ed.inf.UnitTests.RestService;
 
 import junit.framework.TestCase;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.RestService.Endpoints;
 import uk.ac.ed.inf.RestService.RESTManager;
 import uk.ac.ed.inf.ilp.data.Order;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CompletionException;
 
 public class RESTManagerTest extends TestCase {
+    MockRESTServer server;
+
     RESTManager manager;
 
-    public RESTManagerTest(String testName) {
-        super(testName);
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockRESTServer();
         try {
-            manager = new RESTManager("https://ilp-rest.azurewebsites.net");
+            manager = new RESTManager(server.getBaseUrl());
         } catch (Exception e) {
             fail("Exception thrown when creating RESTManager");
         }
     }
 
+    @Override
+    protected void tearDown() {
+        server.close();
+    }
+
     public void testGetRestaurants() {
         try {
             manager.getRestaurants();
@@ -38,6 +51,17 @@ public class RESTManagerTest extends TestCase {
         assertTrue(allOrders.length > dateOrders.length);
     }
 
+    public void testStreamOrders() throws Exception {
+        var     date     = LocalDate.parse("2023-09-01");
+        Order[] expected = manager.getOrders(date);
+        var     streamed = new ArrayList<Order>();
+        assertEquals(expected.length, manager.streamOrders(date, streamed::add));
+        assertEquals(expected.length, streamed.size());
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i].getOrderNo(), streamed.get(i).getOrderNo());
+        assertEquals(0, manager.streamOrders(LocalDate.parse("2023-01-01"), streamed::add));
+    }
+
     public void testGetCentralArea() {
         try {
             manager.getCentralArea();
@@ -53,4 +77,50 @@ public class RESTManagerTest extends TestCase {
             fail("Exception thrown");
         }
     }
+
+    public void testFetchAsync() throws Exception {
+        var restaurants = manager.fetchAsync(Endpoints.RESTAURANTS);
+        var centralArea = manager.fetchAsync(Endpoints.CENTRAL_AREA);
+        assertEquals(server.getRestaurants().length, restaurants.get().length);
+        assertEquals(server.getCentralArea().name(), centralArea.get().name());
+
+        server.close();
+        try {
+            manager.fetchAsync(Endpoints.NO_FLY_ZONES).join();
+            fail();
+        } catch (CompletionException err) {
+            assertTrue(err.getCause() instanceof UncheckedIOException);
+        }
+    }
+
+    public void testNoServer() {
+        server.close();
+        try {
+            new RESTManager(server.getBaseUrl());
+            fail("No exception thrown");
+        } catch (Exception ignored) {
+        }
+    }
+
+    public void testLatencyInjection() {
+        server.setLatency(Endpoints.RESTAURANTS, 250);
+        long startTime = System.currentTimeMillis();
+        assertNotNull(manager.getRestaurants());
+        assertTrue(System.currentTimeMillis() - startTime >= 250);
+    }
+
+    public void testBandwidthCap() {
+        int payloadSize = server.getPayloadSize("orders/2023-11-15");
+        server.setBandwidth(Endpoints.ORDERS, payloadSize * 4L);
+        long startTime = System.currentTimeMillis();
+        assertEquals(58, manager.getOrders(LocalDate.parse("2023-11-15")).length);
+        assertTrue(System.currentTimeMillis() - startTime >= 200);
+    }
+
+    public void testPayloadSize() {
+        int smallPayload = server.getPayloadSize("orders/2023-11-15");
+        server.setValidOrdersPerDay(500);
+        assertTrue(server.getPayloadSize("orders/2023-11-15") > smallPayload * 5);
+        assertEquals(508, manager.getOrders(LocalDate.parse("2023-11-15")).length);
+    }
 }
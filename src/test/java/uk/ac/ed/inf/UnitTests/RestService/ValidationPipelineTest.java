@@ -0,0 +1,171 @@
+package uk.ac.ed.inf.UnitTests.RestService;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Mocks.MockOrderGenerator;
+import uk.ac.ed.inf.RestService.*;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+public class ValidationPipelineTest extends TestCase {
+    private Restaurant[] generateRestaurants() {
+        return new Restaurant[] {
+                new Restaurant("1", new LngLat(0, 0), new DayOfWeek[] {
+                        DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY
+                }, new Pizza[] {
+                        new Pizza("Margarita", 1000), new Pizza("Calzone", 1400)
+                }),
+                new Restaurant("2", new LngLat(0, 0), new DayOfWeek[] {
+                        DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY
+                }, new Pizza[] {
+                        new Pizza("Meat Lover", 1400), new Pizza("Vegan Delight", 1100)
+                }),
+                new Restaurant("3", new LngLat(0, 0), new DayOfWeek[] {
+                        DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY
+                }, new Pizza[] {
+                        new Pizza("Super Cheese", 1400), new Pizza("All Shrooms", 900)
+                }),
+                new Restaurant("4", new LngLat(0, 0), new DayOfWeek[] {
+                        DayOfWeek.SUNDAY
+                }, new Pizza[] {
+                        new Pizza("Proper Pizza", 1400)
+                })
+        };
+    }
+
+    private List<Order> generateOrders(Restaurant[] restaurants) {
+        // Orders failing any combination of rules, so that the reported code depends on the priorities.
+        var generator = new MockOrderGenerator(restaurants, 20);
+        var random    = new Random(0);
+        var orders    = new ArrayList<Order>();
+        for (int day = 0; day < 60; day++) {
+            LocalDate date = MockOrderGenerator.FIRST_DATE.plusDays(day);
+            for (Order order : generator.generate(date)) {
+                if (random.nextInt(3) == 0) order.getCreditCardInformation().setCvv("12");
+                if (random.nextInt(3) == 0) order.getCreditCardInformation().setCreditCardExpiry("01/20");
+                if (random.nextInt(5) == 0) order.setPriceTotalInPence(order.getPriceTotalInPence() - 1);
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private OrderValidationCode validateWithIfChain(Order order, MenuIndex menuIndex) {
+        // Evaluates the rules one after another, in priority order.
+        for (ValidationRule rule : ValidationRules.ALL)
+            if (!rule.passes(new OrderContext(order, menuIndex))) return rule.code();
+        return OrderValidationCode.NO_ERROR;
+    }
+
+    public void testAdaptiveOrderReportsSameCodes() {
+        var restaurants = generateRestaurants();
+        var menuIndex   = new MenuIndex(restaurants);
+        var pipeline    = ValidationPipeline.adaptive();
+        var orders      = generateOrders(restaurants);
+
+        // Run enough orders through the pipeline for it to re-sort its rules several times
+        for (int pass = 0; pass < 20; pass++) {
+            for (Order order : orders) {
+                assertEquals(validateWithIfChain(order, menuIndex),
+                             pipeline.validate(new OrderContext(order, menuIndex))
+                            );
+            }
+        }
+    }
+
+    public void testAdaptiveOrderPrefersRejectingRules() {
+        var restaurants = generateRestaurants();
+        var menuIndex   = new MenuIndex(restaurants);
+        var pipeline    = ValidationPipeline.adaptive();
+
+        // Every order has a bad CVV and nothing else wrong. The pipeline re-sorts at random, so run enough orders
+        // through it that it all but certainly has.
+        var orders = new MockOrderGenerator(restaurants, 50).generate(MockOrderGenerator.FIRST_DATE);
+        for (int i = 0; i < 100_000; i++) {
+            Order order = orders.get(i % orders.size());
+            order.getCreditCardInformation().setCvv("1");
+            pipeline.validate(new OrderContext(order, menuIndex));
+        }
+        assertSame(ValidationRules.CVV, pipeline.getEvaluationOrder().get(0));
+    }
+
+    public void testDefaultOrderIsFixed() {
+        var restaurants = generateRestaurants();
+        var menuIndex   = new MenuIndex(restaurants);
+        var pipeline    = new ValidationPipeline();
+        var expected    = pipeline.getEvaluationOrder();
+
+        var orders = new MockOrderGenerator(restaurants, 50).generate(MockOrderGenerator.FIRST_DATE);
+        for (int i = 0; i < 100_000; i++) {
+            Order order = orders.get(i % orders.size());
+            order.getCreditCardInformation().setCvv("1");
+            pipeline.validate(new OrderContext(order, menuIndex));
+        }
+        assertEquals(expected, pipeline.getEvaluationOrder());
+    }
+
+    public void testFixedOrderSortsByCost() {
+        var pipeline = new ValidationPipeline(ValidationRules.ALL, false);
+        int lastCost = 0;
+        for (ValidationRule rule : pipeline.getEvaluationOrder()) {
+            assertTrue(rule.cost().weight() >= lastCost);
+            lastCost = rule.cost().weight();
+        }
+    }
+
+    public void testFindAllFailures() {
+        var restaurants = generateRestaurants();
+        var validator   = new OrderValidator();
+        var order = new Order("1",
+                              LocalDate.of(2023, 10, 3),
+                              OrderStatus.UNDEFINED,
+                              OrderValidationCode.UNDEFINED,
+                              SystemConstants.ORDER_CHARGE_IN_PENCE + 999,
+                              new Pizza[] { new Pizza("Margarita", 1000) },
+                              new CreditCardInformation("1123456789012345", "01/20", "1")
+        );
+        int failures = validator.findAllFailures(order, new MenuIndex(restaurants));
+        assertEquals(EnumSet.of(OrderValidationCode.TOTAL_INCORRECT,
+                                OrderValidationCode.CARD_NUMBER_INVALID,
+                                OrderValidationCode.EXPIRY_DATE_INVALID,
+                                OrderValidationCode.CVV_INVALID
+                               ), ValidationPipeline.toCodes(failures));
+        assertEquals(OrderValidationCode.UNDEFINED, order.getOrderValidationCode());
+
+        // Rules depending on the pizzas existing do not also report failures
+        order.setPizzasInOrder(new Pizza[] { new Pizza("Unknown", 1000) });
+        failures = validator.findAllFailures(order, new MenuIndex(restaurants));
+        assertEquals(EnumSet.of(OrderValidationCode.PIZZA_NOT_DEFINED,
+                                OrderValidationCode.CARD_NUMBER_INVALID,
+                                OrderValidationCode.EXPIRY_DATE_INVALID,
+                                OrderValidationCode.CVV_INVALID
+                               ), ValidationPipeline.toCodes(failures));
+    }
+
+    public void testCustomRule() {
+        var restaurants = generateRestaurants();
+        var rules       = new ArrayList<>(ValidationRules.ALL);
+        rules.add(ValidationRule.of(OrderValidationCode.UNDEFINED,
+                                    CostClass.CHEAP,
+                                    context -> context.getOrder().getOrderNo() != null
+                                   ));
+        var validator = new OrderValidator(new ValidationPipeline(rules, true));
+
+        var order = new MockOrderGenerator(restaurants, 1).generateValidOrder(MockOrderGenerator.FIRST_DATE,
+                                                                              new Random(0)
+                                                                             );
+        validator.validateOrder(order, restaurants);
+        assertEquals(OrderValidationCode.UNDEFINED, order.getOrderValidationCode());
+        order.setOrderNo("1");
+        validator.validateOrder(order, restaurants);
+        assertEquals(OrderValidationCode.NO_ERROR, order.getOrderValidationCode());
+    }
+}
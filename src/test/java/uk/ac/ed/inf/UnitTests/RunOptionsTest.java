@@ -0,0 +1,330 @@
+package uk.ac.ed.inf.UnitTests;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Execution.ExecutionConfig;
+import uk.ac.ed.inf.Heatmap.HeatmapGrid;
+import uk.ac.ed.inf.Output.Compression;
+import uk.ac.ed.inf.Output.OutputEngine;
+import uk.ac.ed.inf.Output.OutputFileType;
+import uk.ac.ed.inf.Pipeline.OrderWatcher;
+import uk.ac.ed.inf.Pipeline.Shard;
+import uk.ac.ed.inf.RunOptions;
+import uk.ac.ed.inf.Serializers.GeoJSONOptions;
+import uk.ac.ed.inf.Server.PlanningServer;
+import uk.ac.ed.inf.Tiles.ZoomRange;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+public class RunOptionsTest extends TestCase {
+    public void testPositionalArguments() {
+        var options = RunOptions.parse(new String[] { "2023-09-01", "http://localhost" });
+        assertEquals(LocalDate.of(2023, 9, 1), options.getDate());
+        assertEquals("http://localhost", options.getApiUrl());
+        assertFalse(options.isCompact());
+        assertFalse(options.isArchive());
+    }
+
+    public void testCompact() {
+        assertTrue(RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--compact" }).isCompact());
+    }
+
+    public void testArchive() {
+        assertTrue(RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--archive" }).isArchive());
+    }
+
+    public void testNDJSON() {
+        assertTrue(RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--ndjson" }).isNDJSON());
+        assertFalse(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).isNDJSON());
+    }
+
+    public void testExecutionConfig() throws IOException {
+        assertEquals(ExecutionConfig.defaults(),
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getExecutionConfig());
+
+        Path file = Files.createTempFile("execution", ".properties");
+        try {
+            Files.writeString(file, "cpu-threads=2\nio-threads=6\n");
+            var options = RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--exec-config=" + file,
+                                                          "--io-threads=10", "--server-threads=3" });
+            assertEquals(new ExecutionConfig(2, 10, 3), options.getExecutionConfig());
+        } finally {
+            Files.delete(file);
+        }
+
+        for (String[] args : new String[][] {
+                { "2023-09-01", "http://localhost", "--cpu-threads=0" },
+                { "2023-09-01", "http://localhost", "--io-threads=a" },
+                { "2023-09-01", "http://localhost", "--exec-config=" + file }
+        }) {
+            try {
+                RunOptions.parse(args);
+                fail(String.join(" ", args));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testIncremental() {
+        assertTrue(RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--incremental" })
+                             .isIncremental());
+        assertFalse(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).isIncremental());
+    }
+
+    public void testResume() {
+        assertTrue(RunOptions.parse(new String[] { "2023-09-01..2023-09-30", "http://localhost", "--resume" })
+                             .isResume());
+        assertFalse(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).isResume());
+        try {
+            RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--resume", "--watch" });
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    public void testDataDirectory() {
+        assertNull(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getDataDirectory());
+        assertEquals(Path.of("/data/orders"),
+                     RunOptions.parse(new String[] { "2023-09-01", "file:///data/orders" }).getDataDirectory());
+        try {
+            RunOptions.parse(new String[] { "2023-09-01", "file:data/orders" });
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    public void testShard() {
+        var options = RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--shard=1/3" });
+        assertEquals(new Shard(1, 3), options.getShard());
+        assertNull(options.getMergeShards());
+        assertEquals(Path.of("resultfiles", "shards"), options.getShardDirectory());
+
+        options = RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--merge-shards=3",
+                                                  "--shard-dir=/shared/shards" });
+        assertNull(options.getShard());
+        assertEquals(3, (int) options.getMergeShards());
+        assertEquals(Path.of("/shared/shards"), options.getShardDirectory());
+
+        for (String[] args : new String[][] {
+                { "2023-09-01", "http://localhost", "--shard=3/3" },
+                { "2023-09-01", "http://localhost", "--merge-shards=0" },
+                { "2023-09-01", "http://localhost", "--shard=0/3", "--merge-shards=3" },
+                { "2023-09-01", "http://localhost", "--shard=0/3", "--incremental" },
+                { "2023-09-01", "http://localhost", "--merge-shards=3", "--ndjson" }
+        }) {
+            try {
+                RunOptions.parse(args);
+                fail(String.join(" ", args));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testWatch() {
+        var options = RunOptions.parse(new String[] { "today", "http://localhost", "--watch" });
+        assertEquals(LocalDate.now(), options.getDate());
+        assertEquals(OrderWatcher.DEFAULT_INTERVAL, options.getWatchInterval());
+        assertEquals(OrderWatcher.DEFAULT_LATENCY_TARGET, options.getLatencyTarget());
+        assertNull(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getWatchInterval());
+
+        options = RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--watch=0.5",
+                                                  "--latency-target=250" });
+        assertEquals(Duration.ofMillis(500), options.getWatchInterval());
+        assertEquals(Duration.ofMillis(250), options.getLatencyTarget());
+
+        for (String[] args : new String[][] {
+                { "2023-09-01", "http://localhost", "--watch=0" },
+                { "2023-09-01", "http://localhost", "--watch=a" },
+                { "2023-09-01", "http://localhost", "--latency-target=0" },
+                { "2023-09-01..2023-09-02", "http://localhost", "--watch" }
+        }) {
+            try {
+                RunOptions.parse(args);
+                fail(String.join(" ", args));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testMissingArguments() {
+        try {
+            RunOptions.parse(new String[] { "2023-09-01" });
+            fail();
+        } catch (IllegalArgumentException err) {
+            assertTrue(err.getMessage().contains(RunOptions.USAGE));
+        }
+    }
+
+    public void testInvalidDate() {
+        try {
+            RunOptions.parse(new String[] { "2023-13-01", "http://localhost" });
+            fail();
+        } catch (IllegalArgumentException err) {
+            assertTrue(err.getMessage().contains("YYYY-MM-DD"));
+        }
+    }
+
+    public void testUnknownOption() {
+        try {
+            RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--verbose" });
+            fail();
+        } catch (IllegalArgumentException err) {
+            assertEquals("Unknown option --verbose.", err.getMessage());
+        }
+    }
+
+    public void testUnexpectedArgument() {
+        try {
+            RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "compact" });
+            fail();
+        } catch (IllegalArgumentException err) {
+            assertTrue(err.getMessage().startsWith("Unexpected argument compact."));
+        }
+    }
+
+    public void testEngine() {
+        assertEquals(OutputEngine.NIO, RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getEngine());
+        assertEquals(OutputEngine.JACKSON,
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--engine=jackson" })
+                               .getEngine());
+        try {
+            RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--engine=gson" });
+            fail();
+        } catch (IllegalArgumentException err) {
+            assertEquals("Unknown output engine gson.", err.getMessage());
+        }
+    }
+
+    public void testCompression() {
+        var none = RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getCompression();
+        assertTrue(none.fileTypes().isEmpty());
+
+        var all = RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--gzip" }).getCompression();
+        assertEquals(EnumSet.allOf(OutputFileType.class), all.fileTypes());
+        assertEquals(Compression.DEFAULT_BUFFER_SIZE, all.bufferSize());
+
+        var some = RunOptions.parse(new String[] {
+                "2023-09-01", "http://localhost", "--gzip=flightpath,drone", "--gzip-level=9", "--gzip-buffer=4096"
+        }).getCompression();
+        assertEquals(EnumSet.of(OutputFileType.FLIGHT_PATH, OutputFileType.DRONE), some.fileTypes());
+        assertEquals(9, some.level());
+        assertEquals(4096, some.bufferSize());
+    }
+
+    public void testInvalidCompression() {
+        for (String option : new String[] { "--gzip=routes", "--gzip-level=10", "--gzip-level=x", "--gzip-buffer=0" }) {
+            try {
+                RunOptions.parse(new String[] { "2023-09-01", "http://localhost", option });
+                fail(option);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testGeoJSONOptions() {
+        assertEquals(GeoJSONOptions.EXACT,
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getGeoJSONOptions());
+        var options = RunOptions.parse(new String[] {
+                "2023-09-01", "http://localhost", "--geojson-per-order", "--geojson-simplify",
+                "--geojson-tolerance=1e-5", "--geojson-precision=6"
+        }).getGeoJSONOptions();
+        assertEquals(new GeoJSONOptions(true, true, 1e-5, 6), options);
+    }
+
+    public void testInvalidGeoJSONOptions() {
+        for (String option : new String[] {
+                "--geojson-tolerance=x", "--geojson-tolerance=-1", "--geojson-precision=16"
+        }) {
+            try {
+                RunOptions.parse(new String[] { "2023-09-01", "http://localhost", option });
+                fail(option);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testTileZooms() {
+        assertNull(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getTileZooms());
+        assertEquals(ZoomRange.DEFAULT,
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--tiles" }).getTileZooms());
+        assertEquals(new ZoomRange(10, 16),
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--tiles=10-16" })
+                               .getTileZooms());
+        try {
+            RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--tiles=16-10" });
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    public void testHeatmapCellSize() {
+        assertNull(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getHeatmapCellSize());
+        assertEquals(HeatmapGrid.DEFAULT_CELL_SIZE,
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--heatmap" })
+                               .getHeatmapCellSize());
+        assertEquals(0.001, RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--heatmap=0.001" })
+                                      .getHeatmapCellSize());
+        for (String cellSize : new String[] { "0", "-1", "a", "NaN" }) {
+            try {
+                RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--heatmap=" + cellSize });
+                fail(cellSize);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testServerPort() {
+        assertNull(RunOptions.parse(new String[] { "2023-09-01", "http://localhost" }).getServerPort());
+        assertEquals(Integer.valueOf(PlanningServer.DEFAULT_PORT),
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--serve" }).getServerPort());
+        assertEquals(Integer.valueOf(9000),
+                     RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--serve=9000" })
+                               .getServerPort());
+        for (String port : new String[] { "-1", "65536", "a" }) {
+            try {
+                RunOptions.parse(new String[] { "2023-09-01", "http://localhost", "--serve=" + port });
+                fail(port);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testDates() {
+        var single = RunOptions.parse(new String[] { "2023-09-01", "http://localhost" });
+        assertEquals(List.of(LocalDate.of(2023, 9, 1)), single.getDates());
+        assertFalse(single.isBatch());
+        assertEquals(1, single.getParallelism());
+
+        var range = RunOptions.parse(new String[] { "2023-08-30..2023-09-02", "http://localhost", "--parallelism=2" });
+        assertEquals(List.of(LocalDate.of(2023, 8, 30), LocalDate.of(2023, 8, 31), LocalDate.of(2023, 9, 1),
+                             LocalDate.of(2023, 9, 2)), range.getDates());
+        assertEquals(LocalDate.of(2023, 8, 30), range.getDate());
+        assertTrue(range.isBatch());
+        assertEquals(2, range.getParallelism());
+
+        var list = RunOptions.parse(new String[] { "2023-09-03,2023-09-01,2023-09-03", "http://localhost",
+                                                   "--parallelism=8" });
+        assertEquals(List.of(LocalDate.of(2023, 9, 3), LocalDate.of(2023, 9, 1)), list.getDates());
+        assertEquals(2, list.getParallelism());
+    }
+
+    public void testInvalidDates() {
+        for (String dates : new String[] { "2023-09-02..2023-09-01", "2023-09-01..", "2023-09-01,", "2023-13-01" }) {
+            try {
+                RunOptions.parse(new String[] { dates, "http://localhost" });
+                fail(dates);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        try {
+            RunOptions.parse(new String[] { "2023-09-01..2023-09-02", "http://localhost", "--parallelism=0" });
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
@@ -4,11 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import junit.framework.TestCase;
 import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.FlightPaths.LngLatHandler;
 import uk.ac.ed.inf.Serializers.FlightPathNodeGeoJSONSerializer;
+import uk.ac.ed.inf.Serializers.GeoJSONOptions;
 import uk.ac.ed.inf.ilp.data.LngLat;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
 
 public class FlightPathNodeGeoJSONSerializerTest extends TestCase {
     public void testSerializer() throws IOException {
@@ -29,4 +32,114 @@ public class FlightPathNodeGeoJSONSerializerTest extends TestCase {
                      + "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0.0,0.0],[0.0,1.0],[0.0,2.0],[0.0,3.0],[0.0,4.0]]},\"properties\":{\"name\":\"Flight Path\"}}]}";
         assertEquals(jsonWriter.toString(), result);
     }
+
+    private String serialize(GeoJSONOptions options, FlightPathNode[] path) throws IOException {
+        var module = new SimpleModule().addSerializer(FlightPathNode[].class,
+                                                      new FlightPathNodeGeoJSONSerializer(options));
+        return new ObjectMapper().registerModule(module).writeValueAsString(path);
+    }
+
+    private FlightPathNode[] generateLShapedPath() {
+        // Two orders: order 1 flies 3 moves east then 2 moves north, hovers, and order 2 flies back west.
+        var handler = new LngLatHandler();
+        var path    = new ArrayList<FlightPathNode>();
+        var from    = new LngLat(0, 0);
+        for (double angle : new double[] { 0, 0, 0, 90, 90, 999 }) {
+            LngLat to = angle == 999 ? from : handler.nextPosition(from, angle);
+            path.add(new FlightPathNode("1", from, angle, to));
+            from = to;
+        }
+        for (int i = 0; i < 2; i++) {
+            LngLat to = handler.nextPosition(from, 180);
+            path.add(new FlightPathNode("2", from, 180, to));
+            from = to;
+        }
+        return path.toArray(FlightPathNode[]::new);
+    }
+
+    public void testExactOptionsMatchDefault() throws IOException {
+        FlightPathNode[] path = generateLShapedPath();
+        var              module = new SimpleModule().addSerializer(FlightPathNode[].class,
+                                                                   new FlightPathNodeGeoJSONSerializer());
+        assertEquals(new ObjectMapper().registerModule(module).writeValueAsString(path),
+                     serialize(GeoJSONOptions.EXACT, path));
+    }
+
+    public void testPerOrderFeatures() throws IOException {
+        var path = new FlightPathNode[] {
+                new FlightPathNode("1", new LngLat(0, 0), 90, new LngLat(0, 1)),
+                new FlightPathNode("1", new LngLat(0, 1), 999, new LngLat(0, 1)),
+                new FlightPathNode("2", new LngLat(0, 1), 270, new LngLat(0, 0)),
+                new FlightPathNode("1", new LngLat(0, 0), 0, new LngLat(1, 0)),
+                };
+        var result = "{\"type\":\"FeatureCollection\",\"features\":["
+                     + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiLineString\",\"coordinates\":"
+                     + "[[[0.0,0.0],[0.0,1.0],[0.0,1.0]],[[0.0,0.0],[1.0,0.0]]]},"
+                     + "\"properties\":{\"orderNo\":\"1\",\"moves\":3,\"hovers\":1}},"
+                     + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiLineString\",\"coordinates\":"
+                     + "[[[0.0,1.0],[0.0,0.0]]]},"
+                     + "\"properties\":{\"orderNo\":\"2\",\"moves\":1,\"hovers\":0}}]}";
+        assertEquals(result, serialize(new GeoJSONOptions(true, false, 0, GeoJSONOptions.FULL_PRECISION), path));
+    }
+
+    public void testMergeStraightRuns() throws IOException {
+        FlightPathNode[] path   = generateLShapedPath();
+        String           result = serialize(new GeoJSONOptions(false, true, 0, 5), path);
+        // The corners of the path are kept, and the points along each straight leg and the hover are removed.
+        assertTrue(result, result.contains("\"coordinates\":[[0.0,0.0],[4.5E-4,0.0],[4.5E-4,3.0E-4],[3.0E-4,3.0E-4]]"));
+    }
+
+    public void testMergeStraightRunsOfReversedPath() throws IOException {
+        // A path to a restaurant is built from the path back, reversed, so each move starts where the line ends.
+        var handler = new LngLatHandler();
+        var back    = new ArrayList<FlightPathNode>();
+        var from    = new LngLat(0, 0);
+        for (double angle : new double[] { 0, 0, 90, 90 }) {
+            LngLat to = handler.nextPosition(from, angle);
+            back.add(new FlightPathNode("1", from, angle, to));
+            from = to;
+        }
+        var path = new ArrayList<FlightPathNode>();
+        for (int i = back.size() - 1; i >= 0; i--)
+            path.add(new FlightPathNode((back.get(i).angle() + 180) % 360, back.get(i)));
+        String result = serialize(new GeoJSONOptions(true, true, 0, 5), path.toArray(FlightPathNode[]::new));
+        // The line runs through the start of each move, then to the end of the last move, which is back along it.
+        assertTrue(result, result.contains("\"coordinates\":[[[3.0E-4,1.5E-4],[3.0E-4,0.0],[0.0,0.0],[1.5E-4,0.0]]]"));
+    }
+
+    public void testDouglasPeucker() throws IOException {
+        var path = new FlightPathNode[] {
+                new FlightPathNode("1", new LngLat(0, 0), 0, new LngLat(1, 0.001)),
+                new FlightPathNode("1", new LngLat(1, 0.001), 0, new LngLat(2, 0)),
+                new FlightPathNode("1", new LngLat(2, 0), 90, new LngLat(2, 1)),
+                };
+        assertTrue(serialize(new GeoJSONOptions(true, false, 0.01, GeoJSONOptions.FULL_PRECISION), path)
+                           .contains("\"coordinates\":[[[0.0,0.0],[2.0,0.0],[2.0,1.0]]]"));
+        assertTrue(serialize(new GeoJSONOptions(true, false, 0.0001, GeoJSONOptions.FULL_PRECISION), path)
+                           .contains("\"coordinates\":[[[0.0,0.0],[1.0,0.001],[2.0,0.0],[2.0,1.0]]]"));
+    }
+
+    public void testPrecision() throws IOException {
+        var path = new FlightPathNode[] {
+                new FlightPathNode("1", new LngLat(-3.186874123456, 55.944494987654), 999,
+                                   new LngLat(-3.186874123456, 55.944494987654)),
+                };
+        assertTrue(serialize(new GeoJSONOptions(false, false, 0, 6), path).contains("[-3.186874,55.944495]"));
+        assertTrue(serialize(new GeoJSONOptions(false, false, 0, 0), path).contains("[-3.0,56.0]"));
+    }
+
+    public void testInvalidOptions() {
+        for (double tolerance : new double[] { -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+            try {
+                new GeoJSONOptions(false, false, tolerance, GeoJSONOptions.FULL_PRECISION);
+                fail();
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        try {
+            new GeoJSONOptions(false, false, 0, GeoJSONOptions.MAX_PRECISION + 1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
 }
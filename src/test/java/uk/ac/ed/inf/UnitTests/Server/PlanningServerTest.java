@@ -0,0 +1,166 @@
+package uk.ac.ed.inf.UnitTests.Server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathGenerator;
+import uk.ac.ed.inf.Mocks.MockOrderGenerator;
+import uk.ac.ed.inf.Mocks.MockRESTServer;
+import uk.ac.ed.inf.Output.DateSummary;
+import uk.ac.ed.inf.RestService.MenuIndex;
+import uk.ac.ed.inf.RestService.OrderValidator;
+import uk.ac.ed.inf.Server.PlanningServer;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PlanningServerTest extends TestCase {
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final List<LocalDate> plannedDays = new ArrayList<>();
+
+    private MockRESTServer restServer;
+
+    private PlanningServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        restServer = new MockRESTServer();
+        var generator = new FlightPathGenerator(restServer.getCentralArea(), restServer.getNoFlyZones(),
+                                                restServer.getRestaurants());
+        server = new PlanningServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                                    new OrderValidator(),
+                                    new MenuIndex(restServer.getRestaurants()),
+                                    generator,
+                                    date -> {
+                                        synchronized (plannedDays) {
+                                            plannedDays.add(date);
+                                        }
+                                        return new DateSummary(date, 3, 2, 2, 100, 1_000_000);
+                                    }
+        );
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.close();
+        restServer.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                                 .method(method, body == null
+                                                 ? HttpRequest.BodyPublishers.noBody()
+                                                 : HttpRequest.BodyPublishers.ofString(body))
+                                 .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Order generateOrder(OrderValidationCode code) {
+        var generator = restServer.getOrderGenerator();
+        var date      = LocalDate.of(2023, 9, 1);
+        var order = code == OrderValidationCode.NO_ERROR
+                    ? generator.generateValidOrder(date, new Random(1))
+                    : generator.generateInvalidOrder(date, new Random(1), code);
+        order.setOrderNo(MockOrderGenerator.orderNumber(date, code.ordinal()));
+        return order;
+    }
+
+    public void testIsAlive() throws Exception {
+        var response = send("GET", "/isAlive", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("true", response.body());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+    }
+
+    public void testValidate() throws Exception {
+        var valid    = generateOrder(OrderValidationCode.NO_ERROR);
+        var response = send("POST", "/orders/validate", mapper.writeValueAsString(valid));
+        assertEquals(200, response.statusCode());
+        JsonNode body = mapper.readTree(response.body());
+        assertEquals(valid.getOrderNo(), body.get("orderNo").asText());
+        assertEquals("VALID_BUT_NOT_DELIVERED", body.get("orderStatus").asText());
+        assertEquals("NO_ERROR", body.get("orderValidationCode").asText());
+
+        var invalid = generateOrder(OrderValidationCode.CVV_INVALID);
+        body = mapper.readTree(send("POST", "/orders/validate", mapper.writeValueAsString(invalid)).body());
+        assertEquals("INVALID", body.get("orderStatus").asText());
+        assertEquals("CVV_INVALID", body.get("orderValidationCode").asText());
+    }
+
+    public void testPlan() throws Exception {
+        var valid    = generateOrder(OrderValidationCode.NO_ERROR);
+        var response = send("POST", "/orders/plan", mapper.writeValueAsString(valid));
+        assertEquals(200, response.statusCode());
+        JsonNode body = mapper.readTree(response.body());
+        assertEquals("DELIVERED", body.get("order").get("orderStatus").asText());
+        JsonNode flightPath = body.get("flightPath");
+        assertTrue(flightPath.size() > 0);
+        for (JsonNode move : flightPath)
+            assertEquals(valid.getOrderNo(), move.get("orderNo").asText());
+
+        var invalid = generateOrder(OrderValidationCode.PIZZA_NOT_DEFINED);
+        body = mapper.readTree(send("POST", "/orders/plan", mapper.writeValueAsString(invalid)).body());
+        assertEquals("INVALID", body.get("order").get("orderStatus").asText());
+        assertEquals(0, body.get("flightPath").size());
+    }
+
+    public void testPlanWritesNoConsoleOutput() throws Exception {
+        var         console  = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(console, true));
+        try {
+            var valid = generateOrder(OrderValidationCode.NO_ERROR);
+            assertEquals(200, send("POST", "/orders/plan", mapper.writeValueAsString(valid)).statusCode());
+        } finally {
+            System.setOut(original);
+        }
+        assertEquals(0, console.size());
+    }
+
+    public void testPlanDay() throws Exception {
+        var response = send("POST", "/days/2023-09-01", null);
+        assertEquals(200, response.statusCode());
+        JsonNode body = mapper.readTree(response.body());
+        assertEquals("2023-09-01", body.get("date").asText());
+        assertEquals(2, body.get("delivered").asInt());
+        assertEquals(List.of(LocalDate.of(2023, 9, 1)), plannedDays);
+
+        response = send("POST", "/days/2023-13-01", null);
+        assertEquals(400, response.statusCode());
+        assertTrue(mapper.readTree(response.body()).has("error"));
+        assertEquals(1, plannedDays.size());
+    }
+
+    public void testErrors() throws Exception {
+        var response = send("POST", "/orders/validate", "not an order");
+        assertEquals(400, response.statusCode());
+        assertTrue(mapper.readTree(response.body()).has("error"));
+
+        assertEquals(404, send("GET", "/unknown", null).statusCode());
+
+        response = send("GET", "/orders/plan", null);
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+        assertEquals(405, send("POST", "/isAlive", null).statusCode());
+    }
+}
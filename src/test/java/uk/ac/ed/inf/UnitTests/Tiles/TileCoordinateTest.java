@@ -0,0 +1,57 @@
+package uk.ac.ed.inf.UnitTests.Tiles;
+
+import junit.framework.TestCase;
+import uk.ac.ed.inf.Tiles.TileCoordinate;
+import uk.ac.ed.inf.Tiles.ZoomRange;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.nio.file.Path;
+
+public class TileCoordinateTest extends TestCase {
+    private final LngLat appletonTower = new LngLat(-3.186874, 55.944494);
+
+    public void testOf() {
+        assertEquals(new TileCoordinate(0, 0, 0), TileCoordinate.of(0, appletonTower));
+        // The tile of Appleton Tower at zoom 16.
+        assertEquals(new TileCoordinate(16, 32187, 20425), TileCoordinate.of(16, appletonTower));
+        assertEquals(new TileCoordinate(1, 1, 1), TileCoordinate.of(1, new LngLat(180, -90)));
+    }
+
+    public void testBoundsContainPoint() {
+        for (int zoom = 0; zoom <= TileCoordinate.MAX_ZOOM; zoom++) {
+            TileCoordinate tile = TileCoordinate.of(zoom, appletonTower);
+            assertTrue(tile.west() <= appletonTower.lng() && appletonTower.lng() < tile.east());
+            assertTrue(tile.south() < appletonTower.lat() && appletonTower.lat() <= tile.north());
+            assertEquals(tile.east() - tile.west(), tile.width(), 1e-9);
+        }
+    }
+
+    public void testPathAndParse() {
+        var tile = new TileCoordinate(16, 32188, 20451);
+        assertEquals(Path.of("tiles", "16", "32188", "20451.geojson"), tile.path(Path.of("tiles")));
+        assertEquals("16/32188/20451", tile.toString());
+        assertEquals(tile, TileCoordinate.parse(tile.toString()));
+    }
+
+    public void testInvalidTiles() {
+        for (String tile : new String[] { "1/2/0", "25/0/0", "-1/0/0", "1/0", "a/b/c" }) {
+            try {
+                TileCoordinate.parse(tile);
+                fail(tile);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    public void testZoomRange() {
+        assertEquals(new ZoomRange(12, 18), ZoomRange.parse("12-18"));
+        assertEquals(new ZoomRange(15, 15), ZoomRange.parse("15"));
+        for (String range : new String[] { "18-12", "0-25", "x", "1-2-3", "" }) {
+            try {
+                ZoomRange.parse(range);
+                fail(range);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package uk.ac.ed.inf.UnitTests.Tiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import uk.ac.ed.inf.FlightPaths.FlightPathNode;
+import uk.ac.ed.inf.FlightPaths.LngLatHandler;
+import uk.ac.ed.inf.Tiles.TileCoordinate;
+import uk.ac.ed.inf.Tiles.TilePyramidWriter;
+import uk.ac.ed.inf.Tiles.ZoomRange;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class TilePyramidWriterTest extends TestCase {
+    private final LocalDate    date   = LocalDate.of(2023, 9, 1);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Path              root;
+    private TilePyramidWriter writer;
+
+    @Override
+    protected void setUp() throws IOException {
+        root = Files.createTempDirectory("tile-pyramid-writer-test");
+        writer = new TilePyramidWriter(root, new ZoomRange(14, 17));
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    private FlightPathNode[] generateFlightPath(String orderNo, LngLat start, double angle, int moves) {
+        var handler = new LngLatHandler();
+        var path    = new ArrayList<FlightPathNode>();
+        var from    = start;
+        for (int i = 0; i < moves; i++) {
+            LngLat to = handler.nextPosition(from, angle);
+            path.add(new FlightPathNode(orderNo, from, angle, to));
+            from = to;
+        }
+        return path.toArray(FlightPathNode[]::new);
+    }
+
+    private Set<TileCoordinate> listTiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            var tiles = new HashSet<TileCoordinate>();
+            for (Path path : paths.filter(path -> path.toString().endsWith(TileCoordinate.EXTENSION)).toList()) {
+                Path relative = root.relativize(path);
+                tiles.add(TileCoordinate.parse(relative.toString().replace(relative.getFileSystem().getSeparator(), "/")
+                                                       .replace(TileCoordinate.EXTENSION, "")));
+            }
+            return tiles;
+        }
+    }
+
+    private List<String> readDates(TileCoordinate tile) throws IOException {
+        var dates = new ArrayList<String>();
+        for (JsonNode feature : mapper.readTree(tile.path(root).toFile()).path("features"))
+            dates.add(feature.path("properties").path("date").asText());
+        return dates;
+    }
+
+    public void testTilesCoverFlightPath() throws IOException {
+        FlightPathNode[]     flightPath = generateFlightPath("1", new LngLat(-3.19, 55.944), 0, 100);
+        Set<TileCoordinate> rewritten  = writer.addDay(date, flightPath);
+        assertEquals(listTiles(), rewritten);
+        for (FlightPathNode node : flightPath)
+            for (int zoom = 14; zoom <= 17; zoom++)
+                assertTrue(rewritten.contains(TileCoordinate.of(zoom, node.fromCoordinate())));
+    }
+
+    public void testLinesAreClippedAndSimplified() throws IOException {
+        // A straight line east across several tiles at zoom 17.
+        FlightPathNode[] flightPath = generateFlightPath("1", new LngLat(-3.19, 55.944), 0, 100);
+        writer.addDay(date, flightPath);
+        TileCoordinate tile = TileCoordinate.of(17, flightPath[50].fromCoordinate());
+        JsonNode feature = mapper.readTree(tile.path(root).toFile()).path("features").get(0);
+        assertEquals("1", feature.path("properties").path("orderNo").asText());
+        JsonNode line = feature.path("geometry").path("coordinates").get(0);
+        // The straight line is simplified to its ends, which are on the edges of the tile.
+        assertEquals(2, line.size());
+        assertEquals(tile.west(), line.get(0).get(0).asDouble(), 1e-6);
+        assertEquals(tile.east(), line.get(1).get(0).asDouble(), 1e-6);
+    }
+
+    public void testAddingDayOnlyRewritesItsTiles() throws IOException {
+        Set<TileCoordinate> first  = writer.addDay(date, generateFlightPath("1", new LngLat(-3.19, 55.944), 0, 50));
+        Set<TileCoordinate> second = writer.addDay(date.plusDays(1),
+                                                   generateFlightPath("2", new LngLat(-3.19, 55.944), 90, 50));
+        Set<TileCoordinate> shared = new HashSet<>(first);
+        shared.retainAll(second);
+        assertFalse(shared.isEmpty());
+        assertFalse(second.containsAll(first));
+        for (TileCoordinate tile : shared)
+            assertEquals(List.of(date.toString(), date.plusDays(1).toString()), readDates(tile));
+    }
+
+    public void testReaddingDayReplacesIt() throws IOException {
+        writer.addDay(date, generateFlightPath("1", new LngLat(-3.19, 55.944), 0, 100));
+        writer.addDay(date.plusDays(1), generateFlightPath("2", new LngLat(-3.19, 55.944), 90, 10));
+        Set<TileCoordinate> before = listTiles();
+
+        // Re-adding the first day with a shorter path removes it from the tiles it no longer reaches.
+        writer.addDay(date, generateFlightPath("1", new LngLat(-3.19, 55.944), 0, 5));
+        Set<TileCoordinate> after = listTiles();
+        assertTrue(before.containsAll(after));
+        assertTrue(after.size() < before.size());
+        for (TileCoordinate tile : after)
+            assertEquals(new HashSet<>(readDates(tile)).size(), readDates(tile).size());
+    }
+}